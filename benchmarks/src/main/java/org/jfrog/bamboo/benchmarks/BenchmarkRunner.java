@@ -0,0 +1,116 @@
+package org.jfrog.bamboo.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the benchmarks with allocation profiling, and compares the results to the checked-in baseline.
+ * Usage: BenchmarkRunner [benchmarks regular expression]
+ */
+public class BenchmarkRunner {
+    static final File RESULTS_FILE = new File("target", "jmh-result.json");
+    static final File BASELINE_FILE = new File("baseline", "jmh-result.json");
+    // Changes below this ratio are considered noise
+    private static final double REGRESSION_THRESHOLD = 0.1;
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        RESULTS_FILE.getParentFile().mkdirs();
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : ".*")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS_FILE.getPath())
+                .build();
+        new Runner(options).run();
+        if (!BASELINE_FILE.isFile()) {
+            System.out.println("No baseline found in " + BASELINE_FILE.getAbsolutePath());
+            return;
+        }
+        compare(readResults(BASELINE_FILE), readResults(RESULTS_FILE));
+    }
+
+    /**
+     * Prints the change of the score and the allocations of each benchmark, compared to the baseline.
+     * Benchmarks are compared with their baseline by name and parameters.
+     * <p>
+     * The threshold of each benchmark is the larger of {@link #REGRESSION_THRESHOLD} and the measured error of the
+     * baseline and the result, the sum of their 99.9% confidence intervals relative to the baseline score, so that
+     * a change is only reported as a regression if it can not be explained by the noise of the benchmark.
+     */
+    static void compare(Map<String, JsonNode> baseline, Map<String, JsonNode> results) {
+        System.out.println();
+        System.out.printf("%-90s %12s %12s %12s%n", "Benchmark", "Score", "Threshold", "Allocation");
+        for (Map.Entry<String, JsonNode> result : results.entrySet()) {
+            JsonNode base = baseline.get(result.getKey());
+            if (base == null) {
+                System.out.printf("%-90s %12s %12s %12s%n", result.getKey(), "new", "", "new");
+                continue;
+            }
+            JsonNode baseScore = base.path("primaryMetric");
+            JsonNode resultScore = result.getValue().path("primaryMetric");
+            JsonNode baseAllocation = base.path("secondaryMetrics").path(ALLOCATION_METRIC);
+            JsonNode resultAllocation = result.getValue().path("secondaryMetrics").path(ALLOCATION_METRIC);
+            double scoreChange = getChange(baseScore, resultScore);
+            double scoreThreshold = getThreshold(baseScore, resultScore);
+            double allocationChange = getChange(baseAllocation, resultAllocation);
+            // Scores are average times, so that a higher score is slower
+            boolean regression = scoreChange > scoreThreshold ||
+                    allocationChange > getThreshold(baseAllocation, resultAllocation);
+            System.out.printf("%-90s %+11.1f%% %11.1f%% %+11.1f%%%s%n", result.getKey(), scoreChange * 100,
+                    scoreThreshold * 100, allocationChange * 100, regression ? "  REGRESSION" : "");
+        }
+    }
+
+    private static double getChange(JsonNode base, JsonNode result) {
+        double baseScore = base.path("score").asDouble();
+        if (baseScore == 0) {
+            return 0;
+        }
+        return (result.path("score").asDouble() - baseScore) / baseScore;
+    }
+
+    private static double getThreshold(JsonNode base, JsonNode result) {
+        double baseScore = base.path("score").asDouble();
+        if (baseScore == 0) {
+            return REGRESSION_THRESHOLD;
+        }
+        double error = getError(base) + getError(result);
+        return Math.max(REGRESSION_THRESHOLD, error / baseScore);
+    }
+
+    /**
+     * @return The half width of the confidence interval of the score, or 0 if it could not be calculated, e.g. for a
+     * single measurement.
+     */
+    private static double getError(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    /**
+     * @return The results by benchmark name and parameters.
+     */
+    static Map<String, JsonNode> readResults(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            String name = result.path("benchmark").asText().replace(BenchmarkRunner.class.getPackage().getName() + ".", "");
+            results.put(params.isEmpty() ? name : name + " " + params, result);
+        }
+        return results;
+    }
+}
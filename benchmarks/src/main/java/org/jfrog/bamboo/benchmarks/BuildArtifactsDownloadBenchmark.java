@@ -0,0 +1,111 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.bamboo.util.generic.BuildArtifactsDownloader;
+import org.jfrog.bamboo.util.generic.DependenciesDownloaderImpl;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.Spec;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.SpecsHelper;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.validator.SearchBasedSpecValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The download of the artifacts of a published build from an Artifactory stand-in with a fixed latency per request,
+ * to an empty directory. Either the artifacts are taken from the build-info, or they are searched for with AQL by
+ * their build properties, as done by a File Spec.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class BuildArtifactsDownloadBenchmark {
+    private static final String REPO = "libs-release-local";
+    private static final String BUILD_NAME = "source-build";
+    private static final String BUILD_NUMBER = "1";
+    private static final int ARTIFACT_SIZE = 64 * 1024;
+    private static final long LATENCY_MILLIS = 20;
+    private static final Log LOG = new NullLog();
+
+    @Param({"10", "100"})
+    public int artifacts;
+
+    private ArtifactoryStandIn artifactory;
+    private ArtifactoryBuildInfoClient buildInfoClient;
+    private ArtifactoryDependenciesClient dependenciesClient;
+    private File targetDir;
+    private Spec spec;
+
+    @Setup
+    public void setUp() throws IOException {
+        artifactory = new ArtifactoryStandIn().withLatency(LATENCY_MILLIS).withRepository(REPO).start();
+        buildInfoClient = new ArtifactoryBuildInfoClient(artifactory.getUrl(), "", "", LOG);
+        dependenciesClient = new ArtifactoryDependenciesClient(artifactory.getUrl(), "", "", LOG);
+        targetDir = Files.createTempDirectory("build-artifacts-download").toFile();
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("build.name", BUILD_NAME);
+        properties.put("build.number", BUILD_NUMBER);
+        Random random = new Random(0);
+        List<Artifact> buildArtifacts = new ArrayList<>();
+        for (int i = 0; i < artifacts; i++) {
+            byte[] content = new byte[ARTIFACT_SIZE];
+            random.nextBytes(content);
+            String path = "dist/1.0/artifact-" + i + ".bin";
+            artifactory.addFile(REPO, path, content, properties);
+            buildArtifacts.add(new ArtifactBuilder("artifact-" + i + ".bin").remotePath(path)
+                    .sha1(DigestUtils.sha1Hex(content)).md5(DigestUtils.md5Hex(content)).build());
+        }
+        Build build = new BuildInfoBuilder(BUILD_NAME).number(BUILD_NUMBER).started("2020-01-01T00:00:00.000+0000")
+                .modules(Collections.singletonList(new ModuleBuilder().id("dist").artifacts(buildArtifacts).build())).build();
+        buildInfoClient.sendBuildInfo(build, null);
+        spec = new SpecsHelper(LOG).getSpecFromString("{\"files\": [{\"pattern\": \"" + REPO + "/dist/1.0/*\", " +
+                "\"props\": \"build.name=" + BUILD_NAME + ";build.number=" + BUILD_NUMBER + "\", \"flat\": \"false\"}]}",
+                new SearchBasedSpecValidator());
+    }
+
+    /**
+     * Files that are already up to date are not downloaded again, start every download from an empty directory.
+     */
+    @Setup(Level.Invocation)
+    public void cleanTargetDir() throws IOException {
+        FileUtils.cleanDirectory(targetDir);
+    }
+
+    @TearDown
+    public void tearDown() {
+        buildInfoClient.close();
+        dependenciesClient.close();
+        artifactory.close();
+        FileUtils.deleteQuietly(targetDir);
+    }
+
+    @Benchmark
+    public List<Dependency> buildInfo() throws IOException {
+        Build build = BuildArtifactsDownloader.getBuild(buildInfoClient, BUILD_NAME, BUILD_NUMBER);
+        return new BuildArtifactsDownloader(dependenciesClient, targetDir, LOG).download(build, REPO);
+    }
+
+    @Benchmark
+    public List<Dependency> aqlSearch() throws IOException {
+        return new DependenciesDownloaderImpl(dependenciesClient, targetDir, LOG).download(spec);
+    }
+}
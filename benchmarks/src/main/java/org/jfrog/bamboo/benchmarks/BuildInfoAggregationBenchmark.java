@@ -0,0 +1,83 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.jfrog.bamboo.util.AggregatedBuildsPublisher;
+import org.jfrog.bamboo.util.TaskUtils;
+import org.jfrog.bamboo.util.generic.GenericData;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.Module;
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.DependencyBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.extractor.BuildInfoExtractorUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The aggregation of the task's build-info into the plan's build-infos, done at the end of every Artifactory task,
+ * and the merge of the aggregated build-infos done by a Publish Build Info task that publishes all of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class BuildInfoAggregationBenchmark {
+    private static final int MODULES_PER_BUILD = 5;
+
+    // Build-infos already aggregated in the plan
+    @Param({"1", "10", "50"})
+    public int builds;
+
+    @Param({"10", "100"})
+    public int artifactsPerModule;
+
+    private String aggregatedBuildInfo;
+    private Build taskBuildInfo;
+
+    @Setup
+    public void setUp() throws IOException {
+        aggregatedBuildInfo = null;
+        for (int i = 0; i < builds; i++) {
+            // Half of the builds share their name and number with another build
+            aggregatedBuildInfo = TaskUtils.appendBuildInfo(aggregatedBuildInfo, createBuild("build-" + i % Math.max(1, builds / 2), i));
+        }
+        taskBuildInfo = createBuild("task-build", builds);
+    }
+
+    @Benchmark
+    public String appendBuildInfo() throws IOException {
+        return TaskUtils.appendBuildInfo(aggregatedBuildInfo, taskBuildInfo);
+    }
+
+    @Benchmark
+    public List<Build> mergeAggregatedBuilds() throws IOException {
+        GenericData genericData = BuildInfoExtractorUtils.jsonStringToGeneric(aggregatedBuildInfo, GenericData.class);
+        return AggregatedBuildsPublisher.mergeBuilds(genericData.getBuilds());
+    }
+
+    private Build createBuild(String name, int index) {
+        List<Module> modules = new ArrayList<>();
+        for (int i = 0; i < MODULES_PER_BUILD; i++) {
+            List<Artifact> artifacts = new ArrayList<>();
+            List<Dependency> dependencies = new ArrayList<>();
+            for (int j = 0; j < artifactsPerModule; j++) {
+                String sha1 = String.format("%040x", (long) index * 1_000_000 + i * 1_000 + j);
+                artifacts.add(new ArtifactBuilder("artifact-" + j + ".jar").type("jar").sha1(sha1)
+                        .md5(sha1.substring(0, 32)).remotePath("org/example/module-" + i + "/1.0/artifact-" + j + ".jar").build());
+                dependencies.add(new DependencyBuilder().id("org.example:dependency-" + j + ":1.0").type("jar").sha1(sha1)
+                        .md5(sha1.substring(0, 32)).build());
+            }
+            modules.add(new ModuleBuilder().id("org.example:module-" + i + ":" + index)
+                    .artifacts(artifacts).dependencies(dependencies).build());
+        }
+        return new BuildInfoBuilder(name).number("1").started("2020-01-01T00:00:00.000+0000").modules(modules).build();
+    }
+}
@@ -0,0 +1,50 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.jfrog.bamboo.security.EncryptionHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The encryption of configuration values, and their decryption by the tasks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class EncryptionBenchmark {
+
+    // Passwords are short, access tokens are long
+    @Param({"16", "1024"})
+    public int length;
+
+    private String value;
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        value = builder.toString();
+        encrypted = EncryptionHelper.encryptForConfig(value);
+    }
+
+    @Benchmark
+    public String encryptForConfig() {
+        return EncryptionHelper.encryptForConfig(value);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return EncryptionHelper.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String decryptIfNeededPlainValue() {
+        return EncryptionHelper.decryptIfNeeded(value);
+    }
+}
@@ -0,0 +1,63 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.jfrog.bamboo.builder.BuildInfoHelper;
+import org.jfrog.bamboo.context.PackageManagersContext;
+import org.jfrog.bamboo.util.TaskUtils;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The escaping of the Bamboo environment variables, and their filtering into the build-info, done by every task that
+ * collects environment variables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class EnvVarsBenchmark {
+
+    @Param({"50", "500", "2000"})
+    public int envVars;
+
+    private Map<String, String> env;
+    private Map<String, String> escapedEnv;
+
+    @Setup
+    public void setUp() {
+        env = new HashMap<>();
+        for (int i = 0; i < envVars; i++) {
+            switch (i % 4) {
+                case 0:
+                    env.put("bamboo_planRepository_" + i + "_branchName", "feature/branch-" + i);
+                    break;
+                case 1:
+                    env.put("bamboo_variable_" + i + "_password", "password-" + i);
+                    break;
+                case 2:
+                    env.put("bamboo_buildInfo_property_" + i, "value-" + i);
+                    break;
+                default:
+                    env.put("ENV_VARIABLE_" + i, "/usr/local/bin:/usr/bin:/bin:" + i);
+            }
+        }
+        escapedEnv = TaskUtils.getEscapedEnvMap(env);
+    }
+
+    @Benchmark
+    public Map<String, String> getEscapedEnvMap() {
+        return TaskUtils.getEscapedEnvMap(env);
+    }
+
+    @Benchmark
+    public BuildInfoBuilder filterEnvVars() {
+        BuildInfoBuilder builder = new BuildInfoBuilder("build");
+        BuildInfoHelper.addPropertiesToBuildInfoBuilder(escapedEnv, "", PackageManagersContext.ENV_VARS_TO_EXCLUDE, builder);
+        return builder;
+    }
+}
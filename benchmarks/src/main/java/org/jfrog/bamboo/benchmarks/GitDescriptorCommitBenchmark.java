@@ -0,0 +1,66 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.jfrog.bamboo.release.vcs.git.GitManager;
+import org.jfrog.bamboo.standin.BambooStandIns;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The commit of the release descriptor and its revert on rollback, on a generated working tree with many files.
+ * Either only the descriptor is committed and reverted, as done when the release provider reports its descriptors, or
+ * the whole working copy is committed and hard reset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class GitDescriptorCommitBenchmark {
+    private static final List<String> DESCRIPTORS = Collections.singletonList(GitRepositoryGenerator.DESCRIPTOR);
+
+    @Param({"20000", "200000"})
+    public int files;
+
+    @Param({"true", "false"})
+    public boolean descriptorsOnly;
+
+    private File checkoutDirectory;
+    private GitManager manager;
+    private String baseCommit;
+
+    @Setup
+    public void setUp() throws IOException, GitAPIException {
+        checkoutDirectory = Files.createTempDirectory("git-descriptor-commit").toFile();
+        GitRepositoryGenerator.generate(checkoutDirectory, files, 0);
+        manager = new GitManager(BambooStandIns.buildContext(checkoutDirectory), BambooStandIns.buildLogger());
+        baseCommit = manager.getCurrentCommitHash();
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+        FileUtils.deleteQuietly(checkoutDirectory);
+    }
+
+    @Benchmark
+    public String commitAndRevert() throws Exception {
+        GitRepositoryGenerator.writeDescriptor(checkoutDirectory, "1.0");
+        if (descriptorsOnly) {
+            manager.commitFiles("Release 1.0", DESCRIPTORS);
+            manager.revertFiles(baseCommit, DESCRIPTORS);
+        } else {
+            manager.commitWorkingCopy("Release 1.0");
+            manager.revertWorkingCopy(baseCommit);
+        }
+        return baseCommit;
+    }
+}
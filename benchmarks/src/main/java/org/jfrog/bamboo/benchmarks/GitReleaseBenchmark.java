@@ -0,0 +1,86 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.jfrog.bamboo.release.vcs.git.GitManager;
+import org.jfrog.bamboo.standin.BambooStandIns;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The local Git operations of a release, on a generated repository with many packed tags: resolving the checkout
+ * commit and branch, creating the release branch, committing the release descriptor and tagging it, then rolling all
+ * of it back. The operations either share the repository session, as done by the release, or reopen the repository
+ * for every operation. Opening the repository is dominated by reading the packed refs, so the working tree is kept
+ * small, so that its checkout and commit do not hide the cost of the sessions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class GitReleaseBenchmark {
+    private static final int FILES = 1000;
+    private static final List<String> DESCRIPTORS = Collections.singletonList(GitRepositoryGenerator.DESCRIPTOR);
+    private static final String RELEASE_BRANCH = "release-1.0";
+    private static final String RELEASE_TAG = "v1.0";
+
+    @Param({"2000", "50000"})
+    public int tags;
+
+    @Param({"true", "false"})
+    public boolean sharedSession;
+
+    private File checkoutDirectory;
+    private GitManager manager;
+
+    @Setup
+    public void setUp() throws IOException, GitAPIException {
+        checkoutDirectory = Files.createTempDirectory("git-release").toFile();
+        GitRepositoryGenerator.generate(checkoutDirectory, FILES, tags);
+        manager = new GitManager(BambooStandIns.buildContext(checkoutDirectory), BambooStandIns.buildLogger());
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+        FileUtils.deleteQuietly(checkoutDirectory);
+    }
+
+    @Benchmark
+    public String release() throws Exception {
+        String commit = manager.getCurrentCommitHash();
+        endOperation();
+        String branch = manager.getCurrentBranch();
+        endOperation();
+        manager.checkoutBranch(RELEASE_BRANCH, true);
+        endOperation();
+        GitRepositoryGenerator.writeDescriptor(checkoutDirectory, "1.0");
+        manager.commitFiles("Release 1.0", DESCRIPTORS);
+        endOperation();
+        manager.createTag(RELEASE_TAG, "Release 1.0");
+        endOperation();
+        manager.checkoutBranch(branch, false);
+        endOperation();
+        manager.deleteLocalTag(RELEASE_TAG);
+        endOperation();
+        manager.deleteLocalBranch(RELEASE_BRANCH);
+        endOperation();
+        manager.revertFiles(commit, DESCRIPTORS);
+        manager.close();
+        return commit;
+    }
+
+    private void endOperation() {
+        if (!sharedSession) {
+            manager.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Generates a Git working copy with a single commit of many source files and a Maven descriptor, and many packed tags.
+ */
+class GitRepositoryGenerator {
+    static final String DESCRIPTOR = "pom.xml";
+    private static final int FILES_PER_DIRECTORY = 1000;
+
+    static void generate(File directory, int files, int tags) throws IOException, GitAPIException {
+        try (Git git = Git.init().setDirectory(directory).call()) {
+            for (int i = 0; i < files; i++) {
+                File file = new File(directory, "src/dir-" + i / FILES_PER_DIRECTORY + "/File" + i + ".java");
+                if (i % FILES_PER_DIRECTORY == 0) {
+                    Files.createDirectories(file.getParentFile().toPath());
+                }
+                Files.write(file.toPath(), ("class File" + i + " {}").getBytes(StandardCharsets.UTF_8));
+            }
+            writeDescriptor(directory, "1.0-SNAPSHOT");
+            git.add().addFilepattern(".").call();
+            ObjectId commit = git.commit().setMessage("Initial commit").call();
+            // The packed tags of previous releases
+            StringBuilder packedRefs = new StringBuilder("# pack-refs with: peeled fully-peeled \n");
+            for (int i = 0; i < tags; i++) {
+                packedRefs.append(commit.getName()).append(" refs/tags/v0.").append(i).append('\n');
+            }
+            Files.write(new File(git.getRepository().getDirectory(), Constants.PACKED_REFS).toPath(),
+                    packedRefs.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    static void writeDescriptor(File directory, String version) throws IOException {
+        Files.write(new File(directory, DESCRIPTOR).toPath(),
+                ("<project><version>" + version + "</version></project>").getBytes(StandardCharsets.UTF_8));
+    }
+}
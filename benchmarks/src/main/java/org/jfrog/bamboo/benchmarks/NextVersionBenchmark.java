@@ -0,0 +1,44 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.jfrog.bamboo.context.GradleBuildContext;
+import org.jfrog.bamboo.util.version.VersionHelper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The calculation of the next development versions of the released modules, done by the release management.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class NextVersionBenchmark {
+    private static final String[] VERSION_FORMATS = {"%d.0.0-SNAPSHOT", "2.1.%d", "2.1.1-%d", "%d", "1.%d-beta"};
+
+    @Param({"1", "50"})
+    public int modules;
+
+    private VersionHelper versionHelper;
+    private String[] versions;
+
+    @Setup
+    public void setUp() {
+        versionHelper = VersionHelper.getHelperAccordingToType(new GradleBuildContext(new HashMap<>()), null);
+        versions = new String[modules];
+        for (int i = 0; i < modules; i++) {
+            versions[i] = String.format(VERSION_FORMATS[i % VERSION_FORMATS.length], i);
+        }
+    }
+
+    @Benchmark
+    public void calculateNextVersion(Blackhole blackhole) {
+        for (String version : versions) {
+            blackhole.consume(versionHelper.calculateNextVersion(version));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.jfrog.bamboo.util.ProxyUtils;
+import org.jfrog.build.client.ProxyConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The proxy resolution done for every client created by the tasks.
+ * The Artifactory URL does not match any of the non proxy hosts, so that all of them are checked.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ProxyResolutionBenchmark {
+    private static final String ARTIFACTORY_URL = "https://artifactory.example.com/artifactory";
+
+    @Param({"1", "10", "100"})
+    public int nonProxyHosts;
+
+    @Setup
+    public void setUp() {
+        StringBuilder hosts = new StringBuilder("localhost");
+        for (int i = 1; i < nonProxyHosts; i++) {
+            hosts.append(i % 2 == 0 ? "|host-" + i + ".example.org" : "|*.internal-" + i + ".example.org");
+        }
+        System.setProperty("http.proxyHost", "proxy.example.com");
+        System.setProperty("http.proxyPort", "8080");
+        System.setProperty("http.nonProxyHosts", hosts.toString());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.clearProperty("http.proxyHost");
+        System.clearProperty("http.proxyPort");
+        System.clearProperty("http.nonProxyHosts");
+    }
+
+    @Benchmark
+    public ProxyConfiguration getProxyConfiguration() {
+        return ProxyUtils.getProxyConfiguration(ARTIFACTORY_URL);
+    }
+}
@@ -0,0 +1,124 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.bamboo.util.generic.ResolvePatternsPlanner;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.jfrog.build.extractor.clientConfiguration.util.AntPatternsDependenciesHelper;
+import org.jfrog.build.extractor.clientConfiguration.util.DependenciesDownloader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The searches of the legacy resolve patterns against an Artifactory stand-in with a fixed latency per request, without
+ * the downloads. Each pattern line matches a single artifact, and the lines are spread over two repositories.
+ * Either every line is searched by its own pattern search, one after the other, as done by the build-info
+ * AntPatternsDependenciesHelper, or the lines are merged into an AQL query per repository by the
+ * {@link ResolvePatternsPlanner}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ResolvePatternsBenchmark {
+    private static final String[] REPOSITORIES = {"libs-release-local", "libs-snapshot-local"};
+    private static final long LATENCY_MILLIS = 20;
+    private static final Log LOG = new NullLog();
+
+    @Param({"10", "50"})
+    public int patterns;
+
+    private ArtifactoryStandIn artifactory;
+    private ArtifactoryDependenciesClient client;
+    private List<String> patternLines;
+
+    @Setup
+    public void setUp() throws IOException {
+        artifactory = new ArtifactoryStandIn().withLatency(LATENCY_MILLIS).start();
+        client = new ArtifactoryDependenciesClient(artifactory.getUrl(), "", "", LOG);
+        patternLines = new ArrayList<>();
+        for (int i = 0; i < patterns; i++) {
+            String repository = REPOSITORIES[i % REPOSITORIES.length];
+            String path = "org/acme/module-" + i + "/1.0/module-" + i + "-1.0.jar";
+            artifactory.addFile(repository, path, ("module-" + i).getBytes(StandardCharsets.UTF_8), Collections.emptyMap());
+            patternLines.add(repository + ":org/acme/module-" + i + "/1.0/*.jar=>libs");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        artifactory.close();
+    }
+
+    @Benchmark
+    public int patternSearches() throws IOException, InterruptedException {
+        SearchOnlyDownloader downloader = new SearchOnlyDownloader(client);
+        new AntPatternsDependenciesHelper(downloader, LOG).retrievePublishedDependencies(StringUtils.join(patternLines, "\n"));
+        return downloader.artifacts;
+    }
+
+    @Benchmark
+    public int plannedQueries() throws IOException {
+        return new ResolvePatternsPlanner(client, LOG).collectArtifactsToDownload(patternLines).size();
+    }
+
+    /**
+     * Records the artifacts found by the searches instead of downloading them.
+     */
+    private static class SearchOnlyDownloader implements DependenciesDownloader {
+        private final ArtifactoryDependenciesClient client;
+        private int artifacts;
+
+        SearchOnlyDownloader(ArtifactoryDependenciesClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public ArtifactoryDependenciesClient getClient() {
+            return client;
+        }
+
+        @Override
+        public List<Dependency> download(Set<DownloadableArtifact> downloadableArtifacts) {
+            artifacts = downloadableArtifacts.size();
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getTargetDir(String targetDir, String relativeDir) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, String> saveDownloadedFile(InputStream is, String filePath) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isFileExistsLocally(String filePath, String md5, String sha1) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeUnusedArtifactsFromLocal(Set<String> allResolvesFiles, Set<String> forDeletionFiles) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setFlatDownload(boolean flat) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.jfrog.bamboo.benchmarks;
+
+import com.atlassian.bandana.BandanaManager;
+import org.jfrog.bamboo.admin.ServerConfig;
+import org.jfrog.bamboo.admin.ServerConfigManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The parsing of the Artifactory servers configuration stored in Bandana, done whenever a server config manager is
+ * created.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ServerConfigParsingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int servers;
+
+    private BandanaManager bandanaManager;
+
+    @Setup
+    public void setUp() {
+        // Let the server config manager store the configuration, to parse the same XML as in Bamboo
+        AtomicReference<Object> storedConfig = new AtomicReference<>();
+        ServerConfigManager serverConfigManager = new ServerConfigManager();
+        serverConfigManager.setBandanaManager(createBandanaManager(storedConfig));
+        for (int i = 0; i < servers; i++) {
+            serverConfigManager.addServerConfiguration(new ServerConfig(0, "https://artifactory-" + i + ".example.com/artifactory",
+                    "user-" + i, "password-" + i, 300));
+        }
+        bandanaManager = createBandanaManager(storedConfig);
+    }
+
+    @Benchmark
+    public List<ServerConfig> loadServerConfigs() {
+        ServerConfigManager serverConfigManager = new ServerConfigManager();
+        serverConfigManager.setBandanaManager(bandanaManager);
+        return serverConfigManager.getAllServerConfigs();
+    }
+
+    /**
+     * @return A Bandana manager storing a single value.
+     */
+    private static BandanaManager createBandanaManager(AtomicReference<Object> value) {
+        return (BandanaManager) Proxy.newProxyInstance(BandanaManager.class.getClassLoader(), new Class[]{BandanaManager.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getValue":
+                            return value.get();
+                        case "setValue":
+                            value.set(args[2]);
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
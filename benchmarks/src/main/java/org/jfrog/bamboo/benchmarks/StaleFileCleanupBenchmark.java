@@ -0,0 +1,60 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.bamboo.util.generic.DependenciesDownloaderImpl;
+import org.jfrog.build.api.util.NullLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cleanup of the files that were not resolved, done after a generic resolve by a pattern with the delete flag.
+ * All the local files are resolved, so the benchmark measures the matching of the local files with the resolved files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class StaleFileCleanupBenchmark {
+    private static final int FILES_PER_DIRECTORY = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    public int files;
+
+    private File workingDirectory;
+    private DependenciesDownloaderImpl downloader;
+    private Set<String> resolvedFiles;
+
+    @Setup
+    public void setUp() throws IOException {
+        workingDirectory = Files.createTempDirectory("stale-file-cleanup").toFile();
+        downloader = new DependenciesDownloaderImpl(null, workingDirectory, new NullLog());
+        resolvedFiles = new HashSet<>();
+        for (int i = 0; i < files; i++) {
+            File file = new File(workingDirectory, "libs/dir-" + i / FILES_PER_DIRECTORY + "/artifact-" + i + ".jar");
+            if (i % FILES_PER_DIRECTORY == 0) {
+                Files.createDirectories(file.getParentFile().toPath());
+            }
+            Files.createFile(file.toPath());
+            resolvedFiles.add(file.getPath());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtils.deleteQuietly(workingDirectory);
+    }
+
+    @Benchmark
+    public Set<String> removeUnusedArtifactsFromLocal() throws IOException {
+        downloader.removeUnusedArtifactsFromLocal(resolvedFiles, resolvedFiles);
+        return resolvedFiles;
+    }
+}
@@ -0,0 +1,57 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.jfrog.bamboo.util.TaskPhaseTimings;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The phase timing done by the tasks around their client creation, transfers, external processes and build-info
+ * handling, and the storage of the timings in the job result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class TaskPhaseTimingsBenchmark {
+
+    private TaskPhaseTimings timings;
+    private String jobTimings;
+
+    @Setup
+    public void setUp() {
+        timings = new TaskPhaseTimings("Deploy the artifacts");
+        for (Phase phase : Phase.values()) {
+            timings.stop(phase, timings.start());
+            timings.addBytes(phase, 1024 * 1024);
+            timings.addItems(phase, 100);
+        }
+        // The timings of the previous tasks of a job with 10 tasks
+        for (int i = 0; i < 9; i++) {
+            jobTimings = TaskPhaseTimings.append(jobTimings, timings);
+        }
+    }
+
+    @Benchmark
+    public TaskPhaseTimings measurePhase() {
+        long start = timings.start();
+        timings.stop(Phase.TRANSFER, start);
+        timings.addBytes(Phase.TRANSFER, 1024);
+        timings.addItems(Phase.TRANSFER, 1);
+        return timings;
+    }
+
+    @Benchmark
+    public String appendToJobTimings() {
+        return TaskPhaseTimings.append(jobTimings, timings);
+    }
+
+    @Benchmark
+    public List<TaskPhaseTimings> parseJobTimings() {
+        return TaskPhaseTimings.parse(jobTimings);
+    }
+}
@@ -0,0 +1,46 @@
+package org.jfrog.bamboo.benchmarks;
+
+import org.jfrog.bamboo.util.TaskPhaseTimings;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
+import org.jfrog.bamboo.util.TaskTrace;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the tracing of the task phases, which must be negligible when the tracing is disabled, compared to
+ * {@link TaskPhaseTimingsBenchmark#measurePhase()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class TaskTraceBenchmark {
+
+    private TaskPhaseTimings untracedTimings;
+    private TaskPhaseTimings tracedTimings;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        untracedTimings = new TaskPhaseTimings("Deploy the artifacts");
+        tracedTimings = new TaskPhaseTimings("Deploy the artifacts");
+        tracedTimings.setTrace(new TaskTrace(tracedTimings.getTaskName()));
+    }
+
+    @Benchmark
+    public TaskPhaseTimings measurePhaseTracingDisabled() {
+        untracedTimings.stop(Phase.TRANSFER, untracedTimings.start());
+        return untracedTimings;
+    }
+
+    /**
+     * Once the trace is full, the spans are dropped, so this measures the cost of the dropping as well.
+     */
+    @Benchmark
+    public TaskPhaseTimings measurePhaseTracingEnabled() {
+        tracedTimings.stop(Phase.TRANSFER, tracedTimings.start());
+        return tracedTimings;
+    }
+}
@@ -0,0 +1,142 @@
+package org.jfrog.bamboo.issues;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.jfrog.build.api.Issues;
+import org.jfrog.build.api.IssuesCollectionConfig;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.executor.CommandExecutor;
+import org.jfrog.build.extractor.executor.CommandResults;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The collection of the build issues on a generated repository with a long linear history, of which every other
+ * commit references an issue. The previous build is the first commit, so that the whole history is in range.
+ * <ul>
+ * <li>gitLog: 'git log' in a subprocess and the issues pattern matched against its output, as done by the build-info
+ * IssuesCollector once it has the previous build revision.</li>
+ * <li>fullWalk: the in-process walk without a cursor, as in the first build of a plan branch on an agent.</li>
+ * <li>incremental: the in-process walk from a cursor {@link #NEW_COMMITS} commits behind the head.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class IssuesCollectionBenchmark {
+    private static final String CONFIG = "{\"version\": 1, \"issues\": {\"trackerName\": \"JIRA\", " +
+            "\"regexp\": \"([A-Z]+-[0-9]+)\\s-\\s(.+)\", \"keyGroupIndex\": 1, \"summaryGroupIndex\": 2, " +
+            "\"trackerUrl\": \"http://jira.example.com/browse\", \"aggregate\": false, \"aggregationStatus\": \"RELEASED\"}}";
+    private static final String CURSOR_KEY = IssuesCollectionCursors.getKey("PROJ-PLAN-JOB1", "git@example.com:repo.git", CONFIG);
+    private static final int NEW_COMMITS = 10;
+    private static final long START_MILLIS = 1577836800000L;
+    private static final Log LOG = new NullLog();
+
+    @Param({"1000", "10000"})
+    public int commits;
+
+    private File directory;
+    private File checkoutDirectory;
+    private File cursorsFile;
+    private File baseCursorsFile;
+    private File emptyCursorsFile;
+    private IssuesCollectionConfig config;
+    private String previousRevision;
+
+    @Setup
+    public void setUp() throws IOException, GitAPIException {
+        directory = Files.createTempDirectory("issues-collection").toFile();
+        checkoutDirectory = new File(directory, "repo");
+        cursorsFile = new File(directory, "cursors.properties");
+        baseCursorsFile = new File(directory, "base-cursors.properties");
+        emptyCursorsFile = new File(directory, "empty-cursors.properties");
+        config = IncrementalIssuesCollector.parseConfig(CONFIG);
+        try (Git git = Git.init().setDirectory(checkoutDirectory).call()) {
+            previousRevision = commit(git, 0).getName();
+            for (int i = 1; i < commits - NEW_COMMITS; i++) {
+                commit(git, i);
+            }
+            // The cursor of the previous collection on the agent
+            new IncrementalIssuesCollector(new IssuesCollectionCursors(baseCursorsFile))
+                    .collectIssues(checkoutDirectory, config, CURSOR_KEY, previousRevision, LOG);
+            for (int i = commits - NEW_COMMITS; i < commits; i++) {
+                commit(git, i);
+            }
+        }
+    }
+
+    /**
+     * Every collection records a cursor at the head, restore the cursors before it.
+     */
+    @Setup(Level.Invocation)
+    public void restoreCursors() throws IOException {
+        Files.copy(baseCursorsFile.toPath(), cursorsFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(emptyCursorsFile.toPath());
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Benchmark
+    public Set<String> gitLog() throws IOException, InterruptedException {
+        CommandResults results = new CommandExecutor("git", null).exeCommand(checkoutDirectory,
+                new ArrayList<>(Arrays.asList("log", "--pretty=format:%s", "-100", previousRevision + "..")), null, LOG);
+        if (!results.isOk()) {
+            throw new IOException(results.getErr());
+        }
+        Set<String> keys = new HashSet<>();
+        Pattern pattern = Pattern.compile(config.getIssues().getRegexp());
+        for (String subject : results.getRes().split("\\R")) {
+            Matcher matcher = pattern.matcher(subject);
+            if (matcher.find()) {
+                keys.add(matcher.group(config.getIssues().getKeyGroupIndex()));
+            }
+        }
+        return keys;
+    }
+
+    @Benchmark
+    public Issues fullWalk() throws IOException {
+        return new IncrementalIssuesCollector(new IssuesCollectionCursors(emptyCursorsFile))
+                .collectIssues(checkoutDirectory, config, CURSOR_KEY, previousRevision, LOG);
+    }
+
+    @Benchmark
+    public Issues incremental() throws IOException {
+        return new IncrementalIssuesCollector(new IssuesCollectionCursors(cursorsFile))
+                .collectIssues(checkoutDirectory, config, CURSOR_KEY, previousRevision, LOG);
+    }
+
+    /**
+     * The commits are a minute apart. JGit stops walking past the excluded commits by their commit times, commits
+     * created within the same second would have the walk carry on to the root.
+     */
+    private static RevCommit commit(Git git, int index) throws GitAPIException {
+        String message = index % 2 == 0 ? "ABC-" + index + " - Fix number " + index : "Unrelated change " + index;
+        PersonIdent ident = new PersonIdent("Developer", "developer@example.com",
+                new Date(START_MILLIS + TimeUnit.MINUTES.toMillis(index)), TimeZone.getTimeZone("UTC"));
+        return git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).setAllowEmpty(true).call();
+    }
+}
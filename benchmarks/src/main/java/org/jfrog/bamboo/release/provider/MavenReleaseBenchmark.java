@@ -0,0 +1,107 @@
+package org.jfrog.bamboo.release.provider;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.extractor.maven.reader.ModuleName;
+import org.jfrog.build.extractor.maven.reader.ProjectReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Maven release version changes on a generated multi-module project: reading the reactor, which is done once per
+ * release build, and transforming the POMs of all the modules, done on a thread pool for the release version and again
+ * for the next development version. The pool lives as long as the provider of the release.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class MavenReleaseBenchmark {
+    private static final String GROUP_ID = "org.example";
+    // Every module depends on the previous modules, up to this number
+    private static final int DEPENDENCIES_PER_MODULE = 10;
+
+    @Param({"10", "200"})
+    public int modules;
+
+    @Param({"1", "8"})
+    public int threads;
+
+    private File projectDirectory;
+    private File rootPom;
+    private List<Map.Entry<ModuleName, File>> entries;
+    private final Map<ModuleName, String> releaseVersions = new HashMap<>();
+    private final Map<ModuleName, String> developmentVersions = new HashMap<>();
+    private ExecutorService executor;
+    private boolean release;
+
+    @Setup
+    public void setUp() throws IOException {
+        projectDirectory = Files.createTempDirectory("maven-release").toFile();
+        StringBuilder moduleElements = new StringBuilder();
+        for (int i = 0; i < modules; i++) {
+            moduleElements.append("<module>module-").append(i).append("</module>");
+            StringBuilder dependencies = new StringBuilder();
+            for (int j = Math.max(0, i - DEPENDENCIES_PER_MODULE); j < i; j++) {
+                dependencies.append("<dependency><groupId>").append(GROUP_ID).append("</groupId><artifactId>module-")
+                        .append(j).append("</artifactId><version>1.0-SNAPSHOT</version></dependency>");
+            }
+            writePom(new File(projectDirectory, "module-" + i), "<parent><groupId>" + GROUP_ID +
+                    "</groupId><artifactId>root</artifactId><version>1.0-SNAPSHOT</version></parent>" +
+                    "<artifactId>module-" + i + "</artifactId><dependencies>" + dependencies + "</dependencies>");
+        }
+        rootPom = writePom(projectDirectory, "<groupId>" + GROUP_ID + "</groupId><artifactId>root</artifactId>" +
+                "<version>1.0-SNAPSHOT</version><packaging>pom</packaging><modules>" + moduleElements + "</modules>");
+
+        Map<ModuleName, File> reactor = new ProjectReader(rootPom).read();
+        entries = new ArrayList<>(reactor.entrySet());
+        entries.sort(Comparator.comparing(entry -> entry.getValue().getAbsolutePath()));
+        for (ModuleName module : reactor.keySet()) {
+            releaseVersions.put(module, "1.0");
+            developmentVersions.put(module, "1.1-SNAPSHOT");
+        }
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        FileUtils.deleteQuietly(projectDirectory);
+    }
+
+    @Benchmark
+    public Map<ModuleName, File> readReactor() throws IOException {
+        return new ProjectReader(rootPom).read();
+    }
+
+    /**
+     * Alternates between the release and the next development version, so that every POM changes on every invocation.
+     */
+    @Benchmark
+    public boolean transformPoms() throws IOException, InterruptedException {
+        release = !release;
+        return MavenReleaseProvider.transformPoms(entries, release ? releaseVersions : developmentVersions, null, release,
+                executor, message -> {
+                });
+    }
+
+    private static File writePom(File directory, String content) throws IOException {
+        File pom = new File(directory, "pom.xml");
+        FileUtils.writeStringToFile(pom, "<project><modelVersion>4.0.0</modelVersion>" + content + "</project>",
+                StandardCharsets.UTF_8);
+        return pom;
+    }
+}
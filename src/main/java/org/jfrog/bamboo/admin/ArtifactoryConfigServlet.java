@@ -22,9 +22,8 @@ import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.codehaus.jackson.JsonFactory;
-import org.codehaus.jackson.JsonGenerator;
-import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+import org.jfrog.bamboo.util.JsonUtils;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -32,7 +31,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 
 /**
  * Exposes features of the Artifactory Server Configuration Manager service to serve plugin modules which can't reach
@@ -43,12 +44,25 @@ import java.util.List;
 public class ArtifactoryConfigServlet extends HttpServlet {
 
     private static final Logger log = LogManager.getLogger(ArtifactoryConfigServlet.class);
+    private static final int MAX_REPOSITORIES_THREADS = 4;
     private ServerConfigManager serverConfigManager;
     private final UserManager userManager;
+    private final ExecutorService repositoriesExecutor;
 
     public ArtifactoryConfigServlet(ServerConfigManager serverConfigManager, UserManager userManager) {
         this.userManager = userManager;
         this.serverConfigManager = serverConfigManager;
+        this.repositoriesExecutor = Executors.newFixedThreadPool(MAX_REPOSITORIES_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "artifactory-config-servlet-repositories");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        repositoriesExecutor.shutdownNow();
+        super.destroy();
     }
 
     /**
@@ -102,6 +116,95 @@ public class ArtifactoryConfigServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Batched repositories request, used by the task configuration pages to populate all of their repository lists
+     * with a single round trip.<br>
+     * Expects a JSON array of {@link RepositoriesRequest}s as the request body and returns a JSON array of
+     * {@link RepositoriesResponse}s in the same order. The requested repository lists are retrieved in parallel, and a
+     * failure to retrieve one of them is reported in its response entry rather than failing the whole request.
+     */
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        UserProfile profile = userManager.getRemoteUser(req);
+        if (profile == null || profile.getUserKey() == null) {
+            resp.sendError(HttpStatus.SC_NOT_FOUND);
+            return;
+        }
+
+        List<RepositoriesRequest> requests;
+        try {
+            requests = JsonUtils.getMapper().readValue(req.getReader(), new TypeReference<List<RepositoriesRequest>>() {
+            });
+        } catch (IOException e) {
+            resp.sendError(HttpStatus.SC_BAD_REQUEST, "Please provide a valid JSON array of repositories requests.");
+            log.error("Unable to retrieve repositories. An invalid request body was provided.", e);
+            return;
+        }
+        if (requests == null) {
+            resp.sendError(HttpStatus.SC_BAD_REQUEST, "Please provide a valid JSON array of repositories requests.");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<RepositoriesResponse> responses = new ArrayList<>(requests.size());
+        List<Future<List<String>>> deployableFutures = new ArrayList<>(requests.size());
+        List<Future<List<String>>> resolvingFutures = new ArrayList<>(requests.size());
+        for (RepositoriesRequest request : requests) {
+            responses.add(new RepositoriesResponse(request.getServerId()));
+            deployableFutures.add(request.isDeployableRepos() ? submitRepositoriesRequest(request, true) : null);
+            resolvingFutures.add(request.isResolvingRepos() ? submitRepositoriesRequest(request, false) : null);
+        }
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                RepositoriesResponse response = responses.get(i);
+                response.setDeployableRepos(getRepositories(deployableFutures.get(i), response));
+                response.setResolvingRepos(getRepositories(resolvingFutures.get(i), response));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resp.sendError(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        log.debug("Retrieved " + requests.size() + " repositories requests in " + (System.currentTimeMillis() - start) + " ms.");
+        returnJsonObject(resp, responses);
+    }
+
+    private Future<List<String>> submitRepositoriesRequest(RepositoriesRequest request, boolean deployable) {
+        return repositoriesExecutor.submit(() -> serverConfigManager.getRepositoryKeys(request.getServerId(),
+                request.getUser(), request.getPassword(), deployable));
+    }
+
+    /**
+     * Waits for the given repositories request. On failure, the error is set on the response.
+     *
+     * @return The repository keys, or null if they were not requested or could not be retrieved.
+     */
+    private List<String> getRepositories(Future<List<String>> future, RepositoriesResponse response)
+            throws InterruptedException {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            String message = StringUtils.defaultString(cause.getMessage());
+            log.error("Error while retrieving repository list of Artifactory server with the ID " +
+                    response.getServerId(), cause);
+            if (message.contains("Could not find Artifactory server configuration") || message.contains("404")) {
+                response.setStatus(HttpStatus.SC_NOT_FOUND);
+                response.setStatusText("Not Found");
+            } else if (message.contains("401")) {
+                response.setStatus(HttpStatus.SC_UNAUTHORIZED);
+                response.setStatusText("Unauthorized");
+            } else {
+                response.setStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+                response.setStatusText("Internal Server Error");
+            }
+            return null;
+        }
+    }
+
     /**
      * Sends the given object as JSON to the response
      *
@@ -109,14 +212,112 @@ public class ArtifactoryConfigServlet extends HttpServlet {
      * @param toReturn Object to send
      */
     private void returnJsonObject(HttpServletResponse resp, Object toReturn) throws IOException {
-        JsonFactory jsonFactory = new JsonFactory();
-        ObjectMapper mapper = new ObjectMapper();
-        jsonFactory.setCodec(mapper);
-
+        resp.setContentType("application/json");
         try (PrintWriter writer = resp.getWriter()) {
-            JsonGenerator jsonGenerator = jsonFactory.createJsonGenerator(writer);
-            jsonGenerator.writeObject(toReturn);
+            JsonUtils.getMapper().writeValue(writer, toReturn);
             writer.flush();
         }
     }
+
+    /**
+     * An entry of the batched repositories request.
+     */
+    public static class RepositoriesRequest {
+        private long serverId;
+        private String user;
+        private String password;
+        private boolean deployableRepos;
+        private boolean resolvingRepos;
+
+        public long getServerId() {
+            return serverId;
+        }
+
+        public void setServerId(long serverId) {
+            this.serverId = serverId;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public void setUser(String user) {
+            this.user = user;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public boolean isDeployableRepos() {
+            return deployableRepos;
+        }
+
+        public void setDeployableRepos(boolean deployableRepos) {
+            this.deployableRepos = deployableRepos;
+        }
+
+        public boolean isResolvingRepos() {
+            return resolvingRepos;
+        }
+
+        public void setResolvingRepos(boolean resolvingRepos) {
+            this.resolvingRepos = resolvingRepos;
+        }
+    }
+
+    /**
+     * An entry of the batched repositories response. A status is set only if retrieving the repositories failed.
+     */
+    public static class RepositoriesResponse {
+        private final long serverId;
+        private List<String> deployableRepos;
+        private List<String> resolvingRepos;
+        private int status;
+        private String statusText;
+
+        RepositoriesResponse(long serverId) {
+            this.serverId = serverId;
+        }
+
+        public long getServerId() {
+            return serverId;
+        }
+
+        public List<String> getDeployableRepos() {
+            return deployableRepos;
+        }
+
+        public void setDeployableRepos(List<String> deployableRepos) {
+            this.deployableRepos = deployableRepos;
+        }
+
+        public List<String> getResolvingRepos() {
+            return resolvingRepos;
+        }
+
+        public void setResolvingRepos(List<String> resolvingRepos) {
+            this.resolvingRepos = resolvingRepos;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        public String getStatusText() {
+            return statusText;
+        }
+
+        public void setStatusText(String statusText) {
+            this.statusText = statusText;
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package org.jfrog.bamboo.admin;
+
+import com.atlassian.bamboo.configuration.GlobalAdminAction;
+import com.atlassian.bamboo.ww2.aware.permissions.GlobalAdminSecurityAware;
+import org.jfrog.bamboo.metrics.ServerTrafficSnapshot;
+import org.jfrog.bamboo.metrics.TrafficMetricsRegistry;
+
+import java.util.List;
+
+/**
+ * Shows the requests sent by the tasks to each Artifactory server during the last day, by type of operation and by
+ * plan.
+ */
+public class ArtifactoryTrafficMetricsAction extends GlobalAdminAction implements GlobalAdminSecurityAware {
+
+    public List<ServerTrafficSnapshot> getServersTraffic() {
+        return TrafficMetricsRegistry.getInstance().getServersTraffic();
+    }
+
+    /**
+     * @return The URL of the server, or its id if it was removed from the configuration.
+     */
+    public String getServerUrl(long serverId) {
+        ServerConfig serverConfig = ServerConfigManager.getInstance().getServerConfigById(serverId);
+        return serverConfig != null ? serverConfig.getUrl() : "Removed server (id " + serverId + ")";
+    }
+}
@@ -25,11 +25,11 @@ import com.google.common.collect.Lists;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.ObjectWriter;
 import org.jetbrains.annotations.Nullable;
 import org.jfrog.bamboo.security.EncryptionHelper;
 import org.jfrog.bamboo.util.BuildInfoLog;
+import org.jfrog.bamboo.util.JsonUtils;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -140,21 +140,27 @@ public class ServerConfigManager implements Serializable {
 
         String existingArtifactoryConfig = (String) bandanaManager.getValue(PlanAwareBandanaContext.GLOBAL_CONTEXT, ARTIFACTORY_CONFIG_KEY);
         if (StringUtils.isNotBlank(existingArtifactoryConfig)) {
+            boolean legacyPasswords = false;
             List<ServerConfig> serverConfigList = getServersFromXml(existingArtifactoryConfig);
             for (Object serverConfig : serverConfigList) {
                 // Because of some class loader issues we had to get a workaround,
                 // we serialize and deserialize the serverConfig object.
-                ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
+                ObjectWriter ow = JsonUtils.getMapper().writer().withDefaultPrettyPrinter();
                 String json = ow.writeValueAsString(serverConfig);
-                ServerConfig tempServerConfig = new ObjectMapper().readValue(json, ServerConfig.class);
+                ServerConfig tempServerConfig = JsonUtils.getMapper().readValue(json, ServerConfig.class);
 
                 if (nextAvailableId.get() <= tempServerConfig.getId()) {
                     nextAvailableId.set(tempServerConfig.getId() + 1);
                 }
 
+                legacyPasswords |= EncryptionHelper.isLegacyConfigData(tempServerConfig.getPassword());
                 configuredServers.add(new ServerConfig(tempServerConfig.getId(), tempServerConfig.getUrl(), tempServerConfig.getUsername(),
                         EncryptionHelper.decrypt(tempServerConfig.getPassword()), tempServerConfig.getTimeout()));
             }
+            if (legacyPasswords) {
+                // Encrypt the passwords again with the encryption prefix, so that they never need a trial decryption
+                persist();
+            }
         }
     }
 
@@ -163,21 +169,69 @@ public class ServerConfigManager implements Serializable {
     }
 
     public List<String> getDeployableRepos(long serverId, HttpServletRequest req, HttpServletResponse resp) {
+        return getRepos(serverId, req, resp, true);
+    }
+
+    public List<String> getResolvingRepos(long serverId, HttpServletRequest req, HttpServletResponse resp) {
+        return getRepos(serverId, req, resp, false);
+    }
+
+    /**
+     * Returns the repository keys of the given Artifactory server.
+     * The given credentials are used if both are provided, otherwise the server's configured credentials are used.
+     *
+     * @param serverId   The Artifactory server ID.
+     * @param username   Overriding username, may be blank.
+     * @param password   Overriding password, may be blank or encrypted.
+     * @param deployable True to return the local (deployable) repositories, false for the virtual (resolving) ones.
+     * @return The repository keys.
+     * @throws IOException If the server is not configured or the repositories could not be retrieved.
+     */
+    public List<String> getRepositoryKeys(long serverId, @Nullable String username, @Nullable String password,
+                                          boolean deployable) throws IOException {
         ServerConfig serverConfig = getServerConfigById(serverId);
         if (serverConfig == null) {
-            log.error("Error while retrieving target repository list: Could not find Artifactory server " +
+            throw new IOException("Could not find Artifactory server configuration by the ID " + serverId);
+        }
+        ArtifactoryBuildInfoClient client = createRepositoriesClient(serverConfig, username, password);
+        try {
+            return deployable ? client.getLocalRepositoriesKeys() : client.getVirtualRepositoryKeys();
+        } finally {
+            client.close();
+        }
+    }
+
+    private List<String> getRepos(long serverId, @Nullable HttpServletRequest req, @Nullable HttpServletResponse resp,
+                                  boolean deployable) {
+        String reposType = deployable ? "target" : "resolving";
+        ServerConfig serverConfig = getServerConfigById(serverId);
+        if (serverConfig == null) {
+            log.error("Error while retrieving " + reposType + " repository list: Could not find Artifactory server " +
                     "configuration by the ID " + serverId);
             return Lists.newArrayList();
         }
-        ArtifactoryBuildInfoClient client;
+        String username = req != null ? req.getParameter("user") : null;
+        String password = req != null ? req.getParameter("password") : null;
+        try {
+            return getRepositoryKeys(serverId, username, password, deployable);
+        } catch (IOException ioe) {
+            log.error("Error while retrieving " + reposType + " repository list from: " +
+                    substituteVariables(serverConfig.getUrl()), ioe);
+            try {
+                if (resp != null && StringUtils.contains(ioe.getMessage(), "401"))
+                    resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                if (resp != null && StringUtils.contains(ioe.getMessage(), "404"))
+                    resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            } catch (IOException e) {
+                log.error("Error while sending error to response", e);
+            }
+            return Lists.newArrayList();
+        }
+    }
 
+    private ArtifactoryBuildInfoClient createRepositoriesClient(ServerConfig serverConfig, @Nullable String username,
+                                                                @Nullable String password) {
         String serverUrl = substituteVariables(serverConfig.getUrl());
-        String username = null;
-        String password = null;
-        if (req != null) {
-            username = req.getParameter("user");
-            password = req.getParameter("password");
-        }
         if (StringUtils.isNotBlank(username) && StringUtils.isNotBlank(password)) {
             password = EncryptionHelper.decryptIfNeeded(password);
         } else {
@@ -188,30 +242,11 @@ public class ServerConfigManager implements Serializable {
         password = substituteVariables(password);
 
         if (StringUtils.isBlank(username)) {
-            client = TaskUtils.getArtifactoryBuildInfoClient(new ServerConfig(serverConfig.getId(), serverUrl,
+            return TaskUtils.getArtifactoryBuildInfoClient(new ServerConfig(serverConfig.getId(), serverUrl,
                     "", "", serverConfig.getTimeout()), new BuildInfoLog(log));
-        } else {
-            client = TaskUtils.getArtifactoryBuildInfoClient(new ServerConfig(serverConfig.getId(), serverUrl, username,
-                    password, serverConfig.getTimeout()), new BuildInfoLog(log));
-        }
-
-        try {
-            return client.getLocalRepositoriesKeys();
-        } catch (IOException ioe) {
-            log.error("Error while retrieving target repository list from: " + serverUrl, ioe);
-            try {
-                if (resp != null && ioe.getMessage().contains("401"))
-                    resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
-                if (resp != null && ioe.getMessage().contains("404"))
-                    resp.sendError(HttpServletResponse.SC_NOT_FOUND);
-            } catch (IOException e) {
-                log.error("Error while sending error to response", e);
-            }
-
-            return Lists.newArrayList();
-        } finally {
-            client.close();
         }
+        return TaskUtils.getArtifactoryBuildInfoClient(new ServerConfig(serverConfig.getId(), serverUrl, username,
+                password, serverConfig.getTimeout()), new BuildInfoLog(log));
     }
 
     /**
@@ -221,53 +256,6 @@ public class ServerConfigManager implements Serializable {
         return s != null ? customVariableContext.substituteString(s) : null;
     }
 
-    public List<String> getResolvingRepos(long serverId, HttpServletRequest req, HttpServletResponse resp) {
-        ServerConfig serverConfig = getServerConfigById(serverId);
-        if (serverConfig == null) {
-            log.error("Error while retrieving resolving repository list: Could not find Artifactory server " +
-                    "configuration by the ID " + serverId);
-            return Lists.newArrayList();
-        }
-        ArtifactoryBuildInfoClient client;
-
-        String serverUrl = substituteVariables(serverConfig.getUrl());
-        String username;
-        String password;
-        if (StringUtils.isNotBlank(req.getParameter("user")) && StringUtils.isNotBlank(req.getParameter("password"))) {
-            username = substituteVariables(req.getParameter("user"));
-            password = substituteVariables(EncryptionHelper.decryptIfNeeded(req.getParameter("password")));
-        } else {
-            username = substituteVariables(serverConfig.getUsername());
-            password = substituteVariables(serverConfig.getPassword());
-        }
-
-        if (StringUtils.isBlank(username)) {
-            client = TaskUtils.getArtifactoryBuildInfoClient(new ServerConfig(serverConfig.getId(), serverUrl,
-                    "", "", serverConfig.getTimeout()), new BuildInfoLog(log));
-        } else {
-            client = TaskUtils.getArtifactoryBuildInfoClient(new ServerConfig(serverConfig.getId(), serverUrl, username,
-                    password, serverConfig.getTimeout()), new BuildInfoLog(log));
-        }
-
-        client.setConnectionTimeout(serverConfig.getTimeout());
-
-        try {
-            return client.getVirtualRepositoryKeys();
-        } catch (IOException ioe) {
-            log.error("Error while retrieving resolving repository list from: " + serverUrl, ioe);
-            try {
-                if (ioe.getMessage().contains("401"))
-                    resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
-                if (ioe.getMessage().contains("404"))
-                    resp.sendError(HttpServletResponse.SC_NOT_FOUND);
-            } catch (IOException e) {
-                log.error("Error while sending error to response", e);
-            }
-            return Lists.newArrayList();
-        } finally {
-            client.close();
-        }
-    }
 
     private synchronized void persist() throws IllegalAccessException, UnsupportedEncodingException {
         List<ServerConfig> serverConfigs = Lists.newArrayList();
@@ -21,6 +21,7 @@ import org.jfrog.bamboo.context.GenericContext;
 import org.jfrog.bamboo.context.PackageManagersContext;
 import org.jfrog.bamboo.util.BuildInfoLog;
 import org.jfrog.bamboo.util.TaskUtils;
+import org.jfrog.bamboo.util.generic.MeteredBuildInfoClientBuilder;
 import org.jfrog.bamboo.util.version.VcsHelper;
 import org.jfrog.build.api.*;
 import org.jfrog.build.api.builder.ArtifactBuilder;
@@ -138,6 +139,18 @@ public class BuildInfoHelper extends BaseBuildInfoHelper {
         }
         Map<String, String> props = new HashMap<>(TaskUtils.getEscapedEnvMap(env));
         props.putAll(getBuildInfoConfigPropertiesFileParams(props.get(BuildInfoConfigProperties.PROP_PROPS_FILE)));
+        addPropertiesToBuildInfoBuilder(props, envVarsIncludePatterns, envVarsExcludePatterns, builder);
+    }
+
+    /**
+     * Add the properties which match the include and exclude patterns to the build-info builder, as environment properties.
+     *
+     * @param props                  - The escaped environment variables and build-info properties.
+     * @param envVarsIncludePatterns - Comma separated include patterns.
+     * @param envVarsExcludePatterns - Comma separated exclude patterns.
+     * @param builder                - The build-info builder.
+     */
+    public static void addPropertiesToBuildInfoBuilder(Map<String, String> props, String envVarsIncludePatterns, String envVarsExcludePatterns, BuildInfoBuilder builder) {
         IncludeExcludePatterns patterns = new IncludeExcludePatterns(envVarsIncludePatterns, envVarsExcludePatterns);
         for (Map.Entry<String, String> prop : props.entrySet()) {
             String varKey = prop.getKey();
@@ -210,6 +223,10 @@ public class BuildInfoHelper extends BaseBuildInfoHelper {
         return clientBuilder;
     }
 
+    public MeteredBuildInfoClientBuilder getMeteredClientBuilder(BuildLogger buildLogger, Logger logger) {
+        return TaskUtils.getMeteredBuildInfoClientBuilder(serverConfig, new BuildInfoLog(logger, buildLogger));
+    }
+
     private static BuildInfoHelper createBuildInfoHelper(String buildName, String buildNumber, CommonTaskContext taskContext, BuildContext buildContext, EnvironmentVariableAccessor environmentVariableAccessor, BuildParamsOverrideManager buildParamsOverrideManager, ServerConfig serverConfig) {
         Map<String, String> env = new HashMap<>();
         env.putAll(environmentVariableAccessor.getEnvironment(taskContext));
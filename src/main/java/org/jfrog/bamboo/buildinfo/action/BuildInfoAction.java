@@ -8,6 +8,7 @@ import org.apache.logging.log4j.Logger;
 import org.jfrog.bamboo.util.ConstantValues;
 import org.jfrog.bamboo.util.PublishedBuildDetails;
 import org.jfrog.bamboo.util.PublishedBuilds;
+import org.jfrog.bamboo.util.TaskPhaseTimings;
 import org.jfrog.build.extractor.BuildInfoExtractorUtils;
 
 import java.util.ArrayList;
@@ -22,6 +23,7 @@ import java.util.List;
 public class BuildInfoAction extends ViewBuildResults {
     transient Logger log = LogManager.getLogger(BuildInfoAction.class);
     private List<PublishedBuildDetails> publishedBuildsDetails = new ArrayList<>();
+    private List<TaskPhaseTimings> taskPhaseTimings = new ArrayList<>();
 
     @Override
     public String execute() throws Exception {
@@ -58,6 +60,8 @@ public class BuildInfoAction extends ViewBuildResults {
             publishedBuildDetails.setBuildUrl(urlStringBuilder.toString());
         }
 
+        taskPhaseTimings = TaskPhaseTimings.parse(summary.getCustomBuildData().get(ConstantValues.TASK_PHASE_TIMINGS));
+
         return INPUT;
     }
 
@@ -80,4 +84,8 @@ public class BuildInfoAction extends ViewBuildResults {
     public void setPublishedBuildsDetails(List<PublishedBuildDetails> publishedBuildsDetails) {
         this.publishedBuildsDetails = publishedBuildsDetails;
     }
+
+    public List<TaskPhaseTimings> getTaskPhaseTimings() {
+        return taskPhaseTimings;
+    }
 }
@@ -0,0 +1,275 @@
+package org.jfrog.bamboo.cache;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.SystemUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Agent-wide content-addressed store of the files downloaded by the generic download tasks, shared by all the builds
+ * running on the agent's machine, so that an artifact resolved by several plans is downloaded once.
+ * <p>
+ * Entries are keyed by the SHA-1 checksum reported by Artifactory. Files are copied into the cache as read-only files,
+ * and hard linked from it into the working directories, so that materializing an entry does not copy its content. A
+ * build can not modify a linked file in place, and so can not change the entry nor the files of the other builds; it
+ * can only replace it. Entries are copied when they can not be linked, e.g. when the working directory is on another
+ * file system, or when the cache is {@link #getInstance(boolean) used with copies}, for builds that modify the
+ * downloaded files in place. The checksum of an entry is verified when it is materialized, and an entry which does not
+ * match it, e.g. after a disk failure, is removed.
+ * <p>
+ * Entries are added through a unique temporary file moved atomically to its final name, so concurrent builds adding
+ * the same artifact never expose a partial entry. Eviction is coordinated by a file lock. Evicting an entry does not
+ * affect the working directories it was materialized into.
+ */
+public class SharedDownloadCache {
+    private static final Logger log = LogManager.getLogger(SharedDownloadCache.class);
+    private static final String CACHE_DIR_NAME = "bamboo-download-cache";
+    private static final String CONTENT_DIR_NAME = "sha1";
+    private static final String TEMP_DIR_NAME = ".tmp";
+    private static final String GUARD_FILE_NAME = ".guard.lock";
+    private static final Pattern SHA1_PATTERN = Pattern.compile("[0-9a-f]{40}");
+    /**
+     * Eviction frees space down to this fraction of the size bound, so that it is not repeated after every download.
+     */
+    private static final double EVICTION_LOW_WATERMARK = 0.9;
+    // Temporary files older than this were left behind by a process that was killed
+    private static final long STALE_TEMP_FILE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    // File locks are held per JVM, so the caches of the same directory must share the in-process monitor as well
+    private static final Map<String, Object> GUARD_MONITORS = new ConcurrentHashMap<>();
+    private static final Map<Boolean, SharedDownloadCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final File cacheDir;
+    private final boolean copyEntries;
+    private final Object guardMonitor;
+
+    SharedDownloadCache(@NotNull File cacheDir) {
+        this(cacheDir, false);
+    }
+
+    SharedDownloadCache(@NotNull File cacheDir, boolean copyEntries) {
+        this.cacheDir = cacheDir;
+        this.copyEntries = copyEntries;
+        this.guardMonitor = GUARD_MONITORS.computeIfAbsent(cacheDir.getAbsolutePath(), path -> new Object());
+    }
+
+    /**
+     * @param copyEntries True to copy the entries into the working directories rather than to link them, so that the
+     *                    materialized files are writable.
+     */
+    public static SharedDownloadCache getInstance(boolean copyEntries) {
+        return INSTANCES.computeIfAbsent(copyEntries, copy -> new SharedDownloadCache(
+                new File(new File(SystemUtils.getUserHome(), ".jfrog"), CACHE_DIR_NAME), copy));
+    }
+
+    /**
+     * Materializes the cached content of the checksum into the target file, replacing it if it exists.
+     *
+     * @param sha1   The SHA-1 checksum of the content, as reported by Artifactory.
+     * @param target The file to create.
+     * @return True if the content was cached and materialized, false if it should be downloaded.
+     */
+    public boolean materialize(@Nullable String sha1, @NotNull File target) {
+        File entry = getEntry(sha1);
+        if (entry == null || !entry.isFile()) {
+            return false;
+        }
+        Path temp = target.toPath().resolveSibling(target.getName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(temp.getParent());
+            if (!(copyEntries ? copyVerified(entry.toPath(), temp, sha1) : linkVerified(entry.toPath(), temp, sha1))) {
+                log.warn("Removing corrupted entry " + entry + " from the shared download cache.");
+                delete(entry.toPath());
+                return false;
+            }
+            Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            // The modification time is the last use of the entry
+            Files.setLastModifiedTime(entry.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException e) {
+            // Evicted concurrently
+            return false;
+        } catch (IOException e) {
+            log.warn("Failed to use " + entry + " from the shared download cache: " + e.getMessage());
+            return false;
+        } finally {
+            FileUtils.deleteQuietly(temp.toFile());
+        }
+    }
+
+    /**
+     * Adds a downloaded file to the cache. The file is not modified.
+     *
+     * @param file The downloaded file.
+     * @param sha1 The SHA-1 checksum of the file, verified by the download.
+     */
+    public void store(@NotNull File file, @Nullable String sha1) {
+        File entry = getEntry(sha1);
+        if (entry == null || entry.isFile()) {
+            return;
+        }
+        Path temp = new File(new File(cacheDir, TEMP_DIR_NAME), UUID.randomUUID().toString()).toPath();
+        try {
+            Files.createDirectories(temp.getParent());
+            Files.createDirectories(entry.getParentFile().toPath());
+            Files.copy(file.toPath(), temp);
+            // Linked into the working directories, which must not modify it
+            if (!temp.toFile().setReadOnly()) {
+                throw new IOException("Failed to make " + temp + " read-only");
+            }
+            Files.move(temp, entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Added concurrently by another build, or the cache is not writable
+            log.debug("Failed to add " + file + " to the shared download cache: " + e.getMessage());
+        } finally {
+            FileUtils.deleteQuietly(temp.toFile());
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries if the cache exceeds its size bound.
+     *
+     * @param maxSizeBytes The size bound of the cache.
+     * @return The number of evicted entries.
+     */
+    public int evictIfNeeded(long maxSizeBytes) throws IOException {
+        File contentDir = new File(cacheDir, CONTENT_DIR_NAME);
+        if (!contentDir.isDirectory()) {
+            return 0;
+        }
+        synchronized (guardMonitor) {
+            try (FileChannel guardChannel = new RandomAccessFile(new File(cacheDir, GUARD_FILE_NAME), "rw").getChannel();
+                 FileLock ignored = guardChannel.lock()) {
+                deleteStaleTempFiles();
+                List<Path> entries = new ArrayList<>();
+                long[] totalSize = new long[1];
+                try (Stream<Path> files = Files.walk(contentDir.toPath())) {
+                    files.filter(Files::isRegularFile).forEach(file -> {
+                        entries.add(file);
+                        totalSize[0] += file.toFile().length();
+                    });
+                }
+                if (totalSize[0] <= maxSizeBytes) {
+                    return 0;
+                }
+                entries.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+                long targetSize = (long) (maxSizeBytes * EVICTION_LOW_WATERMARK);
+                int evicted = 0;
+                for (Path entry : entries) {
+                    if (totalSize[0] <= targetSize) {
+                        break;
+                    }
+                    long size = entry.toFile().length();
+                    if (delete(entry)) {
+                        totalSize[0] -= size;
+                        evicted++;
+                    }
+                }
+                return evicted;
+            }
+        }
+    }
+
+    private void deleteStaleTempFiles() {
+        File[] tempFiles = new File(cacheDir, TEMP_DIR_NAME).listFiles();
+        if (tempFiles == null) {
+            return;
+        }
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_FILE_MILLIS;
+        for (File tempFile : tempFiles) {
+            if (tempFile.lastModified() < staleBefore) {
+                FileUtils.deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    /**
+     * @return The entry of the checksum, or null if the checksum is not a valid SHA-1.
+     */
+    @Nullable
+    File getEntry(@Nullable String sha1) {
+        String key = StringUtils.lowerCase(sha1);
+        if (key == null || !SHA1_PATTERN.matcher(key).matches()) {
+            return null;
+        }
+        return new File(new File(new File(cacheDir, CONTENT_DIR_NAME), key.substring(0, 2)), key);
+    }
+
+    /**
+     * Deletes a read-only entry. Read-only files can not be deleted on Windows, so the entry is made writable first,
+     * which also makes the files linked to it writable. These files are not shared with the cache anymore.
+     *
+     * @return True if the entry was deleted, false if it did not exist.
+     */
+    private static boolean delete(Path entry) throws IOException {
+        entry.toFile().setWritable(true);
+        return Files.deleteIfExists(entry);
+    }
+
+    /**
+     * Hard links the target to the entry, once the content of the entry is verified. The entry is copied if it can not
+     * be linked, e.g. if the target is on another file system.
+     *
+     * @return True if the content matches the checksum.
+     */
+    private static boolean linkVerified(Path entry, Path target, String sha1) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(entry)) {
+            if (!sha1.equalsIgnoreCase(DigestUtils.sha1Hex(inputStream))) {
+                return false;
+            }
+        }
+        try {
+            Files.createLink(target, entry);
+            return true;
+        } catch (NoSuchFileException e) {
+            // Evicted concurrently
+            throw e;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            log.debug("Failed to link " + target + " to " + entry + ", copying it instead: " + e.getMessage());
+        }
+        return copyVerified(entry, target, sha1);
+    }
+
+    /**
+     * Copies the entry to the target, calculating the checksum of the content as it is copied, so that the entry is
+     * read once.
+     *
+     * @return True if the content matches the checksum.
+     */
+    private static boolean copyVerified(Path entry, Path target, String sha1) throws IOException {
+        MessageDigest digest = DigestUtils.getSha1Digest();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(entry), digest)) {
+            Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return sha1.equalsIgnoreCase(Hex.encodeHexString(digest.digest()));
+    }
+}
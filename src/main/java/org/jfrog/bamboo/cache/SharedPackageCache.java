@@ -0,0 +1,487 @@
+package org.jfrog.bamboo.cache;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.SystemUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jfrog.bamboo.util.PropertiesFileStore;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Agent-wide package cache of a package manager, shared by all the builds running on the agent's machine.
+ * <p>
+ * A build {@link #acquire(long) acquires} a lease on the cache, and points the package manager to
+ * {@link Lease#getContentDir()} for the duration of the lease. When a lease is released, the entries the build used
+ * are recorded in a usage file, and the least recently used entries are evicted until the cache fits its size bound.
+ * Leases and eviction are coordinated by file locks, and eviction is postponed while other builds (of this or of
+ * another agent process) hold active leases, since the entries they use are only known once they are released.
+ */
+public class SharedPackageCache {
+    private static final Logger log = LogManager.getLogger(SharedPackageCache.class);
+    private static final String CACHES_DIR_NAME = "bamboo-package-caches";
+    private static final String CONTENT_DIR_NAME = "content";
+    private static final String LEASES_DIR_NAME = ".leases";
+    private static final String LEASE_SUFFIX = ".lease";
+    private static final String GUARD_FILE_NAME = ".guard.lock";
+    private static final String USAGE_FILE_NAME = ".usage.properties";
+    /**
+     * Eviction frees space down to this fraction of the size bound, so that it is not repeated after every build.
+     */
+    private static final double EVICTION_LOW_WATERMARK = 0.9;
+
+    // File locks are held per JVM, so the caches of the same directory must share the in-process monitor as well
+    private static final Map<String, Object> GUARD_MONITORS = new ConcurrentHashMap<>();
+    private static final Map<Type, SharedPackageCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Type type;
+    private final File cacheDir;
+    private final Object guardMonitor;
+
+    SharedPackageCache(@NotNull Type type, @NotNull File cacheDir) {
+        this.type = type;
+        this.cacheDir = cacheDir;
+        this.guardMonitor = GUARD_MONITORS.computeIfAbsent(cacheDir.getAbsolutePath(), path -> new Object());
+    }
+
+    public static SharedPackageCache getInstance(@NotNull Type type) {
+        return INSTANCES.computeIfAbsent(type, cacheType -> new SharedPackageCache(cacheType,
+                new File(new File(new File(SystemUtils.getUserHome(), ".jfrog"), CACHES_DIR_NAME), cacheType.getName())));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Acquires a lease on the cache. Blocks while the cache is being evicted.
+     *
+     * @param maxSizeBytes The size bound of the cache, enforced when the lease is closed.
+     */
+    public Lease acquire(long maxSizeBytes) throws IOException {
+        File contentDir = new File(cacheDir, CONTENT_DIR_NAME);
+        File leasesDir = new File(cacheDir, LEASES_DIR_NAME);
+        for (File dir : new File[]{contentDir, leasesDir}) {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Failed to create the shared " + type.getName() + " cache directory: " + dir);
+            }
+        }
+        synchronized (guardMonitor) {
+            try (FileChannel guardChannel = openChannel(new File(cacheDir, GUARD_FILE_NAME)); FileLock ignored = guardChannel.lock()) {
+                File leaseFile = new File(leasesDir, UUID.randomUUID() + LEASE_SUFFIX);
+                FileChannel leaseChannel = openChannel(leaseFile);
+                try {
+                    return new Lease(leaseFile, leaseChannel, leaseChannel.lock(), maxSizeBytes, listEntries(contentDir, new Properties()).keySet());
+                } catch (IOException | RuntimeException e) {
+                    leaseChannel.close();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static FileChannel openChannel(File file) throws IOException {
+        return new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    /**
+     * @param usage The last used times of the entries by their relative path, recorded when leases are released.
+     * @return The cache entries by their relative path, separated by '/'.
+     */
+    private Map<String, CacheEntry> listEntries(File contentDir, Properties usage) throws IOException {
+        Map<String, CacheEntry> entries = new HashMap<>();
+        Path entriesRoot = contentDir.toPath().resolve(type.getEntriesPath());
+        if (!Files.isDirectory(entriesRoot)) {
+            return entries;
+        }
+        if (type.getEntryDepth() == 0) {
+            // Every file is an entry
+            Files.walkFileTree(entriesRoot, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        String key = getKey(entriesRoot, file);
+                        entries.put(key, new CacheEntry(file, attributes.size(), getLastUsed(usage, key, attributes.lastModifiedTime().toMillis())));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return entries;
+        }
+        // Every directory at the entry depth is an entry
+        try (Stream<Path> dirs = Files.find(entriesRoot, type.getEntryDepth(),
+                (path, attributes) -> attributes.isDirectory() && entriesRoot.relativize(path).getNameCount() == type.getEntryDepth())) {
+            for (Path dir : (Iterable<Path>) dirs::iterator) {
+                long[] sizeAndLastModified = new long[2];
+                try (Stream<Path> files = Files.walk(dir)) {
+                    files.forEach(file -> {
+                        try {
+                            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                            sizeAndLastModified[0] += attributes.isRegularFile() ? attributes.size() : 0;
+                            sizeAndLastModified[1] = Math.max(sizeAndLastModified[1], attributes.lastModifiedTime().toMillis());
+                        } catch (IOException e) {
+                            // Removed concurrently
+                        }
+                    });
+                }
+                String key = getKey(entriesRoot, dir);
+                entries.put(key, new CacheEntry(dir, sizeAndLastModified[0], getLastUsed(usage, key, sizeAndLastModified[1])));
+            }
+        }
+        return entries;
+    }
+
+    private static String getKey(Path entriesRoot, Path entry) {
+        return entriesRoot.relativize(entry).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Package managers read cached entries without modifying them, and access times are not maintained by all file
+     * systems, so an entry is last used when it was last recorded as used by a released lease, or when it was added.
+     */
+    private static long getLastUsed(Properties usage, String key, long lastModified) {
+        long recorded = NumberUtils.toLong(usage.getProperty(key), 0);
+        return Math.max(recorded, lastModified);
+    }
+
+    private PropertiesFileStore createUsageStore() {
+        return new PropertiesFileStore(new File(cacheDir, USAGE_FILE_NAME), type.getName() + " package cache usage");
+    }
+
+    /**
+     * Evicts the least recently used entries, if the cache exceeds its size bound and no other lease is active.
+     * Called with the guard lock held.
+     */
+    private EvictionResult evictIfNeeded(File ownLeaseFile, long maxSizeBytes, PropertiesFileStore usageStore) throws IOException {
+        File contentDir = new File(cacheDir, CONTENT_DIR_NAME);
+        Path entriesRoot = contentDir.toPath().resolve(type.getEntriesPath());
+        Map<String, CacheEntry> entries = listEntries(contentDir, usageStore.getProperties());
+        long totalSize = entries.values().stream().mapToLong(CacheEntry::getSize).sum();
+        if (totalSize <= maxSizeBytes) {
+            return new EvictionResult(totalSize, 0, 0, false);
+        }
+        if (hasOtherActiveLeases(ownLeaseFile)) {
+            log.debug("The shared " + type.getName() + " cache is in use by other builds, postponing its eviction.");
+            return new EvictionResult(totalSize, 0, 0, true);
+        }
+        List<Map.Entry<String, CacheEntry>> lruEntries = new ArrayList<>(entries.entrySet());
+        lruEntries.sort(Comparator.comparingLong(entry -> entry.getValue().getLastUsed()));
+        long targetSize = (long) (maxSizeBytes * EVICTION_LOW_WATERMARK);
+        Set<String> evictedKeys = new HashSet<>();
+        long evictedBytes = 0;
+        for (Map.Entry<String, CacheEntry> entry : lruEntries) {
+            if (totalSize - evictedBytes <= targetSize) {
+                break;
+            }
+            FileUtils.deleteQuietly(entry.getValue().getPath().toFile());
+            deleteEmptyParents(entry.getValue().getPath(), entriesRoot);
+            evictedKeys.add(entry.getKey());
+            evictedBytes += entry.getValue().getSize();
+        }
+        // Also forgets the entries removed by the package managers themselves
+        usageStore.update(usage -> usage.keySet().removeIf(key -> evictedKeys.contains(key) || !entries.containsKey(key)));
+        return new EvictionResult(totalSize - evictedBytes, evictedKeys.size(), evictedBytes, false);
+    }
+
+    private static void deleteEmptyParents(Path path, Path root) {
+        for (Path parent = path.getParent(); parent != null && parent.startsWith(root) && !parent.equals(root); parent = parent.getParent()) {
+            String[] children = parent.toFile().list();
+            if (children == null || children.length > 0 || !parent.toFile().delete()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the lease files left behind by killed processes.
+     */
+    private boolean hasOtherActiveLeases(File ownLeaseFile) throws IOException {
+        File[] leaseFiles = new File(cacheDir, LEASES_DIR_NAME).listFiles((dir, name) -> name.endsWith(LEASE_SUFFIX));
+        if (leaseFiles == null) {
+            return false;
+        }
+        boolean active = false;
+        for (File leaseFile : leaseFiles) {
+            if (leaseFile.equals(ownLeaseFile)) {
+                continue;
+            }
+            try (FileChannel channel = openChannel(leaseFile)) {
+                FileLock lock = channel.tryLock();
+                if (lock == null) {
+                    // Held by another process
+                    active = true;
+                    continue;
+                }
+                // Left behind by a process that was killed
+                lock.release();
+            } catch (OverlappingFileLockException e) {
+                // Held by this process
+                active = true;
+                continue;
+            }
+            FileUtils.deleteQuietly(leaseFile);
+        }
+        return active;
+    }
+
+    /**
+     * A build's use of the cache.
+     */
+    public class Lease implements Closeable {
+        private final File leaseFile;
+        private final FileChannel leaseChannel;
+        private final FileLock leaseLock;
+        private final long maxSizeBytes;
+        private final Set<String> initialEntries;
+        private boolean closed;
+
+        /**
+         * @param initialEntries The entries of the cache when the lease was acquired, used to tell hits from misses.
+         */
+        private Lease(File leaseFile, FileChannel leaseChannel, FileLock leaseLock, long maxSizeBytes, Set<String> initialEntries) {
+            this.leaseFile = leaseFile;
+            this.leaseChannel = leaseChannel;
+            this.leaseLock = leaseLock;
+            this.maxSizeBytes = maxSizeBytes;
+            this.initialEntries = initialEntries;
+        }
+
+        /**
+         * @return The directory the package manager should use as its cache.
+         */
+        public File getContentDir() {
+            return new File(cacheDir, CONTENT_DIR_NAME);
+        }
+
+        /**
+         * @return The environment variables that point the package manager to the cache.
+         */
+        public Map<String, String> getEnvironment() {
+            return Collections.singletonMap(type.getEnvironmentVariable(), getContentDir().getAbsolutePath());
+        }
+
+        /**
+         * Releases the lease, records the use of the entries the build used, and evicts the cache if needed.
+         *
+         * @param projectDir The directory the package manager ran in, from which the entries it used are read.
+         * @return The cache statistics of the build.
+         */
+        public Statistics release(@NotNull Path projectDir) throws IOException {
+            Set<String> usedEntries = SharedPackageCacheUsage.readUsedEntries(type, projectDir);
+            int hits = 0;
+            int misses = 0;
+            long missedBytes = 0;
+            EvictionResult eviction;
+            synchronized (guardMonitor) {
+                try (FileChannel guardChannel = openChannel(new File(cacheDir, GUARD_FILE_NAME)); FileLock ignored = guardChannel.lock()) {
+                    Map<String, CacheEntry> entries = listEntries(getContentDir(), new Properties());
+                    Set<String> used = new HashSet<>();
+                    for (String key : usedEntries) {
+                        CacheEntry entry = entries.get(key);
+                        if (entry == null) {
+                            // Not resolved through the cache
+                            continue;
+                        }
+                        used.add(key);
+                        if (initialEntries.contains(key)) {
+                            hits++;
+                        } else {
+                            misses++;
+                            missedBytes += entry.getSize();
+                        }
+                    }
+                    PropertiesFileStore usageStore = createUsageStore();
+                    if (!used.isEmpty()) {
+                        String now = String.valueOf(System.currentTimeMillis());
+                        usageStore.update(usage -> used.forEach(key -> usage.setProperty(key, now)));
+                    }
+                    eviction = evictIfNeeded(leaseFile, maxSizeBytes, usageStore);
+                } finally {
+                    close();
+                }
+            }
+            return new Statistics(hits, misses, missedBytes, eviction);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                leaseLock.release();
+                leaseChannel.close();
+            } finally {
+                FileUtils.deleteQuietly(leaseFile);
+            }
+        }
+    }
+
+    /**
+     * The entries of the cache a build used, and the result of the eviction that followed it. Hits are entries that
+     * were in the cache when the lease was acquired, misses are entries that were added while it was active.
+     */
+    public static class Statistics {
+        private final int hits;
+        private final int misses;
+        private final long missedBytes;
+        private final EvictionResult eviction;
+
+        Statistics(int hits, int misses, long missedBytes, EvictionResult eviction) {
+            this.hits = hits;
+            this.misses = misses;
+            this.missedBytes = missedBytes;
+            this.eviction = eviction;
+        }
+
+        public int getHits() {
+            return hits;
+        }
+
+        public int getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return The size of the entries added to the cache for the misses.
+         */
+        public long getMissedBytes() {
+            return missedBytes;
+        }
+
+        EvictionResult getEviction() {
+            return eviction;
+        }
+
+        @Override
+        public String toString() {
+            String statistics = hits + " hits, " + misses + " misses (" + FileUtils.byteCountToDisplaySize(missedBytes) +
+                    " added), " + FileUtils.byteCountToDisplaySize(eviction.getSizeBytes()) + " used";
+            if (eviction.getEvictedEntries() > 0) {
+                statistics += ", " + eviction.getEvictedEntries() + " least recently used entries (" +
+                        FileUtils.byteCountToDisplaySize(eviction.getEvictedBytes()) + ") evicted";
+            }
+            if (eviction.isPostponed()) {
+                statistics += ", eviction postponed while other builds use the cache";
+            }
+            return statistics + ".";
+        }
+    }
+
+    static class EvictionResult {
+        private final long sizeBytes;
+        private final int evictedEntries;
+        private final long evictedBytes;
+        private final boolean postponed;
+
+        EvictionResult(long sizeBytes, int evictedEntries, long evictedBytes, boolean postponed) {
+            this.sizeBytes = sizeBytes;
+            this.evictedEntries = evictedEntries;
+            this.evictedBytes = evictedBytes;
+            this.postponed = postponed;
+        }
+
+        long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        int getEvictedEntries() {
+            return evictedEntries;
+        }
+
+        long getEvictedBytes() {
+            return evictedBytes;
+        }
+
+        /**
+         * @return True if the cache exceeded its size bound, but was not evicted since other leases were active.
+         */
+        boolean isPostponed() {
+            return postponed;
+        }
+    }
+
+    private static class CacheEntry {
+        private final Path path;
+        private final long size;
+        private final long lastUsed;
+
+        CacheEntry(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastUsed() {
+            return lastUsed;
+        }
+    }
+
+    /**
+     * The supported package managers, and the layout of their caches.
+     */
+    public enum Type {
+        /**
+         * npm's content-addressable cache. Every content file is an entry. The index entries pointing to evicted content
+         * are treated as misses by npm.
+         */
+        NPM("npm", "npm_config_cache", "_cacache/content-v2", 0),
+        /**
+         * NuGet's global packages folder, shared by NuGet and .NET Core. Every package version directory is an entry.
+         */
+        NUGET("nuget", "NUGET_PACKAGES", "", 2);
+
+        private final String name;
+        private final String environmentVariable;
+        private final String entriesPath;
+        private final int entryDepth;
+
+        Type(String name, String environmentVariable, String entriesPath, int entryDepth) {
+            this.name = name;
+            this.environmentVariable = environmentVariable;
+            this.entriesPath = entriesPath;
+            this.entryDepth = entryDepth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getEnvironmentVariable() {
+            return environmentVariable;
+        }
+
+        String getEntriesPath() {
+            return entriesPath;
+        }
+
+        int getEntryDepth() {
+            return entryDepth;
+        }
+    }
+}
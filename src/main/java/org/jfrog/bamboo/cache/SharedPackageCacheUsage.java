@@ -0,0 +1,113 @@
+package org.jfrog.bamboo.cache;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.codehaus.jackson.JsonNode;
+import org.jfrog.bamboo.util.JsonUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the cache entries a build used from the files the package manager writes to the project, so that the use of
+ * an entry is known without relying on the access times of the file system, which are not maintained with the
+ * 'noatime' mount option and on NTFS by default. Entries are identified by their path relative to the entries root of
+ * the cache, separated by '/'.
+ */
+class SharedPackageCacheUsage {
+    private static final Logger log = LogManager.getLogger(SharedPackageCacheUsage.class);
+    private static final String NPM_LOCK_FILE_NAME = "package-lock.json";
+    private static final String NPM_SHRINKWRAP_FILE_NAME = "npm-shrinkwrap.json";
+    private static final String NUGET_ASSETS_FILE_NAME = "project.assets.json";
+    // Solutions keep the projects, and their 'obj' directories, a few levels below the working directory
+    private static final int NUGET_ASSETS_MAX_DEPTH = 6;
+
+    private SharedPackageCacheUsage() {
+    }
+
+    /**
+     * @param projectDir The directory the package manager ran in.
+     * @return The used entries, or an empty set if the package manager left no record of them.
+     */
+    static Set<String> readUsedEntries(SharedPackageCache.Type type, Path projectDir) {
+        try {
+            switch (type) {
+                case NPM:
+                    return readNpmEntries(projectDir);
+                case NUGET:
+                    return readNugetEntries(projectDir);
+                default:
+                    return Collections.emptySet();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read the " + type.getName() + " packages used by the build: " + e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * npm's lock file records the integrity of every installed package, which is the address of its content in the
+     * cache: 'sha512-&lt;base64&gt;' is stored in 'sha512/&lt;hex[0,2]&gt;/&lt;hex[2,4]&gt;/&lt;hex[4,]&gt;'.
+     */
+    private static Set<String> readNpmEntries(Path projectDir) throws IOException {
+        Set<String> entries = new HashSet<>();
+        for (String lockFileName : new String[]{NPM_SHRINKWRAP_FILE_NAME, NPM_LOCK_FILE_NAME}) {
+            Path lockFile = projectDir.resolve(lockFileName);
+            if (Files.isRegularFile(lockFile)) {
+                // Both the 'dependencies' tree of lock file version 1 and the 'packages' of versions 2 and 3
+                for (JsonNode integrity : JsonUtils.getMapper().readTree(lockFile.toFile()).findValues("integrity")) {
+                    for (String hash : integrity.asText().split("\\s+")) {
+                        addNpmEntry(entries, hash);
+                    }
+                }
+                break;
+            }
+        }
+        return entries;
+    }
+
+    private static void addNpmEntry(Set<String> entries, String hash) {
+        int separator = hash.indexOf('-');
+        if (separator <= 0) {
+            return;
+        }
+        String hex;
+        try {
+            hex = Hex.encodeHexString(Base64.getDecoder().decode(hash.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            // Not a Subresource Integrity hash
+            return;
+        }
+        if (hex.length() > 4) {
+            entries.add(hash.substring(0, separator) + "/" + hex.substring(0, 2) + "/" + hex.substring(2, 4) + "/" + hex.substring(4));
+        }
+    }
+
+    /**
+     * NuGet's assets file, written to the 'obj' directory of every restored project, records the path of every
+     * package in the global packages folder.
+     */
+    private static Set<String> readNugetEntries(Path projectDir) throws IOException {
+        Set<String> entries = new HashSet<>();
+        List<Path> assetsFiles;
+        try (Stream<Path> files = Files.find(projectDir, NUGET_ASSETS_MAX_DEPTH, (path, attributes) -> attributes.isRegularFile() &&
+                path.getFileName().toString().equals(NUGET_ASSETS_FILE_NAME))) {
+            assetsFiles = files.collect(Collectors.toList());
+        }
+        for (Path assetsFile : assetsFiles) {
+            JsonNode libraries = JsonUtils.getMapper().readTree(assetsFile.toFile()).path("libraries");
+            for (Iterator<JsonNode> it = libraries.getElements(); it.hasNext(); ) {
+                JsonNode library = it.next();
+                if ("package".equals(library.path("type").getTextValue()) && library.path("path").isTextual()) {
+                    entries.add(library.path("path").getTextValue());
+                }
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,66 @@
+package org.jfrog.bamboo.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.bamboo.context.PackageManagersContext;
+import org.jfrog.build.api.util.Log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Uses the {@link SharedPackageCache} in package manager tasks.
+ */
+public class SharedPackageCacheUtils {
+
+    private SharedPackageCacheUtils() {
+    }
+
+    /**
+     * Acquires a lease on the shared cache if the task is configured to use it, and points the package manager to it.
+     * Failing to acquire the cache is logged, and the package manager uses its default cache.
+     *
+     * @param context The task context.
+     * @param type    The package manager.
+     * @param env     The environment variables of the package manager, to which the cache location is added.
+     * @param log     The build log.
+     * @return The lease, or null if the shared cache is not used.
+     */
+    @Nullable
+    public static SharedPackageCache.Lease acquire(@NotNull PackageManagersContext context, @NotNull SharedPackageCache.Type type,
+                                                   @NotNull Map<String, String> env, @NotNull Log log) {
+        if (!context.isUseSharedPackageCache()) {
+            return null;
+        }
+        try {
+            SharedPackageCache.Lease lease = SharedPackageCache.getInstance(type)
+                    .acquire(context.getSharedPackageCacheMaxSize() * 1024L * 1024L);
+            env.putAll(lease.getEnvironment());
+            log.info("Using the shared " + type.getName() + " package cache: " + lease.getContentDir());
+            return lease;
+        } catch (IOException e) {
+            log.warn("Failed to use the shared " + type.getName() + " package cache, using the default cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Releases the lease, and logs the cache hits and misses of the build.
+     *
+     * @param lease      The lease to release. Ignored if null.
+     * @param projectDir The directory the package manager ran in.
+     * @param log        The build log.
+     */
+    public static void release(@Nullable SharedPackageCache.Lease lease, @NotNull Path projectDir, @NotNull Log log) {
+        if (lease == null) {
+            return;
+        }
+        try {
+            SharedPackageCache.Statistics statistics = lease.release(projectDir);
+            log.info("Shared package cache: " + statistics);
+        } catch (IOException e) {
+            log.warn("Failed to release the shared package cache: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.jfrog.bamboo.capability;
+
+import org.apache.commons.lang.SystemUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.bamboo.util.PropertiesFileStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * Agent-wide persistent cache of the results of probing build tool executables (e.g. running "mvn --version").
+ * <p>
+ * Results are keyed by the executable path and are valid as long as the executable's size, modification time and
+ * resolved symlink target are unchanged, so an unchanged toolchain is never executed twice, even across agent restarts.
+ * Agents sharing a home directory share the cache, and merge their results into it.
+ */
+public class ExecutableProbeCache {
+    private static final String CACHE_FILE_NAME = "bamboo-artifactory-capabilities.properties";
+    private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+    private static final String RESULT_SUFFIX = ".result";
+
+    private static final ExecutableProbeCache INSTANCE = new ExecutableProbeCache(
+            new File(new File(SystemUtils.getUserHome(), ".jfrog"), CACHE_FILE_NAME));
+
+    private final PropertiesFileStore store;
+
+    ExecutableProbeCache(File cacheFile) {
+        this.store = new PropertiesFileStore(cacheFile, "capabilities cache");
+    }
+
+    public static ExecutableProbeCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached probe result of the executable, or runs the probe and caches its result if the executable
+     * was never probed or has changed since. Failed probes (null results) are not cached.
+     *
+     * @param executable The executable to probe.
+     * @param probe      The probe to run on a cache miss.
+     * @return The probe result, or null if the probe failed.
+     */
+    @Nullable
+    public String get(@NotNull File executable, @NotNull Function<File, String> probe) {
+        String key = executable.getAbsolutePath();
+        String fingerprint = fingerprint(executable);
+        if (fingerprint == null) {
+            return probe.apply(executable);
+        }
+        synchronized (this) {
+            Properties cached = store.getProperties();
+            if (fingerprint.equals(cached.getProperty(key + FINGERPRINT_SUFFIX))) {
+                return cached.getProperty(key + RESULT_SUFFIX);
+            }
+        }
+        // Run the probe outside of the lock, so that different executables can be probed in parallel
+        String result = probe.apply(executable);
+        if (result != null) {
+            synchronized (this) {
+                store.update(cached -> {
+                    cached.setProperty(key + FINGERPRINT_SUFFIX, fingerprint);
+                    cached.setProperty(key + RESULT_SUFFIX, result);
+                });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The executable's size, modification time and resolved target, or null if the executable cannot be read.
+     */
+    @Nullable
+    private static String fingerprint(File executable) {
+        try {
+            File target = executable.getCanonicalFile();
+            if (!target.isFile()) {
+                return null;
+            }
+            return target.length() + ":" + target.lastModified() + ":" + target.getPath();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -70,7 +70,7 @@ public class Maven3CapabilityHelper extends AbstractHomeDirectoryCapabilityDefau
             if (input == null) {
                 return false;
             }
-            String mavenVersion = getMavenVersion(input);
+            String mavenVersion = ExecutableProbeCache.getInstance().get(input, MavenVersionMatcher::getMavenVersion);
             return mavenVersion != null && pattern.matcher(mavenVersion).matches();
         }
 
@@ -55,6 +55,10 @@ public abstract class AbstractArtifactoryConfiguration extends AbstractTaskConfi
     public static final String CFG_LEGACY_PATTERNS = "legacyPatterns";
     public static final String CFG_FILE_SPECS = "specs";
     public static final Map<String, String> USE_SPECS_OPTIONS = ImmutableMap.of(CFG_FILE_SPECS, "Specs", CFG_LEGACY_PATTERNS, "Legacy patterns (deprecated)");
+    // If selected, download the artifacts recorded in the build-info of a published build
+    public static final String CFG_BUILD_ARTIFACTS = "buildArtifacts";
+    public static final Map<String, String> RESOLVE_OPTIONS = ImmutableMap.of(CFG_FILE_SPECS, "Specs", CFG_BUILD_ARTIFACTS, "Build artifacts", CFG_LEGACY_PATTERNS, "Legacy patterns (deprecated)");
+    public static final Map<String, String> DOWNLOAD_OPTIONS = ImmutableMap.of(CFG_FILE_SPECS, "Specs", CFG_BUILD_ARTIFACTS, "Build artifacts");
 
     // If selected, use the credentials configured in the global Artifactory servers configuration
     public static final String CVG_CRED_NO_OVERRIDE = "noOverriding";
@@ -229,11 +233,6 @@ public abstract class AbstractArtifactoryConfiguration extends AbstractTaskConfi
         return null;
     }
 
-    private boolean isEncrypted(String value) {
-        String decryptedValue = EncryptionHelper.decryptIfNeeded(value);
-        return !decryptedValue.equals(value);
-    }
-
     /**
      * This method is used by the encryptFields and decryptFields methods.
      * It encrypts or decrypts the task config fields, if their key ends with 'password'.
@@ -247,10 +246,8 @@ public abstract class AbstractArtifactoryConfiguration extends AbstractTaskConfi
         for (Map.Entry<String, String> entry : taskConfigMap.entrySet()) {
             String key = entry.getKey().toLowerCase();
             if (shouldEncrypt(key)) {
-                String value = entry.getValue();
-                if (isEncrypted(value)) {
-                    value = EncryptionHelper.decryptIfNeeded(value);
-                }
+                // Returns the value as is if it is not encrypted
+                String value = EncryptionHelper.decryptIfNeeded(entry.getValue());
                 if (enc) {
                     value = EncryptionHelper.encryptForUi(value);
                 }
@@ -47,6 +47,7 @@ public abstract class AbstractDotNetBuildConfiguration extends AbstractArtifacto
         context.put("selectedPublishingServerId", -1);
         context.put("selectedPublishingRepoKey", "");
         context.put(DotNetBuildContext.PUSH_PATTERN, DotNetBuildContext.PUSH_PATTERN_DEFAULT_VALUE);
+        context.put(DotNetBuildContext.DOTNET_SHARED_PACKAGE_CACHE_MAX_SIZE, PackageManagersContext.DEFAULT_SHARED_PACKAGE_CACHE_MAX_SIZE_MB);
     }
 
     @Override
@@ -117,6 +118,11 @@ public abstract class AbstractDotNetBuildConfiguration extends AbstractArtifacto
             String serverKey = DotNetBuildContext.RESOLVER_SERVER_ID;
             String repoKey = DotNetBuildContext.RESOLUTION_REPO;
             TaskConfigurationValidations.validateArtifactoryServerAndRepo(serverKey, repoKey, serverConfigManager, params, errorCollection);
+
+            // Validate shared package cache.
+            if (params.getBoolean(DotNetBuildContext.DOTNET_USE_SHARED_PACKAGE_CACHE)) {
+                TaskConfigurationValidations.validatePositiveNumber(DotNetBuildContext.DOTNET_SHARED_PACKAGE_CACHE_MAX_SIZE, "the cache max size", params, errorCollection);
+            }
         }
 
         if (CFG_COMMAND_PUSH.equals(params.getString(commandChoiceKey))) {
@@ -1,8 +1,11 @@
 package org.jfrog.bamboo.configuration;
 
+import com.atlassian.bamboo.collections.ActionParametersMap;
 import com.atlassian.bamboo.task.TaskDefinition;
+import com.atlassian.bamboo.utils.error.ErrorCollection;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jfrog.bamboo.configuration.util.TaskConfigurationValidations;
 import org.jfrog.bamboo.context.GenericContext;
 import org.jfrog.bamboo.context.IvyBuildContext;
 
@@ -11,22 +14,32 @@ import java.util.Map;
 import static org.jfrog.bamboo.context.ArtifactoryBuildContext.RESOLVER_OVERRIDE_CREDENTIALS_CHOICE;
 
 /**
- * Configuration for {@link org.jfrog.bamboo.task.ArtifactoryGenericResolveTask}
+ * Configuration for {@link org.jfrog.bamboo.task.ArtifactoryGenericResolveTask} and
+ * {@link org.jfrog.bamboo.task.ArtifactoryDeploymentDownloadTask}
  *
  * @author Lior Hasson
  */
 public class ArtifactoryGenericResolveConfiguration extends AbstractGenericBuildConfiguration {
+    private static final String DEPLOYMENT_DOWNLOAD_TASK_KEY = ":ArtifactoryDeploymentDownloadTask";
 
     @Override
     public void populateContextForCreate(@NotNull Map<String, Object> context) {
         super.populateContextForCreate(context);
         populateLegacyContextForCreate(context);
+        populateDownloadOptions(context);
+        context.put(GenericContext.SHARED_DOWNLOAD_CACHE_MAX_SIZE, GenericContext.DEFAULT_SHARED_DOWNLOAD_CACHE_MAX_SIZE_MB);
+        context.put(GenericContext.SEGMENTED_DOWNLOAD_THRESHOLD, GenericContext.DEFAULT_SEGMENTED_DOWNLOAD_THRESHOLD_MB);
     }
 
     @Override
     public void populateContextForEdit(@NotNull Map<String, Object> context, @NotNull TaskDefinition taskDefinition) {
         super.populateContextForEdit(context, taskDefinition);
         populateLegacyContextForEdit(context, taskDefinition);
+        populateDownloadOptions(context);
+        // Download tasks created before the build artifacts option always download by specs
+        if (context.get(GenericContext.USE_SPECS_CHOICE) == null && StringUtils.endsWith(taskDefinition.getPluginKey(), DEPLOYMENT_DOWNLOAD_TASK_KEY)) {
+            context.put(GenericContext.USE_SPECS_CHOICE, CFG_FILE_SPECS);
+        }
 
         String publishingKey = GenericContext.REPO_KEY;
         String selectedPublishingRepoKey = context.get(publishingKey) != null ? context.get(publishingKey).toString() :
@@ -42,6 +55,28 @@ public class ArtifactoryGenericResolveConfiguration extends AbstractGenericBuild
         }
     }
 
+    @Override
+    public void validate(@NotNull ActionParametersMap params, @NotNull ErrorCollection errorCollection) {
+        super.validate(params, errorCollection);
+        if (CFG_BUILD_ARTIFACTS.equals(params.getString(GenericContext.USE_SPECS_CHOICE))) {
+            TaskConfigurationValidations.validateBuildNameNumber(GenericContext.SOURCE_BUILD_NAME, GenericContext.SOURCE_BUILD_NUMBER, params, errorCollection);
+            if (StringUtils.isBlank(params.getString(GenericContext.SOURCE_BUILD_REPO))) {
+                errorCollection.addError(GenericContext.SOURCE_BUILD_REPO, "Please specify the repository of the build artifacts.");
+            }
+        }
+        if (CFG_LEGACY_PATTERNS.equals(params.getString(GenericContext.USE_SPECS_CHOICE))) {
+            TaskConfigurationValidations.validatePositiveNumber(GenericContext.SEGMENTED_DOWNLOAD_THRESHOLD, "the segmented download threshold", params, errorCollection);
+        }
+        if (params.getBoolean(GenericContext.USE_SHARED_DOWNLOAD_CACHE)) {
+            TaskConfigurationValidations.validatePositiveNumber(GenericContext.SHARED_DOWNLOAD_CACHE_MAX_SIZE, "the cache max size", params, errorCollection);
+        }
+    }
+
+    private void populateDownloadOptions(@NotNull Map<String, Object> context) {
+        context.put("resolveOptions", RESOLVE_OPTIONS);
+        context.put("downloadOptions", DOWNLOAD_OPTIONS);
+    }
+
     @Override
     protected String getKey() {
         return "";
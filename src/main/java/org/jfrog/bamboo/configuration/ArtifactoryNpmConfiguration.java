@@ -52,6 +52,7 @@ public class ArtifactoryNpmConfiguration extends AbstractArtifactoryConfiguratio
         context.put("selectedResolutionRepoKey", "");
         context.put("selectedPublishingServerId", -1);
         context.put("selectedPublishingRepoKey", "");
+        context.put(NpmBuildContext.NPM_SHARED_PACKAGE_CACHE_MAX_SIZE, PackageManagersContext.DEFAULT_SHARED_PACKAGE_CACHE_MAX_SIZE_MB);
     }
 
     @Override
@@ -135,6 +136,11 @@ public class ArtifactoryNpmConfiguration extends AbstractArtifactoryConfiguratio
             TaskConfigurationValidations.validateArtifactoryServerAndRepo(deploymentServerKey, deploymentRepoKey, serverConfigManager, params, errorCollection);
         }
 
+        // Validate shared package cache.
+        if (CFG_NPM_COMMAND_INSTALL.equals(params.getString(commandChoiceKey)) && params.getBoolean(NpmBuildContext.NPM_USE_SHARED_PACKAGE_CACHE)) {
+            TaskConfigurationValidations.validatePositiveNumber(NpmBuildContext.NPM_SHARED_PACKAGE_CACHE_MAX_SIZE, "the cache max size", params, errorCollection);
+        }
+
         // Validate Executable.
         String executableKey = NpmBuildContext.PREFIX + PackageManagersContext.EXECUTABLE;
         if (StringUtils.isBlank(params.getString(executableKey))) {
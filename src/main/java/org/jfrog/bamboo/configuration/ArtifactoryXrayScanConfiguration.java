@@ -30,6 +30,8 @@ public class ArtifactoryXrayScanConfiguration extends AbstractArtifactoryConfigu
         context.put("serverConfigManager", serverConfigManager);
         context.put("selectedServerId", -1);
         context.put("selectedRepoKey", "");
+        context.put(XrayScanContext.SCAN_TIMEOUT, XrayScanContext.DEFAULT_SCAN_TIMEOUT_MINUTES);
+        context.put(XrayScanContext.SCAN_RESULTS_MAX_AGE, XrayScanContext.DEFAULT_SCAN_RESULTS_MAX_AGE_HOURS);
     }
 
     @Override
@@ -76,5 +78,15 @@ public class ArtifactoryXrayScanConfiguration extends AbstractArtifactoryConfigu
 
         // Validate build name and number.
         TaskConfigurationValidations.validateBuildNameNumber(ArtifactoryBuildContext.BUILD_NAME, ArtifactoryBuildContext.BUILD_NUMBER, params, errorCollection);
+
+        // Validate asynchronous scan timeout.
+        if (params.getBoolean(XrayScanContext.ASYNC_SCAN)) {
+            TaskConfigurationValidations.validatePositiveNumber(XrayScanContext.SCAN_TIMEOUT, "the scan timeout", params, errorCollection);
+        }
+
+        // Validate scan results reuse.
+        if (params.getBoolean(XrayScanContext.REUSE_SCAN_RESULTS)) {
+            TaskConfigurationValidations.validatePositiveNumber(XrayScanContext.SCAN_RESULTS_MAX_AGE, "the scan results max age", params, errorCollection);
+        }
     }
 }
@@ -9,10 +9,8 @@ import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.methods.GetMethod;
-import org.codehaus.jackson.JsonFactory;
-import org.codehaus.jackson.JsonParser;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.jfrog.bamboo.util.ConstantValues;
+import org.jfrog.bamboo.util.JsonUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -53,16 +51,11 @@ public class ConfigurationHelper implements Serializable {
         try {
             executeMethod(requestUrl, getMethod);
 
-            JsonFactory jsonFactory = new JsonFactory();
-            ObjectMapper mapper = new ObjectMapper();
-            jsonFactory.setCodec(mapper);
-
             try (InputStream responseStream = getMethod.getResponseBodyAsStream()) {
                 if (responseStream == null) {
                     return Maps.newHashMap();
                 }
-                JsonParser parser = jsonFactory.createJsonParser(responseStream);
-                return parser.readValueAs(Map.class);
+                return JsonUtils.getMapper().readValue(responseStream, Map.class);
             }
         } catch (IOException e) {
             String message = "Failed while invoking URL " + requestUrl + " to get Bamboo variables. " + e.getMessage();
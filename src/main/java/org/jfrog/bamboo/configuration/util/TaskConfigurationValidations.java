@@ -159,4 +159,14 @@ public class TaskConfigurationValidations {
             errorCollection.addError(buildNumberKey, "Please specify Build Number.");
         }
     }
+
+    /**
+     * Validate that the value, if provided, is a positive integer.
+     */
+    public static void validatePositiveNumber(String key, String name, @NotNull ActionParametersMap params, @NotNull ErrorCollection errorCollection) {
+        String value = params.getString(key);
+        if (StringUtils.isNotBlank(value) && (!StringUtils.isNumeric(value) || Long.parseLong(value) <= 0 || Long.parseLong(value) > Integer.MAX_VALUE)) {
+            errorCollection.addError(key, "Please specify a positive number for " + name + ".");
+        }
+    }
 }
@@ -25,6 +25,8 @@ public class DotNetBuildContext extends PackageManagersContext {
     public static final String PUBLISHING_REPO = PREFIX + PUBLISHING_REPO_PARAM;
     private static final String DEPLOYER_USERNAME = PREFIX + DEPLOYER_USERNAME_PARAM;
     private static final String DEPLOYER_PASSWORD = PREFIX + DEPLOYER_PASSWORD_PARAM;
+    public static final String DOTNET_USE_SHARED_PACKAGE_CACHE = PREFIX + USE_SHARED_PACKAGE_CACHE;
+    public static final String DOTNET_SHARED_PACKAGE_CACHE_MAX_SIZE = PREFIX + SHARED_PACKAGE_CACHE_MAX_SIZE;
     public static final String PUSH_PATTERN_DEFAULT_VALUE = "*.nupkg";
 
     public DotNetBuildContext(Map<String, String> env) {
@@ -37,7 +39,7 @@ public class DotNetBuildContext extends PackageManagersContext {
                 PUSH_TARGET, PUBLISHING_REPO, DEPLOYER_USERNAME, DEPLOYER_PASSWORD, INCLUDE_ENV_VARS_PARAM,
                 ENV_VARS_EXCLUDE_PATTERNS, ENV_VARS_INCLUDE_PATTERNS, CAPTURE_BUILD_INFO, BUILD_NAME, BUILD_NUMBER,
                 RESOLVER_OVERRIDE_CREDENTIALS_CHOICE, RESOLVER_SHARED_CREDENTIALS, DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE,
-                DEPLOYER_SHARED_CREDENTIALS);
+                DEPLOYER_SHARED_CREDENTIALS, DOTNET_USE_SHARED_PACKAGE_CACHE, DOTNET_SHARED_PACKAGE_CACHE_MAX_SIZE);
     }
 
     public String getArguments() {
@@ -3,6 +3,7 @@ package org.jfrog.bamboo.context;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.jfrog.bamboo.configuration.AbstractArtifactoryConfiguration;
 
 import java.util.Map;
@@ -32,6 +33,15 @@ public class GenericContext extends ArtifactoryBuildContext {
     public static final String ARTIFACT_SPECS = "artifactory.generic.artifactSpecs";
     public static final String ENV_VARS_INCLUDE_PATTERNS = "artifactory.generic.envVarsIncludePatterns";
     public static final String ENV_VARS_EXCLUDE_PATTERNS = "artifactory.generic.envVarsExcludePatterns";
+    public static final String SOURCE_BUILD_NAME = "artifactory.generic.sourceBuildName";
+    public static final String SOURCE_BUILD_NUMBER = "artifactory.generic.sourceBuildNumber";
+    public static final String SOURCE_BUILD_REPO = "artifactory.generic.sourceBuildRepo";
+    public static final String USE_SHARED_DOWNLOAD_CACHE = "artifactory.generic.useSharedDownloadCache";
+    public static final String SHARED_DOWNLOAD_CACHE_MAX_SIZE = "artifactory.generic.sharedDownloadCacheMaxSize";
+    public static final String COPY_FROM_SHARED_DOWNLOAD_CACHE = "artifactory.generic.copyFromSharedDownloadCache";
+    public static final int DEFAULT_SHARED_DOWNLOAD_CACHE_MAX_SIZE_MB = 10240;
+    public static final String SEGMENTED_DOWNLOAD_THRESHOLD = "artifactory.generic.segmentedDownloadThreshold";
+    public static final int DEFAULT_SEGMENTED_DOWNLOAD_THRESHOLD_MB = 5;
     public static final String SIGN_METHOD_MAP_KEY = "signMethods";
 
     public static final Map<String, String> SIGN_METHOD_MAP = ImmutableMap.of(
@@ -46,7 +56,8 @@ public class GenericContext extends ArtifactoryBuildContext {
                 SPEC_SOURCE_JOB_CONFIGURATION, BUILD_INFO_AGGREGATION, CAPTURE_BUILD_INFO, SPEC_SOURCE_FILE, ARTIFACT_SPECS,
                 RESOLVE_PATTERN, PUBLISH_BUILD_INFO, INCLUDE_ENV_VARS, ENV_VARS_INCLUDE_PATTERNS, ENV_VARS_EXCLUDE_PATTERNS,
                 USE_SPECS_CHOICE, SPEC_SOURCE_CHOICE, BUILD_NAME, BUILD_NUMBER, RESOLVER_OVERRIDE_CREDENTIALS_CHOICE, RESOLVER_SHARED_CREDENTIALS,
-                DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE, DEPLOYER_SHARED_CREDENTIALS);
+                DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE, DEPLOYER_SHARED_CREDENTIALS, SOURCE_BUILD_NAME, SOURCE_BUILD_NUMBER, SOURCE_BUILD_REPO,
+                USE_SHARED_DOWNLOAD_CACHE, SHARED_DOWNLOAD_CACHE_MAX_SIZE, COPY_FROM_SHARED_DOWNLOAD_CACHE, SEGMENTED_DOWNLOAD_THRESHOLD);
     }
 
     public long getSelectedServerId() {
@@ -80,6 +91,10 @@ public class GenericContext extends ArtifactoryBuildContext {
         return (AbstractArtifactoryConfiguration.CFG_FILE_SPECS.equals(env.get(USE_SPECS_CHOICE)));
     }
 
+    public boolean isUseBuildArtifacts() {
+        return (AbstractArtifactoryConfiguration.CFG_BUILD_ARTIFACTS.equals(env.get(USE_SPECS_CHOICE)));
+    }
+
     public boolean isFileSpecInJobConfiguration() {
         return (AbstractArtifactoryConfiguration.CFG_SPEC_SOURCE_JOB_CONFIGURATION.equals(env.get(SPEC_SOURCE_CHOICE)));
     }
@@ -127,4 +142,45 @@ public class GenericContext extends ArtifactoryBuildContext {
     public String getBuildNumber() {
         return env.get(BUILD_NUMBER);
     }
+
+    public String getSourceBuildName() {
+        return env.get(SOURCE_BUILD_NAME);
+    }
+
+    public String getSourceBuildNumber() {
+        return env.get(SOURCE_BUILD_NUMBER);
+    }
+
+    public String getSourceBuildRepo() {
+        return env.get(SOURCE_BUILD_REPO);
+    }
+
+    /**
+     * @return True if the downloads should use the agent-wide shared download cache.
+     */
+    public boolean isUseSharedDownloadCache() {
+        return Boolean.parseBoolean(env.get(USE_SHARED_DOWNLOAD_CACHE));
+    }
+
+    /**
+     * @return The size bound in megabytes of the shared download cache.
+     */
+    public int getSharedDownloadCacheMaxSize() {
+        return NumberUtils.toInt(env.get(SHARED_DOWNLOAD_CACHE_MAX_SIZE), DEFAULT_SHARED_DOWNLOAD_CACHE_MAX_SIZE_MB);
+    }
+
+    /**
+     * @return True if the files should be copied from the shared download cache rather than linked to its read-only
+     * files, for builds that modify the downloaded files in place.
+     */
+    public boolean isCopyFromSharedDownloadCache() {
+        return Boolean.parseBoolean(env.get(COPY_FROM_SHARED_DOWNLOAD_CACHE));
+    }
+
+    /**
+     * @return The size in megabytes from which a file is downloaded as concurrent byte ranges.
+     */
+    public int getSegmentedDownloadThreshold() {
+        return NumberUtils.toInt(env.get(SEGMENTED_DOWNLOAD_THRESHOLD), DEFAULT_SEGMENTED_DOWNLOAD_THRESHOLD_MB);
+    }
 }
@@ -23,6 +23,8 @@ public class NpmBuildContext extends PackageManagersContext {
     private static final String NPM_RESOLVER_PASSWORD = PREFIX + RESOLVER_PASSWORD_PARAM;
     private static final String NPM_DEPLOYER_USERNAME = PREFIX + DEPLOYER_USERNAME_PARAM;
     private static final String NPM_DEPLOYER_PASSWORD = PREFIX + DEPLOYER_PASSWORD_PARAM;
+    public static final String NPM_USE_SHARED_PACKAGE_CACHE = PREFIX + USE_SHARED_PACKAGE_CACHE;
+    public static final String NPM_SHARED_PACKAGE_CACHE_MAX_SIZE = PREFIX + SHARED_PACKAGE_CACHE_MAX_SIZE;
 
     public NpmBuildContext(Map<String, String> env) {
         super(PREFIX, env);
@@ -37,7 +39,8 @@ public class NpmBuildContext extends PackageManagersContext {
                 NPM_RESOLVER_PASSWORD, NPM_DEPLOYER_SERVER_ID, NPM_PUBLISHING_REPO, NPM_DEPLOYER_USERNAME, NPM_DEPLOYER_PASSWORD,
                 INCLUDE_ENV_VARS_PARAM, ENV_VARS_EXCLUDE_PATTERNS, ENV_VARS_INCLUDE_PATTERNS, CAPTURE_BUILD_INFO,
                 BUILD_NAME, BUILD_NUMBER, RESOLVER_OVERRIDE_CREDENTIALS_CHOICE, RESOLVER_SHARED_CREDENTIALS,
-                DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE, DEPLOYER_SHARED_CREDENTIALS);
+                DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE, DEPLOYER_SHARED_CREDENTIALS, NPM_USE_SHARED_PACKAGE_CACHE,
+                NPM_SHARED_PACKAGE_CACHE_MAX_SIZE);
     }
 
     public String getCommandChoice() {
@@ -7,6 +7,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.bamboo.release.action.ModuleVersionHolder;
 import org.jfrog.bamboo.util.TaskDefinitionHelper;
@@ -57,6 +58,9 @@ public abstract class PackageManagersContext extends ArtifactoryBuildContext {
     public static final String JDK = "buildJdk";
     public static final String EXECUTABLE = "executable";
     public static final String BASE_URL = "baseUrl";
+    public static final String USE_SHARED_PACKAGE_CACHE = "useSharedPackageCache";
+    public static final String SHARED_PACKAGE_CACHE_MAX_SIZE = "sharedPackageCacheMaxSize";
+    public static final int DEFAULT_SHARED_PACKAGE_CACHE_MAX_SIZE_MB = 10240;
 
     // Release management props.
     public static final String ENABLE_RELEASE_MANAGEMENT = "enableReleaseManagement";
@@ -271,6 +275,20 @@ public abstract class PackageManagersContext extends ArtifactoryBuildContext {
         return env.get(prefix + ARTIFACT_SPECS_PARAM);
     }
 
+    /**
+     * @return True if the package manager should use the agent-wide shared package cache.
+     */
+    public boolean isUseSharedPackageCache() {
+        return Boolean.parseBoolean(env.get(prefix + USE_SHARED_PACKAGE_CACHE));
+    }
+
+    /**
+     * @return The size bound in megabytes of the shared package cache.
+     */
+    public int getSharedPackageCacheMaxSize() {
+        return NumberUtils.toInt(env.get(prefix + SHARED_PACKAGE_CACHE_MAX_SIZE), DEFAULT_SHARED_PACKAGE_CACHE_MAX_SIZE_MB);
+    }
+
 
     public void resetDeployerContextToDefault() {
         env.put(prefix + SERVER_ID_PARAM, "-1");
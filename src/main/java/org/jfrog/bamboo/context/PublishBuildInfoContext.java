@@ -13,6 +13,7 @@ public class PublishBuildInfoContext extends ArtifactoryBuildContext {
     public static final String SERVER_ID_PARAM = PREFIX + "artifactoryServerId";
     public static final String USERNAME = PREFIX + USERNAME_PARAM;
     public static final String PASSWORD = PREFIX + PASSWORD_PARAM;
+    public static final String PUBLISH_ALL_BUILDS = PREFIX + "publishAllBuilds";
 
     public PublishBuildInfoContext(Map<String, String> env) {
         super(PREFIX, env);
@@ -20,6 +21,10 @@ public class PublishBuildInfoContext extends ArtifactoryBuildContext {
 
     public static Set<String> getFieldsToCopy() {
         return Sets.newHashSet(SERVER_ID_PARAM, USERNAME, PASSWORD, BUILD_NAME, BUILD_NUMBER,
-                DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE, DEPLOYER_SHARED_CREDENTIALS);
+                DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE, DEPLOYER_SHARED_CREDENTIALS, PUBLISH_ALL_BUILDS);
+    }
+
+    public boolean isPublishAllBuilds() {
+        return Boolean.parseBoolean(env.get(PUBLISH_ALL_BUILDS));
     }
 }
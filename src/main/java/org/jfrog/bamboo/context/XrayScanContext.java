@@ -1,6 +1,7 @@
 package org.jfrog.bamboo.context;
 
 import com.google.common.collect.Sets;
+import org.apache.commons.lang3.math.NumberUtils;
 
 import java.util.Map;
 import java.util.Set;
@@ -12,6 +13,12 @@ public class XrayScanContext extends ArtifactoryBuildContext {
     public static final String PREFIX = "artifactory.xrayScan.";
     public static final String SERVER_ID_PARAM = PREFIX + "artifactoryServerId";
     public static final String FAIL_IF_VULNERABLE = PREFIX + "failIfVulnerable";
+    public static final String ASYNC_SCAN = PREFIX + "asyncScan";
+    public static final String SCAN_TIMEOUT = PREFIX + "scanTimeout";
+    public static final String REUSE_SCAN_RESULTS = PREFIX + "reuseScanResults";
+    public static final String SCAN_RESULTS_MAX_AGE = PREFIX + "scanResultsMaxAge";
+    public static final int DEFAULT_SCAN_TIMEOUT_MINUTES = 60;
+    public static final int DEFAULT_SCAN_RESULTS_MAX_AGE_HOURS = 24;
     public static final String USERNAME = PREFIX + USERNAME_PARAM;
     public static final String PASSWORD = PREFIX + PASSWORD_PARAM;
 
@@ -21,10 +28,39 @@ public class XrayScanContext extends ArtifactoryBuildContext {
 
     public static Set<String> getFieldsToCopy() {
         return Sets.newHashSet(SERVER_ID_PARAM, USERNAME, PASSWORD, FAIL_IF_VULNERABLE, BUILD_NAME, BUILD_NUMBER,
-                DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE, DEPLOYER_SHARED_CREDENTIALS);
+                DEPLOYER_OVERRIDE_CREDENTIALS_CHOICE, DEPLOYER_SHARED_CREDENTIALS, ASYNC_SCAN, SCAN_TIMEOUT,
+                REUSE_SCAN_RESULTS, SCAN_RESULTS_MAX_AGE);
     }
 
     public boolean isFailIfVulnerable() {
         return Boolean.parseBoolean(env.get(FAIL_IF_VULNERABLE));
     }
+
+    /**
+     * @return True if the scan should run in the background, and be enforced when the job completes.
+     */
+    public boolean isAsyncScan() {
+        return Boolean.parseBoolean(env.get(ASYNC_SCAN));
+    }
+
+    /**
+     * @return The maximum time in minutes to wait for an asynchronous scan.
+     */
+    public int getScanTimeout() {
+        return NumberUtils.toInt(env.get(SCAN_TIMEOUT), DEFAULT_SCAN_TIMEOUT_MINUTES);
+    }
+
+    /**
+     * @return True if a recent scan result of a build with the same artifacts and dependencies may be reused.
+     */
+    public boolean isReuseScanResults() {
+        return Boolean.parseBoolean(env.get(REUSE_SCAN_RESULTS));
+    }
+
+    /**
+     * @return The maximum age in hours of a reused scan result.
+     */
+    public int getScanResultsMaxAge() {
+        return NumberUtils.toInt(env.get(SCAN_RESULTS_MAX_AGE), DEFAULT_SCAN_RESULTS_MAX_AGE_HOURS);
+    }
 }
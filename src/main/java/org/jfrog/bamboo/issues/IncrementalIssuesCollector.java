@@ -0,0 +1,203 @@
+package org.jfrog.bamboo.issues;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.errors.RevisionSyntaxException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.bamboo.util.JsonUtils;
+import org.jfrog.build.api.Issue;
+import org.jfrog.build.api.IssueTracker;
+import org.jfrog.build.api.Issues;
+import org.jfrog.build.api.IssuesCollectionConfig;
+import org.jfrog.build.api.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the issues referenced by the commit messages added since the previous build, like
+ * {@link org.jfrog.build.extractor.issuesCollection.IssuesCollector}, but walks the Git history in-process rather than
+ * through a 'git log' subprocess.
+ * <p>
+ * The result is recorded in an {@link IssuesCollectionCursors.Cursor}. When the next build has the same previous build
+ * revision, and its head descends from the cursor's head, only the commits added since the cursor are processed.
+ * Otherwise, for example when the history was rewritten, the whole range is processed again.
+ * <p>
+ * As with 'git log -100', only the latest {@link #MAX_COMMITS} commits are processed. The cursor records how many
+ * commits were walked from its head before each of its issues, and an issue is only reused while its commit is still
+ * within the latest {@link #MAX_COMMITS} commits of the new head. This is exact for a linear history. With merges,
+ * where new and older commits may interleave in the walk, the window is approximated by these counts.
+ */
+public class IncrementalIssuesCollector {
+    /**
+     * The maximum number of commits processed per collection, as in 'git log -100'.
+     */
+    static final int MAX_COMMITS = 100;
+
+    private final IssuesCollectionCursors cursors;
+
+    public IncrementalIssuesCollector(IssuesCollectionCursors cursors) {
+        this.cursors = cursors;
+    }
+
+    /**
+     * Parses and validates an issues collection config json.
+     */
+    public static IssuesCollectionConfig parseConfig(String config) throws IOException {
+        IssuesCollectionConfig parsedConfig;
+        try {
+            parsedConfig = JsonUtils.getMapper().readValue(config.replace("\\", "\\\\"), IssuesCollectionConfig.class);
+        } catch (Exception e) {
+            throw new IOException(IssuesCollectionConfig.ISSUES_COLLECTION_ERROR_PREFIX + "Failed parsing config: " + e.getMessage());
+        }
+        parsedConfig.validateConfig();
+        return parsedConfig;
+    }
+
+    /**
+     * Collects the issues referenced by the commits reachable from HEAD and not from the previous build revision.
+     *
+     * @param projectRootDir   A directory inside the Git working copy.
+     * @param config           The parsed issues collection config.
+     * @param cursorKey        The cursor key, see {@link IssuesCollectionCursors#getKey(String, String, String)}.
+     * @param previousRevision The revision of the previous build, or an empty string if there is no previous build.
+     * @param log              The build log.
+     * @return The collected issues.
+     */
+    public Issues collectIssues(@NotNull File projectRootDir, @NotNull IssuesCollectionConfig config,
+                                @NotNull String cursorKey, @NotNull String previousRevision, @NotNull Log log) throws IOException {
+        IssuesCollectionConfig.Issues issuesConfig = config.getIssues();
+        Map<Issue, Integer> issueDepths = new LinkedHashMap<>();
+        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().readEnvironment().findGitDir(projectRootDir);
+        if (repositoryBuilder.getGitDir() == null) {
+            throw new IOException(IssuesCollectionConfig.ISSUES_COLLECTION_ERROR_PREFIX +
+                    "No Git repository found at " + projectRootDir.getAbsolutePath());
+        }
+        try (Repository repository = repositoryBuilder.build(); RevWalk revWalk = new RevWalk(repository)) {
+            RevCommit head = parseCommit(repository, revWalk, Constants.HEAD);
+            if (head == null) {
+                log.info("No commits found in " + projectRootDir.getAbsolutePath() + ". No new issues are added.");
+                return createIssues(issuesConfig, issueDepths);
+            }
+            RevCommit base = null;
+            if (StringUtils.isNotEmpty(previousRevision)) {
+                base = parseCommit(repository, revWalk, previousRevision);
+                if (base == null) {
+                    log.info("Revision: '" + previousRevision + "' that was fetched from latest build info does not exist in the git revision range. No new issues are added.");
+                    return createIssues(issuesConfig, issueDepths);
+                }
+            }
+
+            Pattern pattern = Pattern.compile(issuesConfig.getRegexp());
+            IssuesCollectionCursors.Cursor cursor = cursors.get(cursorKey);
+            RevCommit cursorHead = cursor != null && previousRevision.equals(cursor.getBaseRevision()) ?
+                    parseCommit(repository, revWalk, cursor.getHeadRevision()) : null;
+            if (cursorHead != null && isAncestor(revWalk, cursorHead, head)) {
+                int processed = collectIssues(revWalk, head, cursorHead, pattern, issuesConfig, issueDepths, log);
+                // The new commits push the commits of the cursor down, possibly out of the window
+                int reused = 0;
+                for (Map.Entry<Issue, Integer> entry : cursor.getIssueDepths().entrySet()) {
+                    int depth = entry.getValue() + processed;
+                    if (depth < MAX_COMMITS) {
+                        issueDepths.putIfAbsent(entry.getKey(), depth);
+                        reused++;
+                    }
+                }
+                log.info("Reused " + reused + " issues collected up to revision " + cursorHead.getName() +
+                        ", and processed " + processed + " new commits.");
+            } else {
+                if (cursor != null) {
+                    log.debug("The last processed revision is not an ancestor of " + head.getName() +
+                            " or the previous build changed, processing the whole revision range.");
+                }
+                collectIssues(revWalk, head, base, pattern, issuesConfig, issueDepths, log);
+            }
+            cursors.put(cursorKey, new IssuesCollectionCursors.Cursor(previousRevision, head.getName(), issueDepths));
+        }
+        return createIssues(issuesConfig, issueDepths);
+    }
+
+    /**
+     * Matches the subjects of the commits reachable from the head and not from the base against the issues pattern.
+     * Each new issue is added with its depth, the number of commits walked before the commit referencing it.
+     *
+     * @return The number of processed commits.
+     */
+    private static int collectIssues(RevWalk revWalk, RevCommit head, @Nullable RevCommit base, Pattern pattern,
+                                     IssuesCollectionConfig.Issues issuesConfig, Map<Issue, Integer> issueDepths,
+                                     Log log) throws IOException {
+        revWalk.reset();
+        revWalk.markStart(head);
+        if (base != null) {
+            revWalk.markUninteresting(base);
+        }
+        int processed = 0;
+        for (RevCommit commit : revWalk) {
+            if (processed++ >= MAX_COMMITS) {
+                processed = MAX_COMMITS;
+                break;
+            }
+            Matcher matcher = pattern.matcher(commit.getShortMessage());
+            if (!matcher.find()) {
+                continue;
+            }
+            Issue issue = getMatchingIssue(matcher, issuesConfig);
+            if (issueDepths.putIfAbsent(issue, processed - 1) == null) {
+                log.info("Added issue: " + issue.getKey() + " to the build-info");
+            }
+        }
+        revWalk.reset();
+        return processed;
+    }
+
+    private static Issue getMatchingIssue(Matcher matcher, IssuesCollectionConfig.Issues issuesConfig) throws IOException {
+        int keyIndex = issuesConfig.getKeyGroupIndex();
+        int summaryIndex = issuesConfig.getSummaryGroupIndex();
+        if (matcher.groupCount() < keyIndex || matcher.groupCount() < summaryIndex) {
+            throw new IOException(IssuesCollectionConfig.ISSUES_COLLECTION_ERROR_PREFIX + "Unexpected result while parsing issues from git log. " +
+                    "Make sure that the regular expression used to find issues, includes two capturing groups, for the issue ID and the summary.");
+        }
+        String key = matcher.group(keyIndex);
+        String url = StringUtils.isNotEmpty(issuesConfig.getTrackerUrl()) ? issuesConfig.getTrackerUrl() + "/" + key : "";
+        return new Issue(key, url, matcher.group(summaryIndex));
+    }
+
+    private static boolean isAncestor(RevWalk revWalk, RevCommit ancestor, RevCommit commit) throws IOException {
+        try {
+            return revWalk.isMergedInto(ancestor, commit);
+        } finally {
+            revWalk.reset();
+        }
+    }
+
+    /**
+     * @return The commit of the revision, or null if it does not exist in the repository.
+     */
+    @Nullable
+    private static RevCommit parseCommit(Repository repository, RevWalk revWalk, String revision) throws IOException {
+        try {
+            ObjectId id = repository.resolve(revision);
+            return id != null ? revWalk.parseCommit(id) : null;
+        } catch (MissingObjectException | IncorrectObjectTypeException | RevisionSyntaxException e) {
+            return null;
+        }
+    }
+
+    private static Issues createIssues(IssuesCollectionConfig.Issues issuesConfig, Map<Issue, Integer> issueDepths) {
+        return new Issues(new IssueTracker(issuesConfig.getTrackerName()), issuesConfig.isAggregate(),
+                issuesConfig.getAggregationStatus(), new LinkedHashSet<>(issueDepths.keySet()));
+    }
+}
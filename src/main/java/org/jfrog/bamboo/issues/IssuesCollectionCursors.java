@@ -0,0 +1,160 @@
+package org.jfrog.bamboo.issues;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.SystemUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.bamboo.util.JsonUtils;
+import org.jfrog.bamboo.util.PropertiesFileStore;
+import org.jfrog.build.api.Issue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agent-wide persistent store of issues collection cursors. A cursor records, per plan branch, repository and
+ * issues collection config, the last processed revision and the issues collected up to it, so that the next build
+ * only has to process the commits added since.
+ * Cursors not updated for {@link #MAX_RETENTION_MILLIS} are removed.
+ */
+public class IssuesCollectionCursors {
+    private static final Logger log = LogManager.getLogger(IssuesCollectionCursors.class);
+    private static final String CURSORS_FILE_NAME = "bamboo-artifactory-issues-cursors.properties";
+    private static final long MAX_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final String TIME_SUFFIX = ".time";
+    private static final String BASE_REVISION_SUFFIX = ".baseRevision";
+    private static final String HEAD_REVISION_SUFFIX = ".headRevision";
+    private static final String ISSUES_SUFFIX = ".issues";
+    private static final String DEPTHS_SUFFIX = ".depths";
+
+    private static final IssuesCollectionCursors INSTANCE = new IssuesCollectionCursors(
+            new File(new File(SystemUtils.getUserHome(), ".jfrog"), CURSORS_FILE_NAME));
+
+    private final PropertiesFileStore store;
+
+    IssuesCollectionCursors(File cursorsFile) {
+        this.store = new PropertiesFileStore(cursorsFile, "issues collection cursors");
+    }
+
+    public static IssuesCollectionCursors getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates the cursor key of a plan branch, repository and issues collection config.
+     *
+     * @param planKey The plan branch (or job) key.
+     * @param vcsUrl  The repository URL.
+     * @param config  The issues collection config. A changed config invalidates the cursor.
+     */
+    public static String getKey(@NotNull String planKey, @Nullable String vcsUrl, @NotNull String config) {
+        return DigestUtils.sha256Hex((planKey + "\n" + StringUtils.defaultString(vcsUrl) + "\n" + config)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    public synchronized Cursor get(@NotNull String key) {
+        Properties cursors = store.getProperties();
+        String headRevision = cursors.getProperty(key + HEAD_REVISION_SUFFIX);
+        if (StringUtils.isBlank(headRevision)) {
+            return null;
+        }
+        Issue[] issues;
+        Integer[] depths;
+        try {
+            issues = JsonUtils.getMapper().readValue(cursors.getProperty(key + ISSUES_SUFFIX, "[]"), Issue[].class);
+            depths = JsonUtils.getMapper().readValue(cursors.getProperty(key + DEPTHS_SUFFIX, "[]"), Integer[].class);
+        } catch (IOException e) {
+            log.warn("Failed to read the issues of cursor " + key + ", ignoring it", e);
+            return null;
+        }
+        if (issues.length != depths.length) {
+            // Recorded without the depths of its issues
+            return null;
+        }
+        Map<Issue, Integer> issueDepths = new LinkedHashMap<>();
+        for (int i = 0; i < issues.length; i++) {
+            issueDepths.put(issues[i], depths[i]);
+        }
+        return new Cursor(cursors.getProperty(key + BASE_REVISION_SUFFIX, ""), headRevision, issueDepths);
+    }
+
+    public synchronized void put(@NotNull String key, @NotNull Cursor cursor) {
+        String issues;
+        String depths;
+        try {
+            issues = JsonUtils.getMapper().writeValueAsString(cursor.getIssues());
+            depths = JsonUtils.getMapper().writeValueAsString(cursor.getIssueDepths().values());
+        } catch (IOException e) {
+            log.warn("Failed to serialize the issues of cursor " + key, e);
+            return;
+        }
+        String time = String.valueOf(System.currentTimeMillis());
+        store.update(cursors -> {
+            removeExpiredEntries(cursors);
+            cursors.setProperty(key + ISSUES_SUFFIX, issues);
+            cursors.setProperty(key + DEPTHS_SUFFIX, depths);
+            cursors.setProperty(key + TIME_SUFFIX, time);
+            cursors.setProperty(key + BASE_REVISION_SUFFIX, cursor.getBaseRevision());
+            cursors.setProperty(key + HEAD_REVISION_SUFFIX, cursor.getHeadRevision());
+        });
+    }
+
+    private static void removeExpiredEntries(Properties cursors) {
+        long now = System.currentTimeMillis();
+        for (String name : cursors.stringPropertyNames()) {
+            if (!name.endsWith(TIME_SUFFIX) || now - NumberUtils.toLong(cursors.getProperty(name)) <= MAX_RETENTION_MILLIS) {
+                continue;
+            }
+            String key = name.substring(0, name.length() - TIME_SUFFIX.length());
+            for (String suffix : new String[]{TIME_SUFFIX, BASE_REVISION_SUFFIX, HEAD_REVISION_SUFFIX, ISSUES_SUFFIX, DEPTHS_SUFFIX}) {
+                cursors.remove(key + suffix);
+            }
+        }
+    }
+
+    /**
+     * The issues collected from the commits reachable from the head revision and not from the base revision.
+     * An empty base revision means the collection was not bounded by a previous build.
+     * <p>
+     * Each issue is mapped to its depth, the number of commits walked from the head revision before the latest commit
+     * referencing it, so that issues can be dropped once their commits fall out of the collection window.
+     */
+    public static class Cursor {
+        private final String baseRevision;
+        private final String headRevision;
+        private final Map<Issue, Integer> issueDepths;
+
+        public Cursor(@NotNull String baseRevision, @NotNull String headRevision, @NotNull Map<Issue, Integer> issueDepths) {
+            this.baseRevision = baseRevision;
+            this.headRevision = headRevision;
+            this.issueDepths = issueDepths;
+        }
+
+        public String getBaseRevision() {
+            return baseRevision;
+        }
+
+        public String getHeadRevision() {
+            return headRevision;
+        }
+
+        public Set<Issue> getIssues() {
+            return issueDepths.keySet();
+        }
+
+        public Map<Issue, Integer> getIssueDepths() {
+            return issueDepths;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.jfrog.bamboo.metrics;
+
+/**
+ * JMX view of the traffic sent to an Artifactory server by a type of operation during the metrics window.
+ * Registered as {@code org.jfrog.bamboo:type=ArtifactoryTraffic,server=<server id>,operation=<operation>}.
+ */
+public interface ArtifactoryTrafficMXBean {
+    long getRequests();
+
+    long getBytes();
+
+    long getErrors();
+
+    double getErrorRate();
+
+    long getLatencyP50Millis();
+
+    long getLatencyP95Millis();
+
+    long getLatencyP99Millis();
+}
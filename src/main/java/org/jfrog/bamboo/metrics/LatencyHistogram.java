@@ -0,0 +1,99 @@
+package org.jfrog.bamboo.metrics;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of request latencies with a fixed number of buckets, so that its size does not depend on the number of
+ * recorded requests. The bucket of index i holds the latencies of [2^(i-1), 2^i) milliseconds, the first bucket holds
+ * the latencies under a millisecond and the last bucket holds all the latencies above an hour.
+ */
+public class LatencyHistogram {
+    static final int BUCKETS = 24;
+    private static final String BUCKET_SEPARATOR = ",";
+    private static final String COUNT_SEPARATOR = "=";
+
+    private final long[] counts = new long[BUCKETS];
+
+    public void record(long millis, long count) {
+        counts[getBucket(millis)] += count;
+    }
+
+    public void add(LatencyHistogram histogram) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += histogram.counts[i];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound in milliseconds of the bucket holding the percentile, or 0 if the histogram is empty.
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /**
+     * @return The non empty buckets, as a comma separated list of bucket=count.
+     */
+    String serialize() {
+        StringBuilder serialized = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                if (serialized.length() > 0) {
+                    serialized.append(BUCKET_SEPARATOR);
+                }
+                serialized.append(i).append(COUNT_SEPARATOR).append(counts[i]);
+            }
+        }
+        return serialized.toString();
+    }
+
+    /**
+     * @throws NumberFormatException if the histogram is malformed.
+     */
+    static LatencyHistogram parse(String serialized) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (String bucket : StringUtils.split(StringUtils.defaultString(serialized), BUCKET_SEPARATOR)) {
+            int index = Integer.parseInt(StringUtils.substringBefore(bucket, COUNT_SEPARATOR));
+            long count = Long.parseLong(StringUtils.substringAfter(bucket, COUNT_SEPARATOR));
+            if (index < 0 || index >= BUCKETS || count < 0) {
+                throw new NumberFormatException("Invalid latency bucket: " + bucket);
+            }
+            histogram.counts[index] += count;
+        }
+        return histogram;
+    }
+
+    static int getBucket(long millis) {
+        if (millis < 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+    }
+}
@@ -0,0 +1,80 @@
+package org.jfrog.bamboo.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Traffic of the last {@link #SLOTS} hours, kept in one slot per hour. The slot of an hour is reused, and cleared,
+ * when the same slot of a later hour is recorded, so that the memory used does not depend on the traffic.
+ * Not thread safe.
+ */
+class RollingTraffic {
+    static final int SLOTS = 24;
+
+    private final long[] slotHours = new long[SLOTS];
+    private final long[] requests = new long[SLOTS];
+    private final long[] bytes = new long[SLOTS];
+    private final long[] errors = new long[SLOTS];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[SLOTS];
+
+    RollingTraffic() {
+        Arrays.fill(slotHours, -1);
+    }
+
+    void add(long hour, long requestCount, long byteCount, long errorCount, LatencyHistogram latencyHistogram) {
+        int slot = (int) (hour % SLOTS);
+        if (slotHours[slot] != hour) {
+            slotHours[slot] = hour;
+            requests[slot] = 0;
+            bytes[slot] = 0;
+            errors[slot] = 0;
+            if (latencies[slot] != null) {
+                latencies[slot].clear();
+            }
+        }
+        requests[slot] += requestCount;
+        bytes[slot] += byteCount;
+        errors[slot] += errorCount;
+        if (latencies[slot] == null) {
+            latencies[slot] = new LatencyHistogram();
+        }
+        latencies[slot].add(latencyHistogram);
+    }
+
+    /**
+     * @param name The name of the snapshot.
+     * @param hour The current hour.
+     * @return The traffic of the last {@link #SLOTS} hours, including the current hour.
+     */
+    TrafficSnapshot snapshot(String name, long hour) {
+        long requestCount = 0;
+        long byteCount = 0;
+        long errorCount = 0;
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (isInWindow(slot, hour)) {
+                requestCount += requests[slot];
+                byteCount += bytes[slot];
+                errorCount += errors[slot];
+                latencyHistogram.add(latencies[slot]);
+            }
+        }
+        return new TrafficSnapshot(name, requestCount, byteCount, errorCount, latencyHistogram);
+    }
+
+    /**
+     * @param hour The current hour.
+     * @return True if no traffic was recorded during the last {@link #SLOTS} hours.
+     */
+    boolean isEmpty(long hour) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (isInWindow(slot, hour) && requests[slot] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isInWindow(int slot, long hour) {
+        return slotHours[slot] >= 0 && slotHours[slot] <= hour && slotHours[slot] > hour - SLOTS;
+    }
+}
@@ -0,0 +1,42 @@
+package org.jfrog.bamboo.metrics;
+
+import java.util.List;
+
+/**
+ * Traffic sent to an Artifactory server during the metrics window, in total, by type of operation and by plan.
+ */
+public class ServerTrafficSnapshot {
+    private final long serverId;
+    private final TrafficSnapshot total;
+    private final List<TrafficSnapshot> operations;
+    private final List<TrafficSnapshot> plans;
+
+    ServerTrafficSnapshot(long serverId, List<TrafficSnapshot> operations, List<TrafficSnapshot> plans) {
+        this.serverId = serverId;
+        this.total = TrafficSnapshot.sum("Total", operations);
+        this.operations = operations;
+        this.plans = plans;
+    }
+
+    public long getServerId() {
+        return serverId;
+    }
+
+    public TrafficSnapshot getTotal() {
+        return total;
+    }
+
+    /**
+     * @return The traffic of the operations which were sent during the metrics window.
+     */
+    public List<TrafficSnapshot> getOperations() {
+        return operations;
+    }
+
+    /**
+     * @return The traffic of the plans which were active during the metrics window, the busiest first.
+     */
+    public List<TrafficSnapshot> getPlans() {
+        return plans;
+    }
+}
@@ -0,0 +1,154 @@
+package org.jfrog.bamboo.metrics;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests sent by a single task execution to its Artifactory server: request count, transferred bytes, failed
+ * requests and latency histogram of each {@link TrafficOperation}. Every request is recorded as it ends, with its own
+ * latency and size, from the transfer threads of the task's clients.
+ * <p>
+ * The traffic of all the tasks of a job is stored in the custom build data of the job result, one line per task, and
+ * is folded into the {@link TrafficMetricsRegistry} of the Bamboo server when the job result reaches it:
+ * {@code <server id>|<operation code>:<requests>:<bytes>:<errors>:<latency histogram>|...}
+ */
+public class TaskTraffic implements TrafficRecorder {
+    // The custom build data values are stored in a limited size column.
+    static final int MAX_SERIALIZED_LENGTH = 4000;
+    private static final String TASK_SEPARATOR = "\n";
+    private static final String OPERATION_SEPARATOR = "|";
+    private static final String VALUE_SEPARATOR = ":";
+
+    private static final TrafficOperation[] OPERATIONS = TrafficOperation.values();
+
+    private final long serverId;
+    private final long[] requests = new long[OPERATIONS.length];
+    private final long[] bytes = new long[OPERATIONS.length];
+    private final long[] errors = new long[OPERATIONS.length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+
+    public TaskTraffic(long serverId) {
+        this.serverId = serverId;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Record a request sent to the server.
+     */
+    @Override
+    public synchronized void record(TrafficOperation operation, boolean failed, long byteCount, long nanos) {
+        int i = operation.ordinal();
+        requests[i]++;
+        errors[i] += failed ? 1 : 0;
+        bytes[i] += byteCount;
+        latencies[i].record(TimeUnit.NANOSECONDS.toMillis(nanos), 1);
+    }
+
+    public long getServerId() {
+        return serverId;
+    }
+
+    public synchronized long getRequests(TrafficOperation operation) {
+        return requests[operation.ordinal()];
+    }
+
+    public synchronized long getBytes(TrafficOperation operation) {
+        return bytes[operation.ordinal()];
+    }
+
+    public synchronized long getErrors(TrafficOperation operation) {
+        return errors[operation.ordinal()];
+    }
+
+    public synchronized LatencyHistogram getLatencies(TrafficOperation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    public synchronized boolean isEmpty() {
+        for (long count : requests) {
+            if (count > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    synchronized String serialize() {
+        StringBuilder serialized = new StringBuilder().append(serverId);
+        for (TrafficOperation operation : OPERATIONS) {
+            int i = operation.ordinal();
+            if (requests[i] > 0) {
+                serialized.append(OPERATION_SEPARATOR).append(operation.getCode())
+                        .append(VALUE_SEPARATOR).append(requests[i])
+                        .append(VALUE_SEPARATOR).append(bytes[i])
+                        .append(VALUE_SEPARATOR).append(errors[i])
+                        .append(VALUE_SEPARATOR).append(latencies[i].serialize());
+            }
+        }
+        return serialized.toString();
+    }
+
+    /**
+     * Append the traffic of a task to the traffic of the previous tasks of the job.
+     * If the result is too long to be stored, the traffic of the oldest tasks is dropped.
+     *
+     * @param serializedTraffic The traffic of the previous tasks, may be blank.
+     * @param traffic           The traffic of the task.
+     * @return The traffic of all the tasks.
+     */
+    public static String append(String serializedTraffic, TaskTraffic traffic) {
+        String appended = StringUtils.isBlank(serializedTraffic) ? traffic.serialize() :
+                serializedTraffic + TASK_SEPARATOR + traffic.serialize();
+        while (appended.length() > MAX_SERIALIZED_LENGTH && appended.contains(TASK_SEPARATOR)) {
+            appended = StringUtils.substringAfter(appended, TASK_SEPARATOR);
+        }
+        return appended;
+    }
+
+    /**
+     * @param serializedTraffic The traffic of the tasks of a job, as returned by {@link #append(String, TaskTraffic)}.
+     * @return The traffic of the tasks. Tasks with a malformed server id, unknown operations and malformed values are
+     * skipped.
+     */
+    public static List<TaskTraffic> parse(String serializedTraffic) {
+        List<TaskTraffic> result = new ArrayList<>();
+        for (String line : StringUtils.split(StringUtils.defaultString(serializedTraffic), TASK_SEPARATOR)) {
+            String[] fields = StringUtils.splitPreserveAllTokens(line, OPERATION_SEPARATOR);
+            TaskTraffic traffic;
+            try {
+                traffic = new TaskTraffic(Long.parseLong(fields[0]));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            for (String field : Arrays.copyOfRange(fields, 1, fields.length)) {
+                String[] values = StringUtils.splitPreserveAllTokens(field, VALUE_SEPARATOR);
+                TrafficOperation operation = values.length == 5 && values[0].length() == 1 ?
+                        TrafficOperation.fromCode(values[0].charAt(0)) : null;
+                if (operation == null) {
+                    continue;
+                }
+                try {
+                    long requests = Long.parseLong(values[1]);
+                    long bytes = Long.parseLong(values[2]);
+                    long errors = Long.parseLong(values[3]);
+                    LatencyHistogram latencies = LatencyHistogram.parse(values[4]);
+                    int i = operation.ordinal();
+                    traffic.requests[i] = requests;
+                    traffic.bytes[i] = bytes;
+                    traffic.errors[i] = errors;
+                    traffic.latencies[i] = latencies;
+                } catch (NumberFormatException e) {
+                    // Skip the malformed operation
+                }
+            }
+            result.add(traffic);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package org.jfrog.bamboo.metrics;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Plugin component which unregisters the {@link ArtifactoryTrafficMXBean}s of the {@link TrafficMetricsRegistry} when
+ * the plugin is disabled, uninstalled or upgraded. The platform MBean server outlives the plugin, so MBeans left
+ * registered would keep the class loader of the disabled plugin.
+ */
+public class TrafficMetricsLifecycle implements DisposableBean {
+
+    @Override
+    public void destroy() {
+        TrafficMetricsRegistry.getInstance().clear();
+    }
+}
@@ -0,0 +1,264 @@
+package org.jfrog.bamboo.metrics;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Traffic sent by the tasks to each Artifactory server during the last {@link RollingTraffic#SLOTS} hours, by type of
+ * operation and by plan. Lives on the Bamboo server, and is fed by the traffic stored by the tasks in the job results.
+ * <p>
+ * The memory used does not depend on the build volume: each server keeps a fixed size {@link RollingTraffic} per
+ * operation and per plan, and only the {@link #MAX_PLANS_PER_SERVER} most recently active plans of the
+ * {@link #MAX_SERVERS} most recently active servers are kept.
+ * The traffic of each server and operation is also exposed through JMX as an {@link ArtifactoryTrafficMXBean}.
+ */
+public class TrafficMetricsRegistry {
+    private static final Logger log = LogManager.getLogger(TrafficMetricsRegistry.class);
+    private static final TrafficMetricsRegistry instance = new TrafficMetricsRegistry(System::currentTimeMillis,
+            ManagementFactory.getPlatformMBeanServer());
+
+    static final int MAX_SERVERS = 50;
+    static final int MAX_PLANS_PER_SERVER = 50;
+    static final String MBEAN_DOMAIN = "org.jfrog.bamboo";
+    private static final TrafficOperation[] OPERATIONS = TrafficOperation.values();
+
+    private final LongSupplier clock;
+    private final MBeanServer mBeanServer;
+    private final Map<Long, ServerTraffic> servers = new LinkedHashMap<Long, ServerTraffic>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ServerTraffic> eldest) {
+            if (size() <= MAX_SERVERS) {
+                return false;
+            }
+            unregisterMBeans(eldest.getKey());
+            return true;
+        }
+    };
+
+    /**
+     * @param clock       Returns the current time in milliseconds.
+     * @param mBeanServer The MBean server to register the {@link ArtifactoryTrafficMXBean}s in, or null.
+     */
+    TrafficMetricsRegistry(LongSupplier clock, MBeanServer mBeanServer) {
+        this.clock = clock;
+        this.mBeanServer = mBeanServer;
+    }
+
+    public static TrafficMetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Fold the traffic of the tasks of a job into the traffic of their servers.
+     *
+     * @param planKey           The key of the plan of the job.
+     * @param serializedTraffic The traffic of the tasks, as stored in the job result by {@link TaskTraffic#append(String, TaskTraffic)}.
+     */
+    public void fold(String planKey, String serializedTraffic) {
+        List<TaskTraffic> tasksTraffic = TaskTraffic.parse(serializedTraffic);
+        if (tasksTraffic.isEmpty()) {
+            return;
+        }
+        long hour = getCurrentHour();
+        synchronized (this) {
+            for (TaskTraffic taskTraffic : tasksTraffic) {
+                if (taskTraffic.isEmpty()) {
+                    continue;
+                }
+                ServerTraffic serverTraffic = servers.get(taskTraffic.getServerId());
+                if (serverTraffic == null) {
+                    serverTraffic = new ServerTraffic();
+                    servers.put(taskTraffic.getServerId(), serverTraffic);
+                }
+                RollingTraffic planTraffic = serverTraffic.getPlanTraffic(StringUtils.defaultString(planKey));
+                for (TrafficOperation operation : OPERATIONS) {
+                    long requests = taskTraffic.getRequests(operation);
+                    if (requests == 0) {
+                        continue;
+                    }
+                    RollingTraffic operationTraffic = serverTraffic.operations[operation.ordinal()];
+                    if (operationTraffic == null) {
+                        operationTraffic = new RollingTraffic();
+                        serverTraffic.operations[operation.ordinal()] = operationTraffic;
+                        registerMBean(taskTraffic.getServerId(), operation);
+                    }
+                    LatencyHistogram latencies = taskTraffic.getLatencies(operation);
+                    long bytes = taskTraffic.getBytes(operation);
+                    long errors = taskTraffic.getErrors(operation);
+                    operationTraffic.add(hour, requests, bytes, errors, latencies);
+                    planTraffic.add(hour, requests, bytes, errors, latencies);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The traffic of the servers which were sent requests during the metrics window.
+     */
+    public synchronized List<ServerTrafficSnapshot> getServersTraffic() {
+        long hour = getCurrentHour();
+        List<ServerTrafficSnapshot> result = new ArrayList<>();
+        for (Map.Entry<Long, ServerTraffic> entry : servers.entrySet()) {
+            ServerTrafficSnapshot snapshot = entry.getValue().snapshot(entry.getKey(), hour);
+            if (snapshot.getTotal().getRequests() > 0) {
+                result.add(snapshot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The traffic of the server and operation during the metrics window.
+     */
+    synchronized TrafficSnapshot getOperationTraffic(long serverId, TrafficOperation operation) {
+        // Not using get(), so that reading the MBeans does not affect the eviction order
+        RollingTraffic traffic = null;
+        for (Map.Entry<Long, ServerTraffic> entry : servers.entrySet()) {
+            if (entry.getKey() == serverId) {
+                traffic = entry.getValue().operations[operation.ordinal()];
+                break;
+            }
+        }
+        return (traffic != null ? traffic : new RollingTraffic()).snapshot(operation.getDisplayName(), getCurrentHour());
+    }
+
+    /**
+     * Unregisters the {@link ArtifactoryTrafficMXBean}s of all the servers and drops their traffic. Called when the
+     * plugin is disabled, since the MBean server would otherwise keep the MBeans, and the classes of the plugin.
+     */
+    public synchronized void clear() {
+        for (long serverId : servers.keySet()) {
+            unregisterMBeans(serverId);
+        }
+        servers.clear();
+    }
+
+    static ObjectName getObjectName(long serverId, TrafficOperation operation) throws JMException {
+        return new ObjectName(MBEAN_DOMAIN + ":type=ArtifactoryTraffic,server=" + serverId + ",operation=" + operation.name());
+    }
+
+    private long getCurrentHour() {
+        return TimeUnit.MILLISECONDS.toHours(clock.getAsLong());
+    }
+
+    private void registerMBean(long serverId, TrafficOperation operation) {
+        if (mBeanServer == null) {
+            return;
+        }
+        try {
+            ObjectName name = getObjectName(serverId, operation);
+            if (mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+            mBeanServer.registerMBean(new ArtifactoryTraffic(serverId, operation), name);
+        } catch (JMException e) {
+            log.warn("Failed to register the Artifactory traffic MBean of server " + serverId + ": " + e.getMessage());
+        }
+    }
+
+    private void unregisterMBeans(long serverId) {
+        if (mBeanServer == null) {
+            return;
+        }
+        for (TrafficOperation operation : OPERATIONS) {
+            try {
+                ObjectName name = getObjectName(serverId, operation);
+                if (mBeanServer.isRegistered(name)) {
+                    mBeanServer.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                log.warn("Failed to unregister the Artifactory traffic MBean of server " + serverId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static class ServerTraffic {
+        private final RollingTraffic[] operations = new RollingTraffic[OPERATIONS.length];
+        private final Map<String, RollingTraffic> plans = new LinkedHashMap<String, RollingTraffic>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RollingTraffic> eldest) {
+                return size() > MAX_PLANS_PER_SERVER;
+            }
+        };
+
+        private RollingTraffic getPlanTraffic(String planKey) {
+            return plans.computeIfAbsent(planKey, key -> new RollingTraffic());
+        }
+
+        private ServerTrafficSnapshot snapshot(long serverId, long hour) {
+            List<TrafficSnapshot> operationSnapshots = new ArrayList<>();
+            for (TrafficOperation operation : OPERATIONS) {
+                RollingTraffic traffic = operations[operation.ordinal()];
+                if (traffic != null && !traffic.isEmpty(hour)) {
+                    operationSnapshots.add(traffic.snapshot(operation.getDisplayName(), hour));
+                }
+            }
+            List<TrafficSnapshot> planSnapshots = new ArrayList<>();
+            for (Map.Entry<String, RollingTraffic> entry : plans.entrySet()) {
+                if (!entry.getValue().isEmpty(hour)) {
+                    planSnapshots.add(entry.getValue().snapshot(entry.getKey(), hour));
+                }
+            }
+            planSnapshots.sort(Comparator.comparingLong(TrafficSnapshot::getRequests).reversed());
+            return new ServerTrafficSnapshot(serverId, operationSnapshots, planSnapshots);
+        }
+    }
+
+    private class ArtifactoryTraffic implements ArtifactoryTrafficMXBean {
+        private final long serverId;
+        private final TrafficOperation operation;
+
+        private ArtifactoryTraffic(long serverId, TrafficOperation operation) {
+            this.serverId = serverId;
+            this.operation = operation;
+        }
+
+        @Override
+        public long getRequests() {
+            return getOperationTraffic(serverId, operation).getRequests();
+        }
+
+        @Override
+        public long getBytes() {
+            return getOperationTraffic(serverId, operation).getBytes();
+        }
+
+        @Override
+        public long getErrors() {
+            return getOperationTraffic(serverId, operation).getErrors();
+        }
+
+        @Override
+        public double getErrorRate() {
+            return getOperationTraffic(serverId, operation).getErrorRate();
+        }
+
+        @Override
+        public long getLatencyP50Millis() {
+            return getOperationTraffic(serverId, operation).getLatencyP50();
+        }
+
+        @Override
+        public long getLatencyP95Millis() {
+            return getOperationTraffic(serverId, operation).getLatencyP95();
+        }
+
+        @Override
+        public long getLatencyP99Millis() {
+            return getOperationTraffic(serverId, operation).getLatencyP99();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.jfrog.bamboo.metrics;
+
+/**
+ * The types of requests sent by the tasks to an Artifactory server.
+ */
+public enum TrafficOperation {
+    DEPLOY('d', "Deploy", "PUT /{repository}/{path}"),
+    DOWNLOAD('r', "Download", "GET /{repository}/{path}"),
+    BUILD_INFO('b', "Build-info publishing", "PUT /api/build"),
+    USAGE_REPORT('u', "Usage report", "POST /api/system/usage"),
+    XRAY_SCAN('x', "Xray scan", "POST /api/xray/scanBuild");
+
+    private final char code;
+    private final String displayName;
+    private final String urlTemplate;
+
+    TrafficOperation(char code, String displayName, String urlTemplate) {
+        this.code = code;
+        this.displayName = displayName;
+        this.urlTemplate = urlTemplate;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return The method and URL template of the REST API of the requests, relative to the server URL.
+     */
+    public String getUrlTemplate() {
+        return urlTemplate;
+    }
+
+    char getCode() {
+        return code;
+    }
+
+    static TrafficOperation fromCode(char code) {
+        for (TrafficOperation operation : values()) {
+            if (operation.code == code) {
+                return operation;
+            }
+        }
+        return null;
+    }
+}
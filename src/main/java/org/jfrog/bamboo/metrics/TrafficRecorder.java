@@ -0,0 +1,16 @@
+package org.jfrog.bamboo.metrics;
+
+/**
+ * Receives every request sent to an Artifactory server once it has ended, so that its latency and size are recorded
+ * as they were measured. Called from the transfer threads of the clients, implementations must be thread safe.
+ */
+public interface TrafficRecorder {
+
+    /**
+     * @param operation The type of the request.
+     * @param failed    True if the request failed.
+     * @param byteCount The number of bytes transferred by the request, or 0 if unknown.
+     * @param nanos     The duration of the request.
+     */
+    void record(TrafficOperation operation, boolean failed, long byteCount, long nanos);
+}
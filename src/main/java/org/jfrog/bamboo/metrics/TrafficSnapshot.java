@@ -0,0 +1,92 @@
+package org.jfrog.bamboo.metrics;
+
+import org.apache.commons.io.FileUtils;
+
+import java.util.List;
+
+/**
+ * Traffic sent to an Artifactory server during the metrics window, by a type of operation or by a plan.
+ */
+public class TrafficSnapshot {
+    private final String name;
+    private final long requests;
+    private final long bytes;
+    private final long errors;
+    private final LatencyHistogram latencies;
+    private final long latencyP50;
+    private final long latencyP95;
+    private final long latencyP99;
+
+    TrafficSnapshot(String name, long requests, long bytes, long errors, LatencyHistogram latencies) {
+        this.name = name;
+        this.requests = requests;
+        this.bytes = bytes;
+        this.errors = errors;
+        this.latencies = latencies;
+        this.latencyP50 = latencies.getPercentile(50);
+        this.latencyP95 = latencies.getPercentile(95);
+        this.latencyP99 = latencies.getPercentile(99);
+    }
+
+    /**
+     * @return The traffic of all the snapshots.
+     */
+    static TrafficSnapshot sum(String name, List<TrafficSnapshot> snapshots) {
+        long requests = 0;
+        long bytes = 0;
+        long errors = 0;
+        LatencyHistogram latencies = new LatencyHistogram();
+        for (TrafficSnapshot snapshot : snapshots) {
+            requests += snapshot.requests;
+            bytes += snapshot.bytes;
+            errors += snapshot.errors;
+            latencies.add(snapshot.latencies);
+        }
+        return new TrafficSnapshot(name, requests, bytes, errors, latencies);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return The byte count in a human readable form, or an empty string if no bytes were counted.
+     */
+    public String getDisplayBytes() {
+        return bytes > 0 ? FileUtils.byteCountToDisplaySize(bytes) : "";
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return The percentage of failed requests.
+     */
+    public double getErrorRate() {
+        return requests > 0 ? 100.0 * errors / requests : 0;
+    }
+
+    /**
+     * The latency percentiles are the upper bounds of their histogram buckets, in milliseconds.
+     */
+    public long getLatencyP50() {
+        return latencyP50;
+    }
+
+    public long getLatencyP95() {
+        return latencyP95;
+    }
+
+    public long getLatencyP99() {
+        return latencyP99;
+    }
+}
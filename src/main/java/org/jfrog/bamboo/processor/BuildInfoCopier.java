@@ -89,8 +89,13 @@ public class BuildInfoCopier extends AbstractBuildTask implements CustomBuildPro
         return buildContext;
     }
 
+    /**
+     * Compress the build-info file into a build-info.json.zip file in the same directory.
+     *
+     * @return The compressed file, or null if it could not be created.
+     */
     @Nullable
-    private File createBuildInfoZip(File buildInfoFile) throws IOException {
+    public static File createBuildInfoZip(File buildInfoFile) throws IOException {
         File buildInfoZipFile = new File(buildInfoFile.getParent(), "build-info.json.zip");
         if (!buildInfoZipFile.exists()) {
             if (!buildInfoZipFile.createNewFile()) {
@@ -0,0 +1,42 @@
+package org.jfrog.bamboo.processor;
+
+import com.atlassian.bamboo.build.CustomBuildProcessorServer;
+import com.atlassian.bamboo.plan.PlanKey;
+import com.atlassian.bamboo.plan.PlanKeys;
+import com.atlassian.bamboo.v2.build.BuildContext;
+import com.atlassian.bamboo.v2.build.task.AbstractBuildTask;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jfrog.bamboo.metrics.TrafficMetricsRegistry;
+
+import java.util.Map;
+
+import static org.jfrog.bamboo.util.ConstantValues.TASK_TRAFFIC;
+
+/**
+ * Folds the requests sent by the tasks of a job to their Artifactory servers into the server-wide traffic metrics,
+ * when the job result reaches the Bamboo server. The traffic is removed from the job result once folded.
+ */
+public class TrafficMetricsCollector extends AbstractBuildTask implements CustomBuildProcessorServer {
+    private static final Logger log = LogManager.getLogger(TrafficMetricsCollector.class);
+
+    @Override
+    @NotNull
+    public BuildContext call() {
+        Map<String, String> customBuildData = buildContext.getBuildResult().getCustomBuildData();
+        String traffic = customBuildData.remove(TASK_TRAFFIC);
+        if (StringUtils.isBlank(traffic)) {
+            return buildContext;
+        }
+        try {
+            PlanKey chainKey = PlanKeys.getChainKeyIfJobKey(buildContext.getPlanResultKey().getPlanKey());
+            TrafficMetricsRegistry.getInstance().fold(chainKey.getKey(), traffic);
+        } catch (RuntimeException e) {
+            // The metrics must never fail the build
+            log.warn("Failed to collect the Artifactory traffic metrics of " + buildContext.getPlanResultKey() + ": " + e.getMessage());
+        }
+        return buildContext;
+    }
+}
@@ -0,0 +1,81 @@
+package org.jfrog.bamboo.processor;
+
+import com.atlassian.bamboo.build.BuildLoggerManager;
+import com.atlassian.bamboo.build.CustomBuildProcessor;
+import com.atlassian.bamboo.build.logger.BuildLogger;
+import com.atlassian.bamboo.builder.BuildState;
+import com.atlassian.bamboo.v2.build.BuildContext;
+import com.atlassian.bamboo.v2.build.CurrentBuildResult;
+import com.atlassian.bamboo.v2.build.task.AbstractBuildTask;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jfrog.bamboo.util.BuildInfoLog;
+import org.jfrog.bamboo.xray.PendingXrayScan;
+import org.jfrog.bamboo.xray.XrayScanManager;
+import org.jfrog.bamboo.xray.XrayScanUtils;
+import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the results of the Xray scans submitted by asynchronous {@link org.jfrog.bamboo.task.ArtifactoryXrayScanTask}s
+ * of the job. Waits for the pending scans and fails the job if a scan failed, timed out, or found the build vulnerable
+ * while configured to fail it.
+ */
+public class XrayScanGate extends AbstractBuildTask implements CustomBuildProcessor {
+    private static final Logger log = LogManager.getLogger(XrayScanGate.class);
+
+    private BuildLoggerManager buildLoggerManager;
+
+    @Override
+    @NotNull
+    public BuildContext call() throws Exception {
+        List<PendingXrayScan> scans = XrayScanManager.getInstance().removePendingScans(buildContext.getPlanResultKey().getKey());
+        if (scans.isEmpty()) {
+            return buildContext;
+        }
+        try {
+            BuildLogger buildLogger = buildLoggerManager.getLogger(buildContext.getPlanResultKey());
+            CurrentBuildResult buildResult = buildContext.getBuildResult();
+            for (PendingXrayScan scan : scans) {
+                String scanName = "Xray scan of build " + scan.getBuildName() + " #" + scan.getBuildNumber();
+                if (!BuildState.SUCCESS.equals(buildResult.getBuildState())) {
+                    scan.cancel();
+                    log.info(buildLogger.addBuildLogEntry(scanName + " was cancelled, since the job did not complete successfully."));
+                    continue;
+                }
+                if (scan.isDone()) {
+                    log.info(buildLogger.addBuildLogEntry(scanName + " completed while the job was running (" +
+                            TimeUnit.MILLISECONDS.toSeconds(scan.getElapsedMillis()) + " seconds)."));
+                }
+                try {
+                    ArtifactoryXrayResponse response = scan.await(new BuildInfoLog(log, buildLogger));
+                    String scanMessage = XrayScanUtils.handleXrayScanResult(response, scan.isFailIfVulnerable(), buildLogger);
+                    log.info(buildLogger.addBuildLogEntry(scanMessage));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failBuild(buildLogger, scanName + " was interrupted.", e);
+                } catch (Exception e) {
+                    Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                    failBuild(buildLogger, scanName + " failed: " + cause.getMessage(), cause);
+                }
+            }
+        } finally {
+            // No scan outlives the job, whether or not its result was awaited
+            scans.forEach(PendingXrayScan::cancel);
+        }
+        return buildContext;
+    }
+
+    private void failBuild(BuildLogger buildLogger, String message, Throwable e) {
+        log.error(buildLogger.addErrorLogEntry(message), e);
+        buildContext.getBuildResult().setBuildState(BuildState.FAILED);
+    }
+
+    public void setBuildLoggerManager(BuildLoggerManager buildLoggerManager) {
+        this.buildLoggerManager = buildLoggerManager;
+    }
+}
@@ -69,15 +69,20 @@ public class ArtifactoryPreBuildAction extends AbstractBuildAction implements Cu
             return buildContext;
         }
         log.info(logger.addBuildLogEntry("[RELEASE] Release Build Active"));
-        provider.prepare();
-        provider.beforeReleaseVersionChange();
-        boolean modified = provider.transformDescriptor(configuration, true);
-        customBuildData.put(ReleaseProvider.MODIFIED_FILES_FOR_RELEASE, String.valueOf(modified));
-        customBuildData.put(ReleaseProvider.CURRENT_CHECKOUT_BRANCH, provider.getCurrentCheckoutBranch());
-        customBuildData.put(ReleaseProvider.CURRENT_WORKING_BRANCH, provider.getCurrentWorkingBranch());
-        customBuildData.put(ReleaseProvider.BASE_COMMIT_ISH, provider.getBaseCommitIsh());
-        customBuildData.put(ReleaseProvider.RELEASE_BRANCH_CREATED, String.valueOf(provider.isReleaseBranchCreated()));
-        customBuildData.put(ReleaseProvider.CURRENT_CHANGE_LIST_ID, String.valueOf(provider.getCurrentChangeListId()));
+        try {
+            provider.prepare();
+            provider.beforeReleaseVersionChange();
+            boolean modified = provider.transformDescriptor(configuration, true);
+            customBuildData.put(ReleaseProvider.MODIFIED_FILES_FOR_RELEASE, String.valueOf(modified));
+            customBuildData.put(ReleaseProvider.CURRENT_CHECKOUT_BRANCH, provider.getCurrentCheckoutBranch());
+            customBuildData.put(ReleaseProvider.CURRENT_WORKING_BRANCH, provider.getCurrentWorkingBranch());
+            customBuildData.put(ReleaseProvider.BASE_COMMIT_ISH, provider.getBaseCommitIsh());
+            customBuildData.put(ReleaseProvider.RELEASE_BRANCH_CREATED, String.valueOf(provider.isReleaseBranchCreated()));
+            customBuildData.put(ReleaseProvider.CURRENT_CHANGE_LIST_ID, String.valueOf(provider.getCurrentChangeListId()));
+        } finally {
+            // the post-build action works with a new provider, release the SCM session opened by this one
+            provider.close();
+        }
         return buildContext;
     }
 
@@ -24,6 +24,8 @@ import org.jfrog.bamboo.util.version.VcsHelper;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -51,6 +53,11 @@ public abstract class AbstractReleaseProvider implements ReleaseProvider {
 
     protected abstract Map<? extends String, ? extends String> getTaskConfiguration(BuildDefinition definition);
 
+    /**
+     * @return The descriptor files (POMs, gradle.properties) which are transformed by this provider.
+     */
+    protected abstract Collection<File> getDescriptorFiles() throws RepositoryException, IOException;
+
     public static ReleaseProvider createReleaseProvider(PackageManagersContext buildContext, BuildContext context,
                                                         BuildLogger buildLogger,
                                                         CustomVariableContext customVariableContext,
@@ -79,6 +86,7 @@ public abstract class AbstractReleaseProvider implements ReleaseProvider {
     @Override
     public void afterDevelopmentVersionChange(boolean modified) throws IOException {
         try {
+            reportDescriptorFiles();
             coordinator.afterDevelopmentVersionChange(modified);
         } catch (Exception e) {
             failBuild(e);
@@ -109,6 +117,7 @@ public abstract class AbstractReleaseProvider implements ReleaseProvider {
     @Override
     public void afterSuccessfulReleaseVersionBuild() throws IOException {
         try {
+            reportDescriptorFiles();
             coordinator.afterSuccessfulReleaseVersionBuild();
         } catch (Exception e) {
             failBuild(e);
@@ -129,6 +138,7 @@ public abstract class AbstractReleaseProvider implements ReleaseProvider {
     @Override
     public void buildCompleted(BuildContext buildContext) throws IOException {
         try {
+            safeReportDescriptorFiles();
             coordinator.buildCompleted(buildContext);
         } catch (Exception e) {
             failBuild(e);
@@ -136,6 +146,25 @@ public abstract class AbstractReleaseProvider implements ReleaseProvider {
         }
     }
 
+    /**
+     * Lets the coordinator scope its commit and revert operations to the descriptor files of the release.
+     */
+    private void reportDescriptorFiles() throws RepositoryException, IOException {
+        if (isReleaseEnabled) {
+            coordinator.setDescriptorFiles(getDescriptorFiles());
+        }
+    }
+
+    private void safeReportDescriptorFiles() {
+        try {
+            reportDescriptorFiles();
+        } catch (Exception e) {
+            // the coordinator falls back to operating on the whole working copy
+            log("Failed to resolve the release descriptor files: " + e.getLocalizedMessage());
+            coordinator.setDescriptorFiles(Collections.<File>emptyList());
+        }
+    }
+
     private void failBuild(Exception e) {
         CurrentBuildResult result = context.getBuildResult();
         result.addBuildErrors(Arrays.asList(e.getMessage()));
@@ -211,6 +240,11 @@ public abstract class AbstractReleaseProvider implements ReleaseProvider {
         coordinator.setCurrentChangeListId(changeListId);
     }
 
+    @Override
+    public void close() {
+        coordinator.close();
+    }
+
     @Override
     public void reloadFromConfig(Map<String, String> configuration) {
         // Git variables
@@ -14,6 +14,8 @@ import org.jfrog.build.extractor.release.PropertiesTransformer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -51,8 +53,26 @@ public class GradleReleaseProvider extends AbstractReleaseProvider {
         if (map.isEmpty())
             return false;
 
-        StringBuilder buildPropertiesLocation = new StringBuilder();
         GradleBuildContext gradleBuildContext = (GradleBuildContext) PackageManagersContext.createContextFromMap(conf);
+        File fileToTransform = getPropertiesFile(rootDir, gradleBuildContext);
+        String transformMessage = release ? "release" : "next development";
+        log("Transforming: " + fileToTransform.getAbsolutePath() + " to " + transformMessage);
+        coordinator.edit(fileToTransform);
+        PropertiesTransformer transformer = new PropertiesTransformer(fileToTransform, map);
+        return transformer.transform();
+    }
+
+    @Override
+    protected Collection<File> getDescriptorFiles() throws RepositoryException {
+        File rootDir = getSourceDir();
+        if (rootDir == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(getPropertiesFile(rootDir, (GradleBuildContext) buildContext));
+    }
+
+    private File getPropertiesFile(File rootDir, GradleBuildContext gradleBuildContext) {
+        StringBuilder buildPropertiesLocation = new StringBuilder();
         String buildScriptSubDir = gradleBuildContext.getBuildScript();
         if (StringUtils.isNotBlank(buildScriptSubDir)) {
             buildPropertiesLocation.append(buildScriptSubDir);
@@ -61,11 +81,6 @@ public class GradleReleaseProvider extends AbstractReleaseProvider {
             }
         }
         buildPropertiesLocation.append("gradle.properties");
-        File fileToTransform = new File(rootDir, buildPropertiesLocation.toString());
-        String transformMessage = release ? "release" : "next development";
-        log("Transforming: " + fileToTransform.getAbsolutePath() + " to " + transformMessage);
-        coordinator.edit(fileToTransform);
-        PropertiesTransformer transformer = new PropertiesTransformer(fileToTransform, map);
-        return transformer.transform();
+        return new File(rootDir, buildPropertiesLocation.toString());
     }
 }
@@ -6,8 +6,10 @@ import com.atlassian.bamboo.credentials.CredentialsAccessor;
 import com.atlassian.bamboo.repository.RepositoryException;
 import com.atlassian.bamboo.v2.build.BuildContext;
 import com.atlassian.bamboo.variable.CustomVariableContext;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.Nullable;
 import org.jfrog.bamboo.context.PackageManagersContext;
 import org.jfrog.bamboo.context.Maven3BuildContext;
 import org.jfrog.bamboo.util.TaskDefinitionHelper;
@@ -17,7 +19,16 @@ import org.jfrog.build.extractor.maven.transformer.PomTransformer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Release provider that performs operations specific for a Maven type build.
@@ -25,6 +36,12 @@ import java.util.Map;
  * @author Tomer Cohen
  */
 public class MavenReleaseProvider extends AbstractReleaseProvider {
+    private static final int MAX_TRANSFORM_THREADS = 8;
+
+    // The reactor modules, read once by this provider
+    private Map<ModuleName, File> modules;
+    // Transforms the POMs, created on the first transformation and shut down with the provider
+    private ExecutorService transformExecutor;
 
     protected MavenReleaseProvider(PackageManagersContext buildContext, BuildContext buildDefinition,
                                    BuildLogger buildLogger, CustomVariableContext customVariableContext, CredentialsAccessor credentialsAccessor) {
@@ -52,21 +69,119 @@ public class MavenReleaseProvider extends AbstractReleaseProvider {
         }
         Map<String, String> map = buildMapAccordingToStatus(conf, release);
         Map<ModuleName, String> buildVersionByModule = buildVersionByModule(map);
-        File pom = getRootPom(rootDir);
-        ProjectReader reader = new ProjectReader(pom);
-        boolean changed = false;
-        Map<ModuleName, File> modules = reader.read();
-        for (Map.Entry<ModuleName, File> entry : modules.entrySet()) {
-            String transformMessage = release ? "release" : "next development";
+        Map<ModuleName, File> modules = readModules(rootDir);
+        return transformModules(modules, buildVersionByModule, release);
+    }
+
+    /**
+     * Transforms the POMs of all the modules on a bounded thread pool. SCM edits and log entries are issued serially
+     * before the transformation, and failures are reported in the order of the module files.
+     *
+     * @return True if at least one of the POMs has changed.
+     */
+    private boolean transformModules(Map<ModuleName, File> modules, Map<ModuleName, String> buildVersionByModule,
+                                     boolean release) throws IOException, InterruptedException {
+        List<Map.Entry<ModuleName, File>> entries = Lists.newArrayList(modules.entrySet());
+        entries.sort(Comparator.comparing(entry -> entry.getValue().getAbsolutePath()));
+        String transformMessage = release ? "release" : "next development";
+        List<File> files = Lists.newArrayListWithCapacity(entries.size());
+        for (Map.Entry<ModuleName, File> entry : entries) {
             log("Transforming: " + entry.getValue().getAbsolutePath() + " to " + transformMessage);
-            coordinator.edit(entry.getValue());
-            PomTransformer transformer = new PomTransformer(entry.getKey(), buildVersionByModule, getScmUrl(release),
-                    release);
-            changed |= transformer.transform(entry.getValue());
+            files.add(entry.getValue());
+        }
+        coordinator.edit(files);
+        if (entries.isEmpty()) {
+            return false;
+        }
+        if (transformExecutor == null) {
+            transformExecutor = Executors.newFixedThreadPool(Math.min(Runtime.getRuntime().availableProcessors(), MAX_TRANSFORM_THREADS));
+        }
+        return transformPoms(entries, buildVersionByModule, getScmUrl(release), release, transformExecutor, this::log);
+    }
+
+    /**
+     * Transforms the POMs of the modules on the given executor.
+     *
+     * @param entries The POM files by module, in the order to report failures in.
+     * @param log     Logs the failure of each POM.
+     * @return True if at least one of the POMs has changed.
+     * @throws IOException The failure of the first POM that failed, suppressing the failures of the later ones.
+     */
+    static boolean transformPoms(List<Map.Entry<ModuleName, File>> entries, Map<ModuleName, String> buildVersionByModule,
+                                 @Nullable String scmUrl, boolean release, ExecutorService executor, Consumer<String> log)
+            throws IOException, InterruptedException {
+        List<Future<Boolean>> results = Lists.newArrayListWithCapacity(entries.size());
+        for (Map.Entry<ModuleName, File> entry : entries) {
+            results.add(executor.submit(() ->
+                    new PomTransformer(entry.getKey(), buildVersionByModule, scmUrl, release).transform(entry.getValue())));
+        }
+        boolean changed = false;
+        IOException failure = null;
+        for (int i = 0; i < entries.size(); i++) {
+            try {
+                changed |= results.get(i).get();
+            } catch (ExecutionException e) {
+                String message = "Failed transforming " + entries.get(i).getValue().getAbsolutePath() + ": " +
+                        e.getCause().getMessage();
+                log.accept(message);
+                if (failure == null) {
+                    failure = new IOException(message, e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
         }
         return changed;
     }
 
+    @Override
+    protected Collection<File> getDescriptorFiles() throws RepositoryException, IOException {
+        File rootDir = getSourceDir();
+        if (rootDir == null) {
+            return Collections.emptyList();
+        }
+        return readModules(rootDir).values();
+    }
+
+    @Override
+    public void buildCompleted(BuildContext buildContext) throws IOException {
+        try {
+            super.buildCompleted(buildContext);
+        } finally {
+            shutdownTransformExecutor();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            shutdownTransformExecutor();
+        }
+    }
+
+    private void shutdownTransformExecutor() {
+        if (transformExecutor != null) {
+            transformExecutor.shutdownNow();
+            transformExecutor = null;
+        }
+    }
+
+    /**
+     * Reads the reactor modules of the root POM. The module to POM file mapping does not depend on the versions, so
+     * it is read once by the provider, for the transformation and for the descriptor files reported to the coordinator.
+     */
+    private Map<ModuleName, File> readModules(File rootDir) throws IOException {
+        if (modules == null) {
+            modules = new ProjectReader(getRootPom(rootDir)).read();
+        }
+        return modules;
+    }
+
     private String getScmUrl(boolean release) {
         if (coordinator.isSubversion()) {
             if (release) {
@@ -137,4 +137,9 @@ public interface ReleaseProvider {
     public void setCurrentChangeListId(int changeListId);
 
     void reloadFromConfig(Map<String, String> configuration);
+
+    /**
+     * Releases the SCM resources held by the provider. Must be called when the provider is no longer in use.
+     */
+    void close();
 }
@@ -12,6 +12,7 @@ import org.jfrog.bamboo.release.vcs.perforce.PerforceCoordinator;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -121,6 +122,17 @@ public abstract class AbstractVcsCoordinator implements VcsCoordinator {
     public void edit(File file) throws IOException, InterruptedException {
     }
 
+    @Override
+    public void edit(Collection<File> files) throws IOException, InterruptedException {
+        for (File file : files) {
+            edit(file);
+        }
+    }
+
+    @Override
+    public void setDescriptorFiles(Collection<File> descriptorFiles) {
+    }
+
     @Override
     public int getCurrentChangeListId() {
         return 0;
@@ -129,4 +141,8 @@ public abstract class AbstractVcsCoordinator implements VcsCoordinator {
     @Override
     public void setCurrentChangeListId(int currentChangeListId) {
     }
+
+    @Override
+    public void close() {
+    }
 }
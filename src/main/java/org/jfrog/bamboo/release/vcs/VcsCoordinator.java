@@ -18,6 +18,7 @@ package org.jfrog.bamboo.release.vcs;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 
 /**
  * Base interface for specific vcs coordinators.
@@ -115,7 +116,28 @@ public interface VcsCoordinator {
      */
     void edit(File file) throws IOException, InterruptedException;
 
+    /**
+     * Called before a set of files is modified. Coordinators that support it open all the files in one batch.
+     *
+     * @param files The files that are about to be modified.
+     */
+    void edit(Collection<File> files) throws IOException, InterruptedException;
+
+    /**
+     * Sets the descriptor files (POMs, gradle.properties) that are transformed by the release. Coordinators that
+     * support it scope their commit and revert operations to these files.
+     *
+     * @param descriptorFiles The descriptor files, an empty collection if unknown.
+     */
+    void setDescriptorFiles(Collection<File> descriptorFiles);
+
     int getCurrentChangeListId();
 
     void setCurrentChangeListId(int currentChangeListId);
+
+    /**
+     * Releases the SCM resources held by the coordinator. Called at the end of the pre-build action, and at the end of
+     * {@link #buildCompleted(com.atlassian.bamboo.v2.build.BuildContext)}.
+     */
+    void close();
 }
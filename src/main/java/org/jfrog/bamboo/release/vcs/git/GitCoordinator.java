@@ -10,7 +10,11 @@ import org.apache.commons.lang.StringUtils;
 import org.jfrog.bamboo.context.PackageManagersContext;
 import org.jfrog.bamboo.release.vcs.AbstractVcsCoordinator;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,6 +29,8 @@ public class GitCoordinator extends AbstractVcsCoordinator {
     // the commit hash of the initial checkout
     private String baseCommitIsh;
     private State state = new State();
+    // the descriptor files modified by the release, commit and revert are scoped to them when known
+    private Collection<File> descriptorFiles = Collections.emptyList();
     private final Map<String, String> configuration;
     private final BuildLogger buildLogger;
 
@@ -73,23 +79,24 @@ public class GitCoordinator extends AbstractVcsCoordinator {
             if (StringUtils.isBlank(comment)) {
                 comment = "";
             }
-            vcsManager.commitWorkingCopy(comment);
+            commit(comment);
         }
         if (Boolean.parseBoolean(configuration.get(PackageManagersContext.ReleaseManagementContext.CREATE_VCS_TAG))) {
             vcsManager.createTag(configuration.get(PackageManagersContext.ReleaseManagementContext.TAG_URL),
                     configuration.get(PackageManagersContext.ReleaseManagementContext.TAG_COMMENT));
             state.tagCreated = true;
         }
-        if (state.releaseBranchCreated) {
-            // push the current branch
-            vcsManager.push(vcsManager.getRemoteUrl(), state.currentWorkingBranch);
-            state.releaseBranchPushed = true;
-        }
-        if (Boolean.parseBoolean(configuration.get(PackageManagersContext.ReleaseManagementContext.CREATE_VCS_TAG))) {
-            // push the tag
-            vcsManager.pushTag(vcsManager.getRemoteUrl(),
-                    configuration.get(PackageManagersContext.ReleaseManagementContext.TAG_URL));
-            state.tagPushed = true;
+        // push the release branch and the tag together, in a single push
+        String branchToPush = state.releaseBranchCreated ? state.currentWorkingBranch : null;
+        String tagToPush = state.tagCreated ?
+                configuration.get(PackageManagersContext.ReleaseManagementContext.TAG_URL) : null;
+        try {
+            vcsManager.pushReleaseRefs(vcsManager.getRemoteUrl(), branchToPush, tagToPush);
+        } finally {
+            // only the refs this push created or moved on the remote are deleted on rollback, a failed non-atomic push
+            // may have updated some of them
+            state.releaseBranchPushed = branchToPush != null && vcsManager.isReleaseBranchPushed(branchToPush);
+            state.tagPushed = tagToPush != null && vcsManager.isReleaseTagPushed(tagToPush);
         }
     }
 
@@ -111,37 +118,50 @@ public class GitCoordinator extends AbstractVcsCoordinator {
             if (StringUtils.isBlank(comment)) {
                 comment = "";
             }
-            vcsManager.commitWorkingCopy(comment);
+            commit(comment);
         }
     }
 
     @Override
     public void buildCompleted(BuildContext buildContext) throws IOException, InterruptedException {
-        PackageManagersContext context = PackageManagersContext.createContextFromMap(configuration);
-        CurrentBuildResult result = buildContext.getBuildResult();
-        if (BuildState.SUCCESS.equals(result.getBuildState())) {
-            if (modifiedFilesForDevVersion) {
-                vcsManager.push(vcsManager.getRemoteUrl(), checkoutBranch);
-            }
-        } else {
-            // go back to the original checkout branch (required to delete the release branch and reset the working copy)
-            vcsManager.checkoutBranch(checkoutBranch, false);
-            state.currentWorkingBranch = checkoutBranch;
+        try {
+            PackageManagersContext context = PackageManagersContext.createContextFromMap(configuration);
+            CurrentBuildResult result = buildContext.getBuildResult();
+            if (BuildState.SUCCESS.equals(result.getBuildState())) {
+                if (modifiedFilesForDevVersion) {
+                    vcsManager.push(vcsManager.getRemoteUrl(), checkoutBranch);
+                }
+            } else {
+                // go back to the original checkout branch (required to delete the release branch and reset the working copy)
+                vcsManager.checkoutBranch(checkoutBranch, false);
+                state.currentWorkingBranch = checkoutBranch;
 
-            if (state.releaseBranchCreated) {
-                safeDeleteBranch(releaseBranch);
-            }
-            if (state.releaseBranchPushed) {
-                safeDeleteRemoteBranch(vcsManager.getRemoteUrl(), releaseBranch);
-            }
-            if (state.tagCreated) {
-                safeDeleteTag(context.releaseManagementContext.getTagUrl());
-            }
-            if (state.tagPushed) {
-                safeDeleteRemoteTag(vcsManager.getRemoteUrl(), context.releaseManagementContext.getTagUrl());
+                if (state.releaseBranchCreated) {
+                    safeDeleteBranch(releaseBranch);
+                }
+                if (state.tagCreated) {
+                    safeDeleteTag(context.releaseManagementContext.getTagUrl());
+                }
+                if (state.releaseBranchPushed || state.tagPushed) {
+                    safeDeleteRemoteRefs(vcsManager.getRemoteUrl(),
+                            state.releaseBranchPushed ? releaseBranch : null,
+                            state.tagPushed ? context.releaseManagementContext.getTagUrl() : null);
+                }
+                // reset changes done on the original checkout branch (next dev version)
+                safeRevertWorkingCopy();
             }
-            // reset changes done on the original checkout branch (next dev version)
-            safeRevertWorkingCopy();
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Closes the Git repository session that was opened in {@link #prepare()}.
+     */
+    @Override
+    public void close() {
+        if (vcsManager != null) {
+            vcsManager.close();
         }
     }
 
@@ -158,14 +178,6 @@ public class GitCoordinator extends AbstractVcsCoordinator {
         }
     }
 
-    private void safeDeleteRemoteBranch(String remoteRepository, String branch) {
-        try {
-            vcsManager.deleteRemoteBranch(remoteRepository, branch);
-        } catch (Exception e) {
-            log(buildLogger.addBuildLogEntry("Failed to delete remote release branch: " + e.getLocalizedMessage()));
-        }
-    }
-
     private void safeDeleteTag(String tag) {
         try {
             vcsManager.deleteLocalTag(tag);
@@ -174,17 +186,46 @@ public class GitCoordinator extends AbstractVcsCoordinator {
         }
     }
 
-    private void safeDeleteRemoteTag(String remoteRepository, String tag) {
+    private void safeDeleteRemoteRefs(String remoteRepository, String branch, String tag) {
         try {
-            vcsManager.deleteRemoteTag(remoteRepository, tag);
+            vcsManager.deleteRemoteReleaseRefs(remoteRepository, branch, tag);
         } catch (Exception e) {
-            log(buildLogger.addBuildLogEntry("Failed to delete remote tag: " + e.getLocalizedMessage()));
+            log(buildLogger.addBuildLogEntry("Failed to delete remote release branch and tag: " + e.getLocalizedMessage()));
         }
     }
 
+    @Override
+    public void setDescriptorFiles(Collection<File> descriptorFiles) {
+        this.descriptorFiles = descriptorFiles;
+    }
+
+    private void commit(String comment) throws IOException, InterruptedException {
+        List<String> paths = getDescriptorPaths();
+        if (paths != null) {
+            vcsManager.commitFiles(comment, paths);
+        } else {
+            vcsManager.commitWorkingCopy(comment);
+        }
+    }
+
+    /**
+     * @return The descriptor paths relative to the working tree, or null if the whole working copy should be used.
+     */
+    private List<String> getDescriptorPaths() throws IOException {
+        if (descriptorFiles.isEmpty()) {
+            return null;
+        }
+        return vcsManager.toRepositoryPaths(descriptorFiles);
+    }
+
     private void safeRevertWorkingCopy() {
         try {
-            vcsManager.revertWorkingCopy(baseCommitIsh);
+            List<String> paths = getDescriptorPaths();
+            if (paths != null) {
+                vcsManager.revertFiles(baseCommitIsh, paths);
+            } else {
+                vcsManager.revertWorkingCopy(baseCommitIsh);
+            }
         } catch (Exception e) {
             log(buildLogger.addBuildLogEntry("Failed to revert working copy: " + e.getLocalizedMessage()));
         }
@@ -3,20 +3,26 @@ package org.jfrog.bamboo.release.vcs.git;
 import com.atlassian.bamboo.build.logger.BuildLogger;
 import com.atlassian.bamboo.v2.build.BuildContext;
 import com.atlassian.struts.TextProvider;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.commons.io.FilenameUtils;
+import org.eclipse.jgit.api.AddCommand;
+import org.eclipse.jgit.api.CheckoutCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.PushCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.internal.JGitText;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.transport.*;
 import org.eclipse.jgit.util.FS;
@@ -24,18 +30,28 @@ import org.jetbrains.annotations.Nullable;
 import org.jfrog.bamboo.context.PackageManagersContext;
 import org.jfrog.bamboo.release.vcs.AbstractVcsManager;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Manager that manages the Git repository.
+ * <p/>
+ * The underlying repository is opened once, on first use, and shared by all the operations of this manager so that the
+ * packed refs, the configuration and the pack file list are read only once per release session. Callers must
+ * {@link #close()} the manager when the session is over.
  *
  * @author Tomer Cohen
  */
-public class GitManager extends AbstractVcsManager {
+public class GitManager extends AbstractVcsManager implements Closeable {
     private static final Logger log = LogManager.getLogger(GitManager.class);
     private static final String REF_PREFIX = "refs/heads/";
     private static final String REFS_TAGS = "refs/tags/";
@@ -47,6 +63,9 @@ public class GitManager extends AbstractVcsManager {
     private String sshKey = "";
     private String sshPassphrase = "";
     private String authenticationType = "";
+    private Repository repository;
+    // The remote refs created or moved by the release push of this session, the only ones to delete on rollback
+    private final Set<String> pushedReleaseRefs = Sets.newHashSet();
 
     public GitManager(BuildContext context, BuildLogger buildLogger) {
         super(context, buildLogger);
@@ -79,6 +98,28 @@ public class GitManager extends AbstractVcsManager {
     }
 
 
+    /**
+     * Stages and commits only the given files, without scanning the rest of the working copy.
+     *
+     * @param commitMessage The commit message.
+     * @param paths         The paths to commit, relative to the working tree root.
+     */
+    public void commitFiles(String commitMessage, Collection<String> paths) throws IOException {
+        try (Git git = createGitApi()) {
+            AddCommand addCommand = git.add();
+            for (String path : paths) {
+                addCommand.addFilepattern(path);
+            }
+            addCommand.call();
+            git.commit().setMessage(commitMessage).setCommitter(new PersonIdent(git.getRepository())).call();
+        } catch (Exception e) {
+            String message = "An error " + e.getMessage() + " occurred while committing the files " + paths;
+            log.error("[RELEASE] " + message, e);
+            buildLogger.addErrorLogEntry("[RELEASE] " + message, e);
+            throw new IOException(message, e);
+        }
+    }
+
     @Override
     public void createTag(String tagUrl, String commitMessage) throws IOException, InterruptedException {
         try (Git git = createGitApi()) {
@@ -98,10 +139,8 @@ public class GitManager extends AbstractVcsManager {
 
     public String getCurrentCommitHash() throws IOException {
         File workingDir = getGitDir();
-        FileRepository localRepository = null;
         try {
-            localRepository = new FileRepository(workingDir);
-            ObjectId objId = localRepository.resolve(Constants.HEAD);
+            ObjectId objId = getRepository().resolve(Constants.HEAD);
             return (objId != null ? objId.getName() : null);
         } catch (IOException e) {
             String message = textProvider.getText("repository.git.messages.cannotDetermineRevision", Arrays
@@ -109,29 +148,19 @@ public class GitManager extends AbstractVcsManager {
             log.warn(message, e);
             buildLogger.addErrorLogEntry(message, e);
             return null;
-        } finally {
-            if (localRepository != null) {
-                localRepository.close();
-            }
         }
     }
 
     public String getCurrentBranch() throws IOException {
         File workingDir = getGitDir();
-        FileRepository localRepository = null;
         try {
-            localRepository = new FileRepository(workingDir);
-            return localRepository.getBranch();
+            return getRepository().getBranch();
         } catch (IOException e) {
             String message = textProvider.getText("repository.git.messages.cannotDetermineRevision", Arrays
                     .asList(workingDir)) + " " + e.getMessage();
             log.warn(message, e);
             buildLogger.addErrorLogEntry(message, e);
             return null;
-        } finally {
-            if (localRepository != null) {
-                localRepository.close();
-            }
         }
     }
 
@@ -156,49 +185,75 @@ public class GitManager extends AbstractVcsManager {
     }
 
     public void push(String url, String branch) throws IOException {
-        try (Git git = createGitApi()) {
-            PushCommand pushCommand = buildPushCommand(git);
-            pushCommand.setRefSpecs(new RefSpec(REF_PREFIX + branch)).setRemote(url);
-            Iterable<PushResult> result;
-            log("Pushing branch: " + branch + " to url: " + url);
-            try {
-                result = pushCommand.call();
-            } catch (Exception ire) {
-                String message =
-                        "An error '" + ire.getMessage() + "' occurred while pushing branch: " + branch + " to url: " + url;
-                log.error("[RELEASE] " + message, ire);
-                buildLogger.addErrorLogEntry("[RELEASE] " + message, ire);
-                throw new IOException(message, ire);
-            }
-            for (PushResult pushResult : result) {
-                if (StringUtils.isNotBlank(pushResult.getMessages())) {
-                    log(pushResult.getMessages());
-                }
-            }
+        pushRefSpecs(url, Collections.singletonList(new RefSpec(REF_PREFIX + branch)), "pushing branch: " + branch, null);
+    }
+
+    /**
+     * Pushes the release branch and the release tag in a single push, over one transport session. The push is atomic
+     * if the remote supports it. The refs updated on the remote are reported by {@link #isReleaseBranchPushed} and
+     * {@link #isReleaseTagPushed}, also when the push fails.
+     *
+     * @param url    The remote url.
+     * @param branch The branch to push, or null if no branch should be pushed.
+     * @param tagUrl The tag to push, or null if no tag should be pushed.
+     */
+    public void pushReleaseRefs(String url, @Nullable String branch, @Nullable String tagUrl) throws IOException {
+        List<RefSpec> refSpecs = Lists.newArrayList();
+        List<String> names = Lists.newArrayList();
+        if (StringUtils.isNotBlank(branch)) {
+            refSpecs.add(new RefSpec(REF_PREFIX + branch));
+            names.add("branch: " + branch);
+        }
+        if (StringUtils.isNotBlank(tagUrl)) {
+            String escapedTagName = escapeTagName(tagUrl);
+            refSpecs.add(new RefSpec(REFS_TAGS + escapedTagName));
+            names.add("tag: " + escapedTagName);
+        }
+        if (!refSpecs.isEmpty()) {
+            pushRefSpecs(url, refSpecs, "pushing " + StringUtils.join(names, ", "), pushedReleaseRefs);
         }
     }
 
-    public void pushTag(String remoteUrl, String tagUrl) throws IOException {
-        String escapedTagName = tagUrl.replace(' ', '_');
-        Iterable<PushResult> result;
-        try (Git git = createGitApi()) {
-            PushCommand pushCommand = buildPushCommand(git);
-            pushCommand.setRefSpecs(new RefSpec(REFS_TAGS + escapedTagName)).setRemote(remoteUrl);
-            log("Pushing tag: " + escapedTagName + " to url " + remoteUrl);
-            try {
-                result = pushCommand.call();
-            } catch (Exception ire) {
-                String message =
-                        "An error '" + ire.getMessage() + "' occurred while pushing tag: " + tagUrl + " to:" + remoteUrl;
-                log.error("[RELEASE] " + message, ire);
-                buildLogger.addErrorLogEntry("[RELEASE] " + message, ire);
-                throw new IOException(message, ire);
-            }
-            for (PushResult pushResult : result) {
-                if (StringUtils.isNotBlank(pushResult.getMessages())) {
-                    log(pushResult.getMessages());
-                }
-            }
+    /**
+     * @return True if the branch was created or moved on the remote by {@link #pushReleaseRefs}.
+     */
+    public boolean isReleaseBranchPushed(String branch) {
+        return pushedReleaseRefs.contains(REF_PREFIX + branch);
+    }
+
+    /**
+     * @return True if the tag was created or moved on the remote by {@link #pushReleaseRefs}.
+     */
+    public boolean isReleaseTagPushed(String tagUrl) {
+        return pushedReleaseRefs.contains(REFS_TAGS + escapeTagName(tagUrl));
+    }
+
+    private static String escapeTagName(String tagUrl) {
+        return tagUrl.replace(' ', '_');
+    }
+
+    /**
+     * Deletes the release branch and the release tag from the remote in a single push, over one transport session.
+     *
+     * @param url    The remote url.
+     * @param branch The branch to delete, or null if no branch should be deleted.
+     * @param tag    The tag to delete, or null if no tag should be deleted. Escaped the same way as by
+     *               {@link #pushReleaseRefs}.
+     */
+    public void deleteRemoteReleaseRefs(String url, @Nullable String branch, @Nullable String tag) throws IOException {
+        List<RefSpec> refSpecs = Lists.newArrayList();
+        List<String> names = Lists.newArrayList();
+        if (StringUtils.isNotBlank(branch)) {
+            refSpecs.add(new RefSpec(":" + REF_PREFIX + branch));
+            names.add("branch: " + branch);
+        }
+        if (StringUtils.isNotBlank(tag)) {
+            String escapedTagName = escapeTagName(tag);
+            refSpecs.add(new RefSpec(":" + REFS_TAGS + escapedTagName));
+            names.add("tag: " + escapedTagName);
+        }
+        if (!refSpecs.isEmpty()) {
+            pushRefSpecs(url, refSpecs, "deleting remote " + StringUtils.join(names, ", "), null);
         }
     }
 
@@ -214,29 +269,6 @@ public class GitManager extends AbstractVcsManager {
         }
     }
 
-    public void deleteRemoteBranch(String repository, String branch) throws IOException {
-        Iterable<PushResult> results;
-        try (Git git = createGitApi()) {
-            PushCommand pushCommand = buildPushCommand(git);
-            pushCommand.setRefSpecs(new RefSpec(":" + REF_PREFIX + branch)).setRemote(repository);
-            log("Deleting remote branch: " + branch + " from " + repository);
-            try {
-                results = pushCommand.call();
-            } catch (Exception e) {
-                String message = "An error '" + e.getMessage() + "' occurred while deleting remote branch: " + branch +
-                        " from remote: " + repository;
-                log.error("[RELEASE] " + message, e);
-                buildLogger.addErrorLogEntry("[RELEASE] " + message, e);
-                throw new IOException(message, e);
-            }
-            for (PushResult result : results) {
-                if (StringUtils.isNotBlank(result.getMessages())) {
-                    log(result.getMessages());
-                }
-            }
-        }
-    }
-
     public void deleteLocalTag(String tag) throws IOException {
         try (Git git = createGitApi()) {
             DeleteTagCommand deleteTagCommand = new DeleteTagCommand(git.getRepository());
@@ -263,18 +295,60 @@ public class GitManager extends AbstractVcsManager {
         }
     }
 
-    public void deleteRemoteTag(String repository, String tag) throws IOException {
+    /**
+     * Moves the current branch back to the given commit and restores only the given files from it. Unlike
+     * {@link #revertWorkingCopy(String)}, the rest of the working copy is not scanned.
+     *
+     * @param ish   The commit to revert to.
+     * @param paths The paths to restore, relative to the working tree root.
+     */
+    public void revertFiles(String ish, Collection<String> paths) throws GitAPIException, IOException {
+        log("Reverting " + paths.size() + " files to: " + ish);
         try (Git git = createGitApi()) {
-            PushCommand pushCommand = buildPushCommand(git);
-            pushCommand.setRefSpecs(new RefSpec(":" + REFS_TAGS + tag)).setRemote(repository);
+            new ResetCommand(git.getRepository()).setMode(ResetCommand.ResetType.SOFT).setRef(ish).call();
+            CheckoutCommand checkoutCommand = git.checkout().setStartPoint(ish);
+            for (String path : paths) {
+                checkoutCommand.addPath(path);
+            }
+            checkoutCommand.call();
+        }
+    }
+
+    /**
+     * Converts the given files into paths relative to the working tree root, in the format expected by Git.
+     *
+     * @return The relative paths, or null if one of the files is outside of the working tree.
+     */
+    @Nullable
+    public List<String> toRepositoryPaths(Collection<File> files) throws IOException {
+        Path workTree = getRepository().getWorkTree().getCanonicalFile().toPath();
+        List<String> paths = Lists.newArrayListWithCapacity(files.size());
+        for (File file : files) {
+            Path path = file.getCanonicalFile().toPath();
+            if (!path.startsWith(workTree) || path.equals(workTree)) {
+                return null;
+            }
+            paths.add(FilenameUtils.separatorsToUnix(workTree.relativize(path).toString()));
+        }
+        return paths;
+    }
+
+    /**
+     * Pushes all the given ref specs to the remote with a single push command. When more than one ref spec is pushed,
+     * an atomic push is requested, falling back to a regular push if the remote does not support atomic pushes.
+     *
+     * @param updatedRefs Collects the remote refs which the remote reports as updated, before any rejected ref fails
+     *                    the push. May be null.
+     */
+    private void pushRefSpecs(String url, List<RefSpec> refSpecs, String action, @Nullable Collection<String> updatedRefs)
+            throws IOException {
+        try (Git git = createGitApi()) {
+            log(StringUtils.capitalize(action) + " to url: " + url);
             Iterable<PushResult> results;
-            log("Deleting remote tag: " + tag + " from " + repository);
             try {
-                results = pushCommand.call();
+                results = callPush(git, url, refSpecs, refSpecs.size() > 1);
             } catch (Exception e) {
-                String message =
-                        "An error '" + e.getMessage() + "' occurred when deleting remote tag: " + tag + " from remote: " +
-                                repository;
+                String message = "An error '" + e.getMessage() + "' occurred while " + action + " to url: " + url;
                 log.error("[RELEASE] " + message, e);
                 buildLogger.addErrorLogEntry("[RELEASE] " + message, e);
                 throw new IOException(message, e);
@@ -283,6 +357,59 @@ public class GitManager extends AbstractVcsManager {
                 if (StringUtils.isNotBlank(result.getMessages())) {
                     log(result.getMessages());
                 }
+                if (updatedRefs != null) {
+                    for (RemoteRefUpdate update : result.getRemoteUpdates()) {
+                        if (update.getStatus() == RemoteRefUpdate.Status.OK) {
+                            updatedRefs.add(update.getRemoteName());
+                        }
+                    }
+                }
+            }
+            for (PushResult result : results) {
+                validateRemoteUpdates(result, action, url);
+            }
+        }
+    }
+
+    private Iterable<PushResult> callPush(Git git, String url, List<RefSpec> refSpecs, boolean atomic)
+            throws Exception {
+        PushCommand pushCommand = buildPushCommand(git);
+        pushCommand.setRefSpecs(refSpecs).setRemote(url).setAtomic(atomic);
+        try {
+            return pushCommand.call();
+        } catch (Exception e) {
+            if (atomic && isAtomicPushNotSupported(e)) {
+                log("The remote does not support atomic pushes, pushing without atomic semantics");
+                return callPush(git, url, refSpecs, false);
+            }
+            throw e;
+        }
+    }
+
+    private boolean isAtomicPushNotSupported(Throwable e) {
+        String notSupported = JGitText.get().atomicPushNotSupported;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (StringUtils.contains(cause.getMessage(), notSupported)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void validateRemoteUpdates(PushResult result, String action, String url) throws IOException {
+        for (RemoteRefUpdate update : result.getRemoteUpdates()) {
+            switch (update.getStatus()) {
+                case OK:
+                case UP_TO_DATE:
+                case NON_EXISTING:
+                    break;
+                default:
+                    String message = "Remote rejected " + update.getRemoteName() + " with status " + update.getStatus() +
+                            (update.getMessage() != null ? " (" + update.getMessage() + ")" : "") + " while " + action +
+                            " to url: " + url;
+                    log.error("[RELEASE] " + message);
+                    buildLogger.addErrorLogEntry("[RELEASE] " + message);
+                    throw new IOException(message);
             }
         }
     }
@@ -303,11 +430,32 @@ public class GitManager extends AbstractVcsManager {
         return pushCommand;
     }
 
+    /**
+     * Closes the repository of the current release session. Safe to call more than once, a subsequent operation
+     * reopens the repository.
+     */
+    @Override
+    public void close() {
+        if (repository != null) {
+            repository.close();
+            repository = null;
+        }
+    }
+
+    /**
+     * The returned {@link Git} wraps the session's repository, closing it does not close the repository itself.
+     */
     private Git createGitApi() throws IOException {
-        File workingDir = getGitDir();
-        FileRepositoryBuilder builder = new FileRepositoryBuilder();
-        builder.setGitDir(workingDir);
-        return new Git(builder.setup().build());
+        return Git.wrap(getRepository());
+    }
+
+    private Repository getRepository() throws IOException {
+        if (repository == null) {
+            FileRepositoryBuilder builder = new FileRepositoryBuilder();
+            builder.setGitDir(getGitDir());
+            repository = builder.setup().build();
+        }
+        return repository;
     }
 
     private File getGitDir() {
@@ -73,10 +73,10 @@ public class SshPushCommand extends PushCommand {
                 transport.setOptionReceivePack(getReceivePack());
             }
             transport.setDryRun(isDryRun());
+            transport.setPushAtomic(isAtomic());
 
             final Collection<RemoteRefUpdate> toPush = transport
                     .findRemoteRefUpdatesFor(getRefSpecs());
-            transport.push(monitor, toPush);
 
             try {
                 PushResult result = transport.push(monitor, toPush);
@@ -11,6 +11,7 @@ import org.jfrog.bamboo.release.vcs.AbstractVcsCoordinator;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -90,6 +91,12 @@ public class PerforceCoordinator extends AbstractVcsCoordinator {
         perforce.edit(currentChangeListId, file);
     }
 
+    @Override
+    public void edit(Collection<File> files) throws IOException, InterruptedException {
+        log("Opening " + files.size() + " files for editing in change list: " + currentChangeListId);
+        perforce.edit(currentChangeListId, files);
+    }
+
     @Override
     public void buildCompleted(BuildContext buildContext) throws IOException, InterruptedException {
         PackageManagersContext context = PackageManagersContext.createContextFromMap(configuration);
@@ -3,6 +3,17 @@ package org.jfrog.bamboo.release.vcs.perforce;
 import com.atlassian.bamboo.build.logger.BuildLogger;
 import com.atlassian.bamboo.repository.perforce.PerforceRepository;
 import com.atlassian.bamboo.v2.build.BuildContext;
+import com.google.common.collect.Lists;
+import com.perforce.p4java.client.IClient;
+import com.perforce.p4java.core.file.FileSpecBuilder;
+import com.perforce.p4java.core.file.FileSpecOpStatus;
+import com.perforce.p4java.core.file.IFileSpec;
+import com.perforce.p4java.exception.P4JavaException;
+import com.perforce.p4java.option.server.TrustOptions;
+import com.perforce.p4java.server.IOptionsServer;
+import com.perforce.p4java.server.IServerAddress;
+import com.perforce.p4java.server.PerforceCharsets;
+import com.perforce.p4java.server.ServerFactory;
 import org.apache.commons.lang.StringUtils;
 import org.jfrog.bamboo.context.PackageManagersContext;
 import org.jfrog.bamboo.release.vcs.AbstractVcsManager;
@@ -10,7 +21,10 @@ import org.jfrog.build.vcs.perforce.PerforceClient;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 /**
  * Manager that manages the {@link PerforceRepository}
@@ -19,7 +33,14 @@ import java.util.Map;
  */
 public class PerforceManager extends AbstractVcsManager {
 
+    private static final String SSL_PREFIX = "ssl:";
+    /**
+     * Maximum number of files opened for editing by a single server request.
+     */
+    static final int EDIT_BATCH_SIZE = 1000;
+
     private PerforceClient perforce;
+    private IClient workspace;
     private String port = "";
     private String client = "";
     private String username = "";
@@ -36,21 +57,90 @@ public class PerforceManager extends AbstractVcsManager {
         }
     }
 
+    PerforceManager(BuildContext context, BuildLogger buildLogger, PerforceClient perforce, IClient workspace) {
+        this(context, buildLogger);
+        this.perforce = perforce;
+        this.workspace = workspace;
+    }
+
+    /**
+     * Connects to the Perforce server. The connection is created here rather than by {@link PerforceClient.Builder}
+     * so that the client workspace is also available for batched operations, it is configured the same way.
+     */
     public void prepare() throws IOException {
-        PerforceClient.Builder builder = new PerforceClient.Builder();
         String hostAddress = port;
         if (!hostAddress.contains(":")) {
             hostAddress = "localhost:" + hostAddress;
         }
-        builder.hostAddress(hostAddress).client(client);
-        if (!StringUtils.isEmpty(username)) {
-            builder.username(username).password(password);
+        IOptionsServer server;
+        try {
+            boolean ssl = StringUtils.startsWithIgnoreCase(hostAddress, SSL_PREFIX);
+            IServerAddress.Protocol protocol = ssl ? IServerAddress.Protocol.P4JAVASSL : IServerAddress.Protocol.P4JAVA;
+            Properties properties = new Properties();
+            properties.put("autoConnect", true);
+            properties.put("autoLogin", true);
+            server = ServerFactory.getOptionsServer(
+                    protocol + "://" + (ssl ? hostAddress.substring(SSL_PREFIX.length()) : hostAddress), properties);
+            if (ssl) {
+                server.addTrust(new TrustOptions().setAutoAccept(true).setForce(true));
+            }
+            String charset = System.getenv("P4CHARSET");
+            if (!StringUtils.isBlank(charset)) {
+                server.setCharsetName(PerforceCharsets.isSupported(charset) ? charset : "none");
+            }
+        } catch (Exception e) {
+            throw new IOException("Perforce execution failed: '" + e.getMessage() + "'", e);
+        }
+        connect(server);
+    }
+
+    /**
+     * Connects to the server and creates the client over the open connection. From then on the connection is owned by
+     * the client, and closed by {@link #closeConnection()}. If the client can not be created, the connection is closed.
+     */
+    void connect(IOptionsServer server) throws IOException {
+        boolean connected = false;
+        try {
+            server.connect();
+            if (!StringUtils.isEmpty(username)) {
+                server.setUserName(username);
+                if (StringUtils.isNotBlank(password)) {
+                    server.login(password);
+                }
+            }
+            workspace = getWorkspace(server, client);
+            perforce = new PerforceClient(server, workspace);
+            connected = true;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Perforce execution failed: '" + e.getMessage() + "'", e);
+        } finally {
+            if (!connected) {
+                disconnectQuietly(server);
+            }
+        }
+    }
+
+    private static void disconnectQuietly(IOptionsServer server) {
+        try {
+            server.disconnect();
+        } catch (Exception e) {
+            // Ignore, the connection is not used anymore
         }
-        String charset = System.getenv("P4CHARSET");
-        if (!StringUtils.isBlank(charset)) {
-            builder.charset(charset);
+    }
+
+    /**
+     * @return The client workspace, set as the current client of the server.
+     * @throws IOException If the server has no such client workspace.
+     */
+    static IClient getWorkspace(IOptionsServer server, String client) throws IOException, P4JavaException {
+        IClient workspace = server.getClient(client);
+        if (workspace == null) {
+            throw new IOException("Perforce client workspace '" + client + "' does not exist on the server");
         }
-        perforce = builder.build();
+        server.setCurrentClient(workspace);
+        return workspace;
     }
 
     public void commitWorkingCopy(int changeListId, String commitMessage) throws IOException {
@@ -88,6 +178,35 @@ public class PerforceManager extends AbstractVcsManager {
         perforce.editFile(changeListId, releaseVersion);
     }
 
+    /**
+     * Opens all the given files for editing in the given change list, with one server request per
+     * {@value #EDIT_BATCH_SIZE} files.
+     *
+     * @param changeListId The change list to open the files in.
+     * @param files        The files to open for editing.
+     * @throws IOException In case one of the files could not be opened for editing
+     */
+    public void edit(int changeListId, Collection<File> files) throws IOException {
+        List<String> paths = Lists.newArrayListWithCapacity(files.size());
+        for (File file : files) {
+            paths.add(file.getAbsolutePath());
+        }
+        for (List<String> batch : Lists.partition(paths, EDIT_BATCH_SIZE)) {
+            List<IFileSpec> results;
+            try {
+                results = workspace.editFiles(FileSpecBuilder.makeFileSpecList(batch), false, false, changeListId, null);
+            } catch (P4JavaException e) {
+                throw new IOException("Perforce execution failed: '" + e.getMessage() + "'", e);
+            }
+            for (IFileSpec result : results) {
+                FileSpecOpStatus status = result.getOpStatus();
+                if (FileSpecOpStatus.ERROR.equals(status) || FileSpecOpStatus.CLIENT_ERROR.equals(status)) {
+                    throw new IOException("Failed opening file for editing: '" + result.getStatusMessage() + "'");
+                }
+            }
+        }
+    }
+
     /**
      * Creates a new changelist and returns its id number
      *
@@ -16,6 +16,8 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by diman on 07/03/2017.
@@ -31,6 +33,14 @@ public class EncryptionHelper {
     private static final int KEY_LENGTH = 24;
     private static final String uiKey = generateRandomKey();
     private static final String dbKey = "Beetlejuice version $version (c) Copyright 2003-2005 Pols Consulting Limited";
+    /**
+     * Prefixes of the data encrypted by this class, so that the key and the encoding can be determined without trial
+     * decryption, and encrypted data can be told apart from plain data. Curly braces are not part of the Base64 and
+     * Base32 alphabets, so tagged data is never mistaken for legacy (untagged) data.
+     */
+    static final String CONFIG_PREFIX = "{DESede-cfg}";
+    static final String UI_PREFIX = "{DESede-ui}";
+    private static final Map<String, SecretKey> secretKeys = new ConcurrentHashMap<>();
 
     /***
      * Encrypts data with the constant DB key. Use this method to encrypt configuration data. For example, sensitive data which is meant
@@ -47,7 +57,7 @@ public class EncryptionHelper {
 
         try {
             final byte[] encrypted = getEncrypter(dbKey).doFinal(stringToEncrypt.getBytes(StandardCharsets.UTF_8));
-            return Base64.getMimeEncoder().encodeToString(encrypted);
+            return CONFIG_PREFIX + Base64.getMimeEncoder().encodeToString(encrypted);
         } catch (Exception e) {
             throw new RuntimeException("Failed to encrypt.", e);
         }
@@ -67,12 +77,16 @@ public class EncryptionHelper {
 
         try {
             final byte[] encrypted = getEncrypter(uiKey).doFinal(stringToEncrypt.getBytes(StandardCharsets.UTF_8));
-            return new Base32().encodeAsString(encrypted);
+            return UI_PREFIX + new Base32().encodeAsString(encrypted);
         } catch (Exception e) {
             throw new RuntimeException("Failed to encrypt.", e);
         }
     }
 
+    /**
+     * Decrypts data encrypted by this class. Untagged data is legacy configuration data, encrypted with the DB key
+     * before the encryption prefixes were introduced, see {@link #isLegacyConfigData}.
+     */
     @NotNull
     public static String decrypt(@Nullable String data) {
         if (StringUtils.isEmpty(data)) {
@@ -80,25 +94,47 @@ public class EncryptionHelper {
         }
 
         try {
-            final byte[] encrypted = Base64.getMimeDecoder().decode(data);
-            return decryptWithKey(dbKey, encrypted);
-        } catch (Exception e) {
-            try {
-                final byte[] encrypted = new Base32().decode(data);
-                return decryptWithKey(uiKey, encrypted);
-            } catch (Exception ee) {
-                throw new RuntimeException("Failed to decrypt.", ee);
+            if (data.startsWith(CONFIG_PREFIX)) {
+                return decryptWithKey(dbKey, Base64.getMimeDecoder().decode(data.substring(CONFIG_PREFIX.length())));
+            }
+            if (data.startsWith(UI_PREFIX)) {
+                return decryptWithKey(uiKey, new Base32().decode(data.substring(UI_PREFIX.length())));
             }
+            return decryptWithKey(dbKey, Base64.getMimeDecoder().decode(data));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to decrypt.", e);
         }
     }
 
+    /**
+     * Decrypts the data if it is encrypted, otherwise returns it as is.
+     * Encrypted data is recognized by its prefix, so plain values return without a decryption attempt or a thrown
+     * exception. Legacy configuration data is encrypted again with the prefix when the configuration is loaded, and
+     * UI data is never persisted, its key changes on every restart.
+     */
     public static String decryptIfNeeded(String s) {
+        if (StringUtils.isEmpty(s) || !isTagged(s)) {
+            return s;
+        }
         try {
-            s = decrypt(s);
+            return decrypt(s);
         } catch (RuntimeException e) {
-            // Ignore. The field may not be encrypted.
+            // Ignore. The field may have been encrypted for the UI before a restart, with the previous UI key.
+            return s;
         }
-        return s;
+    }
+
+    /**
+     * @param data Data read from the configuration, which is always stored encrypted.
+     * @return True if the data was encrypted before the encryption prefixes were introduced, and should be encrypted
+     * again so that it is recognized by its prefix.
+     */
+    public static boolean isLegacyConfigData(@Nullable String data) {
+        return StringUtils.isNotEmpty(data) && !isTagged(data);
+    }
+
+    private static boolean isTagged(String data) {
+        return data.startsWith(CONFIG_PREFIX) || data.startsWith(UI_PREFIX);
     }
 
     private static String decryptWithKey(String key, byte[] encrypted) throws InvalidKeySpecException, InvalidKeyException, NoSuchAlgorithmException, BadPaddingException, IllegalBlockSizeException {
@@ -113,6 +149,17 @@ public class EncryptionHelper {
         return sb.toString();
     }
 
+    private static SecretKey getSecret(String key)
+            throws InvalidKeySpecException, InvalidKeyException, NoSuchAlgorithmException {
+        // Only two keys are ever used, the DB key and the UI key of the current JVM
+        SecretKey secretKey = secretKeys.get(key);
+        if (secretKey == null) {
+            secretKey = generateSecret(key);
+            secretKeys.put(key, secretKey);
+        }
+        return secretKey;
+    }
+
     private static SecretKey generateSecret(String key)
             throws InvalidKeySpecException, InvalidKeyException, NoSuchAlgorithmException {
         DESedeKeySpec myKeySpec = new DESedeKeySpec(key.getBytes(StandardCharsets.UTF_8));
@@ -121,14 +168,14 @@ public class EncryptionHelper {
     }
 
     private static Cipher getDecrypter(String key) throws InvalidKeySpecException, InvalidKeyException, NoSuchAlgorithmException {
-        SecretKey secretKey = generateSecret(key);
+        SecretKey secretKey = getSecret(key);
         final Cipher decrypter = threadLocalDecrypter.get();
         decrypter.init(Cipher.DECRYPT_MODE, secretKey);
         return decrypter;
     }
 
     private static Cipher getEncrypter(String key) throws InvalidKeySpecException, InvalidKeyException, NoSuchAlgorithmException {
-        SecretKey secretKey = generateSecret(key);
+        SecretKey secretKey = getSecret(key);
         final Cipher encrypter = threadLocalEncrypter.get();
         encrypter.init(Cipher.ENCRYPT_MODE, secretKey);
         return encrypter;
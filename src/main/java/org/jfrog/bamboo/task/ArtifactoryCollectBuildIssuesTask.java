@@ -6,18 +6,23 @@ import com.atlassian.bamboo.task.*;
 import com.atlassian.bamboo.v2.build.BuildContext;
 import com.atlassian.bamboo.variable.CustomVariableContext;
 import com.atlassian.spring.container.ContainerManager;
+import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.builder.BuildInfoHelper;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.CollectBuildIssuesContext;
+import org.jfrog.bamboo.issues.IncrementalIssuesCollector;
+import org.jfrog.bamboo.issues.IssuesCollectionCursors;
 import org.jfrog.bamboo.util.FileSpecUtils;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.Issues;
+import org.jfrog.build.api.IssuesCollectionConfig;
 import org.jfrog.build.api.Vcs;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryBuildInfoClientBuilder;
-import org.jfrog.build.extractor.issuesCollection.IssuesCollector;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
 
 import java.io.File;
 import java.io.IOException;
@@ -61,7 +66,7 @@ public class ArtifactoryCollectBuildIssuesTask extends ArtifactoryTaskType {
             }
             Issues issues = collectBuildIssues(logger, projectRootDir);
             addIssuesToBuildInfoInContext(taskContext, issues);
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException e) {
             buildInfoLog.error("Exception occurred while executing task", e);
             return TaskResultBuilder.newBuilder(taskContext).failedWithError().build();
         }
@@ -121,12 +126,41 @@ public class ArtifactoryCollectBuildIssuesTask extends ArtifactoryTaskType {
         return new CollectBuildIssuesContext(context.getConfigurationMap()).getConfigFilePath();
     }
 
-    private Issues collectBuildIssues(BuildLogger logger, File projectRootDir) throws IOException, InterruptedException {
+    /**
+     * Collects the issues of the commits added since the previous build.
+     * The commits are processed incrementally from the last revision processed by a previous run of this plan branch on
+     * this agent, see {@link IncrementalIssuesCollector}.
+     */
+    private Issues collectBuildIssues(BuildLogger logger, File projectRootDir) throws IOException {
         String config = getIssuesCollectionConfig(taskContext, logger);
+        IssuesCollectionConfig parsedConfig = IncrementalIssuesCollector.parseConfig(config);
         ArtifactoryBuildInfoClientBuilder clientBuilder = buildInfoHelper.getClientBuilder(logger, log);
-        String buildName = collectBuildIssuesContext.getBuildName(((TaskContext) taskContext).getBuildContext());
+        BuildContext buildContext = ((TaskContext) taskContext).getBuildContext();
+        String buildName = collectBuildIssuesContext.getBuildName(buildContext);
         Vcs vcs = extractVcs(projectRootDir, buildInfoLog);
-        return new IssuesCollector().collectIssues(projectRootDir, buildInfoLog, config, clientBuilder, buildName, vcs, "");
+        String vcsUrl = vcs != null ? vcs.getUrl() : null;
+        String previousRevision = getPreviousVcsRevision(clientBuilder, buildName, vcsUrl);
+        String cursorKey = IssuesCollectionCursors.getKey(buildContext.getPlanResultKey().getPlanKey().getKey(), vcsUrl, config);
+        return new IncrementalIssuesCollector(IssuesCollectionCursors.getInstance())
+                .collectIssues(projectRootDir, parsedConfig, cursorKey, previousRevision, buildInfoLog);
+    }
+
+    /**
+     * @return The revision of the repository in the latest published build, or an empty string if there is none.
+     */
+    private String getPreviousVcsRevision(ArtifactoryBuildInfoClientBuilder clientBuilder, String buildName,
+                                          @Nullable String vcsUrl) throws IOException {
+        try (ArtifactoryBuildInfoClient client = clientBuilder.build()) {
+            Build previousBuild = client.getBuildInfo(buildName, "LATEST", null);
+            if (previousBuild == null || previousBuild.getVcs() == null) {
+                return "";
+            }
+            return previousBuild.getVcs().stream()
+                    .filter(previousVcs -> StringUtils.equals(previousVcs.getUrl(), vcsUrl))
+                    .map(previousVcs -> StringUtils.defaultString(previousVcs.getRevision()))
+                    .findFirst()
+                    .orElse("");
+        }
     }
 
     private void addIssuesToBuildInfoInContext(@NotNull TaskContext taskContext, Issues issues) {
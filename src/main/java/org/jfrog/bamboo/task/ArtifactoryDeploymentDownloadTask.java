@@ -10,13 +10,19 @@ import com.atlassian.bamboo.variable.CustomVariableContext;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.admin.ServerConfigManager;
+import org.jfrog.bamboo.cache.SharedDownloadCache;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.GenericContext;
 import org.jfrog.bamboo.util.BuildInfoLog;
 import org.jfrog.bamboo.util.FileSpecUtils;
 import org.jfrog.bamboo.util.TaskUtils;
+import org.jfrog.bamboo.util.generic.BuildArtifactsDownloader;
+import org.jfrog.bamboo.util.generic.DependenciesDownloaderImpl;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
 import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
 import org.jfrog.build.extractor.clientConfiguration.util.spec.SpecsHelper;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.validator.SearchBasedSpecValidator;
 
 import java.io.IOException;
 import java.util.Map;
@@ -43,9 +49,19 @@ public class ArtifactoryDeploymentDownloadTask extends ArtifactoryDeploymentTask
     @NotNull
     public TaskResult runTask(@NotNull DeploymentTaskContext deploymentTaskContext) {
         try (ArtifactoryDependenciesClient client = TaskUtils.getArtifactoryDependenciesClient(downloadServerConfig, new BuildInfoLog(log, logger))) {
-            initFileSpec(deploymentTaskContext, genericContext, logger);
-            SpecsHelper specsHelper = new SpecsHelper(new BuildInfoLog(log, logger));
-            specsHelper.downloadArtifactsBySpec(fileSpec, client, deploymentTaskContext.getWorkingDirectory().getCanonicalPath());
+            if (genericContext.isUseBuildArtifacts()) {
+                Build sourceBuild = getSourceBuild();
+                BuildArtifactsDownloader downloader = new BuildArtifactsDownloader(client, deploymentTaskContext.getWorkingDirectory(), new BuildInfoLog(log, logger));
+                if (genericContext.isUseSharedDownloadCache()) {
+                    downloader.setDownloadCache(SharedDownloadCache.getInstance(genericContext.isCopyFromSharedDownloadCache()), genericContext.getSharedDownloadCacheMaxSize() * 1024L * 1024L);
+                }
+                downloader.download(sourceBuild, genericContext.getSourceBuildRepo());
+            } else {
+                initFileSpec(deploymentTaskContext, genericContext, logger);
+                DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(client, deploymentTaskContext.getWorkingDirectory().getCanonicalFile(), new BuildInfoLog(log, logger));
+                downloader.setSegmentedDownloadThreshold(genericContext.getSegmentedDownloadThreshold() * 1024L * 1024L);
+                downloader.download(new SpecsHelper(new BuildInfoLog(log, logger)).getSpecFromString(fileSpec, new SearchBasedSpecValidator()));
+            }
         } catch (IOException e) {
             buildInfoLog.error("Exception occurred while executing task", e);
             return TaskResultBuilder.newBuilder(deploymentTaskContext).failedWithError().build();
@@ -67,6 +83,12 @@ public class ArtifactoryDeploymentDownloadTask extends ArtifactoryDeploymentTask
                 serverConfigManager, selectedServerConfig, buildParamsOverrideManager);
     }
 
+    private Build getSourceBuild() throws IOException {
+        try (ArtifactoryBuildInfoClient client = TaskUtils.getArtifactoryBuildInfoClient(downloadServerConfig, new BuildInfoLog(log, logger))) {
+            return BuildArtifactsDownloader.getBuild(client, genericContext.getSourceBuildName(), genericContext.getSourceBuildNumber());
+        }
+    }
+
     private void initFileSpec(CommonTaskContext context, GenericContext taskContext, BuildLogger logger) throws IOException {
         fileSpec = FileSpecUtils.getFileSpec(taskContext.isFileSpecInJobConfiguration(),
                 taskContext.getJobConfigurationSpec(), taskContext.getFilePathSpec(), context.getWorkingDirectory(),
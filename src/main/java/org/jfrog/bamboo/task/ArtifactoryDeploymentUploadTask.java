@@ -17,7 +17,8 @@ import org.jfrog.bamboo.context.PackageManagersContext;
 import org.jfrog.bamboo.util.FileSpecUtils;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.bamboo.util.deployment.LegacyDeploymentUtils;
-import org.jfrog.build.extractor.clientConfiguration.ArtifactoryBuildInfoClientBuilder;
+import org.jfrog.bamboo.util.generic.MeteredBuildInfoClientBuilder;
+import org.jfrog.bamboo.util.generic.TransferProgress;
 import org.jfrog.build.extractor.clientConfiguration.util.spec.SpecsHelper;
 
 import java.io.File;
@@ -51,12 +52,15 @@ public class ArtifactoryDeploymentUploadTask extends ArtifactoryDeploymentTaskTy
     @NotNull
     @Override
     public TaskResult runTask(@NotNull DeploymentTaskContext deploymentTaskContext) {
-        ArtifactoryBuildInfoClientBuilder clientBuilder = TaskUtils.getArtifactoryBuildInfoClientBuilder(uploadServerConfig, buildInfoLog);
+        MeteredBuildInfoClientBuilder clientBuilder = TaskUtils.getMeteredBuildInfoClientBuilder(uploadServerConfig, buildInfoLog);
         String artifactsRootDirectory = deploymentTaskContext.getWorkingDirectory().getAbsolutePath();
         try {
             initFileSpec(deploymentTaskContext);
             SpecsHelper specsHelper = new SpecsHelper(buildInfoLog);
-            specsHelper.uploadArtifactsBySpec(fileSpec, new File(artifactsRootDirectory), new HashMap<>(), clientBuilder);
+            try (TransferProgress progress = new TransferProgress("Deploying", "Deployed", -1, -1, buildInfoLog)) {
+                clientBuilder.setProgress(progress);
+                specsHelper.uploadArtifactsBySpec(fileSpec, new File(artifactsRootDirectory), new HashMap<>(), clientBuilder);
+            }
             return TaskResultBuilder.newBuilder(deploymentTaskContext).success().build();
         } catch (Exception e) {
             buildInfoLog.error("Exception occurred while executing deployment task", e);
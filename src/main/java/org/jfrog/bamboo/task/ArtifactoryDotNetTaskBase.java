@@ -11,6 +11,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.builder.BuildInfoHelper;
+import org.jfrog.bamboo.cache.SharedPackageCache;
+import org.jfrog.bamboo.cache.SharedPackageCacheUtils;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.DotNetBuildContext;
 import org.jfrog.bamboo.util.BuildInfoLog;
@@ -108,9 +110,16 @@ public abstract class ArtifactoryDotNetTaskBase extends ArtifactoryTaskType {
                 buildInfoHelper.getServerConfig(), new BuildInfoLog(log, logger));
         String repo = buildInfoHelper.overrideParam(dotNetBuildContext.getResolutionRepo(),
                 BuildParamsOverrideManager.OVERRIDE_ARTIFACTORY_RESOLVE_REPO);
-        return new NugetRun(clientBuilder, repo, taskType == TaskType.DOTNET, String.format("restore %s", dotNetBuildContext.getArguments()),
-                buildInfoLog, workingDir, environmentVariables, null, buildInfoHelper.getServerConfig().getUsername(),
-                buildInfoHelper.getServerConfig().getPassword(), "").execute();
+        // The shared cache is NuGet's global packages folder, from which the build-info dependencies are also read.
+        Map<String, String> env = new HashMap<>(environmentVariables);
+        SharedPackageCache.Lease cacheLease = SharedPackageCacheUtils.acquire(dotNetBuildContext, SharedPackageCache.Type.NUGET, env, buildInfoLog);
+        try {
+            return new NugetRun(clientBuilder, repo, taskType == TaskType.DOTNET, String.format("restore %s", dotNetBuildContext.getArguments()),
+                    buildInfoLog, workingDir, env, null, buildInfoHelper.getServerConfig().getUsername(),
+                    buildInfoHelper.getServerConfig().getPassword(), "").execute();
+        } finally {
+            SharedPackageCacheUtils.release(cacheLease, workingDir, buildInfoLog);
+        }
     }
 
     protected Build executePush() throws Exception {
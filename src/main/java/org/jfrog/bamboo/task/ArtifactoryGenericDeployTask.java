@@ -17,13 +17,16 @@ import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.builder.BuildInfoHelper;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.GenericContext;
+import org.jfrog.bamboo.metrics.TrafficOperation;
 import org.jfrog.bamboo.util.FileSpecUtils;
 import org.jfrog.bamboo.util.TaskDefinitionHelper;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
 import org.jfrog.bamboo.util.Utils;
+import org.jfrog.bamboo.util.generic.MeteredBuildInfoClientBuilder;
+import org.jfrog.bamboo.util.generic.TransferProgress;
 import org.jfrog.build.api.Artifact;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.util.FileChecksumCalculator;
-import org.jfrog.build.extractor.clientConfiguration.ArtifactoryBuildInfoClientBuilder;
 import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.build.extractor.clientConfiguration.util.PublishedItemsHelper;
@@ -88,7 +91,8 @@ public class ArtifactoryGenericDeployTask extends ArtifactoryTaskType {
         }
 
         Build build = buildInfoHelper.getBuild(taskContext, genericContext);
-        ArtifactoryBuildInfoClientBuilder clientBuilder = buildInfoHelper.getClientBuilder(logger, log);
+        MeteredBuildInfoClientBuilder clientBuilder = buildInfoHelper.getMeteredClientBuilder(logger, log);
+        clientBuilder.setTrafficRecorder(this::recordTraffic);
         try {
             File workingDirectory = getWorkingDirectory();
             if (workingDirectory == null) {
@@ -99,7 +103,7 @@ public class ArtifactoryGenericDeployTask extends ArtifactoryTaskType {
                 initFileSpec();
                 build = deployByFileSpec(workingDirectory, build, clientBuilder, fileSpec);
             } else {
-                build = deployByLegacyPattern(workingDirectory, build, getClient(clientBuilder), genericContext);
+                build = deployByLegacyPattern(workingDirectory, build, clientBuilder, genericContext);
             }
             List<? extends TaskDefinition> taskDefinitions = taskContext.getBuildContext().getRuntimeTaskDefinitions();
             if (genericContext.isCaptureBuildInfo() || (genericContext.isPublishBuildInfo() && TaskDefinitionHelper.isBuildPublishTaskExists(taskDefinitions))) {
@@ -144,9 +148,11 @@ public class ArtifactoryGenericDeployTask extends ArtifactoryTaskType {
         FileSpecUtils.validateFileSpec(fileSpec);
     }
 
-    private ArtifactoryBuildInfoClient getClient(ArtifactoryBuildInfoClientBuilder clientBuilder) {
+    private ArtifactoryBuildInfoClient getClient(MeteredBuildInfoClientBuilder clientBuilder) {
         if (this.client == null) {
+            long start = phaseTimings.start();
             this.client = clientBuilder.build();
+            phaseTimings.stop(Phase.CLIENT_CREATION, start);
         }
         return this.client;
     }
@@ -199,7 +205,7 @@ public class ArtifactoryGenericDeployTask extends ArtifactoryTaskType {
         return result;
     }
 
-    private Build deployByLegacyPattern(File sourceCodeDirectory, Build build, ArtifactoryBuildInfoClient client, GenericContext context) throws IOException, NoSuchAlgorithmException {
+    private Build deployByLegacyPattern(File sourceCodeDirectory, Build build, MeteredBuildInfoClientBuilder clientBuilder, GenericContext context) throws IOException, NoSuchAlgorithmException {
         Multimap<String, File> filesMap = buildTargetPathToFiles(sourceCodeDirectory, context);
         Set<DeployDetails> details = Sets.newHashSet();
         Map<String, String> dynamicPropertyMap = buildInfoHelper.getDynamicPropertyMap(build);
@@ -208,10 +214,21 @@ public class ArtifactoryGenericDeployTask extends ArtifactoryTaskType {
             details.addAll(buildDeployDetailsFromFileSet(entry, repoKey, dynamicPropertyMap));
         }
         List<Artifact> artifacts = buildInfoHelper.convertDeployDetailsToArtifacts(details);
+        ArtifactoryBuildInfoClient client = getClient(clientBuilder);
 
-        for (DeployDetails detail : details) {
-            client.deployArtifact(detail);
+        long start = phaseTimings.start();
+        long totalBytes = details.stream().mapToLong(detail -> detail.getFile().length()).sum();
+        try (TransferProgress progress = new TransferProgress("Deploying", "Deployed", details.size(), totalBytes, buildInfoLog)) {
+            clientBuilder.setProgress(progress);
+            for (DeployDetails detail : details) {
+                client.deployArtifact(detail);
+                phaseTimings.addBytes(Phase.TRANSFER, detail.getFile().length());
+            }
+        } finally {
+            clientBuilder.setProgress(null);
         }
+        phaseTimings.addItems(Phase.TRANSFER, details.size());
+        phaseTimings.stop(Phase.TRANSFER, start);
         return buildInfoHelper.addBuildInfoParams(build, artifacts, Lists.newArrayList(), Lists.newArrayList());
     }
 
@@ -224,7 +241,11 @@ public class ArtifactoryGenericDeployTask extends ArtifactoryTaskType {
         String path = PublishedItemsHelper.calculateTargetPath(targetPath, artifactFile);
         path = StringUtils.replace(path, "//", "/");
 
+        long start = phaseTimings.start();
         Map<String, String> checksums = FileChecksumCalculator.calculateChecksums(artifactFile, "SHA1", "MD5");
+        phaseTimings.stop(Phase.CHECKSUMS, start);
+        phaseTimings.addBytes(Phase.CHECKSUMS, artifactFile.length());
+        phaseTimings.addItems(Phase.CHECKSUMS, 1);
         DeployDetails.Builder deployDetails = new DeployDetails.Builder().file(artifactFile).md5(checksums.get("MD5"))
                 .sha1(checksums.get("SHA1")).targetRepository(targetRepository).artifactPath(path);
         deployDetails.addProperties(propertyMap);
@@ -232,22 +253,39 @@ public class ArtifactoryGenericDeployTask extends ArtifactoryTaskType {
         return result;
     }
 
-    private Build deployByFileSpec(File sourceCodeDirectory, Build build, ArtifactoryBuildInfoClientBuilder clientBuilder, String spec) throws IOException {
+    private Build deployByFileSpec(File sourceCodeDirectory, Build build, MeteredBuildInfoClientBuilder clientBuilder, String spec) throws IOException {
         SpecsHelper specsHelper = new SpecsHelper(buildInfoLog);
         Map<String, String> buildProperties = buildInfoHelper.getDynamicPropertyMap(build);
         buildInfoHelper.addCommonProperties(buildProperties);
         List<Artifact> artifacts;
-        try {
+        // The checksums are calculated during the upload
+        long start = phaseTimings.start();
+        // The files of the spec are only known to the helper, which builds its own clients from the builder
+        try (TransferProgress progress = new TransferProgress("Deploying", "Deployed", -1, -1, buildInfoLog)) {
+            clientBuilder.setProgress(progress);
             artifacts = specsHelper.uploadArtifactsBySpec(spec, sourceCodeDirectory, buildProperties, clientBuilder);
         } catch (Exception e) {
             throw new IOException(e);
+        } finally {
+            clientBuilder.setProgress(null);
+            phaseTimings.stop(Phase.TRANSFER, start);
         }
+        phaseTimings.addItems(Phase.TRANSFER, artifacts.size());
         return buildInfoHelper.addBuildInfoParams(build, artifacts, Lists.newArrayList(), Lists.newArrayList());
     }
 
     public void publishBuildInfo(TaskContext taskContext, ArtifactoryBuildInfoClient client, Build build) throws IOException {
         BuildContext buildContext = taskContext.getBuildContext();
-        client.sendBuildInfo(build, "");
+        long start = phaseTimings.start();
+        try {
+            client.sendBuildInfo(build, "");
+        } catch (IOException e) {
+            recordTraffic(TrafficOperation.BUILD_INFO, true, 0, System.nanoTime() - start);
+            throw e;
+        }
+        phaseTimings.stop(Phase.PUBLISH, start);
+        recordTraffic(TrafficOperation.BUILD_INFO, false, 0, System.nanoTime() - start);
+        phaseTimings.addItems(Phase.PUBLISH, 1);
         buildContext.getBuildResult().getCustomBuildData().put(BUILD_RESULT_SELECTED_SERVER_PARAM, client.getArtifactoryUrl());
     }
 
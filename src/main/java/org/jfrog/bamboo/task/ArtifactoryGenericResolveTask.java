@@ -10,17 +10,24 @@ import com.google.common.collect.Lists;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.builder.BuildInfoHelper;
+import org.jfrog.bamboo.cache.SharedDownloadCache;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.GenericContext;
 import org.jfrog.bamboo.util.FileSpecUtils;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.bamboo.util.Utils;
+import org.jfrog.bamboo.util.generic.BuildArtifactsDownloader;
+import org.jfrog.bamboo.util.generic.DependenciesDownloaderImpl;
 import org.jfrog.bamboo.util.generic.GenericArtifactsResolver;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.builder.dependency.BuildDependencyBuilder;
 import org.jfrog.build.api.dependency.BuildDependency;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
 import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
 import org.jfrog.build.extractor.clientConfiguration.util.spec.SpecsHelper;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.validator.SearchBasedSpecValidator;
 
 import java.io.IOException;
 import java.util.List;
@@ -62,20 +69,36 @@ public class ArtifactoryGenericResolveTask extends ArtifactoryTaskType {
     public TaskResult runTask(@NotNull TaskContext taskContext) {
         logger.addBuildLogEntry("Bamboo Artifactory Plugin version: " + Utils.getPluginVersion(pluginAccessor));
 
-        try (ArtifactoryDependenciesClient client = TaskUtils.getArtifactoryDependenciesClient(buildInfoHelper.getServerConfig(), buildInfoLog)) {
+        long start = phaseTimings.start();
+        ArtifactoryDependenciesClient dependenciesClient = TaskUtils.getMeteredDependenciesClient(buildInfoHelper.getServerConfig(), buildInfoLog, this::recordTraffic);
+        phaseTimings.stop(Phase.CLIENT_CREATION, start);
+        try (ArtifactoryDependenciesClient client = dependenciesClient) {
             List<BuildDependency> buildDependencies;
             List<Dependency> dependencies;
+            start = phaseTimings.start();
             if (genericContext.isUseFileSpecs()) {
                 buildDependencies = Lists.newArrayList();
                 initFileSpec(taskContext, logger);
-                SpecsHelper specsHelper = new SpecsHelper(buildInfoLog);
-                dependencies = specsHelper.downloadArtifactsBySpec(fileSpec, client, taskContext.getWorkingDirectory().getCanonicalPath());
+                DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(client, taskContext.getWorkingDirectory().getCanonicalFile(), buildInfoLog);
+                downloader.setSegmentedDownloadThreshold(genericContext.getSegmentedDownloadThreshold() * 1024L * 1024L);
+                dependencies = downloader.download(new SpecsHelper(buildInfoLog).getSpecFromString(fileSpec, new SearchBasedSpecValidator()));
+            } else if (genericContext.isUseBuildArtifacts()) {
+                Build sourceBuild = getSourceBuild();
+                buildDependencies = Lists.newArrayList(new BuildDependencyBuilder().name(sourceBuild.getName())
+                        .number(sourceBuild.getNumber()).started(sourceBuild.getStarted()).url(sourceBuild.getUrl()).build());
+                BuildArtifactsDownloader downloader = new BuildArtifactsDownloader(client, taskContext.getWorkingDirectory(), buildInfoLog);
+                if (genericContext.isUseSharedDownloadCache()) {
+                    downloader.setDownloadCache(SharedDownloadCache.getInstance(genericContext.isCopyFromSharedDownloadCache()), genericContext.getSharedDownloadCacheMaxSize() * 1024L * 1024L);
+                }
+                dependencies = downloader.download(sourceBuild, genericContext.getSourceBuildRepo());
             } else {
                 GenericArtifactsResolver resolver = new GenericArtifactsResolver(taskContext, client,
                         genericContext.getResolvePattern(), buildInfoLog);
                 buildDependencies = resolver.retrieveBuildDependencies();
                 dependencies = resolver.retrievePublishedDependencies();
             }
+            phaseTimings.stop(Phase.TRANSFER, start);
+            phaseTimings.addItems(Phase.TRANSFER, dependencies.size());
 
             if (genericContext.isCaptureBuildInfo()) {
                 Build build = buildInfoHelper.getBuild(taskContext, genericContext);
@@ -99,6 +122,12 @@ public class ArtifactoryGenericResolveTask extends ArtifactoryTaskType {
         return "generic_resolve";
     }
 
+    private Build getSourceBuild() throws IOException {
+        try (ArtifactoryBuildInfoClient client = TaskUtils.getArtifactoryBuildInfoClient(buildInfoHelper.getServerConfig(), buildInfoLog)) {
+            return BuildArtifactsDownloader.getBuild(client, genericContext.getSourceBuildName(), genericContext.getSourceBuildNumber());
+        }
+    }
+
     private void initFileSpec(CommonTaskContext context, BuildLogger logger) throws IOException {
         fileSpec = FileSpecUtils.getFileSpec(genericContext.isFileSpecInJobConfiguration(),
                 genericContext.getJobConfigurationSpec(), genericContext.getFilePathSpec(), context.getWorkingDirectory(),
@@ -22,6 +22,7 @@ import org.jfrog.bamboo.context.GradleBuildContext;
 import org.jfrog.bamboo.context.PackageManagersContext;
 import org.jfrog.bamboo.util.ConfigurationPathHolder;
 import org.jfrog.bamboo.util.PluginProperties;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.bamboo.util.Utils;
 import org.jfrog.build.api.BuildInfoFields;
@@ -233,8 +234,13 @@ public class ArtifactoryGradleTask extends BaseJavaBuildTask {
             return null;
         }
 
-        return dependencyHelper.downloadDependenciesAndGetPath(bambooTmp, getPlanKey(customVariableContext), context,
-                PluginProperties.getPluginProperty(PluginProperties.GRADLE_DEPENDENCY_FILENAME_KEY));
+        long start = phaseTimings.start();
+        try {
+            return dependencyHelper.downloadDependenciesAndGetPath(bambooTmp, getPlanKey(customVariableContext), context,
+                    PluginProperties.getPluginProperty(PluginProperties.GRADLE_DEPENDENCY_FILENAME_KEY));
+        } finally {
+            phaseTimings.stop(Phase.EXTRACTOR_DOWNLOAD, start);
+        }
     }
 
     public void setAdministrationConfiguration(AdministrationConfiguration administrationConfiguration) {
@@ -21,6 +21,7 @@ import org.jfrog.bamboo.builder.IvyDataHelper;
 import org.jfrog.bamboo.builder.MavenAndIvyBuildInfoDataHelperBase;
 import org.jfrog.bamboo.context.IvyBuildContext;
 import org.jfrog.bamboo.util.PluginProperties;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.bamboo.util.Utils;
 
@@ -174,7 +175,12 @@ public class ArtifactoryIvyTask extends BaseJavaBuildTask {
             return null;
         }
 
-        return dependencyHelper.downloadDependenciesAndGetPath(bambooTmp, getPlanKey(customVariableContext), context,
-                PluginProperties.getPluginProperty(PluginProperties.IVY_DEPENDENCY_FILENAME_KEY));
+        long start = phaseTimings.start();
+        try {
+            return dependencyHelper.downloadDependenciesAndGetPath(bambooTmp, getPlanKey(customVariableContext), context,
+                    PluginProperties.getPluginProperty(PluginProperties.IVY_DEPENDENCY_FILENAME_KEY));
+        } finally {
+            phaseTimings.stop(Phase.EXTRACTOR_DOWNLOAD, start);
+        }
     }
 }
@@ -19,6 +19,7 @@ import org.jfrog.bamboo.builder.BuilderDependencyHelper;
 import org.jfrog.bamboo.builder.MavenDataHelper;
 import org.jfrog.bamboo.context.Maven3BuildContext;
 import org.jfrog.bamboo.util.PluginProperties;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.bamboo.util.Utils;
 
@@ -320,8 +321,13 @@ public class ArtifactoryMaven3Task extends BaseJavaBuildTask {
             return null;
         }
 
-        return dependencyHelper.downloadDependenciesAndGetPath(bambooTmp, getPlanKey(customVariableContext), mavenBuildContext,
-                PluginProperties.getPluginProperty(PluginProperties.MAVEN3_DEPENDENCY_FILENAME_KEY));
+        long start = phaseTimings.start();
+        try {
+            return dependencyHelper.downloadDependenciesAndGetPath(bambooTmp, getPlanKey(customVariableContext), mavenBuildContext,
+                    PluginProperties.getPluginProperty(PluginProperties.MAVEN3_DEPENDENCY_FILENAME_KEY));
+        } finally {
+            phaseTimings.stop(Phase.EXTRACTOR_DOWNLOAD, start);
+        }
     }
 
     private void appendAdditionalMavenParameters(List<String> arguments, Maven3BuildContext context) {
@@ -10,6 +10,8 @@ import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.builder.BuildInfoHelper;
+import org.jfrog.bamboo.cache.SharedPackageCache;
+import org.jfrog.bamboo.cache.SharedPackageCacheUtils;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.NpmBuildContext;
 import org.jfrog.bamboo.util.BuildInfoLog;
@@ -23,6 +25,7 @@ import org.jfrog.build.extractor.npm.extractor.NpmPublish;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Map;
 
 public class ArtifactoryNpmTask extends ArtifactoryTaskType {
@@ -119,7 +122,13 @@ public class ArtifactoryNpmTask extends ArtifactoryTaskType {
         ArtifactoryDependenciesClientBuilder depsClientBuilder = TaskUtils.getArtifactoryDependenciesClientBuilder(serverConfig, buildInfoLogger);
         ArtifactoryBuildInfoClientBuilder buildInfoClientBuilder = TaskUtils.getArtifactoryBuildInfoClientBuilder(serverConfig, buildInfoLogger);
         String repo = buildInfoHelper.overrideParam(npmBuildContext.getResolutionRepo(), BuildParamsOverrideManager.OVERRIDE_ARTIFACTORY_RESOLVE_REPO);
-        return new NpmInstallCi(depsClientBuilder, buildInfoClientBuilder, repo, npmBuildContext.getArguments(), buildInfoLog, packagePath, environmentVariables, "", buildName, false, "").execute();
+        Map<String, String> env = new HashMap<>(environmentVariables);
+        SharedPackageCache.Lease cacheLease = SharedPackageCacheUtils.acquire(npmBuildContext, SharedPackageCache.Type.NPM, env, buildInfoLog);
+        try {
+            return new NpmInstallCi(depsClientBuilder, buildInfoClientBuilder, repo, npmBuildContext.getArguments(), buildInfoLog, packagePath, env, "", buildName, false, "").execute();
+        } finally {
+            SharedPackageCacheUtils.release(cacheLease, packagePath, buildInfoLog);
+        }
     }
 
     /**
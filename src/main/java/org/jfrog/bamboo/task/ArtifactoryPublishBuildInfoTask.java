@@ -11,8 +11,10 @@ import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.builder.BuildInfoHelper;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.PublishBuildInfoContext;
+import org.jfrog.bamboo.util.AggregatedBuildsPublisher;
 import org.jfrog.bamboo.util.PublishedBuildDetails;
 import org.jfrog.bamboo.util.PublishedBuilds;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.bamboo.util.generic.GenericData;
 import org.jfrog.build.api.Build;
@@ -37,6 +39,7 @@ public class ArtifactoryPublishBuildInfoTask extends ArtifactoryTaskType {
     private final EnvironmentVariableAccessor environmentVariableAccessor;
     private CustomVariableContext customVariableContext;
     private BuildInfoHelper buildInfoHelper;
+    private PublishBuildInfoContext publishBuildInfoContext;
 
     public ArtifactoryPublishBuildInfoTask(EnvironmentVariableAccessor environmentVariableAccessor) {
         this.environmentVariableAccessor = environmentVariableAccessor;
@@ -50,7 +53,7 @@ public class ArtifactoryPublishBuildInfoTask extends ArtifactoryTaskType {
     @Override
     protected void initTask(@NotNull CommonTaskContext context) throws TaskException {
         super.initTask(context);
-        PublishBuildInfoContext publishBuildInfoContext = new PublishBuildInfoContext(context.getConfigurationMap());
+        publishBuildInfoContext = new PublishBuildInfoContext(context.getConfigurationMap());
         BuildParamsOverrideManager buildParamsOverrideManager = new BuildParamsOverrideManager(customVariableContext);
         BuildContext buildContext = ((TaskContext) context).getBuildContext();
         Map<String, String> runtimeContext = context.getRuntimeTaskContext();
@@ -66,17 +69,39 @@ public class ArtifactoryPublishBuildInfoTask extends ArtifactoryTaskType {
     public TaskResult runTask(@NotNull TaskContext taskContext) {
         Map<String, String> customBuildData = taskContext.getBuildContext().getBuildResult().getCustomBuildData();
         ArtifactoryBuildInfoClientBuilder clientBuilder = buildInfoHelper.getClientBuilder(logger, log);
-        try (ArtifactoryBuildInfoClient client = clientBuilder.build()) {
+        long start = phaseTimings.start();
+        ArtifactoryBuildInfoClient buildInfoClient = clientBuilder.build();
+        phaseTimings.stop(Phase.CLIENT_CREATION, start);
+        try (ArtifactoryBuildInfoClient client = buildInfoClient) {
             String aggregatedBuildsJson = TaskUtils.getAndDeleteAggregatedBuildInfo(taskContext);
             Build build = buildInfoHelper.getBuilder(taskContext).build();
+            List<Build> builds = new ArrayList<>();
+            builds.add(build);
+            // The aggregated builds appended to the build of this task, restored to the context if it fails to publish
+            List<Build> appendedBuilds = new ArrayList<>();
             // Aggregate relevant builds to one build.
             if (StringUtils.isNotBlank(aggregatedBuildsJson)) {
-                addBuildsToPublish(taskContext, build, aggregatedBuildsJson);
+                builds.addAll(addBuildsToPublish(taskContext, build, aggregatedBuildsJson, appendedBuilds));
             }
-            client.sendBuildInfo(build, "");
+            start = phaseTimings.start();
+            AggregatedBuildsPublisher publisher = new AggregatedBuildsPublisher(client, buildInfoLog);
+            publisher.setTrafficRecorder(this::recordTraffic);
+            AggregatedBuildsPublisher.Result result = publisher.publish(builds);
+            phaseTimings.stop(Phase.PUBLISH, start);
+            phaseTimings.addItems(Phase.PUBLISH, builds.size());
 
             // Add build details to context.
-            addPublishedBuildDetailsToBuildData(client.getArtifactoryUrl(), build.getName(), build.getNumber(), taskContext, customBuildData);
+            addPublishedBuildDetailsToBuildData(client.getArtifactoryUrl(), result.getPublished(), taskContext, customBuildData);
+            if (!result.getFailed().isEmpty()) {
+                String message = result.getFailureMessage() + " " + restoreFailedBuilds(taskContext, build, appendedBuilds, result);
+                logger.addErrorLogEntry(message);
+                log.error(message);
+                return TaskResultBuilder.newBuilder(taskContext).failedWithError().build();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.addErrorLogEntry("Publishing build info was interrupted");
+            return TaskResultBuilder.newBuilder(taskContext).failedWithError().build();
         } catch (IOException e) {
             String message = "Exception occurred while executing task";
             logger.addErrorLogEntry(message, e);
@@ -93,14 +118,19 @@ public class ArtifactoryPublishBuildInfoTask extends ArtifactoryTaskType {
     /**
      * Append the build-infos which were aggregated during the plan execution, and have the same build name and number
      * as the executed Publish Build Info task.
+     * If the task publishes all the aggregated builds, the build-infos of other build names and numbers are merged
+     * by build name and number, and returned to be published as well.
      * The unpublished builds during this task execution are inserted back into the context.
      *
      * @param taskContext           - The task's context.
      * @param build                 - Build object to publish.
      * @param publishCandidatesJson - All build-infos collected during the build execution.
+     * @param appendedBuilds        - Populated with the build-infos appended to the build.
+     * @return The other builds to publish.
      * @throws IOException if buildInfoToJsonString fails
      */
-    private void addBuildsToPublish(TaskContext taskContext, Build build, String publishCandidatesJson) throws IOException {
+    private List<Build> addBuildsToPublish(TaskContext taskContext, Build build, String publishCandidatesJson,
+                                           List<Build> appendedBuilds) throws IOException {
         // Deserialize builds string.
         GenericData buildsGenericData = BuildInfoExtractorUtils.jsonStringToGeneric(publishCandidatesJson, GenericData.class);
 
@@ -116,28 +146,64 @@ public class ArtifactoryPublishBuildInfoTask extends ArtifactoryTaskType {
 
         // Remove the builds which are published in this task.
         allBuilds.removeAll(buildsToRemove);
+        appendedBuilds.addAll(buildsToRemove);
+        if (publishBuildInfoContext.isPublishAllBuilds()) {
+            return AggregatedBuildsPublisher.mergeBuilds(allBuilds);
+        }
         buildsGenericData.setBuilds(allBuilds);
 
         // Save unpublished builds in context.
         if (buildsGenericData.getBuilds().isEmpty()) {
-            return;
+            return new ArrayList<>();
         }
         String aggregatedBuildInfo = BuildInfoExtractorUtils.buildInfoToJsonString(buildsGenericData);
         TaskUtils.addBuildInfoToContext(taskContext, aggregatedBuildInfo);
+        return new ArrayList<>();
     }
 
     /**
-     * Add the current published build details to the build's build-data map.
+     * Returns the aggregated build-infos that failed to publish to the plan's context, so that they are not lost and
+     * a following Publish Build Info task can publish them. The build of this task itself is not restored, only the
+     * aggregated build-infos appended to it.
+     *
+     * @return A message telling what happened to the failed builds.
+     */
+    private String restoreFailedBuilds(TaskContext taskContext, Build build, List<Build> appendedBuilds,
+                                       AggregatedBuildsPublisher.Result result) {
+        List<Build> failedBuilds = new ArrayList<>();
+        for (Build failedBuild : result.getFailed().keySet()) {
+            if (failedBuild == build) {
+                failedBuilds.addAll(appendedBuilds);
+            } else {
+                failedBuilds.add(failedBuild);
+            }
+        }
+        if (failedBuilds.isEmpty()) {
+            return "";
+        }
+        try {
+            TaskUtils.addBuildsToAggregatedBuildInfo(taskContext, failedBuilds);
+            return "The aggregated build-infos of the failed builds were returned to the plan's context.";
+        } catch (IOException e) {
+            log.error("Failed to return the aggregated build-infos to the plan's context", e);
+            return "The aggregated build-infos of the failed builds were dropped: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Add the current published builds details to the build's build-data map.
      * These details are later used by BuildInfoAction to create the published Build Info UI in the build's summary screen.
      *
      * @param artifactoryUrl  - Artifactory server URL.
-     * @param buildName       - Published build name.
-     * @param buildNumber     - Published build number.
+     * @param publishedBuilds - Published builds.
      * @param taskContext     - The task's context.
      * @param customBuildData - Plan's build-data object, used to store data.
      * @throws IOException if buildInfoToJsonString fails
      */
-    private void addPublishedBuildDetailsToBuildData(String artifactoryUrl, String buildName, String buildNumber, TaskContext taskContext, Map<String, String> customBuildData) throws IOException {
+    private void addPublishedBuildDetailsToBuildData(String artifactoryUrl, List<Build> publishedBuilds, TaskContext taskContext, Map<String, String> customBuildData) throws IOException {
+        if (publishedBuilds.isEmpty()) {
+            return;
+        }
         // Get existing PublishedBuilds from context.
         PublishedBuilds pb = new PublishedBuilds();
         if (customBuildData.containsKey(PUBLISHED_BUILDS_DETAILS)) {
@@ -145,8 +211,9 @@ public class ArtifactoryPublishBuildInfoTask extends ArtifactoryTaskType {
         }
 
         // Merge previous and new published build details.
-        PublishedBuildDetails buildDetails = new PublishedBuildDetails(artifactoryUrl, buildName, buildNumber);
-        pb.addBuild(buildDetails);
+        for (Build build : publishedBuilds) {
+            pb.addBuild(new PublishedBuildDetails(artifactoryUrl, build.getName(), build.getNumber()));
+        }
 
         // Add published build info data to context.
         String pbAsString = BuildInfoExtractorUtils.buildInfoToJsonString(pb);
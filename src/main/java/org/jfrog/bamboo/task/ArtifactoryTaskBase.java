@@ -9,6 +9,7 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.util.BuildInfoLog;
+import org.jfrog.bamboo.util.TaskTrace;
 import org.jfrog.bamboo.util.Utils;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.usageReport.UsageReporter;
@@ -29,11 +30,13 @@ public abstract class ArtifactoryTaskBase {
     protected String fileSeparator;
     protected BuildLogger logger;
     protected Log buildInfoLog;
+    // Spans of the task, written to the working directory. Null unless the tracing is enabled.
+    protected TaskTrace trace;
 
     protected void initTask(@NotNull CommonTaskContext context) throws TaskException {
         this.taskContext = context;
         this.logger = taskContext.getBuildLogger();
-        this.buildInfoLog = new BuildInfoLog(log, logger);
+        this.buildInfoLog = new BuildInfoLog(log, logger, trace);
         this.containerized = taskContext.getCommonContext().getDockerPipelineConfiguration().isEnabled();
         this.fileSeparator = containerized ? "/" : File.separator;
     }
@@ -42,15 +45,20 @@ public abstract class ArtifactoryTaskBase {
 
     protected abstract String getTaskUsageName();
 
-    protected void reportUsage(ServerConfig serverConfig, String taskName, Log log) {
+    /**
+     * @return True if the usage was reported successfully.
+     */
+    protected boolean reportUsage(ServerConfig serverConfig, String taskName, Log log) {
         String[] featureIdArray = new String[]{taskName};
         UsageReporter usageReporter = new UsageReporter("bamboo-artifactory-plugin/" + Utils.getPluginVersion(pluginAccessor), featureIdArray);
 
         try {
             usageReporter.reportUsage(serverConfig.getUrl(), serverConfig.getUsername(), serverConfig.getPassword(), "", null, log);
             log.info("Usage info sent successfully.");
+            return true;
         } catch (Exception ex) {
             log.info("Failed sending usage report to Artifactory: " + ex);
+            return false;
         }
     }
 
@@ -7,12 +7,18 @@ import com.atlassian.bamboo.task.TaskType;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.bamboo.admin.ServerConfig;
+import org.jfrog.bamboo.metrics.TaskTraffic;
+import org.jfrog.bamboo.metrics.TrafficOperation;
+import org.jfrog.bamboo.metrics.TrafficRecorder;
+import org.jfrog.bamboo.util.TaskPhaseTimings;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
+import org.jfrog.bamboo.util.TaskTrace;
 import org.jfrog.bamboo.util.TaskUtils;
-import org.jfrog.bamboo.util.generic.GenericData;
 import org.jfrog.build.api.Build;
-import org.jfrog.build.extractor.BuildInfoExtractorUtils;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Created by Bar Belity on 02/12/2019.
@@ -20,11 +26,35 @@ import java.io.IOException;
 public abstract class ArtifactoryTaskType extends ArtifactoryTaskBase implements TaskType {
     // Build object created by the Artifactory task, will be aggregated to the plan's build-info.
     protected Build taskBuildInfo;
+    // Durations and sizes of the phases of the task, shown on the Build Info tab of the job result.
+    protected TaskPhaseTimings phaseTimings;
+    // Requests sent to the Artifactory server of the task, folded into the server-wide traffic metrics.
+    private TaskTraffic traffic;
 
     protected abstract TaskResult runTask(@NotNull TaskContext context) throws TaskException;
 
     @NotNull
     public TaskResult execute(@NotNull TaskContext context) throws TaskException {
+        phaseTimings = new TaskPhaseTimings(getTaskDisplayName(context));
+        traffic = null;
+        trace = TaskUtils.isTraceEnabled(context) ? new TaskTrace(phaseTimings.getTaskName()) : null;
+        phaseTimings.setTrace(trace);
+        long start = phaseTimings.start();
+        try {
+            return executeTask(context);
+        } finally {
+            phaseTimings.stop(Phase.TOTAL, start);
+            TaskUtils.addTaskPhaseTimings(context, phaseTimings);
+            if (traffic != null) {
+                TaskUtils.addTaskTraffic(context, traffic);
+            }
+            if (trace != null) {
+                TaskUtils.writeTaskTrace(context, trace);
+            }
+        }
+    }
+
+    private TaskResult executeTask(@NotNull TaskContext context) throws TaskException {
         // Remove aggregated build-info from plan context.
         // This is done in order to prevent it from being added as an environment-variable when a task
         // collecting environment variables is executed.
@@ -39,7 +69,11 @@ public abstract class ArtifactoryTaskType extends ArtifactoryTaskBase implements
         // Report task usage to Artifactory.
         ServerConfig server = getUsageServerConfig();
         if (server != null) {
-            reportUsage(server, getTaskUsageName(), buildInfoLog);
+            traffic = new TaskTraffic(server.getId());
+            long start = phaseTimings.start();
+            boolean reported = reportUsage(server, getTaskUsageName(), buildInfoLog);
+            phaseTimings.stop(Phase.USAGE_REPORT, start);
+            recordTraffic(TrafficOperation.USAGE_REPORT, !reported, 0, System.nanoTime() - start);
         }
 
         // Run task execution.
@@ -54,19 +88,45 @@ public abstract class ArtifactoryTaskType extends ArtifactoryTaskBase implements
     }
 
     private void aggregateBuildInfoAndAddToPlanContext(String buildInfoFromContext, TaskContext context) throws TaskException {
-        GenericData gd = new GenericData();
+        long start = phaseTimings.start();
         try {
-            if (StringUtils.isNotBlank(buildInfoFromContext)) {
-                gd = BuildInfoExtractorUtils.jsonStringToGeneric(buildInfoFromContext, GenericData.class);
-            }
-            if (taskBuildInfo != null) {
-                gd.addBuild(taskBuildInfo);
-            }
-            String aggregatedBuildInfo = BuildInfoExtractorUtils.buildInfoToJsonString(gd);
+            String aggregatedBuildInfo = TaskUtils.appendBuildInfo(buildInfoFromContext, taskBuildInfo);
             TaskUtils.addBuildInfoToContext(context, aggregatedBuildInfo);
+            phaseTimings.addBytes(Phase.AGGREGATION, aggregatedBuildInfo.length());
         } catch (IOException ex) {
             throw new TaskException("Failed to add Build Info to context.", ex);
+        } finally {
+            phaseTimings.stop(Phase.AGGREGATION, start);
+        }
+    }
+
+    /**
+     * Record a request sent to the Artifactory server of the task, which has just ended.
+     * Ignored if the task has no server. Matches {@link TrafficRecorder}, so that the clients of the task can record
+     * each of their requests from their transfer threads.
+     *
+     * @see TaskTraffic#record(TrafficOperation, boolean, long, long)
+     */
+    protected void recordTraffic(TrafficOperation operation, boolean failed, long byteCount, long nanos) {
+        if (traffic != null) {
+            traffic.record(operation, failed, byteCount, nanos);
         }
+        if (trace != null) {
+            Map<String, Object> args = new LinkedHashMap<>();
+            args.put("url", operation.getUrlTemplate());
+            args.put("status", failed ? "failed" : "succeeded");
+            args.put("bytes", byteCount);
+            long end = System.nanoTime();
+            trace.span(operation.getUrlTemplate(), "http", end - nanos, end, args);
+        }
+    }
+
+    /**
+     * @return The description of the task, or its usage name if it has no description.
+     */
+    private String getTaskDisplayName(TaskContext context) {
+        String description = context.getTaskDefinition().getUserDescription();
+        return StringUtils.isNotBlank(description) ? description : getTaskUsageName();
     }
 
     protected boolean shouldRemoveBuildInfoFromContext() {
@@ -1,23 +1,28 @@
 package org.jfrog.bamboo.task;
 
-import com.atlassian.bamboo.build.logger.BuildLogger;
 import com.atlassian.bamboo.task.*;
 import com.atlassian.bamboo.variable.CustomVariableContext;
-import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jfrog.bamboo.admin.ServerConfig;
 import org.jfrog.bamboo.admin.ServerConfigManager;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.XrayScanContext;
+import org.jfrog.bamboo.metrics.TrafficOperation;
 import org.jfrog.bamboo.util.BuildInfoLog;
 import org.jfrog.bamboo.util.ProxyUtils;
 import org.jfrog.bamboo.util.TaskUtils;
+import org.jfrog.bamboo.xray.*;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
-import org.jfrog.build.client.artifactoryXrayResponse.Summary;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
 import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryXrayClient;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Bar Belity on 24/05/2018.
@@ -37,22 +42,45 @@ public class ArtifactoryXrayScanTask extends ArtifactoryTaskType {
     @NotNull
     @Override
     public TaskResult runTask(@NotNull TaskContext taskContext) {
-        try (ArtifactoryXrayClient client = createArtifactoryXrayClient(logger)) {
-            ArtifactoryXrayResponse buildScanResult = doXrayScan(taskContext, client);
-            try {
-                String scanMessage = handleXrayScanResult(buildScanResult);
-                buildInfoLog.info(scanMessage);
-            } catch (Exception e) {
-                buildInfoLog.error(e.getMessage(), e);
-                return TaskResultBuilder.newBuilder(taskContext).failedWithError().build();
+        String buildName = xrayContext.getBuildName(taskContext.getBuildContext());
+        String buildNumber = xrayContext.getBuildNumber(taskContext.getBuildContext());
+        String fingerprint = null;
+        if (xrayContext.isReuseScanResults()) {
+            fingerprint = getBuildContentFingerprint(buildName, buildNumber);
+            XrayScanResultsCache.CachedScanResult cachedScanResult = fingerprint == null ? null :
+                    XrayScanResultsCache.getInstance().get(xrayServerConfig.getUrl(), buildName, fingerprint,
+                            TimeUnit.HOURS.toMillis(xrayContext.getScanResultsMaxAge()));
+            if (cachedScanResult != null) {
+                buildInfoLog.info("Skipping the Xray scan of build " + buildName + " #" + buildNumber + ". Its artifacts " +
+                        "and dependencies (content fingerprint " + fingerprint + ") are identical to those of build " +
+                        cachedScanResult.getBuildName() + " #" + cachedScanResult.getBuildNumber() + ", scanned on " +
+                        new Date(cachedScanResult.getScanTime()) + ". Reusing its scan result.");
+                return handleScanResult(taskContext, cachedScanResult.getResponse());
             }
-            return TaskResultBuilder.newBuilder(taskContext).success().build();
+        }
+        if (xrayContext.isAsyncScan()) {
+            return submitXrayScan(taskContext, buildName, buildNumber, fingerprint);
+        }
+        try (ArtifactoryXrayClient client = createArtifactoryXrayClient(new BuildInfoLog(log, logger))) {
+            ArtifactoryXrayResponse buildScanResult = doXrayScan(client, buildName, buildNumber, fingerprint);
+            return handleScanResult(taskContext, buildScanResult);
         } catch (Exception e) {
             buildInfoLog.error("Exception occurred while executing task", e);
             return TaskResultBuilder.newBuilder(taskContext).failedWithError().build();
         }
     }
 
+    private TaskResult handleScanResult(TaskContext taskContext, ArtifactoryXrayResponse buildScanResult) {
+        try {
+            String scanMessage = XrayScanUtils.handleXrayScanResult(buildScanResult, xrayContext.isFailIfVulnerable(), logger);
+            buildInfoLog.info(scanMessage);
+        } catch (Exception e) {
+            buildInfoLog.error(e.getMessage(), e);
+            return TaskResultBuilder.newBuilder(taskContext).failedWithError().build();
+        }
+        return TaskResultBuilder.newBuilder(taskContext).success().build();
+    }
+
     public void setCustomVariableContext(CustomVariableContext customVariableContext) {
         this.customVariableContext = customVariableContext;
     }
@@ -67,38 +95,10 @@ public class ArtifactoryXrayScanTask extends ArtifactoryTaskType {
         return "xray_scan";
     }
 
-    private String handleXrayScanResult(ArtifactoryXrayResponse buildScanResult) throws IOException {
-        Summary summary = getSummaryFromResponse(buildScanResult);
-        // Log scan link
-        if (StringUtils.isNotEmpty(summary.getMoreDetailsUrl())) {
-            logger.addBuildLogEntry("Xray scan details are available at: " + summary.getMoreDetailsUrl());
-        }
-
-        String scanMessage = summary.getMessage();
-        // Check if scan returned vulnerable
-        boolean isVulnerable = summary.isFailBuild();
-        if (isVulnerable) {
-            // Check if should fail build
-            if (xrayContext.isFailIfVulnerable()) {
-                throw new IOException(scanMessage);
-            }
-        }
-
-        return scanMessage;
-    }
-
-    private Summary getSummaryFromResponse(ArtifactoryXrayResponse buildScanResult) {
-        Summary summary = buildScanResult.getSummary();
-        if (summary == null) {
-            throw new IllegalStateException("Failed while processing the JSON result: 'summary' field is missing.");
-        }
-        return summary;
-    }
-
-    private ArtifactoryXrayClient createArtifactoryXrayClient(BuildLogger logger) {
+    private ArtifactoryXrayClient createArtifactoryXrayClient(Log clientLog) {
         // Extract parameters for Xray Client.
         ArtifactoryXrayClient client = new ArtifactoryXrayClient(xrayServerConfig.getUrl(), xrayServerConfig.getUsername(),
-                xrayServerConfig.getPassword(), new BuildInfoLog(log, logger));
+                xrayServerConfig.getPassword(), clientLog);
         // Add proxy Configurations.
         ProxyUtils.setProxyConfig(xrayServerConfig.getUrl(), client);
         return client;
@@ -117,12 +117,63 @@ public class ArtifactoryXrayScanTask extends ArtifactoryTaskType {
                 serverConfigManager, xrayServerConfig, new BuildParamsOverrideManager(customVariableContext));
     }
 
-    private ArtifactoryXrayResponse doXrayScan(TaskContext taskContext, ArtifactoryXrayClient client) throws IOException, InterruptedException {
-        // Extract build parameters
-        String buildName = xrayContext.getBuildName(taskContext.getBuildContext());
-        String buildNumber = xrayContext.getBuildNumber(taskContext.getBuildContext());
-
+    /**
+     * Scans the build, and caches the result by the build content fingerprint, if provided.
+     */
+    private ArtifactoryXrayResponse doXrayScan(ArtifactoryXrayClient client, String buildName, String buildNumber,
+                                               @Nullable String fingerprint) throws IOException, InterruptedException {
         // Launch Xray Scan
-        return client.xrayScanBuild(buildName, buildNumber, "bamboo");
+        long start = System.nanoTime();
+        ArtifactoryXrayResponse buildScanResult;
+        try {
+            buildScanResult = client.xrayScanBuild(buildName, buildNumber, "bamboo");
+        } catch (IOException | InterruptedException e) {
+            recordTraffic(TrafficOperation.XRAY_SCAN, true, 0, System.nanoTime() - start);
+            throw e;
+        }
+        recordTraffic(TrafficOperation.XRAY_SCAN, false, 0, System.nanoTime() - start);
+        if (fingerprint != null) {
+            XrayScanResultsCache.getInstance().put(xrayServerConfig.getUrl(), buildName, fingerprint, buildNumber, buildScanResult);
+        }
+        return buildScanResult;
+    }
+
+    /**
+     * @return The content fingerprint of the published build, or null if it could not be computed.
+     */
+    @Nullable
+    private String getBuildContentFingerprint(String buildName, String buildNumber) {
+        try (ArtifactoryBuildInfoClient client = TaskUtils.getArtifactoryBuildInfoClient(xrayServerConfig, buildInfoLog)) {
+            Build build = client.getBuildInfo(buildName, buildNumber, null);
+            String fingerprint = build != null ? BuildContentFingerprint.compute(build) : null;
+            if (fingerprint == null) {
+                buildInfoLog.info("Xray scan results of build " + buildName + " #" + buildNumber + " cannot be reused, " +
+                        "since not all of its artifacts and dependencies have checksums.");
+            }
+            return fingerprint;
+        } catch (IOException e) {
+            buildInfoLog.warn("Failed to retrieve build " + buildName + " #" + buildNumber + " from Artifactory, " +
+                    "Xray scan results will not be reused: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Submits the scan to run in the background and lets the job continue. The scan result is enforced by
+     * {@link org.jfrog.bamboo.processor.XrayScanGate} when the job completes.
+     */
+    private TaskResult submitXrayScan(TaskContext taskContext, String buildName, String buildNumber,
+                                      @Nullable String fingerprint) {
+        PendingXrayScan pendingScan = new PendingXrayScan(buildName, buildNumber, xrayContext.isFailIfVulnerable(),
+                xrayContext.getScanTimeout());
+        // The scan may outlive this task, so its client logs to the agent log only.
+        XrayScanManager.getInstance().submit(taskContext.getBuildContext().getPlanResultKey().getKey(), pendingScan, () -> {
+            try (ArtifactoryXrayClient client = createArtifactoryXrayClient(new BuildInfoLog(log))) {
+                return doXrayScan(client, buildName, buildNumber, fingerprint);
+            }
+        });
+        buildInfoLog.info("Xray scan of build " + buildName + " #" + buildNumber + " was submitted. " +
+                "Its result will be checked when the job completes.");
+        return TaskResultBuilder.newBuilder(taskContext).success().build();
     }
 }
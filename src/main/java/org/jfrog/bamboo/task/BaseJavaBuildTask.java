@@ -20,6 +20,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jfrog.bamboo.builder.MavenAndIvyBuildInfoDataHelperBase;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.PackageManagersContext;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
 import org.jfrog.bamboo.util.TaskUtils;
 import org.jfrog.build.api.BuildInfoFields;
 
@@ -198,7 +199,9 @@ public abstract class BaseJavaBuildTask extends ArtifactoryTaskType {
     }
 
     void executeExternalProcess(BuildLogger logger, ExternalProcess process, Logger log) {
+        long start = phaseTimings.start();
         process.execute();
+        phaseTimings.stop(Phase.EXTERNAL_PROCESS, start);
         if (process.getHandler() != null && !process.getHandler().succeeded()) {
             String externalProcessOutput = getErrorMessage(process);
             logger.addBuildLogEntry(externalProcessOutput);
@@ -211,10 +214,18 @@ public abstract class BaseJavaBuildTask extends ArtifactoryTaskType {
      */
     void convertGeneratedBuildInfoToBuild() throws TaskException {
         String generatedBuildInfo = environmentVariables.get(BuildInfoFields.GENERATED_BUILD_INFO);
+        long start = phaseTimings.start();
         try {
+            // The file is deleted once read
+            phaseTimings.addBytes(Phase.BUILD_INFO_PARSING, new File(StringUtils.defaultString(generatedBuildInfo)).length());
             taskBuildInfo = TaskUtils.getBuildObjectFromBuildInfoFile(generatedBuildInfo);
+            if (taskBuildInfo != null && taskBuildInfo.getModules() != null) {
+                phaseTimings.addItems(Phase.BUILD_INFO_PARSING, taskBuildInfo.getModules().size());
+            }
         } catch (Exception ex) {
             throw new TaskException("Failed to add Build Info to context.", ex);
+        } finally {
+            phaseTimings.stop(Phase.BUILD_INFO_PARSING, start);
         }
     }
 
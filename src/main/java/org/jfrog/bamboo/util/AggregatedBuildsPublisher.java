@@ -0,0 +1,156 @@
+package org.jfrog.bamboo.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.bamboo.metrics.TrafficOperation;
+import org.jfrog.bamboo.metrics.TrafficRecorder;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes several build-infos concurrently, with bounded parallelism.
+ * A build that fails to publish, for any exception, does not stop the other builds from being published.
+ */
+public class AggregatedBuildsPublisher {
+    static final int PUBLISH_THREADS = 3;
+
+    private final ArtifactoryBuildInfoClient client;
+    private final Log log;
+    private TrafficRecorder trafficRecorder;
+
+    public AggregatedBuildsPublisher(ArtifactoryBuildInfoClient client, Log log) {
+        this.client = client;
+        this.log = log;
+    }
+
+    /**
+     * @param trafficRecorder Records the request of every build, with its own duration, or null to not record them.
+     */
+    public void setTrafficRecorder(@Nullable TrafficRecorder trafficRecorder) {
+        this.trafficRecorder = trafficRecorder;
+    }
+
+    /**
+     * Merges builds with the same name and number into a single build.
+     *
+     * @param builds The builds to merge. The first build of each name and number is the one the others are appended to.
+     * @return The merged builds, in the order of their first appearance.
+     */
+    public static List<Build> mergeBuilds(List<Build> builds) {
+        Map<String, Build> merged = new LinkedHashMap<>();
+        for (Build build : builds) {
+            Build existing = merged.putIfAbsent(getDisplayName(build), build);
+            if (existing != null) {
+                existing.append(build);
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Publishes the builds. Builds with the same name and number should be merged beforehand.
+     *
+     * @param builds The builds to publish.
+     * @return The published and the failed builds.
+     */
+    public Result publish(List<Build> builds) throws InterruptedException {
+        Result result = new Result();
+        if (builds.size() == 1) {
+            publish(builds.get(0), result);
+            return result;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(PUBLISH_THREADS, builds.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Build build : builds) {
+                futures.add(executor.submit(() -> publish(build, result)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            // Publication failures are collected in the result
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private void publish(Build build, Result result) {
+        long start = System.nanoTime();
+        try {
+            client.sendBuildInfo(build, "");
+            recordTraffic(false, start);
+            result.addPublished(build);
+        } catch (IOException | RuntimeException e) {
+            recordTraffic(true, start);
+            log.error("Failed to publish build " + getDisplayName(build) + ": " + getErrorMessage(e));
+            result.addFailed(build, e);
+        }
+    }
+
+    private void recordTraffic(boolean failed, long start) {
+        if (trafficRecorder != null) {
+            trafficRecorder.record(TrafficOperation.BUILD_INFO, failed, 0, System.nanoTime() - start);
+        }
+    }
+
+    private static String getDisplayName(Build build) {
+        return build.getName() + " #" + build.getNumber();
+    }
+
+    /**
+     * @return The message of the exception, or its type for runtime exceptions without a message.
+     */
+    private static String getErrorMessage(Exception e) {
+        return StringUtils.defaultIfBlank(e.getMessage(), e.getClass().getName());
+    }
+
+    /**
+     * The builds that were published and the builds that failed, in the order they finished.
+     */
+    public static class Result {
+        private final List<Build> published = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Build, Exception> failed = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        public List<Build> getPublished() {
+            return published;
+        }
+
+        public Map<Build, Exception> getFailed() {
+            return failed;
+        }
+
+        void addPublished(Build build) {
+            published.add(build);
+        }
+
+        void addFailed(Build build, Exception e) {
+            failed.put(build, e);
+        }
+
+        /**
+         * @return A message naming the failed builds, and the builds that were published.
+         */
+        public String getFailureMessage() {
+            String message = "Failed to publish builds: " + failed.entrySet().stream()
+                    .map(entry -> getDisplayName(entry.getKey()) + " (" + getErrorMessage(entry.getValue()) + ")")
+                    .collect(Collectors.joining(", ")) + ".";
+            if (published.isEmpty()) {
+                return message;
+            }
+            return message + " Published builds: " + published.stream()
+                    .map(AggregatedBuildsPublisher::getDisplayName).collect(Collectors.joining(", ")) + ".";
+        }
+    }
+}
@@ -20,6 +20,9 @@ import com.atlassian.bamboo.build.logger.BuildLogger;
 import org.apache.logging.log4j.Logger;
 import org.jfrog.build.api.util.Log;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author Noam Y. Tenne
  */
@@ -27,6 +30,8 @@ public class BuildInfoLog implements Log {
 
     private Logger log;
     private BuildLogger buildLogger;
+    // Null unless the tracing is enabled
+    private TaskTrace trace;
 
     public BuildInfoLog(Logger log) {
         this.log = log;
@@ -37,6 +42,14 @@ public class BuildInfoLog implements Log {
         this.buildLogger = buildLogger;
     }
 
+    /**
+     * @param trace The trace to add the warnings and errors to, or null.
+     */
+    public BuildInfoLog(Logger log, BuildLogger buildLogger, TaskTrace trace) {
+        this(log, buildLogger);
+        this.trace = trace;
+    }
+
     public void debug(String message) {
         log.debug(message);
     }
@@ -53,6 +66,7 @@ public class BuildInfoLog implements Log {
             this.buildLogger.addBuildLogEntry(message);
         }
         log.warn(message);
+        traceMessage("Warning", message);
     }
 
     public void error(String message) {
@@ -60,6 +74,7 @@ public class BuildInfoLog implements Log {
             this.buildLogger.addErrorLogEntry(message);
         }
         log.error(message);
+        traceMessage("Error", message);
     }
 
     public void error(String message, Throwable e) {
@@ -67,5 +82,14 @@ public class BuildInfoLog implements Log {
             this.buildLogger.addErrorLogEntry(message, e);
         }
         log.error(message, e);
+        traceMessage("Error", message);
+    }
+
+    private void traceMessage(String level, String message) {
+        if (trace != null) {
+            Map<String, Object> args = new HashMap<>();
+            args.put("message", message);
+            trace.instant(level, "log", args);
+        }
     }
 }
\ No newline at end of file
@@ -29,6 +29,10 @@ public interface ConstantValues extends Serializable {
     String BUILD_RESULT_SELECTED_SERVER_PARAM = "org.jfrog.bamboo.buildInfo.serverUrl";
     String AGGREGATED_BUILD_INFO = "org.jfrog.bamboo.aggregatedBuildInfoJson";
     String PUBLISHED_BUILDS_DETAILS = "org.jfrog.bamboo.buildInfo.published";
+    String TASK_PHASE_TIMINGS = "org.jfrog.bamboo.buildInfo.phaseTimings";
+    String TASK_TRAFFIC = "org.jfrog.bamboo.buildInfo.traffic";
+    // Bamboo variable which enables the tracing of the tasks, see TaskTrace.
+    String TRACE_VARIABLE = "artifactory.trace";
 
     String BUILD_SERVLET_CONTEXT_NAME = "artifactoryBuildServlet";
     String BUILD_SERVLET_KEY_PARAM = "buildKey";
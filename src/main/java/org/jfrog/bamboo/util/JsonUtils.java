@@ -0,0 +1,20 @@
+package org.jfrog.bamboo.util;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Holds the JSON codec shared by the plugin's servlets and clients.
+ * An {@link ObjectMapper} is thread safe once configured, and is expensive to create, so it should not be created
+ * per request.
+ */
+public class JsonUtils {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JsonUtils() {
+    }
+
+    public static ObjectMapper getMapper() {
+        return MAPPER;
+    }
+}
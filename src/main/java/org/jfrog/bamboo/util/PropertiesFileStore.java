@@ -0,0 +1,111 @@
+package org.jfrog.bamboo.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * A properties file persisted by the agent and shared by all the agents and processes using the same home directory.
+ * <p>
+ * The properties are read once on first use. Updates are made under an exclusive lock of a lock file next to the
+ * properties file: the file is read again, the changes are applied to its current content and the result replaces
+ * the file, so that concurrent updates of other processes are merged rather than overwritten. The new content is
+ * written to a uniquely named temporary file in the same directory and then moved over the file atomically, so that
+ * readers, which do not lock, never see a partial file. Failures are logged and otherwise ignored, the content is
+ * only a cache. Not thread safe, callers synchronize.
+ */
+public class PropertiesFileStore {
+    private static final Logger log = LogManager.getLogger(PropertiesFileStore.class);
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+
+    private final File file;
+    private final String description;
+    private Properties properties;
+
+    /**
+     * @param file        The properties file.
+     * @param description The description of the content, used in the log messages and in the file header, e.g.
+     *                    "capabilities cache".
+     */
+    public PropertiesFileStore(File file, String description) {
+        this.file = file;
+        this.description = description;
+    }
+
+    /**
+     * @return The properties, read from the file on first use and after every {@link #update}. Changes made directly
+     * to the returned properties are not persisted.
+     */
+    public Properties getProperties() {
+        if (properties == null) {
+            properties = read();
+        }
+        return properties;
+    }
+
+    /**
+     * Applies the given changes to the current content of the file and replaces the file with the result. If the
+     * file can not be locked, the changes are only applied to the properties in memory.
+     *
+     * @param changes Applies the changes to the properties read from the file.
+     */
+    public void update(Consumer<Properties> changes) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            log.warn("Failed to create the " + description + " directory: " + parent);
+            changes.accept(getProperties());
+            return;
+        }
+        File lockFile = new File(parent, file.getName() + LOCK_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            properties = read();
+            changes.accept(properties);
+            write(parent);
+        } catch (IOException e) {
+            log.warn("Failed to lock the " + description + ": " + lockFile, e);
+            changes.accept(getProperties());
+        }
+    }
+
+    private Properties read() {
+        Properties read = new Properties();
+        if (file.isFile()) {
+            try (InputStream inputStream = new FileInputStream(file)) {
+                read.load(inputStream);
+            } catch (IOException e) {
+                log.warn("Failed to read the " + description + ": " + file, e);
+            }
+        }
+        return read;
+    }
+
+    private void write(File parent) {
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(file.getName(), ".tmp", parent);
+            try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+                properties.store(outputStream, "Bamboo Artifactory plugin - " + description);
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write the " + description + ": " + file, e);
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package org.jfrog.bamboo.util;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Durations, byte counts and item counts of the phases of a single task execution.
+ * A phase may be measured several times, in which case its values are summed.
+ * Measuring a phase does not allocate, so it can be done on any code path of the tasks.
+ * <p>
+ * The timings of all the tasks of a job are stored in the custom build data of the job result, one line per task:
+ * {@code <task name>|<phase code>:<millis>:<bytes>:<items>|...}
+ */
+public class TaskPhaseTimings {
+    // The custom build data values are stored in a limited size column.
+    static final int MAX_SERIALIZED_LENGTH = 4000;
+    static final int MAX_TASK_NAME_LENGTH = 100;
+    private static final String TASK_SEPARATOR = "\n";
+    private static final String PHASE_SEPARATOR = "|";
+    private static final String VALUE_SEPARATOR = ":";
+
+    public enum Phase {
+        TOTAL('t', "Total"),
+        CLIENT_CREATION('c', "Client creation"),
+        USAGE_REPORT('u', "Usage report"),
+        EXTRACTOR_DOWNLOAD('e', "Extractor download"),
+        EXTERNAL_PROCESS('p', "External process"),
+        BUILD_INFO_PARSING('b', "Build-info parsing"),
+        AGGREGATION('a', "Build-info aggregation"),
+        CHECKSUMS('s', "Checksum calculation"),
+        TRANSFER('x', "Transfer"),
+        PUBLISH('P', "Build-info publishing");
+
+        private final char code;
+        private final String displayName;
+
+        Phase(char code, String displayName) {
+            this.code = code;
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        static Phase fromCode(char code) {
+            for (Phase phase : values()) {
+                if (phase.code == code) {
+                    return phase;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final String taskName;
+    private final long[] nanos = new long[PHASES.length];
+    private final long[] bytes = new long[PHASES.length];
+    private final long[] items = new long[PHASES.length];
+    private final boolean[] measured = new boolean[PHASES.length];
+    // Null unless the tracing is enabled
+    private TaskTrace trace;
+
+    public TaskPhaseTimings(String taskName) {
+        this.taskName = StringUtils.abbreviate(StringUtils.defaultString(taskName).replaceAll("[|\r\n]", " "), MAX_TASK_NAME_LENGTH);
+    }
+
+    /**
+     * @return The start time to pass to {@link #stop(Phase, long)}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(Phase phase, long start) {
+        long end = System.nanoTime();
+        nanos[phase.ordinal()] += end - start;
+        measured[phase.ordinal()] = true;
+        if (trace != null) {
+            trace.span(phase == Phase.TOTAL ? taskName : phase.getDisplayName(), "phase", start, end, null);
+        }
+    }
+
+    /**
+     * @param trace The trace to add a span to for each measured phase, or null.
+     */
+    public void setTrace(TaskTrace trace) {
+        this.trace = trace;
+    }
+
+    public void addBytes(Phase phase, long count) {
+        bytes[phase.ordinal()] += count;
+        measured[phase.ordinal()] = true;
+    }
+
+    public void addItems(Phase phase, long count) {
+        items[phase.ordinal()] += count;
+        measured[phase.ordinal()] = true;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    /**
+     * @return The measured phases, in the order of the {@link Phase} values.
+     */
+    public List<PhaseTiming> getPhaseTimings() {
+        List<PhaseTiming> phaseTimings = new ArrayList<>();
+        for (Phase phase : PHASES) {
+            int i = phase.ordinal();
+            if (measured[i]) {
+                phaseTimings.add(new PhaseTiming(phase, nanos[i] / 1_000_000, bytes[i], items[i]));
+            }
+        }
+        return phaseTimings;
+    }
+
+    String serialize() {
+        StringBuilder serialized = new StringBuilder(taskName);
+        for (PhaseTiming phaseTiming : getPhaseTimings()) {
+            serialized.append(PHASE_SEPARATOR).append(phaseTiming.phase.code)
+                    .append(VALUE_SEPARATOR).append(phaseTiming.millis)
+                    .append(VALUE_SEPARATOR).append(phaseTiming.bytes)
+                    .append(VALUE_SEPARATOR).append(phaseTiming.items);
+        }
+        return serialized.toString();
+    }
+
+    /**
+     * Append the timings of a task to the timings of the previous tasks of the job.
+     * If the result is too long to be stored, the timings of the oldest tasks are dropped.
+     *
+     * @param serializedTimings The timings of the previous tasks, may be blank.
+     * @param timings           The timings of the task.
+     * @return The timings of all the tasks.
+     */
+    public static String append(String serializedTimings, TaskPhaseTimings timings) {
+        String appended = StringUtils.isBlank(serializedTimings) ? timings.serialize() :
+                serializedTimings + TASK_SEPARATOR + timings.serialize();
+        while (appended.length() > MAX_SERIALIZED_LENGTH && appended.contains(TASK_SEPARATOR)) {
+            appended = StringUtils.substringAfter(appended, TASK_SEPARATOR);
+        }
+        return appended;
+    }
+
+    /**
+     * @param serializedTimings The timings of the tasks of a job, as returned by {@link #append(String, TaskPhaseTimings)}.
+     * @return The timings of the tasks. Unknown phases and malformed values are skipped.
+     */
+    public static List<TaskPhaseTimings> parse(String serializedTimings) {
+        List<TaskPhaseTimings> result = new ArrayList<>();
+        for (String line : StringUtils.split(StringUtils.defaultString(serializedTimings), TASK_SEPARATOR)) {
+            String[] fields = StringUtils.splitPreserveAllTokens(line, PHASE_SEPARATOR);
+            TaskPhaseTimings timings = new TaskPhaseTimings(fields[0]);
+            for (String field : Arrays.copyOfRange(fields, 1, fields.length)) {
+                String[] values = StringUtils.split(field, VALUE_SEPARATOR);
+                Phase phase = values.length == 4 && values[0].length() == 1 ? Phase.fromCode(values[0].charAt(0)) : null;
+                if (phase == null) {
+                    continue;
+                }
+                try {
+                    long millis = Long.parseLong(values[1]);
+                    long bytes = Long.parseLong(values[2]);
+                    long items = Long.parseLong(values[3]);
+                    timings.nanos[phase.ordinal()] = millis * 1_000_000;
+                    timings.addBytes(phase, bytes);
+                    timings.addItems(phase, items);
+                } catch (NumberFormatException e) {
+                    // Skip the malformed phase
+                }
+            }
+            result.add(timings);
+        }
+        return result;
+    }
+
+    public static class PhaseTiming {
+        private final Phase phase;
+        private final long millis;
+        private final long bytes;
+        private final long items;
+
+        PhaseTiming(Phase phase, long millis, long bytes, long items) {
+            this.phase = phase;
+            this.millis = millis;
+            this.bytes = bytes;
+            this.items = items;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        public String getName() {
+            return phase.getDisplayName();
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return The byte count in a human readable form, or an empty string if no bytes were counted.
+         */
+        public String getDisplayBytes() {
+            return bytes > 0 ? FileUtils.byteCountToDisplaySize(bytes) : "";
+        }
+
+        public long getItems() {
+            return items;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.jfrog.bamboo.util;
+
+import org.codehaus.jackson.annotate.JsonAutoDetect;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spans and events of a single task execution, written in the Trace Event Format, so that they can be opened in
+ * chrome://tracing, Perfetto or Speedscope.
+ * Tracing is opt-in: the tasks only create a trace if the {@link ConstantValues#TRACE_VARIABLE} Bamboo variable is true,
+ * and do nothing but a null check otherwise.
+ * Thread safe, since the requests of a task, and therefore their spans, may be sent by several threads.
+ * <p>
+ * All the tasks of a job add their spans to the same file, each task on its own track, in chronological order:
+ * {@code {"traceEvents": [{"name": ..., "cat": ..., "ph": "X", "ts": <micros>, "dur": <micros>, "pid": 1, "tid": <task>, "args": {...}}, ...]}}
+ */
+public class TaskTrace {
+    public static final String TRACE_FILE_NAME = "artifactory-trace.json";
+    // Spans recorded after this number are dropped, so that a task deploying many files can not exhaust the memory.
+    static final int MAX_EVENTS = 100_000;
+    private static final int PROCESS_ID = 1;
+
+    private final String taskName;
+    // Wall clock of the trace start, so that the spans of the tasks of a job are aligned
+    private final long startMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private final long startNanos = System.nanoTime();
+    private final List<Map<String, Object>> events = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger droppedEvents = new AtomicInteger();
+
+    public TaskTrace(String taskName) {
+        this.taskName = taskName;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    /**
+     * Add a span. Spans which are within the time range of another span are shown nested in it.
+     *
+     * @param name       The name of the span.
+     * @param category   The category of the span, e.g. "phase" or "http".
+     * @param startNanos The {@link System#nanoTime()} at the start of the span.
+     * @param endNanos   The {@link System#nanoTime()} at the end of the span.
+     * @param args       The arguments shown with the span, may be null.
+     */
+    public void span(String name, String category, long startNanos, long endNanos, Map<String, Object> args) {
+        Map<String, Object> event = createEvent(name, category, "X", startNanos, args);
+        event.put("dur", Math.max(0, TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos)));
+        add(event);
+    }
+
+    /**
+     * Add an instant event, shown as a mark on the task track.
+     */
+    public void instant(String name, String category, Map<String, Object> args) {
+        Map<String, Object> event = createEvent(name, category, "i", System.nanoTime(), args);
+        event.put("s", "t");
+        add(event);
+    }
+
+    /**
+     * Add a complete event, so that the events written by {@link #writeTo(File, String)} are never modified.
+     */
+    private void add(Map<String, Object> event) {
+        synchronized (events) {
+            if (events.size() < MAX_EVENTS) {
+                events.add(event);
+                return;
+            }
+        }
+        droppedEvents.incrementAndGet();
+    }
+
+    private Map<String, Object> createEvent(String name, String category, String phase, long nanos, Map<String, Object> args) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", name);
+        event.put("cat", category);
+        event.put("ph", phase);
+        event.put("ts", startMicros + TimeUnit.NANOSECONDS.toMicros(nanos - startNanos));
+        event.put("pid", PROCESS_ID);
+        if (args != null && !args.isEmpty()) {
+            event.put("args", args);
+        }
+        return event;
+    }
+
+    /**
+     * Add the events of the task to the trace file, on a new track named after the task.
+     * The file is created if it does not exist.
+     *
+     * @param traceFile The trace file of the job.
+     * @param jobName   The name of the job, shown as the process name in the trace viewers.
+     */
+    public void writeTo(File traceFile, String jobName) throws IOException {
+        List<Map<String, Object>> traceEvents = new ArrayList<>();
+        if (traceFile.isFile() && traceFile.length() > 0) {
+            TraceFile trace = JsonUtils.getMapper().readValue(traceFile, TraceFile.class);
+            if (trace.traceEvents != null) {
+                traceEvents.addAll(trace.traceEvents);
+            }
+        }
+        if (traceEvents.isEmpty()) {
+            traceEvents.add(createMetadataEvent("process_name", 0, jobName));
+        }
+        int threadId = 1 + (int) traceEvents.stream().filter(event -> "thread_name".equals(event.get("name"))).count();
+        int dropped = droppedEvents.get();
+        String threadName = dropped == 0 ? taskName : taskName + " (" + dropped + " events dropped)";
+        traceEvents.add(createMetadataEvent("thread_name", threadId, threadName));
+        synchronized (events) {
+            for (Map<String, Object> event : events) {
+                Map<String, Object> threadEvent = new LinkedHashMap<>(event);
+                threadEvent.put("tid", threadId);
+                traceEvents.add(threadEvent);
+            }
+        }
+
+        TraceFile trace = new TraceFile();
+        trace.traceEvents = traceEvents;
+        JsonUtils.getMapper().writeValue(traceFile, trace);
+    }
+
+    private static Map<String, Object> createMetadataEvent(String name, int threadId, String value) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", name);
+        event.put("ph", "M");
+        event.put("pid", PROCESS_ID);
+        event.put("tid", threadId);
+        Map<String, Object> args = new HashMap<>();
+        args.put("name", value);
+        event.put("args", args);
+        return event;
+    }
+
+    int getEventCount() {
+        return events.size();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+    private static class TraceFile {
+        private List<Map<String, Object>> traceEvents;
+        private String displayTimeUnit = "ms";
+    }
+}
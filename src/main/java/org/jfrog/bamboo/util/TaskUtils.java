@@ -7,6 +7,7 @@ import com.atlassian.bamboo.v2.build.agent.capability.Capability;
 import com.atlassian.bamboo.v2.build.agent.capability.CapabilityContext;
 import com.atlassian.bamboo.v2.build.agent.capability.ReadOnlyCapabilitySet;
 import com.atlassian.bamboo.variable.CustomVariableContext;
+import com.atlassian.bamboo.variable.VariableDefinitionContext;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimaps;
@@ -18,6 +19,11 @@ import org.jfrog.bamboo.admin.ServerConfigManager;
 import org.jfrog.bamboo.builder.BuildInfoHelper;
 import org.jfrog.bamboo.configuration.BuildParamsOverrideManager;
 import org.jfrog.bamboo.context.PackageManagersContext;
+import org.jfrog.bamboo.metrics.TaskTraffic;
+import org.jfrog.bamboo.metrics.TrafficRecorder;
+import org.jfrog.bamboo.util.generic.GenericData;
+import org.jfrog.bamboo.util.generic.MeteredBuildInfoClientBuilder;
+import org.jfrog.bamboo.util.generic.MeteredDependenciesClient;
 import org.jfrog.bamboo.util.version.VcsHelper;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.BuildInfoConfigProperties;
@@ -41,6 +47,9 @@ import java.util.stream.Stream;
 
 import static org.jfrog.bamboo.configuration.BuildParamsOverrideManager.*;
 import static org.jfrog.bamboo.util.ConstantValues.AGGREGATED_BUILD_INFO;
+import static org.jfrog.bamboo.util.ConstantValues.TASK_PHASE_TIMINGS;
+import static org.jfrog.bamboo.util.ConstantValues.TASK_TRAFFIC;
+import static org.jfrog.bamboo.util.ConstantValues.TRACE_VARIABLE;
 
 /**
  * Utility class that serves as a helper for common operations of a task.
@@ -127,8 +136,29 @@ public class TaskUtils {
         return dependenciesClient;
     }
 
+    /**
+     * @param trafficRecorder Records the download requests of the client.
+     */
+    public static ArtifactoryDependenciesClient getMeteredDependenciesClient(ServerConfig serverConfig, Log log, TrafficRecorder trafficRecorder) {
+        ArtifactoryDependenciesClient dependenciesClient = new MeteredDependenciesClient(serverConfig.getUrl(),
+                serverConfig.getUsername(), serverConfig.getPassword(), log, trafficRecorder);
+        dependenciesClient.setConnectionTimeout(serverConfig.getTimeout());
+        ProxyUtils.setProxyConfig(serverConfig.getUrl(), dependenciesClient);
+        return dependenciesClient;
+    }
+
     public static ArtifactoryBuildInfoClientBuilder getArtifactoryBuildInfoClientBuilder(ServerConfig serverConfig, Log log) {
-        ArtifactoryBuildInfoClientBuilder clientBuilder = new ArtifactoryBuildInfoClientBuilder();
+        return configureBuildInfoClientBuilder(new ArtifactoryBuildInfoClientBuilder(), serverConfig, log);
+    }
+
+    /**
+     * @return A builder of clients which report the progress of their deploys.
+     */
+    public static MeteredBuildInfoClientBuilder getMeteredBuildInfoClientBuilder(ServerConfig serverConfig, Log log) {
+        return configureBuildInfoClientBuilder(new MeteredBuildInfoClientBuilder(), serverConfig, log);
+    }
+
+    private static <T extends ArtifactoryBuildInfoClientBuilder> T configureBuildInfoClientBuilder(T clientBuilder, ServerConfig serverConfig, Log log) {
         clientBuilder.setArtifactoryUrl(serverConfig.getUrl()).setUsername(serverConfig.getUsername())
                 .setPassword(serverConfig.getPassword()).setLog(log).setConnectionTimeout(serverConfig.getTimeout());
         ProxyUtils.setProxyConfig(serverConfig.getUrl(), clientBuilder);
@@ -191,11 +221,88 @@ public class TaskUtils {
                 getCustomBuildData().put(AGGREGATED_BUILD_INFO, buildInfo);
     }
 
+    /**
+     * Append a build to the aggregated build-infos of the plan.
+     *
+     * @param aggregatedBuildInfo - The aggregated build-infos JSON, may be blank.
+     * @param build               - The build to append, may be null.
+     * @return The aggregated build-infos JSON, including the appended build.
+     * @throws IOException if the JSON conversion fails
+     */
+    public static String appendBuildInfo(String aggregatedBuildInfo, Build build) throws IOException {
+        GenericData gd = new GenericData();
+        if (StringUtils.isNotBlank(aggregatedBuildInfo)) {
+            gd = BuildInfoExtractorUtils.jsonStringToGeneric(aggregatedBuildInfo, GenericData.class);
+        }
+        if (build != null) {
+            gd.addBuild(build);
+        }
+        return BuildInfoExtractorUtils.buildInfoToJsonString(gd);
+    }
+
+    /**
+     * Append builds to the aggregated build-infos in the plan's context.
+     *
+     * @param builds - The builds to append.
+     * @throws IOException if the JSON conversion fails
+     */
+    public static void addBuildsToAggregatedBuildInfo(TaskContext taskContext, List<Build> builds) throws IOException {
+        Map<String, String> customBuildData = taskContext.getBuildContext().getParentBuildContext().getBuildResult().getCustomBuildData();
+        String aggregatedBuildInfo = customBuildData.get(AGGREGATED_BUILD_INFO);
+        for (Build build : builds) {
+            aggregatedBuildInfo = appendBuildInfo(aggregatedBuildInfo, build);
+        }
+        customBuildData.put(AGGREGATED_BUILD_INFO, aggregatedBuildInfo);
+    }
+
     public static String getAndDeleteAggregatedBuildInfo(TaskContext taskContext) {
         return taskContext.getBuildContext().getParentBuildContext().getBuildResult().
                 getCustomBuildData().remove(AGGREGATED_BUILD_INFO);
     }
 
+    /**
+     * Append the phase timings of a task to the timings of the previous tasks, in the job result.
+     */
+    public static void addTaskPhaseTimings(TaskContext taskContext, TaskPhaseTimings timings) {
+        Map<String, String> customBuildData = taskContext.getBuildContext().getBuildResult().getCustomBuildData();
+        customBuildData.put(TASK_PHASE_TIMINGS, TaskPhaseTimings.append(customBuildData.get(TASK_PHASE_TIMINGS), timings));
+    }
+
+    /**
+     * Add the requests sent by a task to the job result, to be folded into the server-wide traffic metrics.
+     */
+    public static void addTaskTraffic(TaskContext taskContext, TaskTraffic traffic) {
+        if (traffic.isEmpty()) {
+            return;
+        }
+        Map<String, String> customBuildData = taskContext.getBuildContext().getBuildResult().getCustomBuildData();
+        customBuildData.put(TASK_TRAFFIC, TaskTraffic.append(customBuildData.get(TASK_TRAFFIC), traffic));
+    }
+
+    /**
+     * @return True if the {@link ConstantValues#TRACE_VARIABLE} Bamboo variable of the build is true.
+     */
+    public static boolean isTraceEnabled(TaskContext taskContext) {
+        VariableDefinitionContext variable = taskContext.getBuildContext().getVariableContext().getEffectiveVariables().get(TRACE_VARIABLE);
+        return variable != null && Boolean.parseBoolean(StringUtils.trim(variable.getValue()));
+    }
+
+    /**
+     * Add the spans of a task to the trace file in the working directory of the job.
+     * Failing to write the trace does not fail the task.
+     */
+    public static void writeTaskTrace(TaskContext taskContext, TaskTrace trace) {
+        File traceFile = new File(taskContext.getWorkingDirectory(), TaskTrace.TRACE_FILE_NAME);
+        try {
+            trace.writeTo(traceFile, taskContext.getBuildContext().getPlanResultKey().getKey());
+            taskContext.getBuildLogger().addBuildLogEntry("Artifactory task trace written to " + traceFile.getAbsolutePath() +
+                    ". Add it to the artifacts of the job to download it.");
+        } catch (IOException e) {
+            taskContext.getBuildLogger().addErrorLogEntry("Failed to write the Artifactory task trace to " +
+                    traceFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Add an executable path to a provided env map.
      *
@@ -0,0 +1,265 @@
+package org.jfrog.bamboo.util.generic;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.bamboo.cache.SharedDownloadCache;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.Module;
+import org.jfrog.build.api.builder.DependencyBuilder;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads the artifacts of a published build, as recorded in its build-info.
+ * <p>
+ * Unlike specs and patterns, the artifacts are not searched for: their paths and checksums are taken from the
+ * build-info, so fetching the build-info is followed by the downloads only. The downloaded files are verified against
+ * the build-info checksums, and files that are already up to date are not downloaded again.
+ * If a {@link SharedDownloadCache} is set, files downloaded by other builds on the agent are taken from it.
+ */
+public class BuildArtifactsDownloader {
+    static final int DOWNLOAD_THREADS = 3;
+
+    private final ArtifactoryDependenciesClient client;
+    private final File targetDir;
+    private final Log log;
+    private SharedDownloadCache downloadCache;
+    private long downloadCacheMaxSizeBytes;
+
+    public BuildArtifactsDownloader(ArtifactoryDependenciesClient client, File targetDir, Log log) {
+        this.client = client;
+        this.targetDir = targetDir;
+        this.log = log;
+    }
+
+    /**
+     * @param downloadCache The agent-wide cache to take the files from and add the downloaded files to.
+     * @param maxSizeBytes  The size bound of the cache, enforced after the downloads.
+     */
+    public void setDownloadCache(SharedDownloadCache downloadCache, long maxSizeBytes) {
+        this.downloadCache = downloadCache;
+        this.downloadCacheMaxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * @param buildNumber The build number, or LATEST for the latest published build.
+     * @return The published build-info.
+     * @throws IOException If the build was not published.
+     */
+    public static Build getBuild(ArtifactoryBuildInfoClient client, String buildName, String buildNumber) throws IOException {
+        Build build = client.getBuildInfo(buildName, buildNumber, null);
+        if (build == null) {
+            throw new IOException("Build " + buildName + " #" + buildNumber + " was not found in Artifactory.");
+        }
+        return build;
+    }
+
+    /**
+     * Downloads the artifacts of the build, keeping their repository layout under the target directory.
+     *
+     * @param build      The published build-info.
+     * @param repository The repository the build artifacts were deployed to.
+     * @return The downloaded artifacts, as dependencies.
+     */
+    public List<Dependency> download(@NotNull Build build, @NotNull String repository) throws IOException {
+        Map<String, Artifact> artifacts = getArtifactsByRemotePath(build);
+        if (artifacts.isEmpty()) {
+            log.info("Build " + build.getName() + " #" + build.getNumber() + " has no artifacts to download.");
+            return new ArrayList<>();
+        }
+        // Validated before any download, so that a build-info with a path outside of the target directory is not partially downloaded
+        Map<String, File> files = new HashMap<>();
+        for (String remotePath : artifacts.keySet()) {
+            files.put(remotePath, getTargetFile(targetDir, remotePath));
+        }
+        AtomicInteger upToDate = new AtomicInteger();
+        AtomicInteger cached = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(DOWNLOAD_THREADS, artifacts.size()));
+        TransferProgress progress = new TransferProgress("Downloading", "Downloaded", artifacts.size(), -1, log);
+        try {
+            List<Future<Dependency>> futures = new ArrayList<>();
+            for (Map.Entry<String, Artifact> entry : artifacts.entrySet()) {
+                futures.add(executor.submit(() -> downloadArtifact(repository, entry.getKey(), files.get(entry.getKey()),
+                        entry.getValue(), upToDate, cached, progress)));
+            }
+            List<Dependency> dependencies = new ArrayList<>();
+            for (Future<Dependency> future : futures) {
+                dependencies.add(future.get());
+            }
+            log.info("Downloaded " + (dependencies.size() - upToDate.get() - cached.get()) + " artifacts of build " + build.getName() +
+                    " #" + build.getNumber() + ", " + upToDate.get() + " artifacts were already up to date" +
+                    (downloadCache == null ? "." : ", " + cached.get() + " artifacts were taken from the shared download cache."));
+            evictDownloadCache();
+            return dependencies;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading the artifacts of build " + build.getName());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+            progress.close();
+        }
+    }
+
+    /**
+     * @return The artifacts of the build by their path in the repository.
+     * @throws IOException If the path of an artifact is unknown.
+     */
+    static Map<String, Artifact> getArtifactsByRemotePath(Build build) throws IOException {
+        Map<String, Artifact> artifacts = new LinkedHashMap<>();
+        if (build.getModules() == null) {
+            return artifacts;
+        }
+        for (Module module : build.getModules()) {
+            if (module.getArtifacts() == null) {
+                continue;
+            }
+            for (Artifact artifact : module.getArtifacts()) {
+                String remotePath = getRemotePath(module, artifact);
+                if (remotePath == null) {
+                    throw new IOException("The build-info of build " + build.getName() + " #" + build.getNumber() +
+                            " does not record the path of artifact '" + artifact.getName() + "' of module '" +
+                            module.getId() + "'. Download it using File Specs instead.");
+                }
+                artifacts.putIfAbsent(remotePath, artifact);
+            }
+        }
+        return artifacts;
+    }
+
+    /**
+     * The path of artifacts deployed by specs is recorded in the build-info. The path of Maven and Gradle artifacts
+     * is derived from the module's group, artifact ID and version.
+     */
+    @Nullable
+    static String getRemotePath(Module module, Artifact artifact) {
+        if (StringUtils.isNotBlank(artifact.getRemotePath())) {
+            return StringUtils.removeStart(artifact.getRemotePath(), "/");
+        }
+        String[] gav = StringUtils.split(StringUtils.defaultString(module.getId()), ':');
+        if (gav.length < 3 || StringUtils.isBlank(artifact.getName())) {
+            return null;
+        }
+        return gav[0].replace('.', '/') + "/" + gav[1] + "/" + gav[2] + "/" + artifact.getName();
+    }
+
+    /**
+     * @return The file the artifact is downloaded to, under the target directory.
+     * @throws IOException If the path of the artifact, as recorded in the build-info, leads outside of the target
+     *                     directory, for example by '..' segments.
+     */
+    static File getTargetFile(File targetDir, String remotePath) throws IOException {
+        File canonicalTargetDir = targetDir.getCanonicalFile();
+        File file = new File(canonicalTargetDir, remotePath).getCanonicalFile();
+        if (!file.toPath().startsWith(canonicalTargetDir.toPath()) || file.equals(canonicalTargetDir)) {
+            throw new IOException("The path of artifact '" + remotePath + "' leads outside of the target directory " +
+                    targetDir.getPath() + ". The artifact is not downloaded.");
+        }
+        return file;
+    }
+
+    private Dependency downloadArtifact(String repository, String remotePath, File file, Artifact artifact,
+                                        AtomicInteger upToDate, AtomicInteger cached, TransferProgress progress) throws IOException {
+        if (file.isFile() && isUpToDate(file, artifact)) {
+            upToDate.incrementAndGet();
+            return createDependency(artifact, remotePath, artifact.getSha1(), artifact.getMd5());
+        }
+        if (downloadCache != null && downloadCache.materialize(artifact.getSha1(), file)) {
+            cached.incrementAndGet();
+            log.debug("Took " + remotePath + " from the shared download cache");
+            return createDependency(artifact, remotePath, artifact.getSha1(), artifact.getMd5());
+        }
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException("Failed to create directory: " + parent);
+        }
+
+        String url = StringUtils.removeEnd(client.getArtifactoryUrl(), "/") + "/" + repository + "/" + remotePath;
+        File tempFile = new File(parent, file.getName() + ".download");
+        MessageDigest sha1 = DigestUtils.getSha1Digest();
+        MessageDigest md5 = DigestUtils.getMd5Digest();
+        try (CloseableHttpResponse response = client.downloadArtifact(url)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status != HttpStatus.SC_OK) {
+                throw new IOException("Failed to download " + url + ". Received " + status + ": " + response.getStatusLine().getReasonPhrase());
+            }
+            InputStream content = progress.track(response.getEntity().getContent(), response.getEntity().getContentLength());
+            try (InputStream inputStream = new DigestInputStream(new DigestInputStream(content, sha1), md5);
+                 OutputStream outputStream = new FileOutputStream(tempFile)) {
+                IOUtils.copyLarge(inputStream, outputStream);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+
+        String actualSha1 = Hex.encodeHexString(sha1.digest());
+        String actualMd5 = Hex.encodeHexString(md5.digest());
+        if (!checksumMatches(artifact.getSha1(), actualSha1) || !checksumMatches(artifact.getMd5(), actualMd5)) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw new IOException("Checksum mismatch of " + url + ". Expected sha1 " + artifact.getSha1() + " and md5 " +
+                    artifact.getMd5() + ", but received sha1 " + actualSha1 + " and md5 " + actualMd5 + ".");
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Downloaded " + url + " to " + file.getPath());
+        if (downloadCache != null) {
+            downloadCache.store(file, actualSha1);
+        }
+        return createDependency(artifact, remotePath, actualSha1, actualMd5);
+    }
+
+    private void evictDownloadCache() {
+        if (downloadCache == null) {
+            return;
+        }
+        try {
+            downloadCache.evictIfNeeded(downloadCacheMaxSizeBytes);
+        } catch (IOException e) {
+            log.warn("Failed to evict the shared download cache: " + e.getMessage());
+        }
+    }
+
+    private static boolean isUpToDate(File file, Artifact artifact) throws IOException {
+        if (StringUtils.isBlank(artifact.getSha1())) {
+            return false;
+        }
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return artifact.getSha1().equalsIgnoreCase(DigestUtils.sha1Hex(inputStream));
+        }
+    }
+
+    /**
+     * A checksum missing from the build-info is not verified.
+     */
+    private static boolean checksumMatches(@Nullable String expected, String actual) {
+        return StringUtils.isBlank(expected) || expected.equalsIgnoreCase(actual);
+    }
+
+    private static Dependency createDependency(Artifact artifact, String remotePath, String sha1, String md5) {
+        return new DependencyBuilder().id(artifact.getName()).type(artifact.getType()).sha1(sha1).md5(md5)
+                .sha256(artifact.getSha256()).remotePath(remotePath).build();
+    }
+}
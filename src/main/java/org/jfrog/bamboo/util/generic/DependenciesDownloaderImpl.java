@@ -1,10 +1,9 @@
 package org.jfrog.bamboo.util.generic;
 
 import com.atlassian.core.util.FileUtils;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
+import org.jfrog.bamboo.cache.SharedDownloadCache;
 import org.jfrog.build.api.Dependency;
 import org.jfrog.build.api.dependency.DownloadableArtifact;
 import org.jfrog.build.api.util.FileChecksumCalculator;
@@ -12,14 +11,22 @@ import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
 import org.jfrog.build.extractor.clientConfiguration.util.DependenciesDownloader;
 import org.jfrog.build.extractor.clientConfiguration.util.DependenciesDownloaderHelper;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.Spec;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 /**
  * @author Lior Hasson
@@ -29,6 +36,11 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
     private Log log;
     private File workingDirectory;
     private boolean flatDownload = false;
+    private TransferProgress progress;
+    private SharedDownloadCache downloadCache;
+    private long downloadCacheMaxSizeBytes;
+    private int cacheHits;
+    private long segmentedDownloadThresholdBytes = DependenciesDownloaderHelper.MIN_SIZE_FOR_CONCURRENT_DOWNLOAD;
 
     public DependenciesDownloaderImpl(ArtifactoryDependenciesClient client, File workingDirectory, Log log) {
         this.client = client;
@@ -36,6 +48,24 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
         this.log = log;
     }
 
+    /**
+     * @param downloadCache The agent-wide cache to take the files from and add the downloaded files to.
+     * @param maxSizeBytes  The size bound of the cache, enforced after the downloads.
+     */
+    public void setDownloadCache(SharedDownloadCache downloadCache, long maxSizeBytes) {
+        this.downloadCache = downloadCache;
+        this.downloadCacheMaxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * @param thresholdBytes The size from which a file is downloaded as concurrent byte ranges. Files smaller than
+     *                       {@link DependenciesDownloaderHelper#MIN_SIZE_FOR_CONCURRENT_DOWNLOAD} are always downloaded
+     *                       over a single connection.
+     */
+    public void setSegmentedDownloadThreshold(long thresholdBytes) {
+        this.segmentedDownloadThresholdBytes = thresholdBytes;
+    }
+
     @Override
     public ArtifactoryDependenciesClient getClient() {
         return client;
@@ -43,8 +73,39 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
 
     @Override
     public List<Dependency> download(Set<DownloadableArtifact> downloadableArtifacts) throws IOException {
-        DependenciesDownloaderHelper helper = new DependenciesDownloaderHelper(this, log);
-        return helper.downloadDependencies(downloadableArtifacts);
+        return download(helper -> helper.downloadDependencies(downloadableArtifacts), downloadableArtifacts.size());
+    }
+
+    /**
+     * Downloads the files found by the queries of a spec, which the helper downloads without calling
+     * {@link #download(Set)}.
+     */
+    public List<Dependency> download(Spec spec) throws IOException {
+        return download(helper -> helper.downloadDependencies(spec), -1);
+    }
+
+    /**
+     * @param totalFiles The number of files to download, or -1 if only known to the helper.
+     */
+    private List<Dependency> download(HelperDownload helperDownload, int totalFiles) throws IOException {
+        DependenciesDownloaderHelper helper = new SegmentedDownloadHelper();
+        List<Dependency> dependencies;
+        cacheHits = 0;
+        try (TransferProgress transferProgress = new TransferProgress("Downloading", "Downloaded", totalFiles, -1, log)) {
+            progress = transferProgress;
+            dependencies = helperDownload.download(helper);
+        } finally {
+            progress = null;
+        }
+        if (downloadCache != null) {
+            log.info(cacheHits + " files were taken from the shared download cache.");
+            try {
+                downloadCache.evictIfNeeded(downloadCacheMaxSizeBytes);
+            } catch (IOException e) {
+                log.warn("Failed to evict the shared download cache: " + e.getMessage());
+            }
+        }
+        return dependencies;
     }
 
     @Override
@@ -56,8 +117,11 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
     public Map<String, String> saveDownloadedFile(InputStream is, String filePath) throws IOException {
         try {
             File newFile = new File(filePath);
+            if (progress != null) {
+                is = progress.track(is, -1);
+            }
             FileUtils.copyFile(is, newFile, true);
-            return FileChecksumCalculator.calculateChecksums(newFile, "md5", "sha1");
+            return calculateChecksums(newFile);
         } catch (Exception e) {
             log.warn("Caught exception while saving dependency file" + e.getLocalizedMessage());
         } finally {
@@ -69,11 +133,43 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
         return null;
     }
 
+    /**
+     * Downloads the file as concurrent byte ranges into a temporary file, moved to the file once complete.
+     *
+     * @return The checksums of the downloaded file, or null if the server does not support range requests.
+     */
+    private Map<String, String> downloadSegmented(String url, long size, String filePath) throws Exception {
+        File file = new File(filePath);
+        File tempFile = new File(file.getParentFile(), file.getName() + ".download");
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            if (!new SegmentedDownloader(client, log).download(url, size, tempFile, progress)) {
+                log.info("Artifactory does not support range requests of " + url + ", downloading it over a single connection.");
+                return null;
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return calculateChecksums(file);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * @return The checksums of the downloaded file, verified by the helper against the checksums of the artifact.
+     */
+    private Map<String, String> calculateChecksums(File file) throws IOException, NoSuchAlgorithmException {
+        Map<String, String> checksums = FileChecksumCalculator.calculateChecksums(file, "md5", "sha1");
+        if (downloadCache != null) {
+            downloadCache.store(file, checksums.get("sha1"));
+        }
+        return checksums;
+    }
+
     @Override
     public boolean isFileExistsLocally(String filePath, String md5, String sha1) throws IOException {
         File localFile = new File(filePath);
         if (!localFile.exists()) {
-            return false;
+            return materializeFromCache(localFile, sha1);
         }
 
         // If it's a folder return true since we don't care about it, not going to download a folder anyway
@@ -84,9 +180,12 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
         try {
             Map<String, String> checksumsMap = FileChecksumCalculator.calculateChecksums(localFile, "md5", "sha1");
 
-            return checksumsMap != null &&
+            if (checksumsMap != null &&
                     StringUtils.isNotBlank(md5) && StringUtils.equals(md5, checksumsMap.get("md5")) &&
-                    StringUtils.isNotBlank(sha1) && StringUtils.equals(sha1, checksumsMap.get("sha1"));
+                    StringUtils.isNotBlank(sha1) && StringUtils.equals(sha1, checksumsMap.get("sha1"))) {
+                return true;
+            }
+            return materializeFromCache(localFile, sha1);
 
         } catch (NoSuchAlgorithmException e) {
             log.warn("Could not find checksum algorithm: " + e.getLocalizedMessage());
@@ -95,17 +194,34 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
         return false;
     }
 
+    /**
+     * The helper downloads the file unless it exists locally, so the file is taken from the cache at this point.
+     */
+    private boolean materializeFromCache(File localFile, String sha1) {
+        if (downloadCache == null || !downloadCache.materialize(sha1, localFile)) {
+            return false;
+        }
+        cacheHits++;
+        log.debug("Took " + localFile.getPath() + " from the shared download cache");
+        return true;
+    }
+
     @Override
     public void removeUnusedArtifactsFromLocal(Set<String> allResolvesFiles, Set<String> forDeletionFiles) throws IOException {
         try {
+            NavigableSet<String> resolvedFiles = allResolvesFiles.stream().filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(TreeSet::new));
+            // The files of a pattern are usually in a few directories, each of which is listed once
+            Set<File> resolvedFilesParents = new LinkedHashSet<>();
             for (String resolvedFile : forDeletionFiles) {
-                File resolvedFileParent = org.apache.commons.io.FileUtils.getFile(resolvedFile).getParentFile();
-
+                resolvedFilesParents.add(org.apache.commons.io.FileUtils.getFile(resolvedFile).getParentFile());
+            }
+            for (File resolvedFileParent : resolvedFilesParents) {
                 File[] fileSiblings = resolvedFileParent.listFiles();
                 if (!(fileSiblings == null || fileSiblings.length == 0)) {
 
                     for (File sibling : fileSiblings) {
-                        if (!isResolvedOrParentOfResolvedFile(allResolvesFiles, sibling.getPath())) {
+                        if (!isResolvedOrParentOfResolvedFile(resolvedFiles, sibling.getPath())) {
                             log.info("Deleted unresolved file '" + sibling.getPath() + "'");
                             sibling.delete();
                         }
@@ -117,12 +233,43 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
         }
     }
 
-    private boolean isResolvedOrParentOfResolvedFile(Set<String> resolvedFiles, final String path) {
-        return Iterables.any(resolvedFiles, new Predicate<String>() {
-            public boolean apply(String filePath) {
-                return StringUtils.equals(filePath, path) || StringUtils.startsWith(filePath, path);
+    /**
+     * @param resolvedFiles The resolved files, sorted.
+     * @return True if a resolved file path starts with the path.
+     */
+    static boolean isResolvedOrParentOfResolvedFile(NavigableSet<String> resolvedFiles, String path) {
+        // The paths starting with the path are sorted right after it, so the first of them is its ceiling
+        String ceiling = resolvedFiles.ceiling(path);
+        return ceiling != null && ceiling.startsWith(path);
+    }
+
+    /**
+     * Downloads the large files by {@link SegmentedDownloader}, rather than by the concurrent download of the helper,
+     * which has a fixed size threshold, does not retry the failed ranges, and concatenates temporary files once they
+     * are all downloaded.
+     */
+    private class SegmentedDownloadHelper extends DependenciesDownloaderHelper {
+        SegmentedDownloadHelper() {
+            super(DependenciesDownloaderImpl.this, log);
+        }
+
+        /**
+         * Called by the helper for the files of at least {@link #MIN_SIZE_FOR_CONCURRENT_DOWNLOAD} bytes, if the server
+         * accepts ranges.
+         */
+        @Override
+        protected Map<String, String> downloadFileConcurrently(String uriWithParams, long fileSize, String fileDestination,
+                                                               String filePath) throws Exception {
+            Map<String, String> checksums = null;
+            if (fileSize >= segmentedDownloadThresholdBytes) {
+                checksums = downloadSegmented(uriWithParams, fileSize, fileDestination);
             }
-        });
+            return checksums != null ? checksums : downloadFile(uriWithParams, fileDestination);
+        }
+    }
+
+    private interface HelperDownload {
+        List<Dependency> download(DependenciesDownloaderHelper helper) throws IOException;
     }
 
     //TODO - as part of buildInfo V-2.6.x we need to do some changes to support the json spec
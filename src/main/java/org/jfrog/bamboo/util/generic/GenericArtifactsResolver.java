@@ -1,16 +1,22 @@
 package org.jfrog.bamboo.util.generic;
 
 import com.atlassian.bamboo.task.CommonTaskContext;
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.bamboo.cache.SharedDownloadCache;
+import org.jfrog.bamboo.context.GenericContext;
 import org.jfrog.build.api.Dependency;
 import org.jfrog.build.api.dependency.BuildDependency;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
-import org.jfrog.build.extractor.clientConfiguration.util.AntPatternsDependenciesHelper;
 import org.jfrog.build.extractor.clientConfiguration.util.BuildDependenciesHelper;
 import org.jfrog.build.extractor.clientConfiguration.util.DependenciesDownloader;
+import org.jfrog.build.extractor.clientConfiguration.util.PublishedItemsHelper;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Resolver that knows how to bring the dependencies from the resolve pattern.
@@ -30,9 +36,19 @@ public class GenericArtifactsResolver {
         this.log = log;
     }
 
-    public List<Dependency> retrievePublishedDependencies() throws IOException, InterruptedException {
-        AntPatternsDependenciesHelper helper = new AntPatternsDependenciesHelper(createDependenciesDownloader(), log);
-        return helper.retrievePublishedDependencies(resolvePattern);
+    public List<Dependency> retrievePublishedDependencies() throws IOException {
+        if (StringUtils.isBlank(resolvePattern)) {
+            return Collections.emptyList();
+        }
+        List<String> patternLines = PublishedItemsHelper.parsePatternsFromProperty(resolvePattern);
+        if (patternLines.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.info("Beginning to resolve Build Info dependencies.");
+        Set<DownloadableArtifact> artifacts = new ResolvePatternsPlanner(client, log).collectArtifactsToDownload(patternLines);
+        List<Dependency> dependencies = createDependenciesDownloader().download(artifacts);
+        log.info("Finished resolving Build Info dependencies.");
+        return dependencies;
     }
 
     public List<BuildDependency> retrieveBuildDependencies() throws IOException, InterruptedException {
@@ -41,6 +57,12 @@ public class GenericArtifactsResolver {
     }
 
     private DependenciesDownloader createDependenciesDownloader() {
-        return new DependenciesDownloaderImpl(client, context.getWorkingDirectory(), log);
+        DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(client, context.getWorkingDirectory(), log);
+        GenericContext genericContext = new GenericContext(context.getConfigurationMap());
+        if (genericContext.isUseSharedDownloadCache()) {
+            downloader.setDownloadCache(SharedDownloadCache.getInstance(genericContext.isCopyFromSharedDownloadCache()), genericContext.getSharedDownloadCacheMaxSize() * 1024L * 1024L);
+        }
+        downloader.setSegmentedDownloadThreshold(genericContext.getSegmentedDownloadThreshold() * 1024L * 1024L);
+        return downloader;
     }
 }
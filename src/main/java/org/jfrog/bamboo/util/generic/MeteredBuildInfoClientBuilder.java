@@ -0,0 +1,132 @@
+package org.jfrog.bamboo.util.generic;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpPut;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.bamboo.metrics.TrafficOperation;
+import org.jfrog.bamboo.metrics.TrafficRecorder;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.client.ArtifactoryHttpClient;
+import org.jfrog.build.client.ArtifactoryUploadResponse;
+import org.jfrog.build.extractor.clientConfiguration.ArtifactoryBuildInfoClientBuilder;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+
+import java.io.IOException;
+
+/**
+ * Builds build-info clients which report the deploys of their artifacts to a {@link TransferProgress}. The bytes of
+ * an artifact are counted as the HTTP client writes them to the connection, so that the deploy of a large file shows
+ * progress before it completes. Used by the legacy pattern deploys, which call the client directly, and by the spec
+ * deploys, which build their clients from the builder.
+ * Every deploy request is also recorded to a {@link TrafficRecorder}, with its own duration and size, including the
+ * concurrent requests of the spec deploys.
+ */
+public class MeteredBuildInfoClientBuilder extends ArtifactoryBuildInfoClientBuilder {
+    // The builder is Serializable, the progress only lives for the deploys of a task
+    private transient volatile TransferProgress progress;
+    private transient volatile TrafficRecorder trafficRecorder;
+
+    /**
+     * @param progress The progress of the deploys of the clients built by this builder, or null to stop reporting them.
+     */
+    public void setProgress(@Nullable TransferProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * @param trafficRecorder Records the deploy requests of the clients built by this builder, or null to not record them.
+     */
+    public void setTrafficRecorder(@Nullable TrafficRecorder trafficRecorder) {
+        this.trafficRecorder = trafficRecorder;
+    }
+
+    @Override
+    public ArtifactoryBuildInfoClient build() {
+        ArtifactoryBuildInfoClient client = new MeteredBuildInfoClient(artifactoryUrl, username, password, accessToken, log);
+        build(client);
+        return client;
+    }
+
+    private class MeteredBuildInfoClient extends ArtifactoryBuildInfoClient {
+        MeteredBuildInfoClient(String artifactoryUrl, String username, String password, String accessToken, Log log) {
+            super(artifactoryUrl, username, password, accessToken, log);
+            // Replaces the HTTP client of the base class, which is not connected yet and is configured by the builder
+            httpClient.close();
+            httpClient = StringUtils.isNotEmpty(accessToken) ? new MeteredHttpClient(this.artifactoryUrl, accessToken, log) :
+                    new MeteredHttpClient(this.artifactoryUrl, username, password, log);
+        }
+
+        /**
+         * The artifact is deployed by its checksum if Artifactory already has its content, and otherwise uploaded.
+         */
+        @Override
+        public ArtifactoryUploadResponse deployArtifact(DeployDetails details, String logPrefix) throws IOException {
+            TransferProgress current = progress;
+            if (current == null) {
+                return super.deployArtifact(details, logPrefix);
+            }
+            long start = current.fileStarted();
+            try {
+                ArtifactoryUploadResponse response = super.deployArtifact(details, logPrefix);
+                current.fileCompleted(start, 0);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                current.fileFailed(start);
+                throw e;
+            }
+        }
+    }
+
+    private class MeteredHttpClient extends ArtifactoryHttpClient {
+        MeteredHttpClient(String artifactoryUrl, String username, String password, Log log) {
+            super(artifactoryUrl, username, password, log);
+        }
+
+        MeteredHttpClient(String artifactoryUrl, String accessToken, Log log) {
+            super(artifactoryUrl, accessToken, log);
+        }
+
+        /**
+         * Called for every upload request, and for the checksum deploys, which have no entity.
+         */
+        @Override
+        public ArtifactoryUploadResponse execute(HttpPut httpPut) throws IOException {
+            TransferProgress current = progress;
+            if (current != null && httpPut.getEntity() != null) {
+                httpPut.setEntity(current.track(httpPut.getEntity()));
+            }
+            TrafficRecorder recorder = trafficRecorder;
+            if (recorder == null) {
+                return super.execute(httpPut);
+            }
+            HttpEntity entity = httpPut.getEntity();
+            long byteCount = entity != null ? Math.max(entity.getContentLength(), 0) : 0;
+            long start = System.nanoTime();
+            try {
+                ArtifactoryUploadResponse response = super.execute(httpPut);
+                recorder.record(TrafficOperation.DEPLOY, isFailed(httpPut, response), byteCount, System.nanoTime() - start);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                recorder.record(TrafficOperation.DEPLOY, true, byteCount, System.nanoTime() - start);
+                throw e;
+            }
+        }
+
+        /**
+         * The client does not fail on an unsuccessful response, it checks the status itself. A checksum deploy of a
+         * content Artifactory does not have yet is answered with 404, and followed by the upload of the file.
+         */
+        private boolean isFailed(HttpPut httpPut, ArtifactoryUploadResponse response) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == HttpStatus.SC_NOT_FOUND) {
+                Header checksumDeploy = httpPut.getFirstHeader("X-Checksum-Deploy");
+                return checksumDeploy == null || !Boolean.parseBoolean(checksumDeploy.getValue());
+            }
+            return status >= HttpStatus.SC_BAD_REQUEST;
+        }
+    }
+}
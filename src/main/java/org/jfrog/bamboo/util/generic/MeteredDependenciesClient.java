@@ -0,0 +1,150 @@
+package org.jfrog.bamboo.util.generic;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.jfrog.bamboo.metrics.TrafficOperation;
+import org.jfrog.bamboo.metrics.TrafficRecorder;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A dependencies client which records every download request to a {@link TrafficRecorder}, with its own duration
+ * and size. The downloads return before their content is read, so a download is recorded once its content has been
+ * read, either to its end or to its length, or once the content is closed. Each range request of a segmented download
+ * is a request of its own. The searches and the metadata requests are not recorded.
+ */
+public class MeteredDependenciesClient extends ArtifactoryDependenciesClient {
+    private final TrafficRecorder trafficRecorder;
+
+    public MeteredDependenciesClient(String artifactoryUrl, String username, String password, Log log,
+                                     TrafficRecorder trafficRecorder) {
+        super(artifactoryUrl, username, password, log);
+        this.trafficRecorder = trafficRecorder;
+    }
+
+    @Override
+    public CloseableHttpResponse downloadArtifact(String downloadUrl) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return meter(super.downloadArtifact(downloadUrl), start);
+        } catch (IOException | RuntimeException e) {
+            trafficRecorder.record(TrafficOperation.DOWNLOAD, true, 0, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public CloseableHttpResponse downloadArtifact(String downloadUrl, Map<String, String> headers) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return meter(super.downloadArtifact(downloadUrl, headers), start);
+        } catch (IOException | RuntimeException e) {
+            trafficRecorder.record(TrafficOperation.DOWNLOAD, true, 0, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private CloseableHttpResponse meter(CloseableHttpResponse response, long start) {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            trafficRecorder.record(TrafficOperation.DOWNLOAD, false, 0, System.nanoTime() - start);
+        } else {
+            response.setEntity(new MeteredEntity(entity, start));
+        }
+        return response;
+    }
+
+    /**
+     * Records the download once, when its content is done with.
+     */
+    private class MeteredEntity extends HttpEntityWrapper {
+        private final long startNanos;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        MeteredEntity(HttpEntity entity, long startNanos) {
+            super(entity);
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            try {
+                return new MeteredInputStream(super.getContent(), getContentLength(), this);
+            } catch (IOException | RuntimeException e) {
+                record(true, 0);
+                throw e;
+            }
+        }
+
+        private void record(boolean failed, long byteCount) {
+            if (recorded.compareAndSet(false, true)) {
+                trafficRecorder.record(TrafficOperation.DOWNLOAD, failed, byteCount, System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes read by the consumer of the content. The segments of a download are read up to their length,
+     * and their content is not always closed.
+     */
+    private static class MeteredInputStream extends FilterInputStream {
+        private final long length;
+        private final MeteredEntity entity;
+        private long byteCount;
+
+        MeteredInputStream(InputStream in, long length, MeteredEntity entity) {
+            super(in);
+            this.length = length;
+            this.entity = entity;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int read = super.read();
+                counted(read < 0 ? -1 : 1);
+                return read;
+            } catch (IOException e) {
+                entity.record(true, byteCount);
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            try {
+                int read = super.read(buffer, offset, count);
+                counted(read);
+                return read;
+            } catch (IOException e) {
+                entity.record(true, byteCount);
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                entity.record(false, byteCount);
+            }
+        }
+
+        private void counted(int read) {
+            if (read > 0) {
+                byteCount += read;
+            }
+            if (read < 0 || byteCount == length) {
+                entity.record(false, byteCount);
+            }
+        }
+    }
+}
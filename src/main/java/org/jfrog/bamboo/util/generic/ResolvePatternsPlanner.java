@@ -0,0 +1,210 @@
+package org.jfrog.bamboo.util.generic;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.dependency.PropertySearchResult;
+import org.jfrog.build.api.dependency.pattern.BuildDependencyPattern;
+import org.jfrog.build.api.dependency.pattern.DependencyPattern;
+import org.jfrog.build.api.dependency.pattern.PatternType;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.PatternMatcher;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.jfrog.build.extractor.clientConfiguration.util.PatternFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Plans the searches of the legacy resolve patterns.
+ * <p>
+ * Rather than a pattern search per pattern, the patterns of each repository are merged into OR-combined AQL queries,
+ * and the queries run concurrently. The results are matched back to their patterns locally, and an artifact matched
+ * by several patterns to the same target path is downloaded once.
+ * Build dependency patterns are not handled here, since they are already resolved by a single request.
+ */
+public class ResolvePatternsPlanner {
+    static final int MAX_PATTERNS_PER_QUERY = 50;
+    static final int SEARCH_THREADS = 3;
+
+    private final ArtifactoryDependenciesClient client;
+    private final Log log;
+
+    public ResolvePatternsPlanner(ArtifactoryDependenciesClient client, Log log) {
+        this.client = client;
+        this.log = log;
+    }
+
+    /**
+     * @param patternLines The resolve pattern lines.
+     * @return The artifacts to download, without duplicates.
+     */
+    public Set<DownloadableArtifact> collectArtifactsToDownload(List<String> patternLines) throws IOException {
+        List<Callable<List<DownloadableArtifact>>> searches = planSearches(patternLines);
+        if (searches.isEmpty()) {
+            return new HashSet<>();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(SEARCH_THREADS, searches.size()));
+        try {
+            Map<String, DownloadableArtifact> artifacts = new LinkedHashMap<>();
+            int found = 0;
+            for (Future<List<DownloadableArtifact>> future : executor.invokeAll(searches)) {
+                for (DownloadableArtifact artifact : future.get()) {
+                    found++;
+                    // Prefer the pattern that deletes unresolved files, so that the deletion still applies
+                    artifacts.merge(getTargetKey(artifact), artifact,
+                            (existing, added) -> added.getPatternType() == PatternType.DELETE ? added : existing);
+                }
+            }
+            log.info("Found " + artifacts.size() + " dependencies with " + searches.size() + " searches" +
+                    (found > artifacts.size() ? ", " + (found - artifacts.size()) + " duplicate results were skipped." : "."));
+            return new HashSet<>(artifacts.values());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while searching for dependencies");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plans a single AQL query for up to {@link #MAX_PATTERNS_PER_QUERY} patterns of the same repository, and a
+     * property search for each pattern with matrix params.
+     */
+    List<Callable<List<DownloadableArtifact>>> planSearches(List<String> patternLines) {
+        Map<String, List<DependencyPattern>> patternsByRepo = new LinkedHashMap<>();
+        List<Callable<List<DownloadableArtifact>>> searches = new ArrayList<>();
+        for (String patternLine : patternLines) {
+            DependencyPattern dependencyPattern = PatternFactory.create(patternLine);
+            if (dependencyPattern instanceof BuildDependencyPattern) {
+                continue;
+            }
+            String pattern = dependencyPattern.getPattern();
+            log.info("Resolving published dependencies with pattern " + pattern);
+            if (StringUtils.isNotBlank(dependencyPattern.getMatrixParams())) {
+                searches.add(() -> searchByProperties(dependencyPattern));
+                continue;
+            }
+            if (StringUtils.contains(pattern, "**")) {
+                throw new IllegalArgumentException("Wildcard '**' is not allowed without matrix params for pattern '" + pattern + "'");
+            }
+            if (!StringUtils.contains(pattern, ":")) {
+                throw new IllegalArgumentException("Pattern '" + pattern + "' does not start with a repository, e.g. repo-key:path/to/*.zip");
+            }
+            patternsByRepo.computeIfAbsent(StringUtils.substringBefore(pattern, ":"), repo -> new ArrayList<>()).add(dependencyPattern);
+        }
+        for (Map.Entry<String, List<DependencyPattern>> entry : patternsByRepo.entrySet()) {
+            List<DependencyPattern> patterns = entry.getValue();
+            for (int i = 0; i < patterns.size(); i += MAX_PATTERNS_PER_QUERY) {
+                List<DependencyPattern> queryPatterns = patterns.subList(i, Math.min(i + MAX_PATTERNS_PER_QUERY, patterns.size()));
+                searches.add(() -> searchByAql(entry.getKey(), queryPatterns));
+            }
+        }
+        return searches;
+    }
+
+    private List<DownloadableArtifact> searchByAql(String repo, List<DependencyPattern> patterns) throws IOException {
+        Map<DependencyPattern, Pattern> regexps = new LinkedHashMap<>();
+        for (DependencyPattern pattern : patterns) {
+            regexps.put(pattern, toRegexp(StringUtils.substringAfter(pattern.getPattern(), ":")));
+        }
+        String repoUrl = StringUtils.removeEnd(client.getArtifactoryUrl(), "/") + "/" + repo;
+        List<DownloadableArtifact> artifacts = new ArrayList<>();
+        for (AqlSearchResult.SearchEntry entry : client.searchArtifactsByAql(createAql(repo, patterns)).getResults()) {
+            String filePath = StringUtils.equals(entry.getPath(), ".") ? entry.getName() : entry.getPath() + "/" + entry.getName();
+            // AQL wildcards also match across directories, so the results are matched again with the pattern search semantics
+            for (Map.Entry<DependencyPattern, Pattern> regexp : regexps.entrySet()) {
+                if (regexp.getValue().matcher(filePath).matches()) {
+                    DependencyPattern pattern = regexp.getKey();
+                    artifacts.add(new ChecksumDownloadableArtifact(repoUrl, pattern.getTargetDirectory(), filePath,
+                            pattern.getMatrixParams(), pattern.getPattern(), pattern.getPatternType(), entry.getActualSha1()));
+                }
+            }
+        }
+        return artifacts;
+    }
+
+    private List<DownloadableArtifact> searchByProperties(DependencyPattern pattern) throws IOException {
+        String repoPathPattern = pattern.getPattern().replaceFirst(":", "/");
+        List<DownloadableArtifact> artifacts = new ArrayList<>();
+        for (PropertySearchResult.SearchEntry entry : client.searchArtifactsByProperties(pattern.getMatrixParams()).getResults()) {
+            if (PatternMatcher.match(repoPathPattern, entry.getRepoPath(), false)) {
+                artifacts.add(new DownloadableArtifact(entry.getRepoUri(), pattern.getTargetDirectory(), entry.getFilePath(),
+                        pattern.getMatrixParams(), pattern.getPattern(), pattern.getPatternType()));
+            }
+        }
+        return artifacts;
+    }
+
+    /**
+     * Creates a query matching the path and name of every pattern. For example, for the patterns
+     * repo:a/*.zip and repo:b/c.txt:
+     * items.find({"repo":"repo","$or":[{"$and":[{"path":{"$match":"a"}},{"name":{"$match":"*.zip"}}]},...]})
+     */
+    static String createAql(String repo, List<DependencyPattern> patterns) {
+        StringBuilder aql = new StringBuilder("items.find({\"repo\":").append(quote(repo)).append(",\"$or\":[");
+        for (int i = 0; i < patterns.size(); i++) {
+            String path = StringUtils.substringAfter(patterns.get(i).getPattern(), ":");
+            String dir = path.contains("/") ? StringUtils.substringBeforeLast(path, "/") : ".";
+            String name = path.contains("/") ? StringUtils.substringAfterLast(path, "/") : path;
+            aql.append(i > 0 ? "," : "")
+                    .append("{\"$and\":[{\"path\":{\"$match\":").append(quote(dir)).append("}},")
+                    .append("{\"name\":{\"$match\":").append(quote(name)).append("}}]}");
+        }
+        return aql.append("]}).include(\"repo\",\"path\",\"name\",\"actual_sha1\")").toString();
+    }
+
+    /**
+     * Converts the pattern to a regular expression with Ant path semantics, in which wildcards do not match across
+     * directories.
+     */
+    static Pattern toRegexp(String pattern) {
+        StringBuilder regexp = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*') {
+                regexp.append("[^/]*");
+            } else if (c == '?') {
+                regexp.append("[^/]");
+            } else {
+                regexp.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regexp.toString());
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * The same artifact, downloaded to the same target path, is downloaded once.
+     */
+    private static String getTargetKey(DownloadableArtifact artifact) {
+        String target = FilenameUtils.concat(StringUtils.defaultString(artifact.getTargetDirPath()), artifact.getRelativeDirPath());
+        String checksum = artifact instanceof ChecksumDownloadableArtifact ? ((ChecksumDownloadableArtifact) artifact).sha1 : null;
+        return target + "|" + StringUtils.defaultIfEmpty(checksum, artifact.getRepoUrl() + "/" + artifact.getFilePath());
+    }
+
+    /**
+     * A downloadable artifact, with the checksum returned by the search.
+     */
+    private static class ChecksumDownloadableArtifact extends DownloadableArtifact {
+        private final String sha1;
+
+        ChecksumDownloadableArtifact(String repoUrl, String targetDirPath, String filePath, String matrixParameters,
+                                     String sourcePattern, PatternType patternType, String sha1) {
+            super(repoUrl, targetDirPath, filePath, matrixParameters, sourcePattern, patternType);
+            this.sha1 = sha1;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package org.jfrog.bamboo.util.generic;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Downloads a large file as concurrent HTTP byte ranges, so that the download is not capped by the throughput of a
+ * single connection, which is bound by the latency on high-latency links.
+ * <p>
+ * The segments are written in place into a file preallocated to the size of the artifact. A failed segment is retried
+ * from its last written byte. The download starts with the request of the first segment, and if the server answers it
+ * with the whole file rather than the range, it is abandoned before anything is written so that the caller can
+ * download the file over a single connection.
+ * <p>
+ * The segments are not verified separately. The caller verifies the checksums of the whole file.
+ */
+public class SegmentedDownloader {
+    static final int SEGMENTS = 4;
+    static final int MAX_SEGMENT_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final AtomicInteger downloadNumber = new AtomicInteger();
+
+    private final ArtifactoryDependenciesClient client;
+    private final Log log;
+    private final int segments;
+
+    public SegmentedDownloader(ArtifactoryDependenciesClient client, Log log) {
+        this(client, log, SEGMENTS);
+    }
+
+    SegmentedDownloader(ArtifactoryDependenciesClient client, Log log, int segments) {
+        this.client = client;
+        this.log = log;
+        this.segments = segments;
+    }
+
+    /**
+     * @param url      The URL of the file.
+     * @param size     The size of the file, as reported by Artifactory.
+     * @param file     The file to write. Its content is replaced.
+     * @param progress The progress to count the downloaded bytes in, or null.
+     * @return True if the file was downloaded, false if the server does not support range requests.
+     * @throws IOException If a segment failed after its retries. The content of the file is undefined.
+     */
+    public boolean download(String url, long size, File file, @Nullable TransferProgress progress) throws IOException {
+        long segmentSize = (size + segments - 1) / segments;
+        List<Segment> fileSegments = new ArrayList<>();
+        for (long start = 0; start < size; start += segmentSize) {
+            fileSegments.add(new Segment(start, Math.min(size, start + segmentSize) - 1));
+        }
+        Segment first = fileSegments.get(0);
+        CloseableHttpResponse firstResponse = requestRange(url, first.position, first.end);
+        if (firstResponse.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT) {
+            // Closing the response aborts the transfer of the whole file
+            firstResponse.close();
+            log.debug("The server does not support range requests of " + url);
+            return false;
+        }
+
+        long startNanos = progress == null ? 0 : progress.fileStarted();
+        String threadName = "artifactory-segmented-download-" + downloadNumber.incrementAndGet();
+        ExecutorService executor = Executors.newFixedThreadPool(fileSegments.size(), runnable -> new Thread(runnable, threadName));
+        // The first failure of a segment, which aborts the other segments
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(size);
+            FileChannel channel = randomAccessFile.getChannel();
+            List<Future<?>> futures = new ArrayList<>();
+            for (Segment segment : fileSegments) {
+                CloseableHttpResponse response = segment == first ? firstResponse : null;
+                futures.add(executor.submit(() -> {
+                    try {
+                        downloadSegment(url, channel, segment, response, failure, progress);
+                    } catch (IOException e) {
+                        failure.compareAndSet(null, e);
+                    } catch (InterruptedException e) {
+                        failure.compareAndSet(null, new InterruptedIOException("Interrupted while downloading " + url));
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, new IOException(e));
+                    }
+                    return null;
+                }));
+            }
+            firstResponse = null;
+            // The file is closed once all the segments stopped writing
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            if (progress != null) {
+                progress.fileCompleted(startNanos, 0);
+            }
+            log.debug("Downloaded " + url + " in " + fileSegments.size() + " segments");
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new InterruptedIOException("Interrupted while downloading " + url));
+            throw failed(progress, startNanos, failure.get());
+        } catch (ExecutionException e) {
+            throw failed(progress, startNanos, new IOException(e.getCause()));
+        } catch (IOException e) {
+            throw failed(progress, startNanos, e);
+        } finally {
+            failure.compareAndSet(null, new InterruptedIOException("The download was aborted"));
+            executor.shutdownNow();
+            if (firstResponse != null) {
+                firstResponse.close();
+            }
+        }
+    }
+
+    private static IOException failed(@Nullable TransferProgress progress, long startNanos, IOException e) {
+        if (progress != null) {
+            progress.fileFailed(startNanos);
+        }
+        return e;
+    }
+
+    /**
+     * Downloads the rest of the segment, retrying from the last written byte.
+     *
+     * @param response The response to the request of the segment, if already sent.
+     */
+    private void downloadSegment(String url, FileChannel channel, Segment segment, @Nullable CloseableHttpResponse response,
+                                 AtomicReference<IOException> failure, @Nullable TransferProgress progress) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (response == null) {
+                    response = requestRange(url, segment.position, segment.end);
+                }
+                try (CloseableHttpResponse segmentResponse = response) {
+                    verifyRange(url, segmentResponse, segment);
+                    write(segmentResponse.getEntity().getContent(), channel, segment, failure, progress);
+                }
+                if (segment.position <= segment.end) {
+                    throw new IOException("Received " + (segment.end - segment.position + 1) + " bytes less than requested from " + url);
+                }
+                return;
+            } catch (FileNotFoundException | InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                if (failure.get() != null || attempt == MAX_SEGMENT_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Failed to download bytes " + segment.position + "-" + segment.end + " of " + url +
+                        ", retrying (" + attempt + "/" + (MAX_SEGMENT_ATTEMPTS - 1) + "): " + e.getMessage());
+                response = null;
+                Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+            }
+        }
+    }
+
+    private CloseableHttpResponse requestRange(String url, long start, long end) throws IOException {
+        return client.downloadArtifact(url, Collections.singletonMap("Range", "bytes=" + start + "-" + end));
+    }
+
+    /**
+     * A server supporting ranges may still answer with the whole file, so the range of every response is verified.
+     */
+    private static void verifyRange(String url, CloseableHttpResponse response, Segment segment) throws IOException {
+        Header contentRange = response.getFirstHeader("Content-Range");
+        String expected = "bytes " + segment.position + "-";
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT || contentRange == null ||
+                !StringUtils.startsWith(contentRange.getValue(), expected)) {
+            throw new IOException("Expected bytes " + segment.position + "-" + segment.end + " of " + url + ", but received " +
+                    response.getStatusLine() + (contentRange == null ? "" : " with " + contentRange.getValue()));
+        }
+    }
+
+    private static void write(InputStream inputStream, FileChannel channel, Segment segment, AtomicReference<IOException> failure,
+                              @Nullable TransferProgress progress) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while (segment.position <= segment.end &&
+                (read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, segment.end - segment.position + 1))) != -1) {
+            if (failure.get() != null) {
+                throw new InterruptedIOException("The download was aborted");
+            }
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+            while (byteBuffer.hasRemaining()) {
+                // Positional writes do not change the position of the channel, so the segments can be written concurrently
+                segment.position += channel.write(byteBuffer, segment.position);
+            }
+            if (progress != null) {
+                progress.bytesTransferred(read);
+            }
+        }
+    }
+
+    /**
+     * A range of bytes of the file. Downloaded by a single thread at a time.
+     */
+    private static class Segment {
+        private final long end;
+        // The next byte to write
+        private long position;
+
+        Segment(long start, long end) {
+            this.position = start;
+            this.end = end;
+        }
+    }
+}
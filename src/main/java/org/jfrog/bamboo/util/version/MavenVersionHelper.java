@@ -41,10 +41,19 @@ public class MavenVersionHelper extends VersionHelper {
     @Override
     public List<ModuleVersionHolder> filterPropertiesForRelease(ImmutablePlan plan, int latestBuildNumberWithBi)
             throws RepositoryException, IOException {
-        List<ModuleVersionHolder> result = Lists.newArrayList();
         final StorageLocationService storageLocationService = (StorageLocationService) ContainerManager.getComponent("storageLocationService");
         File directory = storageLocationService.getDefaultArtifactDirectoryBuilder().getBuildDirectory(PlanKeys.getPlanResultKey(plan.getKey(), latestBuildNumberWithBi));
-        File buildInfoFile = new File(directory, "buildInfo/build-info.json.zip");
+        return readModuleVersions(new File(directory, "buildInfo/build-info.json.zip"));
+    }
+
+    /**
+     * Read the module versions from the build-info archive created by the BuildInfoCopier.
+     *
+     * @param buildInfoFile The gzipped build-info file.
+     * @return The versions of the build-info modules, or an empty list if the file does not exist.
+     */
+    public List<ModuleVersionHolder> readModuleVersions(File buildInfoFile) throws IOException {
+        List<ModuleVersionHolder> result = Lists.newArrayList();
         if (buildInfoFile.exists()) {
             InputStreamReader reader = null;
             try {
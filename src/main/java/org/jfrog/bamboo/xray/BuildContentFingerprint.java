@@ -0,0 +1,60 @@
+package org.jfrog.bamboo.xray;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.build.api.BaseBuildFileBean;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Module;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes a fingerprint of the content of a build: the checksums of its artifacts and dependencies.
+ * Two builds with the same fingerprint contain exactly the same files, regardless of their names, numbers and modules
+ * order, so an Xray scan verdict of one applies to the other.
+ */
+public class BuildContentFingerprint {
+
+    private BuildContentFingerprint() {
+    }
+
+    /**
+     * @param build The build-info.
+     * @return The build content fingerprint, or null if the build has no artifacts and dependencies, or if any of them
+     * has no checksum.
+     */
+    @Nullable
+    public static String compute(Build build) {
+        List<String> entries = new ArrayList<>();
+        if (build.getModules() != null) {
+            for (Module module : build.getModules()) {
+                if (!addEntries(entries, "a:", module.getArtifacts()) || !addEntries(entries, "d:", module.getDependencies())) {
+                    return null;
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Collections.sort(entries);
+        return DigestUtils.sha256Hex(StringUtils.join(entries, '\n').getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean addEntries(List<String> entries, String prefix, @Nullable List<? extends BaseBuildFileBean> files) {
+        if (files == null) {
+            return true;
+        }
+        for (BaseBuildFileBean file : files) {
+            String checksum = StringUtils.isNotBlank(file.getSha256()) ? file.getSha256() : file.getSha1();
+            if (StringUtils.isBlank(checksum)) {
+                return false;
+            }
+            entries.add(prefix + checksum);
+        }
+        return true;
+    }
+}
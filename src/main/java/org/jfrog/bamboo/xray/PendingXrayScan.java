@@ -0,0 +1,112 @@
+package org.jfrog.bamboo.xray;
+
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An Xray build scan running in the background, submitted by an asynchronous Xray Scan task.
+ * <p>
+ * The scan is a single request, which Xray answers once the scan is complete, so there is no status to poll. The
+ * waiting for its response is logged periodically.
+ */
+public class PendingXrayScan {
+    static final long PROGRESS_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final String buildName;
+    private final String buildNumber;
+    private final boolean failIfVulnerable;
+    private final long progressIntervalMillis;
+    private final long timeoutMillis;
+    private final long submitTimeMillis = System.currentTimeMillis();
+    private volatile Future<ArtifactoryXrayResponse> future;
+
+    /**
+     * @param buildName        The scanned build name.
+     * @param buildNumber      The scanned build number.
+     * @param failIfVulnerable True if the job should fail if the build is found vulnerable.
+     * @param timeoutMinutes   The maximum time to wait for the scan, since it was submitted.
+     */
+    public PendingXrayScan(String buildName, String buildNumber, boolean failIfVulnerable, int timeoutMinutes) {
+        this(buildName, buildNumber, failIfVulnerable, PROGRESS_INTERVAL_MILLIS, TimeUnit.MINUTES.toMillis(timeoutMinutes));
+    }
+
+    PendingXrayScan(String buildName, String buildNumber, boolean failIfVulnerable, long progressIntervalMillis,
+                    long timeoutMillis) {
+        this.buildName = buildName;
+        this.buildNumber = buildNumber;
+        this.failIfVulnerable = failIfVulnerable;
+        this.progressIntervalMillis = progressIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public String getBuildName() {
+        return buildName;
+    }
+
+    public String getBuildNumber() {
+        return buildNumber;
+    }
+
+    public boolean isFailIfVulnerable() {
+        return failIfVulnerable;
+    }
+
+    void setFuture(Future<ArtifactoryXrayResponse> future) {
+        this.future = future;
+    }
+
+    /**
+     * Waits for the scan to complete, and logs the elapsed time every {@link #PROGRESS_INTERVAL_MILLIS}.
+     *
+     * @param log Log for the waiting progress.
+     * @return The scan response.
+     * @throws TimeoutException If the scan did not complete within the timeout. The scan is cancelled in that case.
+     */
+    public ArtifactoryXrayResponse await(Log log) throws InterruptedException, ExecutionException, TimeoutException {
+        while (true) {
+            long elapsed = System.currentTimeMillis() - submitTimeMillis;
+            long remaining = timeoutMillis - elapsed;
+            if (remaining <= 0) {
+                cancel();
+                throw new TimeoutException("Xray scan of build " + buildName + " #" + buildNumber +
+                        " did not complete within " + TimeUnit.MILLISECONDS.toMinutes(timeoutMillis) + " minutes.");
+            }
+            try {
+                return future.get(Math.min(progressIntervalMillis, remaining), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.info("Waiting for Xray scan of build " + buildName + " #" + buildNumber + " (" +
+                        TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - submitTimeMillis) + " seconds elapsed)...");
+            }
+        }
+    }
+
+    /**
+     * @return True if the scan completed, successfully or not.
+     */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * @return The time the job could spend on other tasks while the scan was running.
+     */
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - submitTimeMillis;
+    }
+
+    /**
+     * @return True if the scan was submitted longer ago than its timeout, so that its result is no longer awaited.
+     */
+    boolean isExpired() {
+        return getElapsedMillis() > timeoutMillis;
+    }
+
+    public void cancel() {
+        future.cancel(true);
+    }
+}
@@ -0,0 +1,73 @@
+package org.jfrog.bamboo.xray;
+
+import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Agent-wide registry of Xray scans running in the background.
+ * <p>
+ * An asynchronous Xray Scan task submits its scan here and lets the job continue with its next tasks. When the job
+ * completes, {@link org.jfrog.bamboo.processor.XrayScanGate} waits for the job's pending scans and enforces their
+ * results. The scans of a job whose results were never collected, e.g. because the job was stopped before the
+ * processor ran, are dropped once they expire.
+ */
+public class XrayScanManager {
+    private static final XrayScanManager INSTANCE = new XrayScanManager();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "artifactory-xray-scan");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, List<PendingXrayScan>> pendingScans = new ConcurrentHashMap<>();
+
+    XrayScanManager() {
+    }
+
+    public static XrayScanManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the scan in the background, and registers it as pending for the given job.
+     *
+     * @param jobResultKey The result key of the job running the scan.
+     * @param pendingScan  The pending scan details.
+     * @param scan         The scan to run.
+     */
+    public void submit(String jobResultKey, PendingXrayScan pendingScan, Callable<ArtifactoryXrayResponse> scan) {
+        removeExpiredScans();
+        pendingScan.setFuture(executor.submit(scan));
+        pendingScans.computeIfAbsent(jobResultKey, key -> new CopyOnWriteArrayList<>()).add(pendingScan);
+    }
+
+    /**
+     * Removes and returns the pending scans of the given job.
+     *
+     * @param jobResultKey The job result key.
+     * @return The pending scans, in submission order.
+     */
+    public List<PendingXrayScan> removePendingScans(String jobResultKey) {
+        List<PendingXrayScan> scans = pendingScans.remove(jobResultKey);
+        return scans == null ? Collections.emptyList() : new ArrayList<>(scans);
+    }
+
+    private void removeExpiredScans() {
+        pendingScans.values().removeIf(scans -> {
+            if (!scans.stream().allMatch(PendingXrayScan::isExpired)) {
+                return false;
+            }
+            scans.forEach(PendingXrayScan::cancel);
+            return true;
+        });
+    }
+
+    int getPendingJobs() {
+        return pendingScans.size();
+    }
+}
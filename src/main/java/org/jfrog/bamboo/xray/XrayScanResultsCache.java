@@ -0,0 +1,164 @@
+package org.jfrog.bamboo.xray;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.SystemUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.bamboo.util.PropertiesFileStore;
+import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
+import org.jfrog.build.client.artifactoryXrayResponse.Summary;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agent-wide persistent cache of Xray scan verdicts, keyed by the Xray server, the build name and the scanned build
+ * content fingerprint (see {@link BuildContentFingerprint}).
+ * <p>
+ * Allows skipping the scan of a build whose artifacts and dependencies were already scanned recently, for example
+ * when a build is rerun. The Xray watches, and so the policies, applied to a build are selected by its name, so a
+ * result is only reused for the same build name. Entries older than {@link #MAX_RETENTION_MILLIS} are removed.
+ */
+public class XrayScanResultsCache {
+    private static final String CACHE_FILE_NAME = "bamboo-artifactory-xray-results.properties";
+    private static final long MAX_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final String TIME_SUFFIX = ".time";
+    private static final String BUILD_NAME_SUFFIX = ".buildName";
+    private static final String BUILD_NUMBER_SUFFIX = ".buildNumber";
+    private static final String FAIL_BUILD_SUFFIX = ".failBuild";
+    private static final String TOTAL_ALERTS_SUFFIX = ".totalAlerts";
+    private static final String MESSAGE_SUFFIX = ".message";
+    private static final String DETAILS_URL_SUFFIX = ".moreDetailsUrl";
+
+    private static final XrayScanResultsCache INSTANCE = new XrayScanResultsCache(
+            new File(new File(SystemUtils.getUserHome(), ".jfrog"), CACHE_FILE_NAME));
+
+    private final PropertiesFileStore store;
+
+    XrayScanResultsCache(File cacheFile) {
+        this.store = new PropertiesFileStore(cacheFile, "Xray scan results cache");
+    }
+
+    public static XrayScanResultsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the latest scan result of a build with the given content, if it is not older than the given age.
+     *
+     * @param xrayUrl      The Xray (Artifactory) server URL.
+     * @param buildName    The build name.
+     * @param fingerprint  The build content fingerprint.
+     * @param maxAgeMillis The maximum age of the scan result.
+     * @return The cached scan result, or null if no fresh result exists.
+     */
+    @Nullable
+    public synchronized CachedScanResult get(@NotNull String xrayUrl, @NotNull String buildName,
+                                             @NotNull String fingerprint, long maxAgeMillis) {
+        String key = getKey(xrayUrl, buildName, fingerprint);
+        Properties cached = store.getProperties();
+        long scanTime = NumberUtils.toLong(cached.getProperty(key + TIME_SUFFIX));
+        if (scanTime <= 0 || System.currentTimeMillis() - scanTime > maxAgeMillis) {
+            return null;
+        }
+        Summary summary = new Summary(NumberUtils.toInt(cached.getProperty(key + TOTAL_ALERTS_SUFFIX)),
+                Boolean.parseBoolean(cached.getProperty(key + FAIL_BUILD_SUFFIX)),
+                cached.getProperty(key + MESSAGE_SUFFIX), cached.getProperty(key + DETAILS_URL_SUFFIX));
+        return new CachedScanResult(cached.getProperty(key + BUILD_NAME_SUFFIX),
+                cached.getProperty(key + BUILD_NUMBER_SUFFIX), scanTime,
+                new ArtifactoryXrayResponse(summary, new ArrayList<>(), new ArrayList<>()));
+    }
+
+    /**
+     * Stores the scan result of a build. Results without a summary are not stored. The result is keyed as in
+     * {@link #get}.
+     *
+     * @param xrayUrl     The Xray (Artifactory) server URL.
+     * @param buildName   The scanned build name.
+     * @param fingerprint The build content fingerprint.
+     * @param buildNumber The scanned build number.
+     * @param response    The scan result.
+     */
+    public synchronized void put(@NotNull String xrayUrl, @NotNull String buildName, @NotNull String fingerprint,
+                                 String buildNumber, ArtifactoryXrayResponse response) {
+        Summary summary = response.getSummary();
+        if (summary == null) {
+            return;
+        }
+        String key = getKey(xrayUrl, buildName, fingerprint);
+        String scanTime = String.valueOf(System.currentTimeMillis());
+        store.update(cached -> {
+            removeExpiredEntries(cached);
+            cached.setProperty(key + TIME_SUFFIX, scanTime);
+            cached.setProperty(key + BUILD_NAME_SUFFIX, buildName);
+            cached.setProperty(key + BUILD_NUMBER_SUFFIX, buildNumber);
+            cached.setProperty(key + FAIL_BUILD_SUFFIX, String.valueOf(summary.isFailBuild()));
+            cached.setProperty(key + TOTAL_ALERTS_SUFFIX, String.valueOf(summary.getTotalAlerts()));
+            setIfNotNull(cached, key + MESSAGE_SUFFIX, summary.getMessage());
+            setIfNotNull(cached, key + DETAILS_URL_SUFFIX, summary.getMoreDetailsUrl());
+        });
+    }
+
+    private static String getKey(String xrayUrl, String buildName, String fingerprint) {
+        return DigestUtils.sha256Hex((xrayUrl + "\n" + buildName + "\n" + fingerprint).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void setIfNotNull(Properties properties, String key, @Nullable String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        } else {
+            properties.remove(key);
+        }
+    }
+
+    private static void removeExpiredEntries(Properties cached) {
+        long now = System.currentTimeMillis();
+        for (String name : cached.stringPropertyNames()) {
+            if (!name.endsWith(TIME_SUFFIX) || now - NumberUtils.toLong(cached.getProperty(name)) <= MAX_RETENTION_MILLIS) {
+                continue;
+            }
+            String key = name.substring(0, name.length() - TIME_SUFFIX.length());
+            for (String suffix : new String[]{TIME_SUFFIX, BUILD_NAME_SUFFIX, BUILD_NUMBER_SUFFIX, FAIL_BUILD_SUFFIX,
+                    TOTAL_ALERTS_SUFFIX, MESSAGE_SUFFIX, DETAILS_URL_SUFFIX}) {
+                cached.remove(key + suffix);
+            }
+        }
+    }
+
+    /**
+     * A cached Xray scan result, and the build it was produced for.
+     */
+    public static class CachedScanResult {
+        private final String buildName;
+        private final String buildNumber;
+        private final long scanTime;
+        private final ArtifactoryXrayResponse response;
+
+        CachedScanResult(String buildName, String buildNumber, long scanTime, ArtifactoryXrayResponse response) {
+            this.buildName = buildName;
+            this.buildNumber = buildNumber;
+            this.scanTime = scanTime;
+            this.response = response;
+        }
+
+        public String getBuildName() {
+            return buildName;
+        }
+
+        public String getBuildNumber() {
+            return buildNumber;
+        }
+
+        public long getScanTime() {
+            return scanTime;
+        }
+
+        public ArtifactoryXrayResponse getResponse() {
+            return response;
+        }
+    }
+}
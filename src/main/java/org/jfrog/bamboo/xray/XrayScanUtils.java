@@ -0,0 +1,55 @@
+package org.jfrog.bamboo.xray;
+
+import com.atlassian.bamboo.build.logger.BuildLogger;
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
+import org.jfrog.build.client.artifactoryXrayResponse.Summary;
+
+import java.io.IOException;
+
+/**
+ * Xray scan results handling, shared by the Xray Scan task and the Xray scan gate.
+ */
+public class XrayScanUtils {
+
+    private XrayScanUtils() {
+    }
+
+    /**
+     * Logs the scan details link and returns the scan message.
+     *
+     * @param buildScanResult  The Xray scan response.
+     * @param failIfVulnerable True if a vulnerable build should fail.
+     * @param logger           The build logger.
+     * @return The scan message.
+     * @throws IOException If the build was found vulnerable and should fail.
+     */
+    public static String handleXrayScanResult(ArtifactoryXrayResponse buildScanResult, boolean failIfVulnerable,
+                                              BuildLogger logger) throws IOException {
+        Summary summary = getSummaryFromResponse(buildScanResult);
+        // Log scan link
+        if (StringUtils.isNotEmpty(summary.getMoreDetailsUrl())) {
+            logger.addBuildLogEntry("Xray scan details are available at: " + summary.getMoreDetailsUrl());
+        }
+
+        String scanMessage = summary.getMessage();
+        // Check if scan returned vulnerable
+        boolean isVulnerable = summary.isFailBuild();
+        if (isVulnerable) {
+            // Check if should fail build
+            if (failIfVulnerable) {
+                throw new IOException(scanMessage);
+            }
+        }
+
+        return scanMessage;
+    }
+
+    private static Summary getSummaryFromResponse(ArtifactoryXrayResponse buildScanResult) {
+        Summary summary = buildScanResult.getSummary();
+        if (summary == null) {
+            throw new IllegalStateException("Failed while processing the JSON result: 'summary' field is missing.");
+        }
+        return summary;
+    }
+}
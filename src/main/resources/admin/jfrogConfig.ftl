@@ -12,10 +12,13 @@
 <br/>
 </div>
 
-[@dj.tabContainer headingKeys=["artifactory.server.tab.title"] selectedTab='${"artifactory.server.tab.title"}']
+[@dj.tabContainer headingKeys=["artifactory.server.tab.title", "artifactory.traffic.tab.title"] selectedTab='${"artifactory.server.tab.title"}']
     [@dj.contentPane labelKey="artifactory.server.tab.title"]
         [@manageServersTab/]
     [/@dj.contentPane]
+    [@dj.contentPane labelKey="artifactory.traffic.tab.title"]
+        [@trafficMetricsTab/]
+    [/@dj.contentPane]
 [/@dj.tabContainer]
 </body>
 </html>
@@ -24,3 +27,7 @@
 [#macro manageServersTab]
     [@ww.action name="existingArtifactoryServer" executeResult="true"/]
 [/#macro]
+
+[#macro trafficMetricsTab]
+    [@ww.action name="artifactoryTrafficMetrics" executeResult="true"/]
+[/#macro]
@@ -0,0 +1,48 @@
+[#-- @ftlvariable name="action" type="org.jfrog.bamboo.admin.ArtifactoryTrafficMetricsAction" --]
+[#-- @ftlvariable name="" type="org.jfrog.bamboo.admin.ArtifactoryTrafficMetricsAction" --]
+
+[@ui.bambooPanel]
+<p>[@ww.text name="artifactory.traffic.description"/]</p>
+[#assign serversTraffic = action.getServersTraffic()/]
+[#if serversTraffic?has_content]
+    [#list serversTraffic as serverTraffic]
+        <h3>${action.getServerUrl(serverTraffic.serverId)}</h3>
+        [@trafficTable id="artifactoryTrafficOperations-${serverTraffic.serverId}" nameHeader="Operation"
+                       snapshots=serverTraffic.operations + [serverTraffic.total]/]
+        [@trafficTable id="artifactoryTrafficPlans-${serverTraffic.serverId}" nameHeader="Plan"
+                       snapshots=serverTraffic.plans/]
+    [/#list]
+[#else]
+    <p>[@ww.text name="artifactory.traffic.none"/]</p>
+[/#if]
+[/@ui.bambooPanel]
+
+[#macro trafficTable id nameHeader snapshots]
+<table id="${id}" class="aui">
+    <thead>
+    <tr>
+        <th>${nameHeader}</th>
+        <th>Requests</th>
+        <th>Size</th>
+        <th>Errors</th>
+        <th>Error rate</th>
+        <th>p50 (ms)</th>
+        <th>p95 (ms)</th>
+        <th>p99 (ms)</th>
+    </tr>
+    </thead>
+    [#list snapshots as snapshot]
+        <tr>
+            <td>${snapshot.name}</td>
+            <td>${snapshot.requests}</td>
+            <td>${snapshot.displayBytes}</td>
+            <td>${snapshot.errors}</td>
+            <td>${snapshot.errorRate?string("0.##")}%</td>
+            <td>${snapshot.latencyP50}</td>
+            <td>${snapshot.latencyP95}</td>
+            <td>${snapshot.latencyP99}</td>
+        </tr>
+    [/#list]
+</table>
+<br/>
+[/#macro]
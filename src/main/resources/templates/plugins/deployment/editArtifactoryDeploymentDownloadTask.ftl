@@ -17,13 +17,34 @@
             listKey='name' listValue='name' toggle='true'/]
         [/@ui.bambooSection]
 
-        [@ww.select labelKey='artifactory.task.generic.resolvePatternFileSpec' name='artifactory.generic.specSourceChoice' listKey='key' listValue='value' toggle='true' list=specSourceOptions/]
-        [@ui.bambooSection dependsOn='artifactory.generic.specSourceChoice' showOn='jobConfiguration']
-            [@ww.textarea name='artifactory.generic.jobConfiguration' labelKey='artifactory.task.generic.resolvePatternFileSpec.jobConfiguration' rows='10' cols='80' cssClass="long-field" /]
+        [@ww.radio labelKey='Download by' name='artifactory.generic.useSpecsChoice' listKey='key' listValue='value' toggle='true' list=downloadOptions/]
+        [@ui.bambooSection dependsOn='artifactory.generic.useSpecsChoice' showOn='specs']
+            [@ww.select labelKey='artifactory.task.generic.resolvePatternFileSpec' name='artifactory.generic.specSourceChoice' listKey='key' listValue='value' toggle='true' list=specSourceOptions/]
+            [@ui.bambooSection dependsOn='artifactory.generic.specSourceChoice' showOn='jobConfiguration']
+                [@ww.textarea name='artifactory.generic.jobConfiguration' labelKey='artifactory.task.generic.resolvePatternFileSpec.jobConfiguration' rows='10' cols='80' cssClass="long-field" /]
+            [/@ui.bambooSection]
+            [@ui.bambooSection dependsOn='artifactory.generic.specSourceChoice' showOn='file']
+                [@ww.textarea name='artifactory.generic.file' labelKey='artifactory.task.generic.resolvePatternFileSpec.file' rows='1' cols='80' cssClass="long-field" /]
+            [/@ui.bambooSection]
         [/@ui.bambooSection]
-        [@ui.bambooSection dependsOn='artifactory.generic.specSourceChoice' showOn='file']
-            [@ww.textarea name='artifactory.generic.file' labelKey='artifactory.task.generic.resolvePatternFileSpec.file' rows='1' cols='80' cssClass="long-field" /]
+        [@ui.bambooSection dependsOn='artifactory.generic.useSpecsChoice' showOn='buildArtifacts']
+            [@ww.textfield name='artifactory.generic.sourceBuildName' labelKey='artifactory.task.generic.sourceBuildName' required='true'/]
+            [@ww.textfield name='artifactory.generic.sourceBuildNumber' labelKey='artifactory.task.generic.sourceBuildNumber' required='true'/]
+            [@ww.textfield name='artifactory.generic.sourceBuildRepo' labelKey='artifactory.task.generic.sourceBuildRepo' required='true'/]
+        [/@ui.bambooSection]
+        [@ww.checkbox labelKey='artifactory.task.generic.useSharedDownloadCache' name='artifactory.generic.useSharedDownloadCache' toggle='true'/]
+        [@ui.bambooSection dependsOn='artifactory.generic.useSharedDownloadCache' showOn=true]
+            [@ww.textfield labelKey='artifactory.task.generic.sharedDownloadCacheMaxSize' name='artifactory.generic.sharedDownloadCacheMaxSize'/]
+            [@ww.checkbox labelKey='artifactory.task.generic.copyFromSharedDownloadCache' name='artifactory.generic.copyFromSharedDownloadCache'/]
         [/@ui.bambooSection]
 
     </div>
-[/@ui.bambooSection]
\ No newline at end of file
+[/@ui.bambooSection]
+
+<script>
+    var useSpecsDiv = document.getElementById('artifactory_generic_useSpecsChoicespecs').parentNode;
+    var useBuildArtifactsDiv = document.getElementById('artifactory_generic_useSpecsChoicebuildArtifacts').parentNode;
+    useSpecsDiv.style.float = useBuildArtifactsDiv.style.float = 'left';
+    useSpecsDiv.style.padding = useBuildArtifactsDiv.style.padding = '5px 0 0 20px';
+    useSpecsDiv.style.margin = useBuildArtifactsDiv.style.margin = '0 0 0 20px';
+</script>
\ No newline at end of file
@@ -17,7 +17,7 @@
             listKey='name' listValue='name' toggle='true'/]
         [/@ui.bambooSection]
 
-        [@ww.radio labelKey='Download by' name='artifactory.generic.useSpecsChoice' listKey='key' listValue='value' toggle='true' list=useSpecsOptions toggle='true'/]
+        [@ww.radio labelKey='Download by' name='artifactory.generic.useSpecsChoice' listKey='key' listValue='value' toggle='true' list=resolveOptions toggle='true'/]
         [@ui.bambooSection dependsOn='artifactory.generic.useSpecsChoice' showOn='specs']
             [@ww.select labelKey='artifactory.task.generic.resolvePatternFileSpec' name='artifactory.generic.specSourceChoice' listKey='key' listValue='value' toggle='true' list=specSourceOptions/]
             [@ui.bambooSection dependsOn='artifactory.generic.specSourceChoice' showOn='jobConfiguration']
@@ -27,8 +27,19 @@
                 [@ww.textarea name='artifactory.generic.file' labelKey='artifactory.task.generic.resolvePatternFileSpec.file' rows='1' cols='80' cssClass="long-field" /]
             [/@ui.bambooSection]
         [/@ui.bambooSection]
+        [@ui.bambooSection dependsOn='artifactory.generic.useSpecsChoice' showOn='buildArtifacts']
+            [@ww.textfield name='artifactory.generic.sourceBuildName' labelKey='artifactory.task.generic.sourceBuildName' required='true'/]
+            [@ww.textfield name='artifactory.generic.sourceBuildNumber' labelKey='artifactory.task.generic.sourceBuildNumber' required='true'/]
+            [@ww.textfield name='artifactory.generic.sourceBuildRepo' labelKey='artifactory.task.generic.sourceBuildRepo' required='true'/]
+        [/@ui.bambooSection]
         [@ui.bambooSection dependsOn='artifactory.generic.useSpecsChoice' showOn='legacyPatterns']
             [@ww.textarea name='artifactory.generic.resolvePattern' labelKey='artifactory.task.generic.resolvePattern' rows='10' cols='80' cssClass="long-field" /]
+            [@ww.textfield labelKey='artifactory.task.generic.segmentedDownloadThreshold' name='artifactory.generic.segmentedDownloadThreshold'/]
+        [/@ui.bambooSection]
+        [@ww.checkbox labelKey='artifactory.task.generic.useSharedDownloadCache' name='artifactory.generic.useSharedDownloadCache' toggle='true'/]
+        [@ui.bambooSection dependsOn='artifactory.generic.useSharedDownloadCache' showOn=true]
+            [@ww.textfield labelKey='artifactory.task.generic.sharedDownloadCacheMaxSize' name='artifactory.generic.sharedDownloadCacheMaxSize'/]
+            [@ww.checkbox labelKey='artifactory.task.generic.copyFromSharedDownloadCache' name='artifactory.generic.copyFromSharedDownloadCache'/]
         [/@ui.bambooSection]
         [@ww.checkbox name='buildInfoAggregation' toggle='true' cssStyle='visibility:hidden; position: absolute'/]
         [@ww.checkbox labelKey='artifactory.task.captureBuildInfo' name='captureBuildInfo' toggle='true'/]
@@ -43,8 +54,9 @@
 
 <script>
     var useSpecsDiv = document.getElementById('artifactory_generic_useSpecsChoicespecs').parentNode;
+    var useBuildArtifactsDiv = document.getElementById('artifactory_generic_useSpecsChoicebuildArtifacts').parentNode;
     var useSpecslegacyPatternDiv = document.getElementById('artifactory_generic_useSpecsChoicelegacyPatterns').parentNode;
-    useSpecsDiv.style.float = useSpecslegacyPatternDiv.style.float = 'left';
-    useSpecsDiv.style.padding = useSpecslegacyPatternDiv.style.padding = '5px 0 0 20px';
-    useSpecsDiv.style.margin = useSpecslegacyPatternDiv.style.margin = '0 0 0 20px';
+    useSpecsDiv.style.float = useBuildArtifactsDiv.style.float = useSpecslegacyPatternDiv.style.float = 'left';
+    useSpecsDiv.style.padding = useBuildArtifactsDiv.style.padding = useSpecslegacyPatternDiv.style.padding = '5px 0 0 20px';
+    useSpecsDiv.style.margin = useBuildArtifactsDiv.style.margin = useSpecslegacyPatternDiv.style.margin = '0 0 0 20px';
 </script>
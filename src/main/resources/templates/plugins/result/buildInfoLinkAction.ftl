@@ -31,5 +31,35 @@
     </div>
 [/#if]
 
+[#if !taskPhaseTimings.isEmpty()]
+    <div class="section">
+        <h2> Artifactory Task Timings </h2>
+        <table class="aui" style="margin-top: 1em; margin-left:1em; width: auto;">
+            <thead>
+                <tr>
+                    <th>Task</th>
+                    <th>Phase</th>
+                    <th>Duration (ms)</th>
+                    <th>Size</th>
+                    <th>Items</th>
+                </tr>
+            </thead>
+            <tbody>
+            [#list taskPhaseTimings as task]
+                [#list task.phaseTimings as phase]
+                    <tr>
+                        <td>[#if phase_index == 0]${task.taskName?html}[/#if]</td>
+                        <td>${phase.name}</td>
+                        <td>${phase.millis?c}</td>
+                        <td>${phase.displayBytes}</td>
+                        <td>[#if phase.items > 0]${phase.items?c}[/#if]</td>
+                    </tr>
+                [/#list]
+            [/#list]
+            </tbody>
+        </table>
+    </div>
+[/#if]
+
 </body>
 </html>
\ No newline at end of file
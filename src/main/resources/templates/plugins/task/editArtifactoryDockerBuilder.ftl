@@ -63,6 +63,7 @@
 [/@ui.bambooSection]
 
 
+[#include 'loadRepositoriesSnippet.ftl'/]
 <script type="text/javascript">
 
     function displayResolutionDockerArtifactoryConfigs(serverId) {
@@ -87,12 +88,8 @@
     }
 
     function loadDockerResolvingRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&resolvingRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, false,
+            function (json) {
                 resolveRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedResolutionRepoKey}';
@@ -110,7 +107,7 @@
                 resolveErrorDiv.innerHTML = '';
                 resolveErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the resolving repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -124,8 +121,7 @@
                 resolveErrorDiv.innerHTML = errorMessage;
                 resolveErrorDiv.style.display = '';
                 resolveRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function displayPublishingDockerArtifactoryConfigs(serverId) {
@@ -150,12 +146,8 @@
     }
 
     function loadDockerPublishRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&deployableRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, true,
+            function (json) {
                 publishRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedPublishingRepoKey}';
@@ -173,7 +165,7 @@
                 publishErrorDiv.innerHTML = '';
                 publishErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the publishing repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -187,8 +179,7 @@
                 publishErrorDiv.innerHTML = errorMessage;
                 publishErrorDiv.style.display = '';
                 publishRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function overridingCredentialsChanged(repositoryType) {
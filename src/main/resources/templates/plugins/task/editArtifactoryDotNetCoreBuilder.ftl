@@ -8,6 +8,10 @@ list=uiConfigBean.getExecutableLabels('dotnet') extraUtility=addExecutableLink r
 
 [@ui.bambooSection dependsOn='artifactory.task.dotnet.command.choice' showOn='restore']
     [@ww.textfield labelKey='artifactory.task.dotnetCore.header.dotnetCoreArguments' name='artifactory.task.dotnet.arguments'/]
+    [@ww.checkbox labelKey='artifactory.task.useSharedPackageCache' name='artifactory.task.dotnet.useSharedPackageCache' toggle='true'/]
+    [@ui.bambooSection dependsOn='artifactory.task.dotnet.useSharedPackageCache' showOn=true]
+        [@ww.textfield labelKey='artifactory.task.sharedPackageCacheMaxSize' name='artifactory.task.dotnet.sharedPackageCacheMaxSize'/]
+    [/@ui.bambooSection]
     [@ui.bambooSection id="resolutionSection"]
         [@ww.select labelKey='artifactory.task.dotnet.header.resolutionArtifactoryServerId' name='artifactory.task.dotnet.resolutionArtifactoryServerId' list=serverConfigManager.allServerConfigs
         listKey='id' listValue='url' onchange='javascript: displayResolutionDotnetCoreArtifactoryConfigs(this.value)' emptyOption=true toggle='true'/]
@@ -72,6 +76,7 @@ list=uiConfigBean.getExecutableLabels('dotnet') extraUtility=addExecutableLink r
     [#include 'editEnvVarsSnippet.ftl'/]
 [/@ui.bambooSection]
 
+[#include 'loadRepositoriesSnippet.ftl'/]
 <script type="text/javascript">
 
     function displayResolutionDotnetCoreArtifactoryConfigs(serverId) {
@@ -96,12 +101,8 @@ list=uiConfigBean.getExecutableLabels('dotnet') extraUtility=addExecutableLink r
     }
 
     function loadDotnetCoreResolvingRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&resolvingRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, false,
+            function (json) {
                 resolveRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedResolutionRepoKey}';
@@ -119,7 +120,7 @@ list=uiConfigBean.getExecutableLabels('dotnet') extraUtility=addExecutableLink r
                 resolveErrorDiv.innerHTML = '';
                 resolveErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the resolving repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -133,8 +134,7 @@ list=uiConfigBean.getExecutableLabels('dotnet') extraUtility=addExecutableLink r
                 resolveErrorDiv.innerHTML = errorMessage;
                 resolveErrorDiv.style.display = '';
                 resolveRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function displayPublishingDotnetCoreArtifactoryConfigs(serverId) {
@@ -159,12 +159,8 @@ list=uiConfigBean.getExecutableLabels('dotnet') extraUtility=addExecutableLink r
     }
 
     function loadDotnetCorePublishRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&deployableRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, true,
+            function (json) {
                 publishRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedPublishingRepoKey}';
@@ -182,7 +178,7 @@ list=uiConfigBean.getExecutableLabels('dotnet') extraUtility=addExecutableLink r
                 publishErrorDiv.innerHTML = '';
                 publishErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the publishing repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -196,8 +192,7 @@ list=uiConfigBean.getExecutableLabels('dotnet') extraUtility=addExecutableLink r
                 publishErrorDiv.innerHTML = errorMessage;
                 publishErrorDiv.style.display = '';
                 publishRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function overridingCredentialsChanged(repositoryType) {
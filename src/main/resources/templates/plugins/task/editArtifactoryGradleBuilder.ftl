@@ -129,6 +129,7 @@
     [/@ui.bambooSection]
 [/@ui.bambooSection]
 
+[#include 'loadRepositoriesSnippet.ftl'/]
 <script type="text/javascript">
 
     function displayGradleArtifactoryConfigs(serverId) {
@@ -156,12 +157,8 @@
     }
 
     function loadGradlePublishRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&deployableRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, true,
+            function (json) {
                 publishRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedPublishingRepoKey}';
@@ -179,7 +176,7 @@
                 publishErrorDiv.innerHTML = '';
                 publishErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the publishing repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -193,17 +190,12 @@
                 publishErrorDiv.innerHTML = errorMessage;
                 publishErrorDiv.style.display = '';
                 publishRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function loadGradleResolvingRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&resolvingRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, false,
+            function (json) {
                 resolveRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedResolutionRepoKey}';
@@ -221,7 +213,7 @@
                 resolveErrorDiv.innerHTML = '';
                 resolveErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the resolving repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -235,8 +227,7 @@
                 resolveErrorDiv.innerHTML = errorMessage;
                 resolveErrorDiv.style.display = '';
                 resolveRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function overridingCredentialsChanged() {
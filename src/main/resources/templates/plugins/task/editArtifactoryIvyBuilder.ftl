@@ -91,6 +91,7 @@
     </div>
 [/@ui.bambooSection]
 
+[#include 'loadRepositoriesSnippet.ftl'/]
 <script>
 
     function displayIvyArtifactoryConfigs(serverId) {
@@ -115,12 +116,8 @@
     }
 
     function loadIvyRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&deployableRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, true,
+            function (json) {
                 repoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedRepoKey}';
@@ -138,7 +135,7 @@
                 errorDiv.innerHTML = '';
                 errorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the target repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -152,8 +149,7 @@
                 errorDiv.innerHTML = errorMessage;
                 errorDiv.style.display = '';
                 repoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function overridingCredentialsChanged() {
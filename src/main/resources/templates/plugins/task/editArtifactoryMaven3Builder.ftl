@@ -119,6 +119,7 @@
     [/@ui.bambooSection]
 [/@ui.bambooSection]
 
+[#include 'loadRepositoriesSnippet.ftl'/]
 <script>
 
     function displayMaven3ArtifactoryConfigs(serverId) {
@@ -168,12 +169,8 @@
 
     // Execute deployment-repositories get request, populate repository options and show error if required.
     function loadMaven3RepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&deployableRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, true,
+            function (json) {
                 deployRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedRepoKey}';
@@ -191,7 +188,7 @@
                 deployErrorDiv.innerHTML = '';
                 deployErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the target repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -205,18 +202,13 @@
                 deployErrorDiv.innerHTML = errorMessage;
                 deployErrorDiv.style.display = '';
                 deployRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     // Execute resolution-repositories get request, populate repository options and show error if required.
     function loadMaven3ResolvingRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&resolvingRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, false,
+            function (json) {
                 resolveRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedResolutionRepoKey}';
@@ -234,7 +226,7 @@
                 resolveErrorDiv.innerHTML = '';
                 resolveErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the resolution repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -248,8 +240,7 @@
                 resolveErrorDiv.innerHTML = errorMessage;
                 resolveErrorDiv.style.display = '';
                 resolveRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function overridingCredentialsChanged(repositoryType) {
@@ -1,6 +1,10 @@
 [@ww.select labelKey='artifactory.task.npm.header.command.choice' name='artifactory.task.npm.command.choice' listKey='key' listValue='value' toggle='true' list=npmCommandOptions/]
 [@ui.bambooSection dependsOn='artifactory.task.npm.command.choice' showOn='install']
     [@ww.textfield labelKey='artifactory.task.npm.header.install.npmArguments' name='artifactory.task.npm.install.npmArguments'/]
+    [@ww.checkbox labelKey='artifactory.task.useSharedPackageCache' name='artifactory.task.npm.useSharedPackageCache' toggle='true'/]
+    [@ui.bambooSection dependsOn='artifactory.task.npm.useSharedPackageCache' showOn=true]
+        [@ww.textfield labelKey='artifactory.task.sharedPackageCacheMaxSize' name='artifactory.task.npm.sharedPackageCacheMaxSize'/]
+    [/@ui.bambooSection]
 [/@ui.bambooSection]
 
 [@ww.textfield labelKey='artifactory.task.npm.header.workingSubdirectory' name='artifactory.task.npm.workingSubdirectory'/]
@@ -70,6 +74,7 @@ list=uiConfigBean.getExecutableLabels('npm') extraUtility=addExecutableLink requ
 [/@ui.bambooSection]
 
 
+[#include 'loadRepositoriesSnippet.ftl'/]
 <script type="text/javascript">
 
     function displayResolutionNpmArtifactoryConfigs(serverId) {
@@ -94,12 +99,8 @@ list=uiConfigBean.getExecutableLabels('npm') extraUtility=addExecutableLink requ
     }
 
     function loadNpmResolvingRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&resolvingRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, false,
+            function (json) {
                 resolveRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedResolutionRepoKey}';
@@ -117,7 +118,7 @@ list=uiConfigBean.getExecutableLabels('npm') extraUtility=addExecutableLink requ
                 resolveErrorDiv.innerHTML = '';
                 resolveErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the resolving repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -131,8 +132,7 @@ list=uiConfigBean.getExecutableLabels('npm') extraUtility=addExecutableLink requ
                 resolveErrorDiv.innerHTML = errorMessage;
                 resolveErrorDiv.style.display = '';
                 resolveRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function displayPublishingNpmArtifactoryConfigs(serverId) {
@@ -157,12 +157,8 @@ list=uiConfigBean.getExecutableLabels('npm') extraUtility=addExecutableLink requ
     }
 
     function loadNpmPublishRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&deployableRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, true,
+            function (json) {
                 publishRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedPublishingRepoKey}';
@@ -180,7 +176,7 @@ list=uiConfigBean.getExecutableLabels('npm') extraUtility=addExecutableLink requ
                 publishErrorDiv.innerHTML = '';
                 publishErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the publishing repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -194,8 +190,7 @@ list=uiConfigBean.getExecutableLabels('npm') extraUtility=addExecutableLink requ
                 publishErrorDiv.innerHTML = errorMessage;
                 publishErrorDiv.style.display = '';
                 publishRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function overridingCredentialsChanged(repositoryType) {
@@ -8,6 +8,10 @@ list=uiConfigBean.getExecutableLabels('nuget') extraUtility=addExecutableLink re
 
 [@ui.bambooSection dependsOn='artifactory.task.dotnet.command.choice' showOn='restore']
     [@ww.textfield labelKey='artifactory.task.nuget.header.nugetArguments' name='artifactory.task.dotnet.arguments'/]
+    [@ww.checkbox labelKey='artifactory.task.useSharedPackageCache' name='artifactory.task.dotnet.useSharedPackageCache' toggle='true'/]
+    [@ui.bambooSection dependsOn='artifactory.task.dotnet.useSharedPackageCache' showOn=true]
+        [@ww.textfield labelKey='artifactory.task.sharedPackageCacheMaxSize' name='artifactory.task.dotnet.sharedPackageCacheMaxSize'/]
+    [/@ui.bambooSection]
     [@ui.bambooSection id="resolutionSection"]
         [@ww.select labelKey='artifactory.task.dotnet.header.resolutionArtifactoryServerId' name='artifactory.task.dotnet.resolutionArtifactoryServerId' list=serverConfigManager.allServerConfigs
         listKey='id' listValue='url' onchange='javascript: displayResolutionNugetArtifactoryConfigs(this.value)' emptyOption=true toggle='true'/]
@@ -73,6 +77,7 @@ list=uiConfigBean.getExecutableLabels('nuget') extraUtility=addExecutableLink re
     [#include 'editEnvVarsSnippet.ftl'/]
 [/@ui.bambooSection]
 
+[#include 'loadRepositoriesSnippet.ftl'/]
 <script type="text/javascript">
 
     function displayResolutionNugetArtifactoryConfigs(serverId) {
@@ -97,12 +102,8 @@ list=uiConfigBean.getExecutableLabels('nuget') extraUtility=addExecutableLink re
     }
 
     function loadNugetResolvingRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&resolvingRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, false,
+            function (json) {
                 resolveRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedResolutionRepoKey}';
@@ -120,7 +121,7 @@ list=uiConfigBean.getExecutableLabels('nuget') extraUtility=addExecutableLink re
                 resolveErrorDiv.innerHTML = '';
                 resolveErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the resolving repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -134,8 +135,7 @@ list=uiConfigBean.getExecutableLabels('nuget') extraUtility=addExecutableLink re
                 resolveErrorDiv.innerHTML = errorMessage;
                 resolveErrorDiv.style.display = '';
                 resolveRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function displayPublishingNugetArtifactoryConfigs(serverId) {
@@ -160,12 +160,8 @@ list=uiConfigBean.getExecutableLabels('nuget') extraUtility=addExecutableLink re
     }
 
     function loadNugetPublishRepoKeys(serverId, credentialsUserName, credentialsPassword) {
-        AJS.$.ajax({
-            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet?serverId=' + serverId +
-                '&deployableRepos=true&user=' + credentialsUserName + '&password=' + credentialsPassword,
-            dataType: 'json',
-            cache: false,
-            success: function (json) {
+        loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, true,
+            function (json) {
                 publishRepoSelect.innerHTML = '';
                 if (serverId >= 0) {
                     var selectedRepoKey = '${selectedPublishingRepoKey}';
@@ -183,7 +179,7 @@ list=uiConfigBean.getExecutableLabels('nuget') extraUtility=addExecutableLink re
                 publishErrorDiv.innerHTML = '';
                 publishErrorDiv.style.display = 'none';
             },
-            error: function (XMLHttpRequest, textStatus, errorThrown) {
+            function (XMLHttpRequest) {
                 var errorMessage = 'An error has occurred while retrieving the publishing repository list.<br>' +
                     'Response: ' + XMLHttpRequest.status + ', ' + XMLHttpRequest.statusText + '.<br>';
                 if (XMLHttpRequest.status == 404) {
@@ -197,8 +193,7 @@ list=uiConfigBean.getExecutableLabels('nuget') extraUtility=addExecutableLink re
                 publishErrorDiv.innerHTML = errorMessage;
                 publishErrorDiv.style.display = '';
                 publishRepoSelect.innerHTML = '';
-            }
-        });
+            });
     }
 
     function overridingCredentialsChanged(repositoryType) {
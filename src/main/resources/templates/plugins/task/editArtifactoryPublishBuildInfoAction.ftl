@@ -22,6 +22,7 @@
             listKey='name' listValue='name' toggle='true'/]
         [/@ui.bambooSection]
         [#include 'editBuildNameNumberSnippet.ftl'/]
+        [@ww.checkbox labelKey='artifactory.task.publishBuildInfo.publishAllBuilds' name='artifactory.task.publishBuildInfo.publishAllBuilds'/]
 
     </div>
 [/@ui.bambooSection]
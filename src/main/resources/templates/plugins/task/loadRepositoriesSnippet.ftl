@@ -0,0 +1,76 @@
+[#--Batched repositories loading--]
+<script type="text/javascript">
+    // Repositories requests issued while the page is set up are sent to the Artifactory Configuration Servlet in a
+    // single batched request, rather than in one request per repository list.
+    var artifactoryRepositoriesQueue = [];
+
+    // Queue a repositories request. success(repoKeys) or error(XMLHttpRequest) is called when the batch returns.
+    function loadArtifactoryRepositories(serverId, credentialsUserName, credentialsPassword, deployable, success, error) {
+        artifactoryRepositoriesQueue.push({
+            serverId: serverId,
+            user: credentialsUserName,
+            password: credentialsPassword,
+            deployable: deployable,
+            success: success,
+            error: error
+        });
+        if (artifactoryRepositoriesQueue.length == 1) {
+            setTimeout(sendArtifactoryRepositoriesQueue, 0);
+        }
+    }
+
+    function sendArtifactoryRepositoriesQueue() {
+        var queued = artifactoryRepositoriesQueue;
+        artifactoryRepositoriesQueue = [];
+        // Merge deployable and resolving requests for the same server and credentials into one entry.
+        var entries = [];
+        var entryIndexes = [];
+        for (var i = 0; i < queued.length; i++) {
+            var request = queued[i];
+            var entryIndex = -1;
+            for (var j = 0; j < entries.length; j++) {
+                if (entries[j].serverId == request.serverId && entries[j].user == request.user &&
+                    entries[j].password == request.password) {
+                    entryIndex = j;
+                    break;
+                }
+            }
+            if (entryIndex < 0) {
+                entryIndex = entries.length;
+                entries.push({serverId: request.serverId, user: request.user, password: request.password});
+            }
+            if (request.deployable) {
+                entries[entryIndex].deployableRepos = true;
+            } else {
+                entries[entryIndex].resolvingRepos = true;
+            }
+            entryIndexes.push(entryIndex);
+        }
+
+        AJS.$.ajax({
+            url: '${req.contextPath}/plugins/servlet/artifactoryConfigServlet',
+            type: 'POST',
+            contentType: 'application/json',
+            data: JSON.stringify(entries),
+            dataType: 'json',
+            cache: false,
+            success: function (json) {
+                for (var i = 0; i < queued.length; i++) {
+                    var request = queued[i];
+                    var response = json[entryIndexes[i]];
+                    var repoKeys = request.deployable ? response.deployableRepos : response.resolvingRepos;
+                    if (repoKeys) {
+                        request.success(repoKeys);
+                    } else {
+                        request.error({status: response.status, statusText: response.statusText});
+                    }
+                }
+            },
+            error: function (XMLHttpRequest) {
+                for (var i = 0; i < queued.length; i++) {
+                    queued[i].error(XMLHttpRequest);
+                }
+            }
+        });
+    }
+</script>
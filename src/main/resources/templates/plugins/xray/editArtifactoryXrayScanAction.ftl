@@ -26,5 +26,15 @@
 
         [@ww.checkbox name='artifactory.xrayScan.failIfVulnerable' labelKey='artifactory.task.xrayScan.failIfVulnerable' toggle='true' /]
 
+        [@ww.checkbox name='artifactory.xrayScan.asyncScan' labelKey='artifactory.task.xrayScan.asyncScan' toggle='true' /]
+        [@ui.bambooSection dependsOn='artifactory.xrayScan.asyncScan' showOn=true]
+            [@ww.textfield name='artifactory.xrayScan.scanTimeout' labelKey='artifactory.task.xrayScan.scanTimeout'/]
+        [/@ui.bambooSection]
+
+        [@ww.checkbox name='artifactory.xrayScan.reuseScanResults' labelKey='artifactory.task.xrayScan.reuseScanResults' toggle='true' /]
+        [@ui.bambooSection dependsOn='artifactory.xrayScan.reuseScanResults' showOn=true]
+            [@ww.textfield name='artifactory.xrayScan.scanResultsMaxAge' labelKey='artifactory.task.xrayScan.scanResultsMaxAge'/]
+        [/@ui.bambooSection]
+
     </div>
 [/@ui.bambooSection]
@@ -0,0 +1,145 @@
+package org.jfrog.bamboo.admin;
+
+import com.atlassian.bamboo.variable.CustomVariableContext;
+import com.atlassian.bandana.BandanaManager;
+import com.atlassian.sal.api.user.UserKey;
+import com.atlassian.sal.api.user.UserManager;
+import com.atlassian.sal.api.user.UserProfile;
+import org.codehaus.jackson.JsonNode;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn.Endpoint;
+import org.jfrog.bamboo.util.JsonUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * The batched repositories request of the task configuration pages, answered from Artifactory stand-ins.
+ */
+public class ArtifactoryConfigServletTest {
+    private static final long LATENCY_MILLIS = 500;
+
+    private ArtifactoryStandIn artifactory;
+    private ArtifactoryStandIn unauthorizedArtifactory;
+    private ArtifactoryConfigServlet servlet;
+    private final StringWriter responseBody = new StringWriter();
+    private final AtomicInteger errorStatus = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        artifactory = new ArtifactoryStandIn().withRepository("libs-release-local")
+                .withRepository("libs-release", "virtual").withLatency(LATENCY_MILLIS).start();
+        unauthorizedArtifactory = new ArtifactoryStandIn().withRepository("libs-release-local")
+                .failRequests(Endpoint.REPOSITORIES, 401, 1).start();
+
+        ServerConfigManager serverConfigManager = new ServerConfigManager();
+        serverConfigManager.setBandanaManager(standIn(BandanaManager.class, (method, args) -> null));
+        serverConfigManager.setCustomVariableContext(standIn(CustomVariableContext.class, (method, args) ->
+                "substituteString".equals(method.getName()) ? args[0] : null));
+        // Server IDs 0 and 1
+        serverConfigManager.addServerConfiguration(new ServerConfig(0, artifactory.getUrl(), "", "", 300));
+        serverConfigManager.addServerConfiguration(new ServerConfig(0, unauthorizedArtifactory.getUrl(), "", "", 300));
+
+        UserProfile profile = standIn(UserProfile.class, (method, args) ->
+                "getUserKey".equals(method.getName()) ? new UserKey("admin") : null);
+        servlet = new ArtifactoryConfigServlet(serverConfigManager, standIn(UserManager.class, (method, args) ->
+                "getRemoteUser".equals(method.getName()) ? profile : null));
+    }
+
+    @After
+    public void tearDown() {
+        servlet.destroy();
+        artifactory.close();
+        unauthorizedArtifactory.close();
+    }
+
+    @Test
+    public void shouldAnswerAllRequestsInOneResponse() throws Exception {
+        long start = System.nanoTime();
+        JsonNode responses = post("[" +
+                "{\"serverId\": 0, \"deployableRepos\": true, \"resolvingRepos\": true}," +
+                "{\"serverId\": 0, \"user\": \"admin\", \"password\": \"password\", \"deployableRepos\": true, \"resolvingRepos\": true}," +
+                "{\"serverId\": 1, \"deployableRepos\": true}," +
+                "{\"serverId\": 7, \"resolvingRepos\": true}]");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(0, errorStatus.get());
+        assertEquals(4, responses.size());
+        for (int i = 0; i < 2; i++) {
+            JsonNode response = responses.get(i);
+            assertEquals(0, response.path("serverId").getLongValue());
+            assertEquals("[\"libs-release-local\"]", response.path("deployableRepos").toString());
+            assertEquals("[\"libs-release\"]", response.path("resolvingRepos").toString());
+            assertEquals(0, response.path("status").getIntValue());
+        }
+        // The failure of a server is reported in its own entry
+        JsonNode unauthorized = responses.get(2);
+        assertEquals(1, unauthorized.path("serverId").getLongValue());
+        assertTrue(unauthorized.path("deployableRepos").isNull());
+        assertEquals(401, unauthorized.path("status").getIntValue());
+        assertEquals("Unauthorized", unauthorized.path("statusText").getTextValue());
+        JsonNode notFound = responses.get(3);
+        assertEquals(7, notFound.path("serverId").getLongValue());
+        assertTrue(notFound.path("resolvingRepos").isNull());
+        assertEquals(404, notFound.path("status").getIntValue());
+        assertEquals("Not Found", notFound.path("statusText").getTextValue());
+
+        // The four lists of the slow server are retrieved concurrently, rather than one after the other
+        assertEquals(4, artifactory.getRequestCount(Endpoint.REPOSITORIES));
+        assertTrue(artifactory.getMaxConcurrentRequests(Endpoint.REPOSITORIES) > 1);
+        assertTrue("Elapsed " + elapsedMillis + " ms", elapsedMillis < 4 * LATENCY_MILLIS);
+    }
+
+    @Test
+    public void shouldRejectInvalidRequestBody() throws Exception {
+        post("{\"serverId\": 0}");
+
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, errorStatus.get());
+        assertEquals(0, artifactory.getRequestCount(Endpoint.REPOSITORIES));
+    }
+
+    private JsonNode post(String body) throws Exception {
+        HttpServletRequest request = standIn(HttpServletRequest.class, (method, args) ->
+                "getReader".equals(method.getName()) ? new BufferedReader(new StringReader(body)) : null);
+        HttpServletResponse response = standIn(HttpServletResponse.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getWriter":
+                    return new PrintWriter(responseBody);
+                case "sendError":
+                    errorStatus.set((Integer) args[0]);
+                    return null;
+                default:
+                    return null;
+            }
+        });
+        servlet.doPost(request, response);
+        return errorStatus.get() == 0 ? JsonUtils.getMapper().readTree(responseBody.toString()) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T standIn(Class<T> type, BiFunction<Method, Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object value = answer.apply(method, args);
+            if (value == null && method.getReturnType().isPrimitive() && method.getReturnType() != void.class) {
+                return Array.get(Array.newInstance(method.getReturnType(), 1), 0);
+            }
+            return value;
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package org.jfrog.bamboo.admin;
+
+import com.atlassian.bandana.BandanaManager;
+import org.jfrog.bamboo.security.EncryptionHelper;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Loading of the Artifactory servers configuration, stored in a Bandana stand-in holding a single value.
+ */
+public class ServerConfigManagerTest {
+    private static final Pattern PASSWORD = Pattern.compile("<password>(.*?)</password>");
+
+    private final AtomicReference<Object> storedConfig = new AtomicReference<>();
+    private final AtomicInteger stores = new AtomicInteger();
+
+    @Test
+    public void shouldEncryptLegacyPasswordsAgainOnLoad() {
+        createManager().addServerConfiguration(new ServerConfig(0, "https://acme.jfrog.io/artifactory", "admin", "password", 300));
+        // Stored by a previous version of the plugin, without the encryption prefix
+        String password = getStoredPassword();
+        setStoredPassword(password.substring(password.indexOf('}') + 1));
+        assertTrue(EncryptionHelper.isLegacyConfigData(getStoredPassword()));
+        stores.set(0);
+
+        assertEquals("password", createManager().getAllServerConfigs().get(0).getPassword());
+
+        assertEquals(1, stores.get());
+        assertFalse(EncryptionHelper.isLegacyConfigData(getStoredPassword()));
+        assertEquals("password", EncryptionHelper.decryptIfNeeded(getStoredPassword()));
+    }
+
+    @Test
+    public void shouldNotStoreConfigurationWithoutLegacyPasswords() {
+        createManager().addServerConfiguration(new ServerConfig(0, "https://acme.jfrog.io/artifactory", "admin", "password", 300));
+        stores.set(0);
+
+        assertEquals("password", createManager().getAllServerConfigs().get(0).getPassword());
+
+        assertEquals(0, stores.get());
+    }
+
+    private ServerConfigManager createManager() {
+        ServerConfigManager serverConfigManager = new ServerConfigManager();
+        serverConfigManager.setBandanaManager((BandanaManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{BandanaManager.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getValue":
+                            return storedConfig.get();
+                        case "setValue":
+                            stores.incrementAndGet();
+                            storedConfig.set(args[2]);
+                            return null;
+                        default:
+                            return null;
+                    }
+                }));
+        return serverConfigManager;
+    }
+
+    /**
+     * @return The stored password of the only server, the values of the stored configuration are Base64 encoded.
+     */
+    private String getStoredPassword() {
+        Matcher matcher = PASSWORD.matcher((String) storedConfig.get());
+        assertTrue(matcher.find());
+        return new String(Base64.getDecoder().decode(matcher.group(1)), StandardCharsets.UTF_8);
+    }
+
+    private void setStoredPassword(String password) {
+        String encoded = Base64.getEncoder().encodeToString(password.getBytes(StandardCharsets.UTF_8));
+        storedConfig.set(PASSWORD.matcher((String) storedConfig.get()).replaceFirst("<password>" + encoded + "</password>"));
+    }
+}
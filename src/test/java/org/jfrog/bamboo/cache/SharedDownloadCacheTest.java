@@ -0,0 +1,212 @@
+package org.jfrog.bamboo.cache;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.bamboo.util.generic.BuildArtifactsDownloader;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class SharedDownloadCacheTest {
+    private static final String REPO = "generic-local";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SharedDownloadCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        cache = new SharedDownloadCache(temporaryFolder.newFolder("cache"));
+    }
+
+    @Test
+    public void shouldNotTransferArtifactsResolvedByAnotherPlan() throws IOException {
+        try (ArtifactoryStandIn artifactory = new ArtifactoryStandIn().withRepository(REPO).start();
+             ArtifactoryDependenciesClient client = new ArtifactoryDependenciesClient(artifactory.getUrl(), "", "", new NullLog())) {
+            List<Artifact> artifacts = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                byte[] content = createContent(64 * 1024 + i);
+                artifactory.addFile(REPO, "sdk/bundle-" + i + ".zip", content, null);
+                artifacts.add(new ArtifactBuilder("bundle-" + i + ".zip").remotePath("sdk/bundle-" + i + ".zip")
+                        .sha1(DigestUtils.sha1Hex(content)).md5(DigestUtils.md5Hex(content)).build());
+            }
+            Build build = new BuildInfoBuilder("sdk").number("1").started("2020-01-01T00:00:00.000+0000")
+                    .addModule(new ModuleBuilder().id("sdk").artifacts(artifacts).build()).build();
+
+            File firstPlan = temporaryFolder.newFolder("PROJ-FIRST");
+            download(client, build, firstPlan);
+            assertTrue(artifactory.getBytesSent() > 5 * 64 * 1024);
+
+            artifactory.resetCounters();
+            File secondPlan = temporaryFolder.newFolder("PROJ-SECOND");
+            assertEquals(5, download(client, build, secondPlan).size());
+            assertEquals("The second plan should take the artifacts from the cache", 0, artifactory.getBytesSent());
+            for (int i = 0; i < 5; i++) {
+                File file = new File(secondPlan, "sdk/bundle-" + i + ".zip");
+                byte[] content = artifactory.getFile(REPO, "sdk/bundle-" + i + ".zip");
+                assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+                // Linked to the entry, while the downloaded file of the first plan was copied into the cache
+                assertTrue(Files.isSameFile(file.toPath(), cache.getEntry(DigestUtils.sha1Hex(content)).toPath()));
+                assertFalse(Files.isSameFile(file.toPath(), new File(firstPlan, "sdk/bundle-" + i + ".zip").toPath()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldLinkReadOnlyEntries() throws IOException {
+        File downloaded = writeFile(new File(temporaryFolder.getRoot(), "first/a.txt"), "a");
+        String sha1 = DigestUtils.sha1Hex("a");
+        cache.store(downloaded, sha1);
+        // The build modifies the downloaded file in place
+        Files.write(downloaded.toPath(), "modified".getBytes(StandardCharsets.UTF_8));
+
+        File target = new File(temporaryFolder.getRoot(), "second/a.txt");
+        assertTrue(cache.materialize(sha1, target));
+        assertEquals("a", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+        assertTrue(Files.isSameFile(target.toPath(), cache.getEntry(sha1).toPath()));
+        assertFalse(isWritable(target));
+        assertTrue(isWritable(downloaded));
+    }
+
+    @Test
+    public void shouldCopyEntriesIfConfigured() throws IOException {
+        String sha1 = DigestUtils.sha1Hex("a");
+        cache.store(writeFile(new File(temporaryFolder.getRoot(), "first/a.txt"), "a"), sha1);
+        SharedDownloadCache copyingCache = new SharedDownloadCache(new File(temporaryFolder.getRoot(), "cache"), true);
+
+        File target = new File(temporaryFolder.getRoot(), "second/a.txt");
+        assertTrue(copyingCache.materialize(sha1, target));
+        assertFalse(Files.isSameFile(target.toPath(), cache.getEntry(sha1).toPath()));
+        assertTrue(isWritable(target));
+        Files.write(target.toPath(), "modified".getBytes(StandardCharsets.UTF_8));
+
+        File other = new File(temporaryFolder.getRoot(), "third/a.txt");
+        assertTrue(cache.materialize(sha1, other));
+        assertEquals("a", new String(Files.readAllBytes(other.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldRemoveCorruptedEntry() throws IOException {
+        String sha1 = DigestUtils.sha1Hex("a");
+        cache.store(writeFile(new File(temporaryFolder.getRoot(), "first/a.txt"), "a"), sha1);
+        assertTrue(cache.getEntry(sha1).setWritable(true));
+        Files.write(cache.getEntry(sha1).toPath(), "corrupted".getBytes(StandardCharsets.UTF_8));
+
+        File target = new File(temporaryFolder.getRoot(), "second/a.txt");
+        assertFalse(cache.materialize(sha1, target));
+        assertFalse(target.exists());
+        assertFalse(cache.getEntry(sha1).exists());
+        assertArrayEquals(new String[0], target.getParentFile().list());
+
+        cache.store(writeFile(new File(temporaryFolder.getRoot(), "third/a.txt"), "a"), sha1);
+        assertTrue(cache.materialize(sha1, target));
+        assertEquals("a", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldIgnoreInvalidChecksums() throws IOException {
+        File file = writeFile(new File(temporaryFolder.getRoot(), "a.txt"), "a");
+        cache.store(file, "../../a");
+        cache.store(file, null);
+        assertNull(cache.getEntry("../../a"));
+        assertFalse(cache.materialize("../../a", new File(temporaryFolder.getRoot(), "b.txt")));
+        assertFalse(cache.materialize(DigestUtils.sha1Hex("missing"), new File(temporaryFolder.getRoot(), "b.txt")));
+        assertEquals(DigestUtils.sha1Hex("A"), cache.getEntry(DigestUtils.sha1Hex("A").toUpperCase()).getName());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() throws IOException {
+        String[] contents = {"old", "recent", "new"};
+        for (int i = 0; i < contents.length; i++) {
+            String sha1 = DigestUtils.sha1Hex(contents[i]);
+            cache.store(writeFile(temporaryFolder.newFile(), contents[i]), sha1);
+            assertTrue(cache.getEntry(sha1).setLastModified(1000L * (i + 1)));
+        }
+        // Using an entry makes it the most recently used
+        assertTrue(cache.materialize(DigestUtils.sha1Hex("old"), temporaryFolder.newFile()));
+
+        assertEquals(0, cache.evictIfNeeded(100));
+        assertEquals(1, cache.evictIfNeeded(11));
+        assertFalse(cache.getEntry(DigestUtils.sha1Hex("recent")).exists());
+        assertTrue(cache.getEntry(DigestUtils.sha1Hex("old")).exists());
+        assertTrue(cache.getEntry(DigestUtils.sha1Hex("new")).exists());
+    }
+
+    @Test
+    public void shouldStoreSameContentConcurrently() throws Exception {
+        byte[] content = createContent(1024 * 1024);
+        String sha1 = DigestUtils.sha1Hex(content);
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(writers);
+            List<Future<Boolean>> materialized = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                File file = new File(temporaryFolder.getRoot(), "writer" + i + "/sdk.zip");
+                Files.createDirectories(file.getParentFile().toPath());
+                Files.write(file.toPath(), content);
+                materialized.add(executor.submit(() -> {
+                    barrier.await();
+                    cache.store(file, sha1);
+                    return cache.materialize(sha1, new File(file.getParentFile(), "copy.zip"));
+                }));
+            }
+            for (Future<Boolean> future : materialized) {
+                assertTrue(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertArrayEquals(content, Files.readAllBytes(cache.getEntry(sha1).toPath()));
+        assertArrayEquals(new String[0], new File(temporaryFolder.getRoot(), "cache/.tmp").list());
+    }
+
+    private List<Dependency> download(ArtifactoryDependenciesClient client, Build build, File workingDirectory) throws IOException {
+        BuildArtifactsDownloader downloader = new BuildArtifactsDownloader(client, workingDirectory, new NullLog());
+        downloader.setDownloadCache(cache, 1024 * 1024 * 1024);
+        return downloader.download(build, REPO);
+    }
+
+    /**
+     * Checks the permissions rather than the access, which is always granted to root.
+     */
+    private static boolean isWritable(File file) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(file.toPath(), PosixFileAttributeView.class);
+        return view == null ? file.canWrite() : view.readAttributes().permissions().contains(PosixFilePermission.OWNER_WRITE);
+    }
+
+    private static File writeFile(File file, String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,165 @@
+package org.jfrog.bamboo.cache;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jfrog.bamboo.util.PropertiesFileStore;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SharedPackageCacheTest {
+    private static final long MAX_SIZE = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private RegistryStub registry;
+    private SharedPackageCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        registry = new RegistryStub();
+        cache = new SharedPackageCache(SharedPackageCache.Type.NUGET, temporaryFolder.newFolder("nuget"));
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() throws IOException {
+        List<String> packages = Arrays.asList("newtonsoft.json/12.0.3", "nunit/3.12.0", "moq/4.14.5");
+
+        SharedPackageCache.Statistics first = restore(packages, MAX_SIZE);
+        assertEquals(0, first.getHits());
+        assertEquals(3, first.getMisses());
+        assertTrue(first.getMissedBytes() >= 3 * RegistryStub.PACKAGE_SIZE);
+        assertEquals(3, registry.downloads);
+
+        SharedPackageCache.Statistics second = restore(Arrays.asList("newtonsoft.json/12.0.3", "nunit/3.12.0", "xunit/2.4.1"), MAX_SIZE);
+        assertEquals(2, second.getHits());
+        assertEquals(1, second.getMisses());
+        assertEquals("Repeated restores should not download again", 4, registry.downloads);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() throws IOException {
+        restore(Arrays.asList("old/1.0.0", "recent/1.0.0"), MAX_SIZE);
+        setLastUsed("old/1.0.0", 1000);
+        setLastUsed("recent/1.0.0", 2000);
+        // Recorded as used by the build, even though reading the package does not update any time of its files
+        restore(Collections.singletonList("old/1.0.0"), MAX_SIZE);
+
+        // The third package exceeds the size bound, and evicts the least recently used entry
+        SharedPackageCache.Statistics statistics = restore(Collections.singletonList("new/1.0.0"),
+                2 * RegistryStub.PACKAGE_SIZE + RegistryStub.PACKAGE_SIZE / 2);
+        assertEquals(1, statistics.getEviction().getEvictedEntries());
+        File contentDir = new File(temporaryFolder.getRoot(), "nuget/content");
+        assertTrue(new File(contentDir, "old/1.0.0").exists());
+        assertFalse(new File(contentDir, "recent/1.0.0").exists());
+        assertTrue(new File(contentDir, "new/1.0.0").exists());
+        assertFalse(readUsage().containsKey("recent/1.0.0"));
+    }
+
+    @Test
+    public void shouldPostponeEvictionWhileOtherBuildsUseCache() throws IOException {
+        restore(Arrays.asList("old/1.0.0", "recent/1.0.0"), MAX_SIZE);
+        setLastUsed("old/1.0.0", 1000);
+        setLastUsed("recent/1.0.0", 2000);
+        File contentDir = new File(temporaryFolder.getRoot(), "nuget/content");
+
+        SharedPackageCache.Lease otherBuild = cache.acquire(MAX_SIZE);
+        try {
+            SharedPackageCache.Statistics statistics = restore(Collections.singletonList("new/1.0.0"),
+                    RegistryStub.PACKAGE_SIZE + RegistryStub.PACKAGE_SIZE / 2);
+            assertTrue(statistics.getEviction().isPostponed());
+            assertEquals(0, statistics.getEviction().getEvictedEntries());
+            assertEquals(3, contentDir.listFiles(File::isDirectory).length);
+        } finally {
+            otherBuild.close();
+        }
+        // Evicted once the other build is done
+        SharedPackageCache.Statistics statistics = restore(Collections.singletonList("new/1.0.0"),
+                RegistryStub.PACKAGE_SIZE + RegistryStub.PACKAGE_SIZE / 2);
+        assertFalse(statistics.getEviction().isPostponed());
+        assertEquals(2, statistics.getEviction().getEvictedEntries());
+        assertArrayEquals(new String[]{"new"}, contentDir.list());
+    }
+
+    @Test
+    public void shouldReadEntriesUsedByNpmFromLockFile() throws IOException {
+        byte[] digest = DigestUtils.sha512("lodash-4.17.21.tgz");
+        String hex = DigestUtils.sha512Hex("lodash-4.17.21.tgz");
+        File projectDir = temporaryFolder.newFolder("npm-project");
+        Files.write(new File(projectDir, "package-lock.json").toPath(), ("{\"lockfileVersion\": 2, \"packages\": {" +
+                "\"\": {\"name\": \"project\"}, " +
+                "\"node_modules/lodash\": {\"version\": \"4.17.21\", \"integrity\": \"sha512-" +
+                Base64.getEncoder().encodeToString(digest) + "\"}}}").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Collections.singleton("sha512/" + hex.substring(0, 2) + "/" + hex.substring(2, 4) + "/" + hex.substring(4)),
+                SharedPackageCacheUsage.readUsedEntries(SharedPackageCache.Type.NPM, projectDir.toPath()));
+    }
+
+    /**
+     * Restores the packages the way NuGet does, downloading to the global packages folder only the missing packages,
+     * and recording them in the project's assets file.
+     */
+    private SharedPackageCache.Statistics restore(List<String> packages, long maxSize) throws IOException {
+        SharedPackageCache.Lease lease = cache.acquire(maxSize);
+        File packagesFolder = new File(lease.getEnvironment().get("NUGET_PACKAGES"));
+        assertEquals(lease.getContentDir(), packagesFolder);
+        StringBuilder libraries = new StringBuilder();
+        for (String pkg : packages) {
+            File packageDir = new File(packagesFolder, pkg);
+            if (!packageDir.isDirectory()) {
+                assertTrue(packageDir.mkdirs());
+                byte[] content = registry.download(pkg);
+                Files.write(new File(packageDir, pkg.replace('/', '.') + ".nupkg").toPath(), content);
+                Files.write(new File(packageDir, ".nupkg.metadata").toPath(), DigestUtils.sha512Hex(content).getBytes());
+            }
+            libraries.append(libraries.length() == 0 ? "" : ", ")
+                    .append("\"").append(pkg).append("\": {\"type\": \"package\", \"path\": \"").append(pkg).append("\"}");
+        }
+        File projectDir = temporaryFolder.newFolder();
+        File objDir = new File(projectDir, "obj");
+        assertTrue(objDir.mkdirs());
+        Files.write(new File(objDir, "project.assets.json").toPath(),
+                ("{\"version\": 3, \"libraries\": {" + libraries + "}}").getBytes(StandardCharsets.UTF_8));
+        return lease.release(projectDir.toPath());
+    }
+
+    private void setLastUsed(String pkg, long time) throws IOException {
+        Path packageDir = new File(temporaryFolder.getRoot(), "nuget/content/" + pkg).toPath();
+        for (File file : packageDir.toFile().listFiles()) {
+            Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(time));
+        }
+        Files.setLastModifiedTime(packageDir, FileTime.fromMillis(time));
+        new PropertiesFileStore(new File(temporaryFolder.getRoot(), "nuget/.usage.properties"), "usage")
+                .update(usage -> usage.setProperty(pkg, String.valueOf(time)));
+    }
+
+    private Properties readUsage() {
+        return new PropertiesFileStore(new File(temporaryFolder.getRoot(), "nuget/.usage.properties"), "usage").getProperties();
+    }
+
+    private static class RegistryStub {
+        static final int PACKAGE_SIZE = 64 * 1024;
+        private final Map<String, byte[]> packages = new HashMap<>();
+        int downloads;
+
+        byte[] download(String pkg) {
+            downloads++;
+            return packages.computeIfAbsent(pkg, key -> {
+                byte[] content = new byte[PACKAGE_SIZE];
+                Arrays.fill(content, (byte) key.hashCode());
+                return content;
+            });
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.jfrog.bamboo.capability;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.SystemUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Probes of fake build tool executables, shell scripts that sleep before printing their version, counted by the probe.
+ */
+public class ExecutableProbeCacheTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // The executables run by the probe, in order
+    private final List<File> probed = new ArrayList<>();
+    private final Function<File, String> probe = this::runExecutable;
+    private File cacheFile;
+
+    @Before
+    public void setUp() {
+        assumeFalse("The fake executables are shell scripts", SystemUtils.IS_OS_WINDOWS);
+        cacheFile = new File(temporaryFolder.getRoot(), "cache/capabilities.properties");
+    }
+
+    @Test
+    public void shouldProbeUnchangedExecutableOnce() throws IOException {
+        File mvn = createExecutable("mvn", "Apache Maven 3.6.3");
+        File gradle = createExecutable("gradle", "Gradle 6.8");
+        ExecutableProbeCache cache = new ExecutableProbeCache(cacheFile);
+        assertEquals("Apache Maven 3.6.3", cache.get(mvn, probe));
+        assertEquals("Gradle 6.8", cache.get(gradle, probe));
+        assertEquals("Apache Maven 3.6.3", cache.get(mvn, probe));
+
+        // Read by the agent after a restart
+        ExecutableProbeCache restarted = new ExecutableProbeCache(cacheFile);
+        assertEquals("Apache Maven 3.6.3", restarted.get(mvn, probe));
+        assertEquals("Gradle 6.8", restarted.get(gradle, probe));
+
+        assertEquals(2, probed.size());
+    }
+
+    @Test
+    public void shouldProbeChangedExecutableAgain() throws IOException {
+        File mvn = createExecutable("mvn", "Apache Maven 3.6.3");
+        ExecutableProbeCache cache = new ExecutableProbeCache(cacheFile);
+        assertEquals("Apache Maven 3.6.3", cache.get(mvn, probe));
+
+        // Upgraded in place
+        createExecutable("mvn", "Apache Maven 3.8.1 (upgraded)");
+        assertEquals("Apache Maven 3.8.1 (upgraded)", cache.get(mvn, probe));
+        assertEquals("Apache Maven 3.8.1 (upgraded)", new ExecutableProbeCache(cacheFile).get(mvn, probe));
+
+        assertEquals(2, probed.size());
+    }
+
+    @Test
+    public void shouldNotCacheFailedProbes() throws IOException {
+        File mvn = createExecutable("mvn", null);
+        ExecutableProbeCache cache = new ExecutableProbeCache(cacheFile);
+        assertNull(cache.get(mvn, probe));
+        assertNull(cache.get(mvn, probe));
+        assertEquals(2, probed.size());
+        assertFalse(cacheFile.exists());
+    }
+
+    @Test
+    public void shouldMergeResultsOfAgentsSharingCache() throws IOException {
+        File mvn = createExecutable("mvn", "Apache Maven 3.6.3");
+        File gradle = createExecutable("gradle", "Gradle 6.8");
+        // Both agents read the cache before either of them stores a result
+        ExecutableProbeCache agent = new ExecutableProbeCache(cacheFile);
+        ExecutableProbeCache otherAgent = new ExecutableProbeCache(cacheFile);
+        assertNull(agent.get(createExecutable("tool", null), probe));
+        assertNull(otherAgent.get(createExecutable("tool", null), probe));
+
+        assertEquals("Apache Maven 3.6.3", agent.get(mvn, probe));
+        assertEquals("Gradle 6.8", otherAgent.get(gradle, probe));
+        assertEquals(4, probed.size());
+
+        ExecutableProbeCache restarted = new ExecutableProbeCache(cacheFile);
+        assertEquals("Apache Maven 3.6.3", restarted.get(mvn, probe));
+        assertEquals("Gradle 6.8", restarted.get(gradle, probe));
+        assertEquals(4, probed.size());
+    }
+
+    @Test
+    public void shouldNotLeaveTemporaryFiles() throws IOException {
+        ExecutableProbeCache cache = new ExecutableProbeCache(cacheFile);
+        for (int i = 0; i < 5; i++) {
+            cache.get(createExecutable("tool-" + i, "tool " + i), probe);
+        }
+        String[] files = cacheFile.getParentFile().list();
+        assertNotNull(files);
+        Arrays.sort(files);
+        // The cache file and the lock file of its updates
+        assertArrayEquals(new String[]{cacheFile.getName(), cacheFile.getName() + ".lock"}, files);
+    }
+
+    /**
+     * @param version The version printed by the executable, or null if the executable should fail.
+     */
+    private File createExecutable(String name, String version) throws IOException {
+        File executable = new File(temporaryFolder.getRoot(), "bin/" + name);
+        String script = "#!/bin/sh\nsleep 0.2\n" + (version == null ? "exit 1\n" : "echo '" + version + "'\n");
+        executable.getParentFile().mkdirs();
+        Files.write(executable.toPath(), script.getBytes(StandardCharsets.UTF_8));
+        assertTrue(executable.setExecutable(true));
+        // Make sure the modification time changes even on file systems with a coarse timestamp resolution
+        executable.setLastModified(executable.lastModified() + probed.size() * 2000L + 2000L);
+        return executable;
+    }
+
+    private String runExecutable(File executable) {
+        probed.add(executable);
+        try {
+            Process process = new ProcessBuilder(executable.getAbsolutePath()).redirectErrorStream(true).start();
+            String output;
+            try (InputStream inputStream = process.getInputStream()) {
+                output = IOUtils.toString(inputStream, StandardCharsets.UTF_8).trim();
+            }
+            return process.waitFor() == 0 ? output : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
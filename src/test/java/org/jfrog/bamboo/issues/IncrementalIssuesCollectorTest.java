@@ -0,0 +1,152 @@
+package org.jfrog.bamboo.issues;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.jfrog.build.api.Issue;
+import org.jfrog.build.api.Issues;
+import org.jfrog.build.api.IssuesCollectionConfig;
+import org.jfrog.build.api.util.NullLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class IncrementalIssuesCollectorTest {
+    private static final String CONFIG = "{\"version\": 1, \"issues\": {\"trackerName\": \"JIRA\", " +
+            "\"regexp\": \"([A-Z]+-[0-9]+)\\s-\\s(.+)\", \"keyGroupIndex\": 1, \"summaryGroupIndex\": 2, " +
+            "\"trackerUrl\": \"http://jira.example.com/browse\", \"aggregate\": false, \"aggregationStatus\": \"RELEASED\"}}";
+    private static final String CURSOR_KEY = IssuesCollectionCursors.getKey("PROJ-PLAN-JOB1", "git@example.com:repo.git", CONFIG);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Git git;
+    private File workingDir;
+    private IssuesCollectionCursors cursors;
+    private IssuesCollectionConfig config;
+
+    @Before
+    public void setUp() throws Exception {
+        workingDir = temporaryFolder.newFolder("repo");
+        git = Git.init().setDirectory(workingDir).call();
+        cursors = new IssuesCollectionCursors(new File(temporaryFolder.getRoot(), "cursors.properties"));
+        config = IncrementalIssuesCollector.parseConfig(CONFIG);
+    }
+
+    @After
+    public void tearDown() {
+        git.close();
+    }
+
+    @Test
+    public void shouldCollectIssuesSincePreviousBuild() throws Exception {
+        RevCommit previousBuild = commit("ABC-1 - Before the previous build");
+        commit("ABC-2 - First fix");
+        commit("Unrelated change");
+        commit("ABC-3 - Second fix");
+
+        Issues issues = collect(previousBuild.getName());
+        assertEquals(keys("ABC-2", "ABC-3"), keys(issues));
+        Issue issue = issues.getAffectedIssues().stream().filter(i -> "ABC-2".equals(i.getKey())).findFirst().get();
+        assertEquals("First fix", issue.getSummary());
+        assertEquals("http://jira.example.com/browse/ABC-2", issue.getUrl());
+        assertEquals("JIRA", issues.getTracker().getName());
+    }
+
+    @Test
+    public void shouldProcessOnlyNewCommits() throws Exception {
+        RevCommit previousBuild = commit("ABC-1 - Before the previous build");
+        commit("ABC-2 - First fix");
+        assertEquals(keys("ABC-2"), keys(collect(previousBuild.getName())));
+
+        // Issues recorded in the cursor are reused, as is, rather than collected again
+        IssuesCollectionCursors.Cursor cursor = cursors.get(CURSOR_KEY);
+        assertNotNull(cursor);
+        cursor.getIssueDepths().put(new Issue("ABC-100", "", "From the cursor"), 0);
+        cursors.put(CURSOR_KEY, cursor);
+
+        commit("ABC-3 - Second fix");
+        assertEquals(keys("ABC-2", "ABC-3", "ABC-100"), keys(collect(previousBuild.getName())));
+    }
+
+    @Test
+    public void shouldProcessWholeRangeWhenHistoryWasRewritten() throws Exception {
+        RevCommit previousBuild = commit("ABC-1 - Before the previous build");
+        commit("ABC-2 - First fix");
+        assertEquals(keys("ABC-2"), keys(collect(previousBuild.getName())));
+
+        git.reset().setMode(ResetCommand.ResetType.HARD).setRef(previousBuild.getName()).call();
+        commit("ABC-4 - Rewritten fix");
+        assertEquals(keys("ABC-4"), keys(collect(previousBuild.getName())));
+    }
+
+    @Test
+    public void shouldProcessWholeRangeWhenPreviousBuildChanged() throws Exception {
+        RevCommit firstBuild = commit("ABC-1 - First build");
+        RevCommit secondBuild = commit("ABC-2 - Second build");
+        commit("ABC-3 - Fix");
+        assertEquals(keys("ABC-2", "ABC-3"), keys(collect(firstBuild.getName())));
+        assertEquals(keys("ABC-3"), keys(collect(secondBuild.getName())));
+    }
+
+    @Test
+    public void shouldLimitCommitsWithoutPreviousBuild() throws Exception {
+        for (int i = 1; i <= IncrementalIssuesCollector.MAX_COMMITS + 10; i++) {
+            commit("ABC-" + i + " - Fix " + i);
+        }
+        assertEquals(IncrementalIssuesCollector.MAX_COMMITS, collect("").getAffectedIssues().size());
+    }
+
+    @Test
+    public void shouldDropCursorIssuesOutsideOfCommitsWindow() throws Exception {
+        commit("ABC-1 - First fix");
+        commit("ABC-2 - Second fix");
+        for (int i = 0; i < IncrementalIssuesCollector.MAX_COMMITS - 2; i++) {
+            commit("Unrelated change " + i);
+        }
+        assertEquals(keys("ABC-1", "ABC-2"), keys(collect("")));
+
+        // ABC-1 is now the 101st commit, as it would be to 'git log -100'
+        commit("ABC-3 - Third fix");
+        assertEquals(keys("ABC-2", "ABC-3"), keys(collect("")));
+        commit("Unrelated change");
+        assertEquals(keys("ABC-3"), keys(collect("")));
+        for (int i = 0; i < IncrementalIssuesCollector.MAX_COMMITS; i++) {
+            commit("Unrelated change " + i);
+        }
+        assertTrue(collect("").getAffectedIssues().isEmpty());
+    }
+
+    @Test
+    public void shouldNotAddIssuesWhenPreviousRevisionIsMissing() throws Exception {
+        commit("ABC-1 - Fix");
+        assertTrue(collect("0123456789abcdef0123456789abcdef01234567").getAffectedIssues().isEmpty());
+        assertNull(cursors.get(CURSOR_KEY));
+    }
+
+    private Issues collect(String previousRevision) throws Exception {
+        return new IncrementalIssuesCollector(cursors).collectIssues(workingDir, config, CURSOR_KEY, previousRevision, new NullLog());
+    }
+
+    private RevCommit commit(String message) throws Exception {
+        return git.commit().setMessage(message).call();
+    }
+
+    private static Set<String> keys(String... keys) {
+        return new TreeSet<>(Arrays.asList(keys));
+    }
+
+    private static Set<String> keys(Issues issues) {
+        return issues.getAffectedIssues().stream().map(Issue::getKey).collect(Collectors.toCollection(TreeSet::new));
+    }
+}
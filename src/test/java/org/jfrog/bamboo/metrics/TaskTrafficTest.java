@@ -0,0 +1,82 @@
+package org.jfrog.bamboo.metrics;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskTrafficTest {
+
+    @Test
+    public void shouldRecordEachRequestWithItsOwnLatency() {
+        TaskTraffic traffic = new TaskTraffic(3);
+        for (int i = 0; i < 10; i++) {
+            traffic.record(TrafficOperation.DOWNLOAD, i == 0, 1024, 50_000_000L);
+        }
+        traffic.record(TrafficOperation.DOWNLOAD, false, 0, 3_000_000_000L);
+
+        assertEquals(11, traffic.getRequests(TrafficOperation.DOWNLOAD));
+        assertEquals(1, traffic.getErrors(TrafficOperation.DOWNLOAD));
+        assertEquals(10 * 1024, traffic.getBytes(TrafficOperation.DOWNLOAD));
+        // 50ms is in the [32, 64) bucket and 3s in the [2048, 4096) bucket
+        assertEquals(64, traffic.getLatencies(TrafficOperation.DOWNLOAD).getPercentile(50));
+        assertEquals(64, traffic.getLatencies(TrafficOperation.DOWNLOAD).getPercentile(90));
+        assertEquals(4096, traffic.getLatencies(TrafficOperation.DOWNLOAD).getPercentile(99));
+        assertEquals(0, traffic.getRequests(TrafficOperation.DEPLOY));
+    }
+
+    @Test
+    public void shouldParseAppendedTraffic() {
+        TaskTraffic deploy = new TaskTraffic(1);
+        for (int i = 0; i < 5; i++) {
+            deploy.record(TrafficOperation.DEPLOY, false, 1000, 1_000_000);
+        }
+        deploy.record(TrafficOperation.BUILD_INFO, true, 0, 0);
+        TaskTraffic xray = new TaskTraffic(2);
+        xray.record(TrafficOperation.XRAY_SCAN, false, 0, 60_000_000_000L);
+
+        List<TaskTraffic> parsed = TaskTraffic.parse(TaskTraffic.append(TaskTraffic.append(null, deploy), xray));
+
+        assertEquals(2, parsed.size());
+        assertEquals(1, parsed.get(0).getServerId());
+        assertEquals(5, parsed.get(0).getRequests(TrafficOperation.DEPLOY));
+        assertEquals(5000, parsed.get(0).getBytes(TrafficOperation.DEPLOY));
+        assertEquals(2, parsed.get(0).getLatencies(TrafficOperation.DEPLOY).getPercentile(100));
+        assertEquals(1, parsed.get(0).getErrors(TrafficOperation.BUILD_INFO));
+        assertEquals(1, parsed.get(0).getLatencies(TrafficOperation.BUILD_INFO).getPercentile(50));
+        assertEquals(2, parsed.get(1).getServerId());
+        assertEquals(65536, parsed.get(1).getLatencies(TrafficOperation.XRAY_SCAN).getPercentile(50));
+    }
+
+    @Test
+    public void shouldDropOldestTasksWhenTooLong() {
+        String serialized = null;
+        for (int i = 0; i < 200; i++) {
+            TaskTraffic traffic = new TaskTraffic(i);
+            for (TrafficOperation operation : TrafficOperation.values()) {
+                traffic.record(operation, i % 10 == 0, 1_000_000, 1000 * (1L << (i % 30)));
+            }
+            serialized = TaskTraffic.append(serialized, traffic);
+        }
+
+        assertTrue(serialized.length() <= TaskTraffic.MAX_SERIALIZED_LENGTH);
+        List<TaskTraffic> parsed = TaskTraffic.parse(serialized);
+        assertTrue(parsed.size() < 200);
+        assertEquals(199, parsed.get(parsed.size() - 1).getServerId());
+    }
+
+    @Test
+    public void shouldSkipMalformedTraffic() {
+        List<TaskTraffic> parsed = TaskTraffic.parse("x|d:1:1:0:0=1\n4|d:2:100:1:3=2|z:1:1:1:1=1|r:a:1:1:|r:1:1:1:99=1|b:1:0:0:");
+
+        assertEquals(1, parsed.size());
+        TaskTraffic traffic = parsed.get(0);
+        assertEquals(4, traffic.getServerId());
+        assertEquals(2, traffic.getRequests(TrafficOperation.DEPLOY));
+        assertEquals(8, traffic.getLatencies(TrafficOperation.DEPLOY).getPercentile(50));
+        assertEquals(0, traffic.getRequests(TrafficOperation.DOWNLOAD));
+        assertEquals(1, traffic.getRequests(TrafficOperation.BUILD_INFO));
+        assertTrue(TaskTraffic.parse(null).isEmpty());
+    }
+}
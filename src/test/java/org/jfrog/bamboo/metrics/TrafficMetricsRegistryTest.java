@@ -0,0 +1,121 @@
+package org.jfrog.bamboo.metrics;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TrafficMetricsRegistryTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1000));
+    private final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+    private final TrafficMetricsRegistry registry = new TrafficMetricsRegistry(clock::get, mBeanServer);
+
+    @Test
+    public void shouldFoldTrafficByOperationAndPlan() throws Exception {
+        registry.fold("PROJ-PLAN", serialize(1, TrafficOperation.DEPLOY, 10, 1, 1000, 3_000_000L));
+        registry.fold("PROJ-PLAN", serialize(1, TrafficOperation.DOWNLOAD, 25, 0, 2000, 100_000_000L));
+        registry.fold("PROJ-OTHER", serialize(1, TrafficOperation.DEPLOY, 30, 0, 3000, 3_000_000L));
+        registry.fold("PROJ-PLAN", serialize(2, TrafficOperation.XRAY_SCAN, 1, 0, 0, 0));
+
+        List<ServerTrafficSnapshot> servers = registry.getServersTraffic();
+        assertEquals(2, servers.size());
+        ServerTrafficSnapshot server = servers.get(0);
+        assertEquals(1, server.getServerId());
+        assertEquals(65, server.getTotal().getRequests());
+        assertEquals(6000, server.getTotal().getBytes());
+        assertEquals(128, server.getTotal().getLatencyP95());
+
+        assertEquals(2, server.getOperations().size());
+        TrafficSnapshot deploy = server.getOperations().get(0);
+        assertEquals(TrafficOperation.DEPLOY.getDisplayName(), deploy.getName());
+        assertEquals(40, deploy.getRequests());
+        assertEquals(2.5, deploy.getErrorRate(), 0.001);
+        assertEquals(4, deploy.getLatencyP99());
+
+        assertEquals(2, server.getPlans().size());
+        assertEquals("PROJ-OTHER", server.getPlans().get(1).getName());
+        assertEquals("PROJ-PLAN", server.getPlans().get(0).getName());
+        assertEquals(35, server.getPlans().get(0).getRequests());
+
+        assertEquals(40L, mBeanServer.getAttribute(TrafficMetricsRegistry.getObjectName(1, TrafficOperation.DEPLOY), "Requests"));
+        assertEquals(128L, mBeanServer.getAttribute(TrafficMetricsRegistry.getObjectName(1, TrafficOperation.DOWNLOAD), "LatencyP50Millis"));
+        assertTrue(mBeanServer.isRegistered(TrafficMetricsRegistry.getObjectName(2, TrafficOperation.XRAY_SCAN)));
+        assertFalse(mBeanServer.isRegistered(TrafficMetricsRegistry.getObjectName(2, TrafficOperation.DEPLOY)));
+    }
+
+    @Test
+    public void shouldExpireTrafficOlderThanWindow() throws Exception {
+        registry.fold("PROJ-PLAN", serialize(1, TrafficOperation.DEPLOY, 10, 0, 0, 0));
+        clock.addAndGet(TimeUnit.HOURS.toMillis(RollingTraffic.SLOTS - 1));
+        registry.fold("PROJ-PLAN", serialize(1, TrafficOperation.DEPLOY, 5, 0, 0, 0));
+        assertEquals(15, registry.getServersTraffic().get(0).getTotal().getRequests());
+
+        clock.addAndGet(TimeUnit.HOURS.toMillis(1));
+        assertEquals(5, registry.getServersTraffic().get(0).getTotal().getRequests());
+        // The slot of the expired hour is reused
+        registry.fold("PROJ-PLAN", serialize(1, TrafficOperation.DEPLOY, 1, 0, 0, 0));
+        assertEquals(6, registry.getServersTraffic().get(0).getTotal().getRequests());
+        assertEquals(6L, mBeanServer.getAttribute(TrafficMetricsRegistry.getObjectName(1, TrafficOperation.DEPLOY), "Requests"));
+
+        clock.addAndGet(TimeUnit.HOURS.toMillis(RollingTraffic.SLOTS));
+        assertTrue(registry.getServersTraffic().isEmpty());
+        assertEquals(0L, mBeanServer.getAttribute(TrafficMetricsRegistry.getObjectName(1, TrafficOperation.DEPLOY), "Requests"));
+    }
+
+    @Test
+    public void shouldKeepMostRecentlyActivePlansAndServers() throws Exception {
+        for (int i = 0; i < TrafficMetricsRegistry.MAX_PLANS_PER_SERVER * 2; i++) {
+            registry.fold("PROJ-PLAN" + i, serialize(1, TrafficOperation.DOWNLOAD, 1, 0, 0, 0));
+        }
+        registry.fold("PROJ-PLAN0", serialize(1, TrafficOperation.DOWNLOAD, 2, 0, 0, 0));
+        List<TrafficSnapshot> plans = registry.getServersTraffic().get(0).getPlans();
+        assertEquals(TrafficMetricsRegistry.MAX_PLANS_PER_SERVER, plans.size());
+        assertEquals("PROJ-PLAN0", plans.get(0).getName());
+        // The operations keep the traffic of the evicted plans
+        assertEquals(TrafficMetricsRegistry.MAX_PLANS_PER_SERVER * 2 + 2, registry.getServersTraffic().get(0).getTotal().getRequests());
+
+        for (int i = 2; i < TrafficMetricsRegistry.MAX_SERVERS + 2; i++) {
+            registry.fold("PROJ-PLAN", serialize(i, TrafficOperation.DEPLOY, 1, 0, 0, 0));
+        }
+        assertEquals(TrafficMetricsRegistry.MAX_SERVERS, registry.getServersTraffic().size());
+        assertFalse(mBeanServer.isRegistered(TrafficMetricsRegistry.getObjectName(1, TrafficOperation.DOWNLOAD)));
+        assertTrue(mBeanServer.isRegistered(TrafficMetricsRegistry.getObjectName(2, TrafficOperation.DEPLOY)));
+    }
+
+    @Test
+    public void shouldUnregisterMBeansOnClear() throws Exception {
+        registry.fold("PROJ-PLAN", serialize(1, TrafficOperation.DEPLOY, 1, 0, 0, 0));
+        registry.fold("PROJ-PLAN", serialize(2, TrafficOperation.DOWNLOAD, 1, 0, 0, 0));
+        assertEquals(2, mBeanServer.queryNames(new ObjectName(TrafficMetricsRegistry.MBEAN_DOMAIN + ":*"), null).size());
+
+        registry.clear();
+        assertTrue(mBeanServer.queryNames(new ObjectName(TrafficMetricsRegistry.MBEAN_DOMAIN + ":*"), null).isEmpty());
+        assertTrue(registry.getServersTraffic().isEmpty());
+    }
+
+    @Test
+    public void shouldIgnoreMalformedTraffic() {
+        registry.fold("PROJ-PLAN", null);
+        registry.fold("PROJ-PLAN", "not traffic");
+        registry.fold("PROJ-PLAN", "1|q:1:2:3:");
+        assertTrue(registry.getServersTraffic().isEmpty());
+    }
+
+    /**
+     * @return The traffic of requests of the same duration and size, of which the first ones failed.
+     */
+    private static String serialize(long serverId, TrafficOperation operation, long requests, long errors, long bytes,
+                                    long nanosPerRequest) {
+        TaskTraffic traffic = new TaskTraffic(serverId);
+        for (long i = 0; i < requests; i++) {
+            traffic.record(operation, i < errors, bytes / requests, nanosPerRequest);
+        }
+        return TaskTraffic.append(null, traffic);
+    }
+}
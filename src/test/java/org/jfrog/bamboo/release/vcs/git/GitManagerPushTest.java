@@ -0,0 +1,206 @@
+package org.jfrog.bamboo.release.vcs.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.errors.NotSupportedException;
+import org.eclipse.jgit.errors.TransportException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.*;
+import org.jfrog.bamboo.standin.BambooStandIns;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pushes of the release refs to a local bare repository, over a local transport that counts the push sessions.
+ */
+public class GitManagerPushTest {
+    private static final CountingProtocol protocol = new CountingProtocol();
+    private static final String BRANCH = "release-1.0";
+    private static final String TAG = "v1.0";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Git remote;
+    private Git checkout;
+    private GitManager manager;
+    private String url;
+
+    @BeforeClass
+    public static void registerProtocol() {
+        Transport.register(protocol);
+    }
+
+    @AfterClass
+    public static void unregisterProtocol() {
+        Transport.unregister(protocol);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        File remoteDirectory = temporaryFolder.newFolder("remote.git");
+        remote = Git.init().setBare(true).setDirectory(remoteDirectory).call();
+        url = CountingProtocol.SCHEME + "://localhost" + remoteDirectory.toURI().getPath();
+
+        File checkoutDirectory = temporaryFolder.newFolder("checkout");
+        checkout = Git.init().setDirectory(checkoutDirectory).call();
+        commit("pom.xml", "1.0-SNAPSHOT");
+        manager = new GitManager(BambooStandIns.buildContext(checkoutDirectory), BambooStandIns.buildLogger());
+        manager.push(url, "master");
+
+        manager.checkoutBranch(BRANCH, true);
+        commit("pom.xml", "1.0");
+        manager.createTag(TAG, "Release 1.0");
+        protocol.pushes.set(0);
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        checkout.close();
+        remote.close();
+    }
+
+    @Test
+    public void shouldPushBranchAndTagInOnePush() throws IOException {
+        manager.pushReleaseRefs(url, BRANCH, TAG);
+
+        assertEquals(1, protocol.pushes.get());
+        assertEquals(getLocalId(BRANCH), getRemoteId("refs/heads/" + BRANCH));
+        assertEquals(getLocalId("refs/tags/" + TAG), getRemoteId("refs/tags/" + TAG));
+        assertTrue(manager.isReleaseBranchPushed(BRANCH));
+        assertTrue(manager.isReleaseTagPushed(TAG));
+    }
+
+    @Test
+    public void shouldDeleteBranchAndTagInOnePush() throws IOException {
+        manager.pushReleaseRefs(url, BRANCH, TAG);
+        protocol.pushes.set(0);
+
+        manager.deleteRemoteReleaseRefs(url, BRANCH, TAG);
+
+        assertEquals(1, protocol.pushes.get());
+        assertNull(getRemoteId("refs/heads/" + BRANCH));
+        assertNull(getRemoteId("refs/tags/" + TAG));
+    }
+
+    @Test
+    public void shouldDeleteEscapedTag() throws IOException, InterruptedException {
+        // Pushed and deleted by the name configured in the release, whose spaces are escaped in the tag name
+        manager.createTag("v1.0_rc", "Release 1.0 RC");
+        manager.pushReleaseRefs(url, null, "v1.0 rc");
+        assertNotNull(getRemoteId("refs/tags/v1.0_rc"));
+        assertTrue(manager.isReleaseTagPushed("v1.0 rc"));
+
+        manager.deleteRemoteReleaseRefs(url, null, "v1.0 rc");
+
+        assertNull(getRemoteId("refs/tags/v1.0_rc"));
+    }
+
+    @Test
+    public void shouldReportOnlyRefsUpdatedByRejectedPush() throws IOException {
+        // The tag conflicts with an existing remote ref, so that the remote rejects it
+        RefUpdate update = remote.getRepository().updateRef("refs/tags/" + TAG + "/previous");
+        update.setNewObjectId(getRemoteId("refs/heads/master"));
+        assertEquals(RefUpdate.Result.NEW, update.update());
+
+        try {
+            manager.pushReleaseRefs(url, BRANCH, TAG);
+            fail("The push of a rejected tag should fail");
+        } catch (IOException expected) {
+            assertEquals(1, protocol.pushes.get());
+        }
+        // The local transport does not apply the push atomically, so the branch is updated, and is then the only ref to delete on rollback
+        assertEquals(getLocalId(BRANCH), getRemoteId("refs/heads/" + BRANCH));
+        assertTrue(manager.isReleaseBranchPushed(BRANCH));
+        assertFalse(manager.isReleaseTagPushed(TAG));
+    }
+
+    @Test
+    public void shouldNotReportRefsAlreadyOnRemote() throws IOException {
+        // Pushed before the release, e.g. by a previous build
+        manager.push(url, BRANCH);
+
+        manager.pushReleaseRefs(url, BRANCH, TAG);
+
+        assertFalse(manager.isReleaseBranchPushed(BRANCH));
+        assertTrue(manager.isReleaseTagPushed(TAG));
+    }
+
+    private void commit(String path, String content) throws Exception {
+        Files.write(new File(checkout.getRepository().getWorkTree(), path).toPath(), content.getBytes(StandardCharsets.UTF_8));
+        checkout.add().addFilepattern(path).call();
+        checkout.commit().setMessage(content).call();
+    }
+
+    private ObjectId getLocalId(String ref) throws IOException {
+        return checkout.getRepository().resolve(ref);
+    }
+
+    private ObjectId getRemoteId(String ref) throws IOException {
+        return remote.getRepository().resolve(ref);
+    }
+
+    /**
+     * Opens the repository at the path of the URL with the local transport, and counts the push sessions.
+     */
+    private static class CountingProtocol extends TransportProtocol {
+        static final String SCHEME = "counting";
+        private final AtomicInteger pushes = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "Counting local transport";
+        }
+
+        @Override
+        public Set<String> getSchemes() {
+            return Collections.singleton(SCHEME);
+        }
+
+        @Override
+        public Set<URIishField> getRequiredFields() {
+            return EnumSet.of(URIishField.HOST, URIishField.PATH);
+        }
+
+        @Override
+        public Transport open(URIish uri, Repository local, String remoteName) throws NotSupportedException, TransportException {
+            Transport transport;
+            try {
+                transport = Transport.open(local, new URIish(new File(uri.getPath()).getAbsolutePath()));
+            } catch (URISyntaxException e) {
+                throw new TransportException(uri, e.getMessage(), e);
+            }
+            return new Transport(local, uri) {
+                @Override
+                public FetchConnection openFetch() throws NotSupportedException {
+                    throw new NotSupportedException("Fetch is not supported by " + getName());
+                }
+
+                @Override
+                public PushConnection openPush() throws NotSupportedException, TransportException {
+                    pushes.incrementAndGet();
+                    return transport.openPush();
+                }
+
+                @Override
+                public void close() {
+                    transport.close();
+                }
+            };
+        }
+    }
+}
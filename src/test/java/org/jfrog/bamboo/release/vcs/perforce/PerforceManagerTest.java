@@ -0,0 +1,152 @@
+package org.jfrog.bamboo.release.vcs.perforce;
+
+import com.perforce.p4java.client.IClient;
+import com.perforce.p4java.core.file.FileSpecOpStatus;
+import com.perforce.p4java.core.file.IFileSpec;
+import com.perforce.p4java.impl.generic.core.file.FileSpec;
+import com.perforce.p4java.server.IOptionsServer;
+import org.jfrog.bamboo.standin.BambooStandIns;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Server round trips of the Perforce release operations, counted by a fake client workspace and server.
+ */
+public class PerforceManagerTest {
+    private static final int CHANGE_LIST = 7;
+    private static final String CLIENT = "release-workspace";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // The file specs of each edit request
+    private final List<List<IFileSpec>> editRequests = new ArrayList<>();
+    private final List<String> serverCalls = new ArrayList<>();
+    private FileSpecOpStatus editStatus = FileSpecOpStatus.VALID;
+    private String expectedClient = CLIENT;
+
+    @Test
+    public void shouldOpenFilesForEditInBatches() throws IOException {
+        int files = PerforceManager.EDIT_BATCH_SIZE * 2 + 500;
+        createManager().edit(CHANGE_LIST, createFiles(files));
+
+        assertEquals(3, editRequests.size());
+        assertEquals(PerforceManager.EDIT_BATCH_SIZE, editRequests.get(0).size());
+        assertEquals(PerforceManager.EDIT_BATCH_SIZE, editRequests.get(1).size());
+        assertEquals(500, editRequests.get(2).size());
+    }
+
+    @Test
+    public void shouldFailEditOfRejectedFile() throws IOException {
+        editStatus = FileSpecOpStatus.ERROR;
+        try {
+            createManager().edit(CHANGE_LIST, createFiles(10));
+            fail("The edit of a rejected file should fail");
+        } catch (IOException expected) {
+            assertEquals(1, editRequests.size());
+        }
+    }
+
+    @Test
+    public void shouldSetWorkspaceAsCurrentClient() throws Exception {
+        IClient workspace = createWorkspace();
+        assertSame(workspace, PerforceManager.getWorkspace(createServer(workspace), CLIENT));
+        assertEquals(Arrays.asList("getClient", "setCurrentClient"), serverCalls);
+    }
+
+    @Test
+    public void shouldFailForMissingWorkspace() throws Exception {
+        try {
+            PerforceManager.getWorkspace(createServer(null), CLIENT);
+            fail("A missing workspace should fail");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(CLIENT));
+            assertEquals(Collections.singletonList("getClient"), serverCalls);
+        }
+    }
+
+    @Test
+    public void shouldCreateClientOverOpenConnection() throws IOException {
+        IClient workspace = createWorkspace();
+        createUnpreparedManager().connect(createServer(workspace));
+        // The connection is owned by the client from now on
+        assertEquals(Arrays.asList("connect", "getClient", "setCurrentClient"), serverCalls);
+    }
+
+    @Test
+    public void shouldDisconnectForMissingWorkspace() throws IOException {
+        try {
+            createUnpreparedManager().connect(createServer(null));
+            fail("A missing workspace should fail");
+        } catch (IOException expected) {
+            assertEquals(Arrays.asList("connect", "getClient", "disconnect"), serverCalls);
+        }
+    }
+
+    private PerforceManager createUnpreparedManager() throws IOException {
+        // Without a release management task configuration, the client workspace name is empty
+        expectedClient = "";
+        return new PerforceManager(BambooStandIns.buildContext(temporaryFolder.newFolder()), BambooStandIns.buildLogger());
+    }
+
+    private PerforceManager createManager() throws IOException {
+        File checkout = temporaryFolder.newFolder();
+        return new PerforceManager(BambooStandIns.buildContext(checkout), BambooStandIns.buildLogger(), null,
+                createWorkspace());
+    }
+
+    private List<File> createFiles(int count) {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(new File(temporaryFolder.getRoot(), "module-" + i + "/pom.xml"));
+        }
+        return files;
+    }
+
+    @SuppressWarnings("unchecked")
+    private IClient createWorkspace() {
+        return (IClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{IClient.class}, (proxy, method, args) -> {
+            if (!"editFiles".equals(method.getName()) || args.length != 5) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            List<IFileSpec> fileSpecs = (List<IFileSpec>) args[0];
+            assertEquals(CHANGE_LIST, args[3]);
+            editRequests.add(fileSpecs);
+            List<IFileSpec> results = new ArrayList<>();
+            for (IFileSpec fileSpec : fileSpecs) {
+                results.add(new FileSpec(editStatus, fileSpec.getOriginalPathString()));
+            }
+            return results;
+        });
+    }
+
+    private IOptionsServer createServer(IClient workspace) {
+        return (IOptionsServer) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{IOptionsServer.class}, (proxy, method, args) -> {
+            serverCalls.add(method.getName());
+            switch (method.getName()) {
+                case "connect":
+                case "disconnect":
+                    return null;
+                case "getClient":
+                    assertEquals(expectedClient, args[0]);
+                    return workspace;
+                case "setCurrentClient":
+                    assertSame(workspace, args[0]);
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
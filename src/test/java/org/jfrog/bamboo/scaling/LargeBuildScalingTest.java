@@ -0,0 +1,210 @@
+package org.jfrog.bamboo.scaling;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.jfrog.bamboo.context.Maven3BuildContext;
+import org.jfrog.bamboo.processor.BuildInfoCopier;
+import org.jfrog.bamboo.release.action.ModuleVersionHolder;
+import org.jfrog.bamboo.util.PublishedBuildDetails;
+import org.jfrog.bamboo.util.PublishedBuilds;
+import org.jfrog.bamboo.util.TaskUtils;
+import org.jfrog.bamboo.util.generic.GenericData;
+import org.jfrog.bamboo.util.version.MavenVersionHelper;
+import org.jfrog.bamboo.util.version.VersionHelper;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.extractor.BuildInfoExtractorUtils;
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the build-info code paths whose cost grows with the size of the build - aggregation of the build-info of the
+ * build tasks, reading of the generated build-info file, its compression, reading of the module versions for the
+ * release management and the published builds history - with builds of increasing size.
+ * Every run must stay within a time and a peak live heap budget which grows linearly with the size, and the measured
+ * scaling curves are written to target/scaling-report.txt.
+ * The test is excluded from the default test run, run it with 'mvn test -Pscaling-tests'.
+ * The budgets are about three times the values measured on a developer machine, plus a fixed part for the warm-up of
+ * the smallest size, so that they only fail on a change of the complexity, or of the memory footprint, of these code
+ * paths.
+ */
+public class LargeBuildScalingTest {
+    private static final long MB = 1024 * 1024;
+    private static final List<String> REPORT = new ArrayList<>();
+    private static final Set<String> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        File target = new File("target");
+        if (target.isDirectory()) {
+            Files.write(new File(target, "scaling-report.txt").toPath(), REPORT, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void shouldAggregateBuildInfoOfManyTasks() throws Exception {
+        for (int tasks : new int[]{1, 10, 50}) {
+            List<Build> builds = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                builds.add(SyntheticBuildInfoGenerator.createBuild("aggregated", String.valueOf(i), 10, 50, 20));
+            }
+            // Each task parses and serializes the build-info of all the tasks which ran before it
+            long serializedBuilds = (long) tasks * (tasks + 1) / 2;
+            String aggregated = measure("Build-info aggregation", tasks, "tasks",
+                    500 + serializedBuilds * 15, 32 * MB + tasks * 4 * MB, () -> {
+                        String buildInfo = null;
+                        for (Build build : builds) {
+                            buildInfo = TaskUtils.appendBuildInfo(buildInfo, build);
+                        }
+                        return buildInfo;
+                    });
+            assertEquals(tasks, BuildInfoExtractorUtils.jsonStringToGeneric(aggregated, GenericData.class).getBuilds().size());
+        }
+    }
+
+    @Test
+    public void shouldReadLargeBuildInfoFiles() throws Exception {
+        for (int modules : new int[]{10, 100, 1000}) {
+            File buildInfoFile = SyntheticBuildInfoGenerator.writeBuildInfoFile(
+                    SyntheticBuildInfoGenerator.createBuild("read", "1", modules, 100, 10), temporaryFolder.newFile());
+            Build build = measure("Build-info file reading", modules * 100, "artifacts",
+                    500 + modules * 2, 16 * MB + modules * 400 * 1024, () -> TaskUtils.getBuildObjectFromBuildInfoFile(buildInfoFile.getAbsolutePath()));
+            assertEquals(modules, build.getModules().size());
+            assertFalse(buildInfoFile.exists());
+        }
+    }
+
+    @Test
+    public void shouldCompressLargeBuildInfoFiles() throws Exception {
+        for (int modules : new int[]{10, 100, 1000}) {
+            File buildInfoFile = SyntheticBuildInfoGenerator.writeBuildInfoFile(
+                    SyntheticBuildInfoGenerator.createBuild("compress", "1", modules, 100, 10),
+                    new File(temporaryFolder.newFolder(), "build-info.json"));
+            // The file is streamed, so the heap does not depend on its size
+            File zip = measure("Build-info compression", modules * 100, "artifacts",
+                    500 + modules * 3, 16 * MB, () -> BuildInfoCopier.createBuildInfoZip(buildInfoFile));
+            assertNotNull(zip);
+            assertTrue(zip.length() < buildInfoFile.length());
+        }
+    }
+
+    @Test
+    public void shouldReadVersionsOfManyModules() throws Exception {
+        MavenVersionHelper versionHelper = (MavenVersionHelper) VersionHelper.getHelperAccordingToType(new Maven3BuildContext(new HashMap<>()), null);
+        for (int modules : new int[]{10, 100, 1000}) {
+            File buildInfoFile = SyntheticBuildInfoGenerator.writeBuildInfoFile(
+                    SyntheticBuildInfoGenerator.createBuild("release", "1", modules, 10, 10),
+                    new File(temporaryFolder.newFolder(), "build-info.json"));
+            File zip = BuildInfoCopier.createBuildInfoZip(buildInfoFile);
+            List<ModuleVersionHolder> versions = measure("Module versions reading", modules, "modules",
+                    500 + modules, 16 * MB + modules * 32 * 1024, () -> versionHelper.readModuleVersions(zip));
+            assertEquals(modules, versions.size());
+            for (ModuleVersionHolder version : versions) {
+                assertEquals(version.getOriginalValue().replace("-SNAPSHOT", ""), version.getReleaseValue());
+            }
+        }
+    }
+
+    @Test
+    public void shouldAppendToLargePublishedBuildsHistory() throws Exception {
+        for (int megabytes : new int[]{1, 5, 10}) {
+            String history = BuildInfoExtractorUtils.buildInfoToJsonString(
+                    SyntheticBuildInfoGenerator.createPublishedBuilds((int) (megabytes * MB)));
+            // The same parsing, merging and serialization as done by the publish build-info task
+            String appended = measure("Published builds history", megabytes, "MB",
+                    500 + megabytes * 100, 16 * MB + megabytes * 12 * MB, () -> {
+                        PublishedBuilds publishedBuilds = BuildInfoExtractorUtils.jsonStringToGeneric(history, PublishedBuilds.class);
+                        publishedBuilds.addBuild(new PublishedBuildDetails("https://artifactory.example.com/artifactory", "appended", "1"));
+                        return BuildInfoExtractorUtils.buildInfoToJsonString(publishedBuilds);
+                    });
+            assertTrue(appended.length() > history.length());
+            assertTrue(appended.contains("\"appended\""));
+        }
+    }
+
+    /**
+     * Run the action, record its time and peak live heap in the report, and assert that they are within the budget.
+     * The peak live heap is the largest heap usage right after a garbage collection during the action, or after the
+     * garbage collection done when it ends, while its result is still referenced.
+     */
+    private static <T> T measure(String scenario, int size, String unit, long maxMillis, long maxHeapBytes,
+                                 Callable<T> action) throws Exception {
+        System.gc();
+        long baseline = getUsedHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+        NotificationListener listener = (notification, handback) -> peak.accumulateAndGet(getUsedHeapAfterGc(notification), Math::max);
+        List<NotificationEmitter> emitters = new ArrayList<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+                emitters.add((NotificationEmitter) collector);
+            }
+        }
+
+        T result;
+        long elapsedMillis;
+        try {
+            long start = System.nanoTime();
+            result = action.call();
+            elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            System.gc();
+            peak.accumulateAndGet(getUsedHeap(), Math::max);
+        } finally {
+            for (NotificationEmitter emitter : emitters) {
+                emitter.removeNotificationListener(listener);
+            }
+        }
+
+        long heapBytes = Math.max(0, peak.get() - baseline);
+        REPORT.add(String.format("%-28s %8d %-9s %8d ms (budget %6d) %8.1f MB (budget %6d)",
+                scenario, size, unit, elapsedMillis, maxMillis, (double) heapBytes / MB, maxHeapBytes / MB));
+        assertTrue(scenario + " of " + size + " " + unit + " took " + elapsedMillis + "ms, more than the budget of " + maxMillis + "ms",
+                elapsedMillis <= maxMillis);
+        assertTrue(scenario + " of " + size + " " + unit + " used " + heapBytes / MB + "MB of heap, more than the budget of " + maxHeapBytes / MB + "MB",
+                heapBytes <= maxHeapBytes);
+        return result;
+    }
+
+    private static long getUsedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long getUsedHeapAfterGc(Notification notification) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return 0;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        return info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+                .filter(pool -> HEAP_POOLS.contains(pool.getKey()))
+                .mapToLong(pool -> pool.getValue().getUsed())
+                .sum();
+    }
+}
@@ -0,0 +1,99 @@
+package org.jfrog.bamboo.scaling;
+
+import org.jfrog.bamboo.util.PublishedBuildDetails;
+import org.jfrog.bamboo.util.PublishedBuilds;
+import org.jfrog.build.api.Agent;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.BuildAgent;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.DependencyBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.extractor.BuildInfoExtractorUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates build-info objects and published builds histories of a given size, with realistic module ids, paths and
+ * checksums. The output only depends on the requested size, so that measurements of different runs are comparable.
+ */
+class SyntheticBuildInfoGenerator {
+    private static final String STARTED = "2020-01-01T00:00:00.000+0000";
+
+    private SyntheticBuildInfoGenerator() {
+    }
+
+    /**
+     * @param modules               Number of modules.
+     * @param artifactsPerModule    Number of artifacts in each module.
+     * @param dependenciesPerModule Number of dependencies in each module.
+     */
+    static Build createBuild(String name, String number, int modules, int artifactsPerModule, int dependenciesPerModule) {
+        BuildInfoBuilder builder = new BuildInfoBuilder(name).number(number).started(STARTED)
+                .url("http://bamboo.example.com/browse/" + name + "-" + number)
+                .agent(new Agent("Bamboo", "7.1.4"))
+                .buildAgent(new BuildAgent("Maven", "3.6.3"));
+        for (int i = 0; i < modules; i++) {
+            String groupId = "org.example.group" + i % 10;
+            String artifactId = "module-" + i;
+            List<Artifact> artifacts = new ArrayList<>(artifactsPerModule);
+            for (int j = 0; j < artifactsPerModule; j++) {
+                String fileName = artifactId + "-1." + i + ".0-" + j + ".jar";
+                artifacts.add(new ArtifactBuilder(fileName).type("jar")
+                        .remotePath(groupId.replace('.', '/') + "/" + artifactId + "/1." + i + ".0/" + fileName)
+                        .sha1(checksum(i, j, 40)).sha256(checksum(i, j, 64)).md5(checksum(i, j, 32)).build());
+            }
+            List<Dependency> dependencies = new ArrayList<>(dependenciesPerModule);
+            for (int j = 0; j < dependenciesPerModule; j++) {
+                dependencies.add(new DependencyBuilder().id("org.example.dependency:library-" + j + ":2." + j)
+                        .type("jar").scopes(Collections.singleton("compile"))
+                        .sha1(checksum(-i, j, 40)).md5(checksum(-i, j, 32)).build());
+            }
+            builder.addModule(new ModuleBuilder().id(groupId + ":" + artifactId + ":1." + i + ".0-SNAPSHOT")
+                    .artifacts(artifacts).dependencies(dependencies).build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create a history of published builds, as stored in the custom build data of a plan result by the publish
+     * build-info task, whose JSON is about the requested size.
+     */
+    static PublishedBuilds createPublishedBuilds(int approximateJsonBytes) {
+        PublishedBuilds publishedBuilds = new PublishedBuilds();
+        // Each entry is serialized to about 180 bytes
+        for (int i = 0; i < approximateJsonBytes / 180; i++) {
+            PublishedBuildDetails details = new PublishedBuildDetails("https://artifactory.example.com/artifactory",
+                    "project-" + i % 100 + "-plan", String.valueOf(i));
+            details.setBuildUrl("https://artifactory.example.com/ui/builds/project-" + i % 100 + "-plan/" + i);
+            publishedBuilds.addBuild(details);
+        }
+        return publishedBuilds;
+    }
+
+    /**
+     * Write the build as a build-info JSON file, the way the build-info extractors do.
+     */
+    static File writeBuildInfoFile(Build build, File file) throws IOException {
+        Files.write(file.toPath(), BuildInfoExtractorUtils.buildInfoToJsonString(build).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String checksum(int module, int index, int length) {
+        StringBuilder checksum = new StringBuilder(length);
+        long seed = module * 1_000_003L + index;
+        while (checksum.length() < length) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            checksum.append(Long.toHexString(seed >>> 4));
+        }
+        return checksum.substring(0, length);
+    }
+}
@@ -0,0 +1,45 @@
+package org.jfrog.bamboo.security;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class EncryptionHelperTest {
+
+    @Test
+    public void shouldDecryptConfigEncryptedData() {
+        String encrypted = EncryptionHelper.encryptForConfig("password");
+        assertTrue(encrypted.startsWith(EncryptionHelper.CONFIG_PREFIX));
+        assertEquals("password", EncryptionHelper.decrypt(encrypted));
+        assertEquals("password", EncryptionHelper.decryptIfNeeded(encrypted));
+    }
+
+    @Test
+    public void shouldDecryptUiEncryptedData() {
+        String encrypted = EncryptionHelper.encryptForUi("password");
+        assertTrue(encrypted.startsWith(EncryptionHelper.UI_PREFIX));
+        assertEquals("password", EncryptionHelper.decrypt(encrypted));
+        assertEquals("password", EncryptionHelper.decryptIfNeeded(encrypted));
+    }
+
+    @Test
+    public void shouldDecryptLegacyConfigData() {
+        String config = EncryptionHelper.encryptForConfig("legacy config password");
+        String legacy = config.substring(EncryptionHelper.CONFIG_PREFIX.length());
+        assertTrue(EncryptionHelper.isLegacyConfigData(legacy));
+        assertFalse(EncryptionHelper.isLegacyConfigData(config));
+        assertEquals("legacy config password", EncryptionHelper.decrypt(legacy));
+    }
+
+    @Test
+    public void shouldReturnPlainDataAsIs() {
+        assertEquals("", EncryptionHelper.decryptIfNeeded(""));
+        assertEquals("my password!", EncryptionHelper.decryptIfNeeded("my password!"));
+        assertEquals("abc", EncryptionHelper.decryptIfNeeded("abc"));
+        // Base64 shaped plain values are not decrypted on trial either
+        assertEquals("abcdefghijklmnop", EncryptionHelper.decryptIfNeeded("abcdefghijklmnop"));
+    }
+}
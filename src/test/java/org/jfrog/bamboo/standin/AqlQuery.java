@@ -0,0 +1,138 @@
+package org.jfrog.bamboo.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The subset of AQL used by the plugin and the build-info clients: items.find() criteria with the repo, path, name,
+ * type, actual_sha1, actual_md5 and @property fields, the $eq, $ne, $match and $nmatch operators, and nested $and and
+ * $or. The include, sort and limit clauses are ignored.
+ */
+class AqlQuery {
+    private static final String ITEMS_FIND = "items.find(";
+
+    private final JsonNode criteria;
+
+    private AqlQuery(JsonNode criteria) {
+        this.criteria = criteria;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the query is not supported.
+     */
+    static AqlQuery parse(String query) {
+        int start = StringUtils.indexOf(query, ITEMS_FIND);
+        if (start == -1) {
+            throw new IllegalArgumentException("Only items.find() queries are supported: " + query);
+        }
+        try {
+            // The parser stops at the end of the criteria object
+            JsonNode criteria = new ObjectMapper().readTree(new ObjectMapper().getFactory()
+                    .createParser(query.substring(start + ITEMS_FIND.length())));
+            AqlQuery aqlQuery = new AqlQuery(criteria);
+            // Fail on unsupported fields and operators before the evaluation
+            aqlQuery.matches(criteria, new ArtifactoryStandIn.Item("repo", ".", "name", new byte[0], null));
+            return aqlQuery;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid AQL query: " + query, e);
+        }
+    }
+
+    boolean matches(ArtifactoryStandIn.Item item) {
+        return matches(criteria, item);
+    }
+
+    private boolean matches(JsonNode node, ArtifactoryStandIn.Item item) {
+        if (node.isArray()) {
+            boolean matches = true;
+            for (JsonNode element : node) {
+                matches &= matches(element, item);
+            }
+            return matches;
+        }
+        boolean matches = true;
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            switch (field.getKey()) {
+                case "$and":
+                    matches &= matches(field.getValue(), item);
+                    break;
+                case "$or":
+                    boolean any = false;
+                    for (JsonNode element : field.getValue()) {
+                        any |= matches(element, item);
+                    }
+                    matches &= any;
+                    break;
+                default:
+                    matches &= matchesField(getFieldValue(field.getKey(), item), field.getValue());
+            }
+        }
+        return matches;
+    }
+
+    private static String getFieldValue(String field, ArtifactoryStandIn.Item item) {
+        if (field.startsWith("@")) {
+            return item.getProperties().get(field.substring(1));
+        }
+        switch (field) {
+            case "repo":
+                return item.getRepo();
+            case "path":
+                return item.getPath();
+            case "name":
+                return item.getName();
+            case "type":
+                return "file";
+            case "actual_sha1":
+                return item.getSha1();
+            case "actual_md5":
+                return item.getMd5();
+            default:
+                throw new IllegalArgumentException("Unsupported AQL field: " + field);
+        }
+    }
+
+    private static boolean matchesField(String value, JsonNode condition) {
+        if (!condition.isObject()) {
+            return StringUtils.equals(value, condition.asText());
+        }
+        Map.Entry<String, JsonNode> operator = condition.fields().next();
+        String operand = operator.getValue().asText();
+        switch (operator.getKey()) {
+            case "$eq":
+                return StringUtils.equals(value, operand);
+            case "$ne":
+                return !StringUtils.equals(value, operand);
+            case "$match":
+                return value != null && toRegexp(operand).matcher(value).matches();
+            case "$nmatch":
+                return value == null || !toRegexp(operand).matcher(value).matches();
+            default:
+                throw new IllegalArgumentException("Unsupported AQL operator: " + operator.getKey());
+        }
+    }
+
+    /**
+     * AQL wildcards match any characters, including '/'.
+     */
+    private static Pattern toRegexp(String wildcard) {
+        StringBuilder regexp = new StringBuilder();
+        for (char c : wildcard.toCharArray()) {
+            if (c == '*') {
+                regexp.append(".*");
+            } else if (c == '?') {
+                regexp.append('.');
+            } else {
+                regexp.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regexp.toString());
+    }
+}
@@ -0,0 +1,689 @@
+package org.jfrog.bamboo.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * An in-process stand-in for the subset of the Artifactory REST API used by the tasks: deploy with checksum headers,
+ * download, AQL and pattern search, build-info publish and get, build promotion, repositories list, version and Xray build scan.
+ * The latency, the bandwidth and the failures of the requests are configurable, and the requests are counted by
+ * endpoint.
+ * <p>
+ * Usage:
+ * <pre>
+ * try (ArtifactoryStandIn artifactory = new ArtifactoryStandIn().withLatency(20).withRepository("libs-release-local").start()) {
+ *     ArtifactoryBuildInfoClient client = new ArtifactoryBuildInfoClient(artifactory.getUrl(), "", "", log);
+ *     ...
+ * }
+ * </pre>
+ */
+public class ArtifactoryStandIn implements AutoCloseable {
+    public static final String VERSION = "7.21.0";
+    private static final String CONTEXT = "/artifactory";
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    static {
+        // The server writes the response headers and body separately. Without TCP_NODELAY, the body waits for the
+        // delayed acknowledgement of the headers, adding about 40ms to every request.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public enum Endpoint {
+        VERSION, REPOSITORIES, DEPLOY, DOWNLOAD, AQL, PATTERN_SEARCH, BUILD, PROMOTE, XRAY
+    }
+
+    // Repository types by key
+    private final Map<String, String> repositories = new ConcurrentHashMap<>();
+    // Items by repository path
+    private final Map<String, Item> items = new ConcurrentHashMap<>();
+    // Build-info JSONs by build name and number
+    private final Map<String, String> builds = new ConcurrentHashMap<>();
+    private final List<String> promotions = new CopyOnWriteArrayList<>();
+    // Range headers of the downloads, in the order they arrived
+    private final List<String> downloadRanges = new CopyOnWriteArrayList<>();
+    private final Map<Endpoint, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final Map<Endpoint, AtomicInteger> activeRequests = new ConcurrentHashMap<>();
+    private final Map<Endpoint, AtomicInteger> maxActiveRequests = new ConcurrentHashMap<>();
+    private final Map<Endpoint, Queue<Integer>> injectedErrors = new ConcurrentHashMap<>();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicInteger truncatedDownloads = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile long bytesPerSecond;
+    private volatile int xrayAlerts;
+    private volatile boolean ignoreRanges;
+    private HttpServer server;
+
+    /**
+     * @param latencyMillis The time to wait before handling each request.
+     */
+    public ArtifactoryStandIn withLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * @param bytesPerSecond The bandwidth limit of each upload and download. 0 for no limit.
+     */
+    public ArtifactoryStandIn withBandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    public ArtifactoryStandIn withRepository(String key) {
+        return withRepository(key, "local");
+    }
+
+    /**
+     * @param type The repository type: local, remote or virtual.
+     */
+    public ArtifactoryStandIn withRepository(String key, String type) {
+        repositories.put(key, type);
+        return this;
+    }
+
+    /**
+     * @param alerts The number of alerts of every Xray scan. The build fails the scan if there are alerts.
+     */
+    public ArtifactoryStandIn withXrayAlerts(int alerts) {
+        this.xrayAlerts = alerts;
+        return this;
+    }
+
+    /**
+     * Answers range requests with the whole file, like a proxy that does not support ranges, while still advertising
+     * Accept-Ranges.
+     */
+    public ArtifactoryStandIn ignoreRanges() {
+        this.ignoreRanges = true;
+        return this;
+    }
+
+    /**
+     * Closes the connection of the next downloads halfway through the response body.
+     *
+     * @param count The number of downloads to truncate.
+     */
+    public ArtifactoryStandIn truncateDownloads(int count) {
+        truncatedDownloads.set(count);
+        return this;
+    }
+
+    /**
+     * Fails the next requests to the endpoint.
+     *
+     * @param endpoint The endpoint.
+     * @param status   The HTTP status of the failed requests.
+     * @param count    The number of requests to fail.
+     */
+    public ArtifactoryStandIn failRequests(Endpoint endpoint, int status, int count) {
+        Queue<Integer> errors = injectedErrors.computeIfAbsent(endpoint, key -> new ConcurrentLinkedQueue<>());
+        for (int i = 0; i < count; i++) {
+            errors.add(status);
+        }
+        return this;
+    }
+
+    public ArtifactoryStandIn start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(CONTEXT + "/", this::handle);
+        server.start();
+        return this;
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + CONTEXT;
+    }
+
+    /**
+     * Adds a file to a repository, creating the repository if needed.
+     */
+    public ArtifactoryStandIn addFile(String repo, String path, byte[] content, Map<String, String> properties) {
+        repositories.putIfAbsent(repo, "local");
+        Item item = new Item(repo, path.contains("/") ? StringUtils.substringBeforeLast(path, "/") : ".",
+                path.contains("/") ? StringUtils.substringAfterLast(path, "/") : path, content, properties);
+        items.put(item.getRepoPath(), item);
+        return this;
+    }
+
+    public byte[] getFile(String repo, String path) {
+        Item item = items.get(repo + "/" + path);
+        return item == null ? null : item.content;
+    }
+
+    public Map<String, String> getProperties(String repo, String path) {
+        Item item = items.get(repo + "/" + path);
+        return item == null ? null : item.getProperties();
+    }
+
+    /**
+     * @return The paths of the files in the repository.
+     */
+    public Set<String> getFiles(String repo) {
+        return items.values().stream().filter(item -> item.getRepo().equals(repo))
+                .map(item -> StringUtils.removeStart(item.getRepoPath(), repo + "/")).collect(Collectors.toSet());
+    }
+
+    /**
+     * @return The published build-info JSON, or null if the build was not published.
+     */
+    public String getBuild(String buildName, String buildNumber) {
+        return builds.get(buildName + "/" + buildNumber);
+    }
+
+    /**
+     * @return The promotions, as "build-name/build-number" followed by the promotion request JSON.
+     */
+    public List<String> getPromotions() {
+        return promotions;
+    }
+
+    /**
+     * @return The Range headers of the downloads, e.g. "bytes=0-1023", in the order they arrived.
+     */
+    public List<String> getDownloadRanges() {
+        return downloadRanges;
+    }
+
+    public int getRequestCount(Endpoint endpoint) {
+        AtomicInteger count = requests.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return The maximum number of requests to the endpoint that were handled at the same time.
+     */
+    public int getMaxConcurrentRequests(Endpoint endpoint) {
+        AtomicInteger count = maxActiveRequests.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public void resetCounters() {
+        requests.clear();
+        maxActiveRequests.clear();
+        downloadRanges.clear();
+        bytesReceived.set(0);
+        bytesSent.set(0);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = StringUtils.removeStart(exchange.getRequestURI().getRawPath(), CONTEXT + "/");
+            String method = exchange.getRequestMethod();
+            Endpoint endpoint = getEndpoint(method, path);
+            if (endpoint == null) {
+                sendError(exchange, 404, "Unsupported request " + method + " " + path);
+                return;
+            }
+            requests.computeIfAbsent(endpoint, key -> new AtomicInteger()).incrementAndGet();
+            AtomicInteger active = activeRequests.computeIfAbsent(endpoint, key -> new AtomicInteger());
+            maxActiveRequests.computeIfAbsent(endpoint, key -> new AtomicInteger()).accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                dispatch(exchange, method, path, endpoint);
+            } finally {
+                active.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void dispatch(HttpExchange exchange, String method, String path, Endpoint endpoint) throws IOException, InterruptedException {
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+        Queue<Integer> errors = injectedErrors.get(endpoint);
+        Integer status = errors == null ? null : errors.poll();
+        if (status != null) {
+            read(exchange.getRequestBody());
+            sendError(exchange, status, "Injected error");
+            return;
+        }
+        switch (endpoint) {
+            case VERSION:
+                sendJson(exchange, 200, mapper.createObjectNode().put("version", VERSION).put("revision", "72100900"));
+                break;
+            case REPOSITORIES:
+                handleRepositories(exchange);
+                break;
+            case AQL:
+                handleAql(exchange);
+                break;
+            case PATTERN_SEARCH:
+                handlePatternSearch(exchange);
+                break;
+            case BUILD:
+                handleBuild(exchange, method, path);
+                break;
+            case PROMOTE:
+                handlePromote(exchange, path);
+                break;
+            case XRAY:
+                handleXray(exchange);
+                break;
+            case DEPLOY:
+                handleDeploy(exchange, path);
+                break;
+            case DOWNLOAD:
+                handleDownload(exchange, method, path);
+                break;
+        }
+    }
+
+    private static Endpoint getEndpoint(String method, String path) {
+        if (path.startsWith("api/")) {
+            if (path.equals("api/system/version")) {
+                return Endpoint.VERSION;
+            }
+            if (path.equals("api/repositories")) {
+                return Endpoint.REPOSITORIES;
+            }
+            if (path.equals("api/search/aql") && method.equals("POST")) {
+                return Endpoint.AQL;
+            }
+            if (path.equals("api/search/pattern") && method.equals("GET")) {
+                return Endpoint.PATTERN_SEARCH;
+            }
+            if (path.startsWith("api/build/promote/") && method.equals("POST")) {
+                return Endpoint.PROMOTE;
+            }
+            if (path.equals("api/build") && method.equals("PUT") || path.startsWith("api/build/") && method.equals("GET")) {
+                return Endpoint.BUILD;
+            }
+            if (path.equals("api/xray/scanBuild") && method.equals("POST")) {
+                return Endpoint.XRAY;
+            }
+            return null;
+        }
+        switch (method) {
+            case "PUT":
+                return Endpoint.DEPLOY;
+            case "GET":
+            case "HEAD":
+                return Endpoint.DOWNLOAD;
+            default:
+                return null;
+        }
+    }
+
+    private void handleRepositories(HttpExchange exchange) throws IOException, InterruptedException {
+        String type = StringUtils.substringAfter(StringUtils.defaultString(exchange.getRequestURI().getQuery()), "type=");
+        ArrayNode result = mapper.createArrayNode();
+        repositories.entrySet().stream()
+                .filter(repository -> type.isEmpty() || repository.getValue().equals(type))
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(repository -> result.addObject().put("key", repository.getKey())
+                        .put("type", repository.getValue().toUpperCase()).put("url", getUrl() + "/" + repository.getKey())
+                        .put("packageType", "generic"));
+        sendJson(exchange, 200, result);
+    }
+
+    private void handleAql(HttpExchange exchange) throws IOException, InterruptedException {
+        String query = new String(read(exchange.getRequestBody()), StandardCharsets.UTF_8);
+        AqlQuery aqlQuery = AqlQuery.parse(query);
+        boolean includeProperties = StringUtils.contains(query, "\"property") || StringUtils.contains(query, "\"@");
+        ArrayNode results = mapper.createArrayNode();
+        items.values().stream().filter(aqlQuery::matches).sorted(Comparator.comparing(Item::getRepoPath)).forEach(item -> {
+            ObjectNode result = results.addObject().put("repo", item.getRepo()).put("path", item.getPath())
+                    .put("name", item.getName()).put("actual_sha1", item.getSha1()).put("actual_md5", item.getMd5());
+            if (includeProperties && !item.getProperties().isEmpty()) {
+                ArrayNode properties = result.putArray("properties");
+                item.getProperties().forEach((key, value) -> properties.addObject().put("key", key).put("value", value));
+            }
+        });
+        ObjectNode response = mapper.createObjectNode();
+        response.set("results", results);
+        response.putObject("range").put("start_pos", 0).put("end_pos", results.size()).put("total", results.size());
+        sendJson(exchange, 200, response);
+    }
+
+    /**
+     * The pattern search of the legacy resolve patterns, 'repo:path' with Ant wildcards in the path.
+     */
+    private void handlePatternSearch(HttpExchange exchange) throws IOException, InterruptedException {
+        String sourcePattern = decode(StringUtils.substringAfter(StringUtils.defaultString(exchange.getRequestURI().getRawQuery()), "pattern="));
+        String repo = StringUtils.substringBefore(sourcePattern, ":");
+        Pattern pattern = toAntRegexp(StringUtils.substringAfter(sourcePattern, ":"));
+        ObjectNode response = mapper.createObjectNode().put("repoUri", getUrl() + "/" + repo).put("sourcePattern", sourcePattern);
+        ArrayNode files = response.putArray("files");
+        items.values().stream().filter(item -> item.getRepo().equals(repo))
+                .map(item -> StringUtils.removeStart(item.getRepoPath(), repo + "/"))
+                .filter(path -> pattern.matcher(path).matches()).sorted().forEach(files::add);
+        sendJson(exchange, 200, response);
+    }
+
+    /**
+     * '**' matches any number of directories, '*' and '?' match within a path segment.
+     */
+    private static Pattern toAntRegexp(String antPattern) {
+        StringBuilder regexp = new StringBuilder();
+        for (int i = 0; i < antPattern.length(); i++) {
+            char c = antPattern.charAt(i);
+            if (antPattern.startsWith("**/", i)) {
+                regexp.append("(?:.*/)?");
+                i += 2;
+            } else if (antPattern.startsWith("**", i)) {
+                regexp.append(".*");
+                i++;
+            } else if (c == '*') {
+                regexp.append("[^/]*");
+            } else if (c == '?') {
+                regexp.append("[^/]");
+            } else {
+                regexp.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regexp.toString());
+    }
+
+    private void handleBuild(HttpExchange exchange, String method, String path) throws IOException, InterruptedException {
+        if (method.equals("PUT")) {
+            String json = new String(read(exchange.getRequestBody()), StandardCharsets.UTF_8);
+            JsonNode build = mapper.readTree(json);
+            builds.put(build.path("name").asText() + "/" + build.path("number").asText(), json);
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+        String buildName = decode(StringUtils.substringBeforeLast(StringUtils.removeStart(path, "api/build/"), "/"));
+        String buildNumber = decode(StringUtils.substringAfterLast(path, "/"));
+        String build = getBuild(buildName, buildNumber);
+        if (build == null) {
+            sendError(exchange, 404, "No build was found for build name: " + buildName + ", build number: " + buildNumber);
+            return;
+        }
+        ObjectNode response = mapper.createObjectNode();
+        response.set("buildInfo", mapper.readTree(build));
+        response.put("uri", getUrl() + "/" + path);
+        sendJson(exchange, 200, response);
+    }
+
+    /**
+     * Promotes the build. Unless it is a dry run, the artifacts of the build, by their build.name and build.number
+     * properties, are copied or moved to the target repository.
+     */
+    private void handlePromote(HttpExchange exchange, String path) throws IOException, InterruptedException {
+        String buildPath = StringUtils.removeStart(path, "api/build/promote/");
+        String buildName = decode(StringUtils.substringBeforeLast(buildPath, "/"));
+        String buildNumber = decode(StringUtils.substringAfterLast(buildPath, "/"));
+        String json = new String(read(exchange.getRequestBody()), StandardCharsets.UTF_8);
+        if (getBuild(buildName, buildNumber) == null) {
+            sendError(exchange, 404, "Cannot find build by the name '" + buildName + "' and the number '" + buildNumber + "'.");
+            return;
+        }
+        JsonNode promotion = mapper.readTree(json);
+        String targetRepo = promotion.path("targetRepo").asText(null);
+        if (!promotion.path("dryRun").asBoolean() && StringUtils.isNotBlank(targetRepo)) {
+            repositories.putIfAbsent(targetRepo, "local");
+            for (Item item : new ArrayList<>(items.values())) {
+                if (buildName.equals(item.getProperties().get("build.name")) && buildNumber.equals(item.getProperties().get("build.number"))) {
+                    Item promoted = new Item(targetRepo, item.getPath(), item.getName(), item.content, item.getProperties());
+                    items.put(promoted.getRepoPath(), promoted);
+                    if (!promotion.path("copy").asBoolean()) {
+                        items.remove(item.getRepoPath());
+                    }
+                }
+            }
+        }
+        promotions.add(buildName + "/" + buildNumber + " " + json);
+        ObjectNode response = mapper.createObjectNode();
+        response.putArray("messages");
+        sendJson(exchange, 200, response);
+    }
+
+    private void handleXray(HttpExchange exchange) throws IOException, InterruptedException {
+        JsonNode request = mapper.readTree(read(exchange.getRequestBody()));
+        String buildName = request.path("buildName").asText();
+        String buildNumber = request.path("buildNumber").asText();
+        ObjectNode response = mapper.createObjectNode();
+        if (getBuild(buildName, buildNumber) == null) {
+            response.putArray("errors").addObject().put("status", 404).put("message", "Build " + buildName + " number " + buildNumber + " was not found");
+            sendJson(exchange, 200, response);
+            return;
+        }
+        int alerts = xrayAlerts;
+        response.putObject("summary")
+                .put("message", "Build " + buildName + " number " + buildNumber + " was scanned by Xray and " + alerts + " alerts were generated")
+                .put("total_alerts", alerts).put("fail_build", alerts > 0)
+                .put("more_details_url", getUrl().replace("/artifactory", "/ui/builds/" + buildName + "/" + buildNumber));
+        response.putArray("alerts");
+        response.putArray("licenses");
+        sendJson(exchange, 200, response);
+    }
+
+    /**
+     * Deploys a file. A checksum deploy succeeds only if a file with the same checksum exists, and a regular deploy
+     * fails if the content does not match the checksum headers.
+     */
+    private void handleDeploy(HttpExchange exchange, String path) throws IOException, InterruptedException {
+        String[] pathAndParams = path.split(";");
+        String repoPath = decode(pathAndParams[0]);
+        String repo = StringUtils.substringBefore(repoPath, "/");
+        if (!repositories.containsKey(repo) || !repoPath.contains("/")) {
+            read(exchange.getRequestBody());
+            sendError(exchange, 404, "Repository " + repo + " not found");
+            return;
+        }
+        Map<String, String> properties = new HashMap<>();
+        for (int i = 1; i < pathAndParams.length; i++) {
+            properties.put(decode(StringUtils.substringBefore(pathAndParams[i], "=")), decode(StringUtils.substringAfter(pathAndParams[i], "=")));
+        }
+        String sha1 = exchange.getRequestHeaders().getFirst("X-Checksum-Sha1");
+        String md5 = exchange.getRequestHeaders().getFirst("X-Checksum-Md5");
+        byte[] content;
+        if (Boolean.parseBoolean(exchange.getRequestHeaders().getFirst("X-Checksum-Deploy"))) {
+            read(exchange.getRequestBody());
+            Item existing = items.values().stream().filter(item -> item.getSha1().equals(sha1)).findFirst().orElse(null);
+            if (existing == null) {
+                sendError(exchange, 404, "Checksum deploy failed. No existing file with SHA1 " + sha1);
+                return;
+            }
+            content = existing.content;
+        } else {
+            content = read(exchange.getRequestBody());
+            if (sha1 != null && !sha1.equals(DigestUtils.sha1Hex(content)) || md5 != null && !md5.equals(DigestUtils.md5Hex(content))) {
+                sendError(exchange, 409, "Checksum mismatch of " + repoPath);
+                return;
+            }
+        }
+        addFile(repo, StringUtils.substringAfter(repoPath, "/"), content, properties);
+        Item item = items.get(repoPath);
+        ObjectNode response = mapper.createObjectNode().put("repo", repo).put("path", "/" + StringUtils.substringAfter(repoPath, "/"))
+                .put("downloadUri", getUrl() + "/" + repoPath).put("size", String.valueOf(content.length));
+        response.putObject("checksums").put("sha1", item.getSha1()).put("md5", item.getMd5());
+        response.putObject("originalChecksums").put("sha1", item.getSha1()).put("md5", item.getMd5());
+        sendJson(exchange, 201, response);
+    }
+
+    /**
+     * Downloads a file, or a range of it.
+     */
+    private void handleDownload(HttpExchange exchange, String method, String path) throws IOException, InterruptedException {
+        Item item = items.get(decode(StringUtils.substringBefore(path, ";")));
+        if (item == null) {
+            sendError(exchange, 404, "File not found");
+            return;
+        }
+        exchange.getResponseHeaders().add("X-Checksum-Sha1", item.getSha1());
+        exchange.getResponseHeaders().add("X-Checksum-Md5", item.getMd5());
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        if (method.equals("HEAD")) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(item.content.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        int start = 0;
+        int end = item.content.length - 1;
+        String rangeHeader = exchange.getRequestHeaders().getFirst("Range");
+        if (rangeHeader != null) {
+            downloadRanges.add(rangeHeader);
+        }
+        Matcher range = RANGE.matcher(StringUtils.defaultString(rangeHeader));
+        boolean partial = range.matches() && !ignoreRanges;
+        if (partial) {
+            start = Integer.parseInt(range.group(1));
+            end = range.group(2).isEmpty() ? end : Math.min(end, Integer.parseInt(range.group(2)));
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + item.content.length);
+        }
+        int length = end - start + 1;
+        exchange.sendResponseHeaders(partial ? 206 : 200, length);
+        if (truncatedDownloads.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            // Closing the exchange before the whole body is written closes the connection
+            length /= 2;
+            copy(new ByteArrayInputStream(item.content, start, length), exchange.getResponseBody(), bytesSent);
+            return;
+        }
+        write(new ByteArrayInputStream(item.content, start, length), exchange.getResponseBody());
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode json) throws IOException, InterruptedException {
+        byte[] content = mapper.writeValueAsBytes(json);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, content.length);
+        write(new ByteArrayInputStream(content), exchange.getResponseBody());
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ObjectNode response = mapper.createObjectNode();
+        response.putArray("errors").addObject().put("status", status).put("message", message);
+        byte[] content = mapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, content.length);
+        bytesSent.addAndGet(content.length);
+        exchange.getResponseBody().write(content);
+    }
+
+    private byte[] read(InputStream inputStream) throws IOException, InterruptedException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        copy(inputStream, outputStream, bytesReceived);
+        return outputStream.toByteArray();
+    }
+
+    private void write(InputStream inputStream, OutputStream outputStream) throws IOException, InterruptedException {
+        try (OutputStream out = outputStream) {
+            copy(inputStream, out, bytesSent);
+        }
+    }
+
+    /**
+     * Copies the stream, within the bandwidth limit.
+     * The bytes are counted before they are written, so that they are counted by the time the client receives them.
+     */
+    private void copy(InputStream inputStream, OutputStream outputStream, AtomicLong counter) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long total = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            counter.addAndGet(read);
+            outputStream.write(buffer, 0, read);
+            total += read;
+            long limit = bytesPerSecond;
+            if (limit > 0) {
+                long aheadMillis = total * 1000 / limit - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (aheadMillis > 0) {
+                    Thread.sleep(aheadMillis);
+                }
+            }
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value.replace("+", "%2B"), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * A file stored in a repository.
+     */
+    static class Item {
+        private final String repo;
+        private final String path;
+        private final String name;
+        private final byte[] content;
+        private final String sha1;
+        private final String md5;
+        private final Map<String, String> properties;
+
+        Item(String repo, String path, String name, byte[] content, Map<String, String> properties) {
+            this.repo = repo;
+            this.path = path;
+            this.name = name;
+            this.content = content;
+            this.sha1 = DigestUtils.sha1Hex(content);
+            this.md5 = DigestUtils.md5Hex(content);
+            this.properties = properties == null ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(properties));
+        }
+
+        String getRepo() {
+            return repo;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getSha1() {
+            return sha1;
+        }
+
+        String getMd5() {
+            return md5;
+        }
+
+        Map<String, String> getProperties() {
+            return properties;
+        }
+
+        String getRepoPath() {
+            return repo + "/" + (path.equals(".") ? name : path + "/" + name);
+        }
+    }
+}
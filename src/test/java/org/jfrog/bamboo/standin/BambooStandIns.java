@@ -0,0 +1,78 @@
+package org.jfrog.bamboo.standin;
+
+import com.atlassian.bamboo.build.BuildDefinition;
+import com.atlassian.bamboo.build.logger.BuildLogger;
+import com.atlassian.bamboo.v2.build.BuildContext;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Stand-ins for the Bamboo build objects used by the release management classes, for running them on a local
+ * checkout outside of Bamboo. Methods that are not answered return null, false or zero.
+ */
+public class BambooStandIns {
+    public static final String BUILD_RESULT_KEY = "PROJ-PLAN-1";
+    private static final long REPOSITORY_ID = 1;
+
+    /**
+     * @return A build context of a plan with a single repository checked out into the given directory, and no
+     * release management task configuration.
+     */
+    public static BuildContext buildContext(File checkoutDirectory) {
+        BuildDefinition buildDefinition = standIn(BuildDefinition.class, (method, args) ->
+                "getTaskDefinitions".equals(method.getName()) ? Collections.emptyList() : null);
+        return standIn(BuildContext.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getRelevantRepositoryIds":
+                    return Set.class.isAssignableFrom(method.getReturnType()) ?
+                            Collections.singleton(REPOSITORY_ID) : Collections.singletonList(REPOSITORY_ID);
+                case "getCheckoutLocation":
+                    return Collections.singletonMap(REPOSITORY_ID, checkoutDirectory.getAbsolutePath());
+                case "getBuildDefinition":
+                    return buildDefinition;
+                case "getBuildResultKey":
+                    return BUILD_RESULT_KEY;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * @return A build logger that drops the log entries.
+     */
+    public static BuildLogger buildLogger() {
+        return standIn(BuildLogger.class, (method, args) ->
+                args != null && args.length > 0 && args[0] instanceof String && method.getReturnType() == String.class ?
+                        args[0] : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T standIn(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + " stand-in";
+            }
+            Object value = answer.answer(method, args);
+            if (value == null && method.getReturnType().isPrimitive() && method.getReturnType() != void.class) {
+                // The default value of the primitive type
+                return Array.get(Array.newInstance(method.getReturnType(), 1), 0);
+            }
+            return value;
+        });
+    }
+
+    private interface Answer {
+        Object answer(Method method, Object[] args);
+    }
+}
@@ -0,0 +1,186 @@
+package org.jfrog.bamboo.standin;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jfrog.bamboo.util.AggregatedBuildsPublisher;
+import org.jfrog.bamboo.util.generic.BuildArtifactsDownloader;
+import org.jfrog.bamboo.util.generic.ResolvePatternsPlanner;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.api.builder.PromotionBuilder;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
+import org.jfrog.build.extractor.clientConfiguration.ArtifactoryBuildInfoClientBuilder;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryXrayClient;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.SpecsHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.jfrog.bamboo.standin.ArtifactoryStandIn.Endpoint;
+import static org.junit.Assert.*;
+
+/**
+ * Drives the code paths of the generic deploy, generic resolve and publish build-info tasks against the Artifactory
+ * stand-in, with many files and builds and a latency on every request.
+ */
+public class GenericTasksLoadTest {
+    private static final String REPO = "generic-local";
+    private static final int FILES = 200;
+    private static final long LATENCY_MILLIS = 5;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final SpecsHelper specsHelper = new SpecsHelper(new NullLog());
+    private ArtifactoryStandIn artifactory;
+    private ArtifactoryBuildInfoClientBuilder clientBuilder;
+    private ArtifactoryDependenciesClient dependenciesClient;
+
+    @Before
+    public void setUp() throws IOException {
+        artifactory = new ArtifactoryStandIn().withRepository(REPO).withLatency(LATENCY_MILLIS).start();
+        clientBuilder = new ArtifactoryBuildInfoClientBuilder().setArtifactoryUrl(artifactory.getUrl())
+                .setUsername("").setPassword("").setLog(new NullLog());
+        dependenciesClient = new ArtifactoryDependenciesClient(artifactory.getUrl(), "", "", new NullLog());
+    }
+
+    @After
+    public void tearDown() {
+        dependenciesClient.close();
+        artifactory.close();
+    }
+
+    @Test
+    public void shouldDeployFilesBySpec() throws Exception {
+        File workspace = temporaryFolder.newFolder("workspace");
+        for (int i = 0; i < FILES; i++) {
+            // Files of 20KB and above are deployed by checksum
+            writeFile(new File(workspace, "dist/file-" + i + ".bin"), 20 * 1024 + i);
+        }
+        String spec = "{\"files\":[{\"pattern\":\"" + workspace.getAbsolutePath().replace('\\', '/') + "/dist/(*)\",\"target\":\"" + REPO + "/load/{1}\"}]}";
+        Map<String, String> buildProperties = new HashMap<>();
+        buildProperties.put("build.name", "load");
+        buildProperties.put("build.number", "1");
+
+        List<Artifact> artifacts = specsHelper.uploadArtifactsBySpec(spec, workspace, buildProperties, clientBuilder);
+
+        assertEquals(FILES, artifacts.size());
+        assertEquals(FILES, artifactory.getFiles(REPO).size());
+        assertEquals("1", artifactory.getProperties(REPO, "load/file-7.bin").get("build.number"));
+        // Each file is first deployed by checksum, and then with its content
+        assertEquals(FILES * 2, artifactory.getRequestCount(Endpoint.DEPLOY));
+
+        // Deploying the same files again only sends their checksums
+        artifactory.resetCounters();
+        specsHelper.uploadArtifactsBySpec(spec.replace("/load/", "/copy/"), workspace, buildProperties, clientBuilder);
+        assertEquals(FILES, artifactory.getRequestCount(Endpoint.DEPLOY));
+        assertEquals(0, artifactory.getBytesReceived());
+        assertEquals(FILES * 2, artifactory.getFiles(REPO).size());
+    }
+
+    @Test
+    public void shouldResolveFilesBySpecAndPatterns() throws IOException {
+        for (int i = 0; i < FILES; i++) {
+            artifactory.addFile(REPO, "resolve/dir-" + i % 10 + "/file-" + i + ".zip", createContent(1024 + i), null);
+        }
+
+        File specTarget = temporaryFolder.newFolder("spec");
+        String spec = "{\"files\":[{\"pattern\":\"" + REPO + "/resolve/*.zip\",\"target\":\"" + specTarget.getAbsolutePath().replace('\\', '/') + "/\"}]}";
+        List<Dependency> dependencies = specsHelper.downloadArtifactsBySpec(spec, dependenciesClient, "");
+        assertEquals(FILES, dependencies.size());
+        assertEquals(1, artifactory.getRequestCount(Endpoint.AQL));
+        assertArrayEquals(artifactory.getFile(REPO, "resolve/dir-3/file-13.zip"),
+                Files.readAllBytes(new File(specTarget, "resolve/dir-3/file-13.zip").toPath()));
+
+        artifactory.resetCounters();
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            patterns.add(REPO + ":resolve/dir-" + i + "/*.zip=>patterns");
+        }
+        Set<DownloadableArtifact> artifacts = new ResolvePatternsPlanner(dependenciesClient, new NullLog()).collectArtifactsToDownload(patterns);
+        assertEquals(FILES, artifacts.size());
+        assertEquals(1, artifactory.getRequestCount(Endpoint.AQL));
+    }
+
+    @Test
+    public void shouldPublishPromoteAndScanBuilds() throws IOException, InterruptedException {
+        List<Build> builds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            builds.add(new BuildInfoBuilder("load-" + i).number("1").started("2020-01-01T00:00:00.000+0000")
+                    .addModule(new ModuleBuilder().id("org.example:module-" + i + ":1.0").build()).build());
+        }
+        artifactory.failRequests(Endpoint.BUILD, 400, 2);
+
+        // The repositories request closes the client
+        try (ArtifactoryBuildInfoClient client = clientBuilder.build()) {
+            assertEquals(Collections.singletonList(REPO), client.getLocalRepositoriesKeys());
+        }
+        Build published;
+        try (ArtifactoryBuildInfoClient client = clientBuilder.build()) {
+            AggregatedBuildsPublisher.Result result = new AggregatedBuildsPublisher(client, new NullLog()).publish(builds);
+            assertEquals(18, result.getPublished().size());
+            assertEquals(2, result.getFailed().size());
+            for (Build failed : result.getFailed().keySet()) {
+                assertNull(artifactory.getBuild(failed.getName(), failed.getNumber()));
+            }
+
+            published = result.getPublished().get(0);
+            assertEquals(published.getName(), client.getBuildInfo(published.getName(), "1", null).getName());
+            client.stageBuild(published.getName(), "1", new PromotionBuilder().status("Released").targetRepo("release-local").build()).close();
+            assertEquals(1, artifactory.getPromotions().size());
+        }
+
+        artifactory.withXrayAlerts(3);
+        ArtifactoryXrayResponse response = new ArtifactoryXrayClient(artifactory.getUrl(), "", "", new NullLog())
+                .xrayScanBuild(published.getName(), published.getNumber(), "bamboo");
+        assertEquals(3, response.getSummary().getTotalAlerts());
+        assertTrue(response.getSummary().isFailBuild());
+    }
+
+    @Test
+    public void shouldDownloadBuildArtifactsWithinBandwidth() throws IOException {
+        int size = 256 * 1024;
+        byte[] content = createContent(size);
+        artifactory.addFile(REPO, "builds/large.bin", content, null).withBandwidth(size * 2);
+        Artifact artifact = new ArtifactBuilder("large.bin").remotePath("builds/large.bin")
+                .sha1(DigestUtils.sha1Hex(content)).md5(DigestUtils.md5Hex(content)).build();
+        Build build = new BuildInfoBuilder("bandwidth").number("1").started("2020-01-01T00:00:00.000+0000")
+                .addModule(new ModuleBuilder().id("generic").artifacts(Collections.singletonList(artifact)).build()).build();
+
+        long start = System.currentTimeMillis();
+        List<Dependency> dependencies = new BuildArtifactsDownloader(dependenciesClient, temporaryFolder.getRoot(), new NullLog()).download(build, REPO);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(1, dependencies.size());
+        assertTrue("Download took " + elapsed + "ms", elapsed >= 450);
+        assertEquals(size, artifactory.getBytesSent());
+    }
+
+    private static void writeFile(File file, int size) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), createContent(size));
+    }
+
+    /**
+     * @return Content which is unique for each size.
+     */
+    private static byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,116 @@
+package org.jfrog.bamboo.util;
+
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn.Endpoint;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class AggregatedBuildsPublisherTest {
+    private ArtifactoryStandIn artifactory;
+    private ArtifactoryBuildInfoClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        // The latency keeps the requests of the concurrently published builds in flight together
+        artifactory = new ArtifactoryStandIn().withLatency(100).start();
+        client = new ArtifactoryBuildInfoClient(artifactory.getUrl(), "", "", new NullLog());
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        artifactory.close();
+    }
+
+    @Test
+    public void shouldPublishBuildsConcurrently() throws InterruptedException {
+        List<Build> builds = Arrays.asList(createBuild("app", "1"), createBuild("web", "1"), createBuild("cli", "1"));
+
+        AggregatedBuildsPublisher.Result result = new AggregatedBuildsPublisher(client, new NullLog()).publish(builds);
+
+        assertEquals(3, result.getPublished().size());
+        assertTrue(result.getFailed().isEmpty());
+        for (Build build : builds) {
+            assertNotNull(artifactory.getBuild(build.getName(), build.getNumber()));
+        }
+        assertEquals(3, artifactory.getRequestCount(Endpoint.BUILD));
+        assertTrue("Builds should be published concurrently", artifactory.getMaxConcurrentRequests(Endpoint.BUILD) > 1);
+        assertTrue(artifactory.getMaxConcurrentRequests(Endpoint.BUILD) <= AggregatedBuildsPublisher.PUBLISH_THREADS);
+    }
+
+    @Test
+    public void shouldReportPartialFailure() throws InterruptedException {
+        List<Build> builds = Arrays.asList(createBuild("app", "1"), createBuild("web", "1"), createBuild("cli", "2"));
+        artifactory.failRequests(Endpoint.BUILD, 400, 1);
+
+        AggregatedBuildsPublisher.Result result = new AggregatedBuildsPublisher(client, new NullLog()).publish(builds);
+
+        // The rejected build is the one whose request arrived first
+        assertEquals(2, result.getPublished().size());
+        assertEquals(1, result.getFailed().size());
+        Build failed = result.getFailed().keySet().iterator().next();
+        assertNull(artifactory.getBuild(failed.getName(), failed.getNumber()));
+        for (Build published : result.getPublished()) {
+            assertNotNull(artifactory.getBuild(published.getName(), published.getNumber()));
+        }
+        String message = result.getFailureMessage();
+        assertTrue(message, message.startsWith("Failed to publish builds: " + failed.getName() + " #" + failed.getNumber() + " ("));
+        assertTrue(message, message.contains("Published builds: "));
+    }
+
+    @Test
+    public void shouldReportRuntimeFailure() throws InterruptedException {
+        // A client that fails with an unchecked exception, e.g. on a build-info it cannot serialize
+        ArtifactoryBuildInfoClient failingClient = new ArtifactoryBuildInfoClient(artifactory.getUrl(), "", "", new NullLog()) {
+            @Override
+            public void sendBuildInfo(Build build, String project) throws IOException {
+                if ("broken".equals(build.getName())) {
+                    throw new IllegalStateException();
+                }
+                super.sendBuildInfo(build, project);
+            }
+        };
+        List<Build> builds = Arrays.asList(createBuild("app", "1"), createBuild("broken", "1"), createBuild("web", "2"));
+        try {
+            AggregatedBuildsPublisher.Result result = new AggregatedBuildsPublisher(failingClient, new NullLog()).publish(builds);
+
+            Set<String> published = result.getPublished().stream().map(Build::getName).collect(Collectors.toSet());
+            assertEquals(new HashSet<>(Arrays.asList("app", "web")), published);
+            assertEquals(Collections.singletonList("broken"), result.getFailed().keySet().stream().map(Build::getName).collect(Collectors.toList()));
+            assertTrue(result.getFailed().values().iterator().next() instanceof IllegalStateException);
+            String message = result.getFailureMessage();
+            assertTrue(message, message.startsWith("Failed to publish builds: broken #1 (java.lang.IllegalStateException)."));
+        } finally {
+            failingClient.close();
+        }
+    }
+
+    @Test
+    public void shouldMergeBuildsWithSameNameAndNumber() {
+        Build first = createBuild("app", "1");
+        List<Build> merged = AggregatedBuildsPublisher.mergeBuilds(Arrays.asList(first, createBuild("web", "1"),
+                createBuild("app", "2"), createBuild("app", "1")));
+
+        assertEquals(Arrays.asList("app #1", "web #1", "app #2"),
+                merged.stream().map(build -> build.getName() + " #" + build.getNumber()).collect(Collectors.toList()));
+        assertSame(first, merged.get(0));
+        assertEquals(2, first.getModules().size());
+    }
+
+    private static Build createBuild(String name, String number) {
+        return new BuildInfoBuilder(name).number(number).started("2020-01-01T00:00:00.000+0000")
+                .addModule(new ModuleBuilder().id(name + ":" + UUID.randomUUID()).build()).build();
+    }
+}
@@ -0,0 +1,90 @@
+package org.jfrog.bamboo.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
+import org.jfrog.bamboo.util.TaskPhaseTimings.PhaseTiming;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskPhaseTimingsTest {
+
+    @Test
+    public void shouldSumRepeatedPhases() {
+        TaskPhaseTimings timings = new TaskPhaseTimings("deploy");
+        timings.stop(Phase.TRANSFER, timings.start() - 2_000_000);
+        timings.stop(Phase.TRANSFER, timings.start() - 3_000_000);
+        timings.addBytes(Phase.TRANSFER, 1024);
+        timings.addBytes(Phase.TRANSFER, 1024);
+        timings.addItems(Phase.TRANSFER, 2);
+
+        List<PhaseTiming> phaseTimings = timings.getPhaseTimings();
+        assertEquals(1, phaseTimings.size());
+        assertEquals(Phase.TRANSFER, phaseTimings.get(0).getPhase());
+        assertTrue(phaseTimings.get(0).getMillis() >= 5);
+        assertEquals(2048, phaseTimings.get(0).getBytes());
+        assertEquals("2 KB", phaseTimings.get(0).getDisplayBytes());
+        assertEquals(2, phaseTimings.get(0).getItems());
+    }
+
+    @Test
+    public void shouldParseAppendedTimings() {
+        TaskPhaseTimings maven = new TaskPhaseTimings("Build | install\nthe project");
+        maven.stop(Phase.EXTERNAL_PROCESS, maven.start());
+        maven.addBytes(Phase.BUILD_INFO_PARSING, 4096);
+        maven.addItems(Phase.BUILD_INFO_PARSING, 12);
+        TaskPhaseTimings publish = new TaskPhaseTimings("publish_build_info");
+        publish.addItems(Phase.PUBLISH, 3);
+
+        String serialized = TaskPhaseTimings.append(TaskPhaseTimings.append(null, maven), publish);
+        List<TaskPhaseTimings> parsed = TaskPhaseTimings.parse(serialized);
+
+        assertEquals(2, parsed.size());
+        assertEquals("Build   install the project", parsed.get(0).getTaskName());
+        List<PhaseTiming> mavenPhases = parsed.get(0).getPhaseTimings();
+        assertEquals(2, mavenPhases.size());
+        assertEquals(Phase.EXTERNAL_PROCESS, mavenPhases.get(0).getPhase());
+        assertEquals(Phase.BUILD_INFO_PARSING, mavenPhases.get(1).getPhase());
+        assertEquals(4096, mavenPhases.get(1).getBytes());
+        assertEquals(12, mavenPhases.get(1).getItems());
+        assertEquals("publish_build_info", parsed.get(1).getTaskName());
+        assertEquals(3, parsed.get(1).getPhaseTimings().get(0).getItems());
+    }
+
+    @Test
+    public void shouldDropOldestTasksWhenTooLong() {
+        String serialized = null;
+        for (int i = 0; i < 200; i++) {
+            TaskPhaseTimings timings = new TaskPhaseTimings("task-" + i);
+            for (Phase phase : Phase.values()) {
+                timings.addItems(phase, i);
+            }
+            serialized = TaskPhaseTimings.append(serialized, timings);
+        }
+
+        assertTrue(serialized.length() <= TaskPhaseTimings.MAX_SERIALIZED_LENGTH);
+        List<TaskPhaseTimings> parsed = TaskPhaseTimings.parse(serialized);
+        assertTrue(parsed.size() < 200);
+        assertEquals("task-199", parsed.get(parsed.size() - 1).getTaskName());
+        assertEquals(Phase.values().length, parsed.get(parsed.size() - 1).getPhaseTimings().size());
+
+        TaskPhaseTimings longName = new TaskPhaseTimings(StringUtils.repeat('a', TaskPhaseTimings.MAX_SERIALIZED_LENGTH));
+        assertEquals(TaskPhaseTimings.MAX_TASK_NAME_LENGTH, longName.getTaskName().length());
+    }
+
+    @Test
+    public void shouldSkipMalformedPhases() {
+        List<TaskPhaseTimings> parsed = TaskPhaseTimings.parse("task|t:12:0:0|z:1:2:3|x:a:1:1|x:5:100|P:7:0:1");
+
+        assertEquals(1, parsed.size());
+        List<PhaseTiming> phaseTimings = parsed.get(0).getPhaseTimings();
+        assertEquals(2, phaseTimings.size());
+        assertEquals(Phase.TOTAL, phaseTimings.get(0).getPhase());
+        assertEquals(12, phaseTimings.get(0).getMillis());
+        assertEquals(Phase.PUBLISH, phaseTimings.get(1).getPhase());
+        assertTrue(TaskPhaseTimings.parse(null).isEmpty());
+        assertTrue(TaskPhaseTimings.parse("").isEmpty());
+    }
+}
@@ -0,0 +1,121 @@
+package org.jfrog.bamboo.util;
+
+import org.jfrog.bamboo.util.TaskPhaseTimings.Phase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TaskTraceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldTraceMeasuredPhases() {
+        TaskPhaseTimings timings = new TaskPhaseTimings("deploy");
+        TaskTrace trace = new TaskTrace(timings.getTaskName());
+        timings.setTrace(trace);
+        long start = timings.start();
+        timings.stop(Phase.CHECKSUMS, timings.start());
+        timings.stop(Phase.TRANSFER, timings.start());
+        timings.stop(Phase.TOTAL, start);
+        assertEquals(3, trace.getEventCount());
+
+        timings.setTrace(null);
+        timings.stop(Phase.TRANSFER, timings.start());
+        assertEquals(3, trace.getEventCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldWriteTasksOnSeparateTracks() throws Exception {
+        File traceFile = new File(temporaryFolder.getRoot(), TaskTrace.TRACE_FILE_NAME);
+        TaskTrace maven = new TaskTrace("Build the project");
+        long start = System.nanoTime();
+        maven.span("External process", "phase", start, start + 2_000_000, null);
+        maven.instant("Warning", "log", Collections.singletonMap("message", "Slow download"));
+        maven.writeTo(traceFile, "PROJ-PLAN-JOB1-1");
+        TaskTrace publish = new TaskTrace("Publish the build-info");
+        start = System.nanoTime();
+        publish.span("PUT /api/build", "http", start, start + 5_000, Collections.singletonMap("status", "succeeded"));
+        publish.writeTo(traceFile, "PROJ-PLAN-JOB1-1");
+
+        Map<String, Object> trace = JsonUtils.getMapper().readValue(traceFile, Map.class);
+        assertEquals("ms", trace.get("displayTimeUnit"));
+        List<Map<String, Object>> events = (List<Map<String, Object>>) trace.get("traceEvents");
+        assertEquals(6, events.size());
+        List<Map<String, Object>> metadata = events.stream().filter(event -> "M".equals(event.get("ph"))).collect(Collectors.toList());
+        assertEquals(3, metadata.size());
+        assertEquals("PROJ-PLAN-JOB1-1", ((Map<String, Object>) metadata.get(0).get("args")).get("name"));
+        assertEquals("Build the project", ((Map<String, Object>) metadata.get(1).get("args")).get("name"));
+        assertEquals(1, metadata.get(1).get("tid"));
+        assertEquals(2, metadata.get(2).get("tid"));
+
+        Map<String, Object> process = events.get(2);
+        assertEquals("External process", process.get("name"));
+        assertEquals("X", process.get("ph"));
+        assertEquals(2000, ((Number) process.get("dur")).longValue());
+        assertEquals(1, process.get("tid"));
+        assertTrue(((Number) process.get("ts")).longValue() > 1_000_000_000_000_000L);
+        assertEquals("i", events.get(3).get("ph"));
+        assertEquals("Slow download", ((Map<String, Object>) events.get(3).get("args")).get("message"));
+        Map<String, Object> request = events.get(5);
+        assertEquals("PUT /api/build", request.get("name"));
+        assertEquals("http", request.get("cat"));
+        assertEquals(5, ((Number) request.get("dur")).longValue());
+        assertEquals(2, request.get("tid"));
+    }
+
+    @Test
+    public void shouldAddEventsOfConcurrentThreads() throws Exception {
+        TaskTrace trace = new TaskTrace("deploy");
+        int threads = 8;
+        int spansPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    for (int j = 0; j < spansPerThread; j++) {
+                        trace.span("PUT /repo/file", "http", start, start, null);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * spansPerThread, trace.getEventCount());
+    }
+
+    @Test
+    public void shouldDropEventsAboveLimit() throws Exception {
+        TaskTrace trace = new TaskTrace("deploy");
+        long start = System.nanoTime();
+        for (int i = 0; i < TaskTrace.MAX_EVENTS + 10; i++) {
+            trace.span("Checksum calculation", "phase", start, start, null);
+        }
+        assertEquals(TaskTrace.MAX_EVENTS, trace.getEventCount());
+
+        File traceFile = temporaryFolder.newFile();
+        trace.writeTo(traceFile, "PROJ-PLAN-JOB1-1");
+        String content = new String(Files.readAllBytes(traceFile.toPath()));
+        assertTrue(content.contains("deploy (10 events dropped)"));
+    }
+}
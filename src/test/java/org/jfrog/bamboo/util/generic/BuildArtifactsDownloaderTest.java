@@ -0,0 +1,186 @@
+package org.jfrog.bamboo.util.generic;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jfrog.build.api.Artifact;
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.Module;
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BuildArtifactsDownloaderTest {
+    private static final String REPO = "libs-release-local";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Map<String, byte[]> repository = new HashMap<>();
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    // Requests wait for each other until the latch is released, to verify the downloads are parallel
+    private CountDownLatch concurrentRequests = new CountDownLatch(0);
+    private HttpServer server;
+    private ArtifactoryDependenciesClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(BuildArtifactsDownloader.DOWNLOAD_THREADS));
+        server.createContext("/artifactory/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.add(exchange.getRequestMethod() + " " + path);
+            concurrentRequests.countDown();
+            try {
+                concurrentRequests.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] content = repository.get(path.substring("/artifactory/".length()));
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, content.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(content);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        client = new ArtifactoryDependenciesClient("http://localhost:" + server.getAddress().getPort() + "/artifactory", "", "", new NullLog());
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldDownloadBuildArtifactsWithoutSearching() throws IOException {
+        Build build = createBuild(
+                createModule("generic", createArtifact("setup.zip", "dist/1.0/setup.zip", "setup")),
+                createModule("org.example:app:1.0", createArtifact("app-1.0.jar", null, "jar"), createArtifact("app-1.0.pom", null, "pom")));
+
+        concurrentRequests = new CountDownLatch(BuildArtifactsDownloader.DOWNLOAD_THREADS);
+        List<Dependency> dependencies = download(build);
+        assertEquals(3, dependencies.size());
+        assertEquals("setup", read("dist/1.0/setup.zip"));
+        assertEquals("jar", read("org/example/app/1.0/app-1.0.jar"));
+        assertEquals("pom", read("org/example/app/1.0/app-1.0.pom"));
+        assertEquals(DigestUtils.sha1Hex("jar"), dependencies.stream()
+                .filter(dependency -> "app-1.0.jar".equals(dependency.getId())).findFirst().get().getSha1());
+
+        // One download per artifact, and no searches
+        assertEquals(new HashSet<>(Arrays.asList(
+                "GET /artifactory/" + REPO + "/dist/1.0/setup.zip",
+                "GET /artifactory/" + REPO + "/org/example/app/1.0/app-1.0.jar",
+                "GET /artifactory/" + REPO + "/org/example/app/1.0/app-1.0.pom")), new HashSet<>(requests));
+        assertEquals(3, requests.size());
+        assertEquals("Artifacts should be downloaded in parallel", 0, concurrentRequests.getCount());
+    }
+
+    @Test
+    public void shouldNotDownloadUpToDateFiles() throws IOException {
+        Build build = createBuild(createModule("generic", createArtifact("a.txt", "a.txt", "a"), createArtifact("b.txt", "b.txt", "b")));
+        download(build);
+        requests.clear();
+
+        Files.write(new File(temporaryFolder.getRoot(), "b.txt").toPath(), "modified".getBytes(StandardCharsets.UTF_8));
+        assertEquals(2, download(build).size());
+        assertEquals(Collections.singletonList("GET /artifactory/" + REPO + "/b.txt"), requests);
+        assertEquals("b", read("b.txt"));
+    }
+
+    @Test
+    public void shouldFailOnChecksumMismatch() {
+        Artifact artifact = createArtifact("a.txt", "a.txt", "a");
+        repository.put(REPO + "/a.txt", "tampered".getBytes(StandardCharsets.UTF_8));
+        try {
+            download(createBuild(createModule("generic", artifact)));
+            fail("Expected a checksum mismatch");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Checksum mismatch"));
+        }
+        assertArrayEquals(new String[0], temporaryFolder.getRoot().list());
+    }
+
+    @Test
+    public void shouldFailWhenArtifactPathIsUnknown() {
+        Artifact artifact = new ArtifactBuilder("a.txt").sha1(DigestUtils.sha1Hex("a")).build();
+        try {
+            download(createBuild(createModule("generic", artifact)));
+            fail("Expected an unknown artifact path");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("Download it using File Specs instead."));
+        }
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    public void shouldFailWhenArtifactPathLeadsOutsideOfTargetDirectory() throws IOException {
+        File targetDir = temporaryFolder.newFolder("target");
+        for (String remotePath : new String[]{"../outside.txt", "dist/../../outside.txt", "dist/.."}) {
+            Artifact artifact = createArtifact("outside.txt", remotePath, "outside");
+            try {
+                new BuildArtifactsDownloader(client, targetDir, new NullLog()).download(createBuild(
+                        createModule("generic", createArtifact("a.txt", "a.txt", "a"), artifact)), REPO);
+                fail("Expected a path outside of the target directory: " + remotePath);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("leads outside of the target directory"));
+            }
+        }
+        assertFalse(new File(temporaryFolder.getRoot(), "outside.txt").exists());
+        assertArrayEquals(new String[0], targetDir.list());
+        assertTrue(requests.isEmpty());
+        assertEquals(new File(targetDir, "dist/a.txt").getCanonicalFile(),
+                BuildArtifactsDownloader.getTargetFile(targetDir, "dist/../dist/./a.txt"));
+    }
+
+    private List<Dependency> download(Build build) throws IOException {
+        return new BuildArtifactsDownloader(client, temporaryFolder.getRoot(), new NullLog()).download(build, REPO);
+    }
+
+    private String read(String path) throws IOException {
+        return new String(Files.readAllBytes(new File(temporaryFolder.getRoot(), path).toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates an artifact, and adds its content to the repository.
+     */
+    private Artifact createArtifact(String name, String remotePath, String content) {
+        Artifact artifact = new ArtifactBuilder(name).remotePath(remotePath)
+                .sha1(DigestUtils.sha1Hex(content)).md5(DigestUtils.md5Hex(content)).build();
+        repository.put(REPO + "/" + (remotePath != null ? remotePath : "org/example/app/1.0/" + name), content.getBytes(StandardCharsets.UTF_8));
+        return artifact;
+    }
+
+    private static Module createModule(String id, Artifact... artifacts) {
+        return new ModuleBuilder().id(id).artifacts(Arrays.asList(artifacts)).build();
+    }
+
+    private static Build createBuild(Module... modules) {
+        return new BuildInfoBuilder("source-build").number("1").started("2020-01-01T00:00:00.000+0000").modules(Arrays.asList(modules)).build();
+    }
+}
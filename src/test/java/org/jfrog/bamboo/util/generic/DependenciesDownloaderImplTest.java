@@ -0,0 +1,148 @@
+package org.jfrog.bamboo.util.generic;
+
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.util.NullLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class DependenciesDownloaderImplTest {
+    private static final String[] NAMES = {"a", "ab", "a.txt", "ab.txt", "b", "b.jar", "lib", "lib-1.0.jar", "lib-1.0.jar.asc"};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(null, null, new NullLog());
+
+    @Test
+    public void shouldKeepResolvedFilesAndTheirParents() throws IOException {
+        File root = temporaryFolder.getRoot();
+        for (String path : new String[]{"libs/a.jar", "libs/b.jar", "libs/old.jar", "libs/nested/c.jar", "libs/stale/d.jar", "libs/empty"}) {
+            createFile(new File(root, path), path.endsWith("empty"));
+        }
+        Set<String> resolved = paths(root, "libs/a.jar", "libs/b.jar", "libs/nested/c.jar");
+
+        downloader.removeUnusedArtifactsFromLocal(resolved, paths(root, "libs/a.jar", "libs/b.jar"));
+
+        assertEquals(new HashSet<>(Arrays.asList("libs", "libs/a.jar", "libs/b.jar", "libs/nested", "libs/nested/c.jar",
+                "libs/stale", "libs/stale/d.jar")), listTree(root));
+    }
+
+    @Test
+    public void shouldMatchPrefixScanOnRandomTrees() throws IOException {
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            File expectedRoot = temporaryFolder.newFolder();
+            File actualRoot = temporaryFolder.newFolder();
+            List<String> tree = createRandomTree(random);
+            for (String path : tree) {
+                boolean directory = path.endsWith("/");
+                createFile(new File(expectedRoot, path), directory);
+                createFile(new File(actualRoot, path), directory);
+            }
+            List<String> files = tree.stream().filter(path -> !path.endsWith("/")).collect(Collectors.toList());
+            // Resolved files may not exist locally, and the files to delete are a subset of the resolved files
+            List<String> resolved = new ArrayList<>();
+            for (int j = random.nextInt(6); j >= 0; j--) {
+                resolved.add(random.nextInt(4) == 0 ? randomPath(random) : files.get(random.nextInt(files.size())));
+            }
+            List<String> forDeletion = resolved.stream().filter(path -> random.nextBoolean()).collect(Collectors.toList());
+
+            removeByPrefixScan(toSet(expectedRoot, resolved), toSet(expectedRoot, forDeletion));
+            downloader.removeUnusedArtifactsFromLocal(toSet(actualRoot, resolved), toSet(actualRoot, forDeletion));
+
+            assertEquals("Tree " + tree + ", resolved " + resolved + ", for deletion " + forDeletion,
+                    listTree(expectedRoot), listTree(actualRoot));
+        }
+    }
+
+    @Test
+    public void shouldFindResolvedFilesByPrefix() {
+        NavigableSet<String> resolved = new TreeSet<>(Arrays.asList("/w/libs/a.jar", "/w/libs/ab/c.jar", "/w/lib"));
+        assertTrue(DependenciesDownloaderImpl.isResolvedOrParentOfResolvedFile(resolved, "/w/libs/a.jar"));
+        assertTrue(DependenciesDownloaderImpl.isResolvedOrParentOfResolvedFile(resolved, "/w/libs"));
+        assertTrue(DependenciesDownloaderImpl.isResolvedOrParentOfResolvedFile(resolved, "/w/libs/ab"));
+        // Prefixes of a path name are kept as well
+        assertTrue(DependenciesDownloaderImpl.isResolvedOrParentOfResolvedFile(resolved, "/w/libs/a"));
+        assertFalse(DependenciesDownloaderImpl.isResolvedOrParentOfResolvedFile(resolved, "/w/libs/b.jar"));
+        assertFalse(DependenciesDownloaderImpl.isResolvedOrParentOfResolvedFile(resolved, "/w/libs/a.jar.asc"));
+        assertFalse(DependenciesDownloaderImpl.isResolvedOrParentOfResolvedFile(resolved, "/x"));
+    }
+
+    /**
+     * The cleanup before it was indexed, which scans all the resolved files for every local file.
+     */
+    private static void removeByPrefixScan(Set<String> allResolvesFiles, Set<String> forDeletionFiles) {
+        for (String resolvedFile : forDeletionFiles) {
+            File[] fileSiblings = new File(resolvedFile).getParentFile().listFiles();
+            if (fileSiblings == null) {
+                continue;
+            }
+            for (File sibling : fileSiblings) {
+                if (allResolvesFiles.stream().noneMatch(filePath -> StringUtils.equals(filePath, sibling.getPath()) ||
+                        StringUtils.startsWith(filePath, sibling.getPath()))) {
+                    sibling.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Up to 3 levels of files and directories whose names are prefixes of each other. Directories end with '/'.
+     */
+    private static List<String> createRandomTree(Random random) {
+        Set<String> tree = new LinkedHashSet<>();
+        for (int i = 3 + random.nextInt(20); i > 0; i--) {
+            String path = randomPath(random);
+            // A path can not be both a file and a directory
+            if (tree.stream().map(other -> StringUtils.removeEnd(other, "/")).noneMatch(other ->
+                    other.equals(path) || other.startsWith(path + "/") || path.startsWith(other + "/"))) {
+                tree.add(random.nextInt(5) == 0 ? path + "/" : path);
+            }
+        }
+        if (tree.stream().allMatch(path -> path.endsWith("/"))) {
+            tree.add("z.txt");
+        }
+        return new ArrayList<>(tree);
+    }
+
+    private static String randomPath(Random random) {
+        return Stream.generate(() -> NAMES[random.nextInt(NAMES.length)]).limit(1 + random.nextInt(3))
+                .collect(Collectors.joining("/"));
+    }
+
+    private static Set<String> toSet(File root, List<String> paths) {
+        return paths.stream().map(path -> new File(root, path).getPath()).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static Set<String> paths(File root, String... paths) {
+        return toSet(root, Arrays.asList(paths));
+    }
+
+    private static void createFile(File file, boolean directory) throws IOException {
+        if (directory) {
+            Files.createDirectories(file.toPath());
+        } else {
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.createFile(file.toPath());
+        }
+    }
+
+    private static Set<String> listTree(File root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            return paths.filter(path -> !path.equals(root.toPath()))
+                    .map(path -> root.toPath().relativize(path).toString().replace(File.separatorChar, '/'))
+                    .collect(Collectors.toSet());
+        }
+    }
+}
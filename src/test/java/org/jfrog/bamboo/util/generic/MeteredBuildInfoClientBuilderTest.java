@@ -0,0 +1,88 @@
+package org.jfrog.bamboo.util.generic;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jfrog.bamboo.metrics.TaskTraffic;
+import org.jfrog.bamboo.metrics.TrafficOperation;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MeteredBuildInfoClientBuilderTest {
+    private static final String REPO = "generic-local";
+    // Larger than the minimal size of a checksum deploy
+    private static final int SIZE = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final TaskTraffic traffic = new TaskTraffic(0);
+    private ArtifactoryStandIn artifactory;
+    private MeteredBuildInfoClientBuilder clientBuilder;
+
+    @Before
+    public void setUp() throws IOException {
+        artifactory = new ArtifactoryStandIn().withRepository(REPO).start();
+        clientBuilder = new MeteredBuildInfoClientBuilder();
+        clientBuilder.setArtifactoryUrl(artifactory.getUrl()).setUsername("").setPassword("").setLog(new NullLog());
+        clientBuilder.setTrafficRecorder(traffic);
+    }
+
+    @After
+    public void tearDown() {
+        artifactory.close();
+    }
+
+    @Test
+    public void shouldRecordEveryDeployRequest() throws IOException {
+        try (ArtifactoryBuildInfoClient client = clientBuilder.build()) {
+            // Uploaded once the checksum deploy is answered with 404, which is not a failure
+            client.deployArtifact(createDetails("first.bin", 0));
+            assertEquals(2, traffic.getRequests(TrafficOperation.DEPLOY));
+            assertEquals(0, traffic.getErrors(TrafficOperation.DEPLOY));
+            assertEquals(SIZE, traffic.getBytes(TrafficOperation.DEPLOY));
+
+            // Deployed by its checksum
+            client.deployArtifact(createDetails("second.bin", 0));
+            assertEquals(3, traffic.getRequests(TrafficOperation.DEPLOY));
+            assertEquals(0, traffic.getErrors(TrafficOperation.DEPLOY));
+            assertEquals(SIZE, traffic.getBytes(TrafficOperation.DEPLOY));
+        }
+    }
+
+    @Test
+    public void shouldRecordRejectedDeploy() throws IOException {
+        DeployDetails details = createDetails("rejected.bin", 1);
+        DeployDetails mismatch = new DeployDetails.Builder().file(details.getFile()).sha1(DigestUtils.sha1Hex("other"))
+                .md5(details.getMd5()).targetRepository(REPO).artifactPath("rejected.bin").build();
+        try (ArtifactoryBuildInfoClient client = clientBuilder.build()) {
+            client.deployArtifact(mismatch);
+            fail();
+        } catch (IOException expected) {
+            // The checksum deploy, and the upload rejected for its checksum
+            assertEquals(2, traffic.getRequests(TrafficOperation.DEPLOY));
+            assertEquals(1, traffic.getErrors(TrafficOperation.DEPLOY));
+        }
+    }
+
+    private DeployDetails createDetails(String path, int seed) throws IOException {
+        byte[] content = new byte[SIZE];
+        new Random(seed).nextBytes(content);
+        File file = temporaryFolder.newFile(path);
+        Files.write(file.toPath(), content);
+        return new DeployDetails.Builder().file(file).sha1(DigestUtils.sha1Hex(content)).md5(DigestUtils.md5Hex(content))
+                .targetRepository(REPO).artifactPath(path).build();
+    }
+}
@@ -0,0 +1,72 @@
+package org.jfrog.bamboo.util.generic;
+
+import com.google.common.collect.Sets;
+import org.jfrog.bamboo.metrics.TaskTraffic;
+import org.jfrog.bamboo.metrics.TrafficOperation;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.dependency.pattern.PatternType;
+import org.jfrog.build.api.util.NullLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MeteredDependenciesClientTest {
+    private static final String REPO = "generic-local";
+    private static final String PATH = "sdk/bundle.zip";
+    // Larger than the minimal size of the concurrent download of the build-info helper
+    private static final int SIZE = 6 * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final TaskTraffic traffic = new TaskTraffic(0);
+    private ArtifactoryStandIn artifactory;
+    private MeteredDependenciesClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        byte[] content = new byte[SIZE];
+        new Random(SIZE).nextBytes(content);
+        artifactory = new ArtifactoryStandIn().withRepository(REPO).addFile(REPO, PATH, content, null).start();
+        client = new MeteredDependenciesClient(artifactory.getUrl(), "", "", new NullLog(), traffic);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        artifactory.close();
+    }
+
+    @Test
+    public void shouldRecordEveryRangeRequest() throws IOException {
+        DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(client, temporaryFolder.newFolder(), new NullLog());
+        downloader.setSegmentedDownloadThreshold(SIZE);
+        downloader.download(Sets.newHashSet(new DownloadableArtifact(artifactory.getUrl() + "/" + REPO, "", PATH, "",
+                "sdk/*", PatternType.NORMAL)));
+
+        // The segments are read up to their length and their content is not closed, the metadata request is not recorded
+        assertEquals(SegmentedDownloader.SEGMENTS, traffic.getRequests(TrafficOperation.DOWNLOAD));
+        assertEquals(0, traffic.getErrors(TrafficOperation.DOWNLOAD));
+        assertEquals(SIZE, traffic.getBytes(TrafficOperation.DOWNLOAD));
+    }
+
+    @Test
+    public void shouldRecordFailedDownload() throws IOException {
+        try {
+            client.downloadArtifact(artifactory.getUrl() + "/" + REPO + "/missing.zip");
+            fail();
+        } catch (FileNotFoundException expected) {
+            assertEquals(1, traffic.getRequests(TrafficOperation.DOWNLOAD));
+            assertEquals(1, traffic.getErrors(TrafficOperation.DOWNLOAD));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.jfrog.bamboo.util.generic;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.jfrog.build.extractor.clientConfiguration.util.PatternFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ResolvePatternsPlannerTest {
+    private static final Pattern AQL_REPO = Pattern.compile("items\\.find\\(\\{\"repo\":\"([^\"]+)\"");
+
+    // Files by repository
+    private final Map<String, List<String>> repositories = new HashMap<>();
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    // Requests wait for each other until the latch is released, to verify the searches are concurrent
+    private CountDownLatch concurrentRequests = new CountDownLatch(0);
+    private HttpServer server;
+    private ArtifactoryDependenciesClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(ResolvePatternsPlanner.SEARCH_THREADS));
+        // A stand-in for the AQL search, returning every file of the repository. The planner matches the results
+        // against the patterns, so the results of the stand-in are the same as of the real search.
+        server.createContext("/artifactory/", exchange -> {
+            String body = IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+            requests.add(exchange.getRequestURI().getPath());
+            concurrentRequests.countDown();
+            try {
+                concurrentRequests.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Matcher matcher = AQL_REPO.matcher(body);
+            if (!exchange.getRequestURI().getPath().endsWith("/api/search/aql") || !matcher.find()) {
+                exchange.sendResponseHeaders(400, -1);
+                exchange.close();
+                return;
+            }
+            String repo = matcher.group(1);
+            String results = repositories.getOrDefault(repo, Collections.emptyList()).stream()
+                    .map(file -> "{\"repo\":\"" + repo + "\",\"path\":\"" + (file.contains("/") ? StringUtils.substringBeforeLast(file, "/") : ".") +
+                            "\",\"name\":\"" + StringUtils.substringAfterLast("/" + file, "/") + "\",\"actual_sha1\":\"" + file.hashCode() + "\"}")
+                    .collect(Collectors.joining(",", "{\"results\":[", "]}"));
+            byte[] response = results.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+            exchange.close();
+        });
+        server.start();
+        client = new ArtifactoryDependenciesClient("http://localhost:" + server.getAddress().getPort() + "/artifactory", "", "", new NullLog());
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldMergePatternsOfRepositoryIntoOneQuery() throws IOException {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            addFiles("libs-a", "dir" + i + "/a.zip", "dir" + i + "/b.zip", "dir" + i + "/c.txt", "dir" + i + "/sub/d.zip");
+            patterns.add("libs-a:dir" + i + "/*.zip");
+        }
+        for (int i = 0; i < 20; i++) {
+            addFiles("libs-b", "dir" + i + "/file.txt");
+            patterns.add("libs-b:dir" + i + "/file.txt=>target");
+        }
+
+        Set<DownloadableArtifact> artifacts = collect(patterns);
+        assertEquals(Arrays.asList("/artifactory/api/search/aql", "/artifactory/api/search/aql"), requests);
+        // Wildcards do not match across directories
+        assertEquals(30 * 2 + 20, artifacts.size());
+        assertTrue(artifacts.stream().noneMatch(artifact -> artifact.getFilePath().contains("/sub/")));
+        DownloadableArtifact artifact = artifacts.stream().filter(a -> a.getFilePath().equals("dir3/file.txt")).findFirst().get();
+        assertEquals(client.getArtifactoryUrl() + "/libs-b", artifact.getRepoUrl());
+        assertEquals("target", artifact.getTargetDirPath());
+    }
+
+    @Test
+    public void shouldRunQueriesConcurrently() throws IOException {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < ResolvePatternsPlanner.MAX_PATTERNS_PER_QUERY * 2 + 1; i++) {
+            addFiles("libs-a", "dir" + i + "/a.zip");
+            patterns.add("libs-a:dir" + i + "/*.zip");
+        }
+        concurrentRequests = new CountDownLatch(ResolvePatternsPlanner.SEARCH_THREADS);
+        assertEquals(patterns.size(), collect(patterns).size());
+        assertEquals(3, requests.size());
+        assertEquals("Queries should run concurrently", 0, concurrentRequests.getCount());
+    }
+
+    @Test
+    public void shouldDeduplicateArtifactsOfSameTarget() throws IOException {
+        // dir/*.zip and dir/a.* download dir/a.zip to the same target
+        addFiles("libs-a", "dir/a.zip", "dir/b.zip");
+        Set<DownloadableArtifact> artifacts = collect(Arrays.asList("libs-a:dir/*.zip", "libs-a:dir/a.zip", "libs-a:dir/a.*", "libs-a:dir/a.zip=>other"));
+        assertEquals(1, requests.size());
+        // The path under the target directory starts at the first wildcard of the pattern
+        List<String> targets = artifacts.stream().map(artifact -> artifact.getTargetDirPath() + ":" + artifact.getRelativeDirPath())
+                .sorted().collect(Collectors.toList());
+        assertEquals(Arrays.asList(":a.zip", ":b.zip", ":dir/a.zip", "other:dir/a.zip"), targets);
+    }
+
+    @Test
+    public void shouldCreateMergedQuery() {
+        String aql = ResolvePatternsPlanner.createAql("libs-a", Arrays.asList(
+                PatternFactory.create("libs-a:a/b/*.zip"), PatternFactory.create("libs-a:*.txt")));
+        assertEquals("items.find({\"repo\":\"libs-a\",\"$or\":[" +
+                "{\"$and\":[{\"path\":{\"$match\":\"a/b\"}},{\"name\":{\"$match\":\"*.zip\"}}]}," +
+                "{\"$and\":[{\"path\":{\"$match\":\".\"}},{\"name\":{\"$match\":\"*.txt\"}}]}" +
+                "]}).include(\"repo\",\"path\",\"name\",\"actual_sha1\")", aql);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRecursiveWildcardWithoutMatrixParams() throws IOException {
+        collect(Collections.singletonList("libs-a:dir/**/*.zip"));
+    }
+
+    private Set<DownloadableArtifact> collect(List<String> patterns) throws IOException {
+        return new ResolvePatternsPlanner(client, new NullLog()).collectArtifactsToDownload(patterns);
+    }
+
+    private void addFiles(String repo, String... files) {
+        repositories.computeIfAbsent(repo, key -> new ArrayList<>()).addAll(Arrays.asList(files));
+    }
+}
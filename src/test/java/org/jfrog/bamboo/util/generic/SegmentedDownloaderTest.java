@@ -0,0 +1,164 @@
+package org.jfrog.bamboo.util.generic;
+
+import com.google.common.collect.Sets;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.dependency.pattern.PatternType;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SegmentedDownloaderTest {
+    private static final String REPO = "generic-local";
+    private static final String PATH = "sdk/bundle.zip";
+    // Larger than the minimal size of the concurrent download of the build-info helper
+    private static final int SIZE = 6 * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final byte[] content = createContent();
+    private ArtifactoryStandIn artifactory;
+    private ArtifactoryDependenciesClient client;
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        artifactory.close();
+    }
+
+    @Test
+    public void shouldDownloadLargeFileAsConcurrentRanges() throws IOException {
+        // Each segment takes about half a second, so the segments are downloaded at the same time
+        start(new ArtifactoryStandIn().withBandwidth(SIZE / 2));
+
+        long singleStart = System.nanoTime();
+        File singleFile = download(Long.MAX_VALUE);
+        long singleNanos = System.nanoTime() - singleStart;
+        // The metadata and the download of the whole file
+        assertEquals(2, artifactory.getRequestCount(ArtifactoryStandIn.Endpoint.DOWNLOAD));
+        assertTrue(artifactory.getDownloadRanges().isEmpty());
+
+        artifactory.resetCounters();
+        long segmentedStart = System.nanoTime();
+        File segmentedFile = download(SIZE);
+        long segmentedNanos = System.nanoTime() - segmentedStart;
+
+        assertArrayEquals(content, Files.readAllBytes(singleFile.toPath()));
+        assertArrayEquals(content, Files.readAllBytes(segmentedFile.toPath()));
+        assertEquals(1 + SegmentedDownloader.SEGMENTS, artifactory.getRequestCount(ArtifactoryStandIn.Endpoint.DOWNLOAD));
+        assertEquals(SegmentedDownloader.SEGMENTS, artifactory.getMaxConcurrentRequests(ArtifactoryStandIn.Endpoint.DOWNLOAD));
+        Set<String> expectedRanges = new HashSet<>();
+        int segmentSize = SIZE / SegmentedDownloader.SEGMENTS;
+        for (int i = 0; i < SegmentedDownloader.SEGMENTS; i++) {
+            expectedRanges.add("bytes=" + i * segmentSize + "-" + ((i + 1) * segmentSize - 1));
+        }
+        assertEquals(SegmentedDownloader.SEGMENTS, artifactory.getDownloadRanges().size());
+        assertEquals(expectedRanges, new HashSet<>(artifactory.getDownloadRanges()));
+        // Every byte is sent once
+        assertEquals(SIZE, artifactory.getBytesSent());
+        assertArrayEquals(new String[]{"bundle.zip"}, segmentedFile.getParentFile().list());
+        writeReport(String.format("Segmented download of %d bytes: single connection %dms, %d segments %dms",
+                SIZE, TimeUnit.NANOSECONDS.toMillis(singleNanos), SegmentedDownloader.SEGMENTS,
+                TimeUnit.NANOSECONDS.toMillis(segmentedNanos)));
+    }
+
+    @Test
+    public void shouldResumeTruncatedSegment() throws IOException {
+        start(new ArtifactoryStandIn().truncateDownloads(1));
+        File file = temporaryFolder.newFile();
+        TransferProgress progress = new TransferProgress("Downloading", "Downloaded", 1, SIZE, new NullLog());
+
+        assertTrue(new SegmentedDownloader(client, new NullLog()).download(getUrl(), SIZE, file, progress));
+        progress.close();
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(SegmentedDownloader.SEGMENTS + 1, artifactory.getRequestCount(ArtifactoryStandIn.Endpoint.DOWNLOAD));
+        assertEquals(SIZE, progress.getBytes());
+        assertEquals(1, progress.getCompletedFiles());
+    }
+
+    @Test
+    public void shouldFailAfterSegmentRetries() throws IOException {
+        start(new ArtifactoryStandIn().truncateDownloads(SegmentedDownloader.MAX_SEGMENT_ATTEMPTS));
+        try {
+            new SegmentedDownloader(client, new NullLog(), 1).download(getUrl(), SIZE, temporaryFolder.newFile(), null);
+            fail();
+        } catch (IOException expected) {
+            assertEquals(SegmentedDownloader.MAX_SEGMENT_ATTEMPTS, artifactory.getRequestCount(ArtifactoryStandIn.Endpoint.DOWNLOAD));
+        }
+    }
+
+    @Test
+    public void shouldFallBackToSingleConnectionWithoutRangeSupport() throws IOException {
+        start(new ArtifactoryStandIn().ignoreRanges());
+        File file = temporaryFolder.newFile();
+        assertFalse(new SegmentedDownloader(client, new NullLog()).download(getUrl(), SIZE, file, null));
+        assertEquals(0, file.length());
+
+        File downloaded = download(SIZE);
+        assertArrayEquals(content, Files.readAllBytes(downloaded.toPath()));
+        // The metadata, the range request answered with the whole file, and the download over a single connection
+        assertEquals(1 + 3, artifactory.getRequestCount(ArtifactoryStandIn.Endpoint.DOWNLOAD));
+    }
+
+    private void start(ArtifactoryStandIn standIn) throws IOException {
+        artifactory = standIn.withRepository(REPO).addFile(REPO, PATH, content, null).start();
+        client = new ArtifactoryDependenciesClient(artifactory.getUrl(), "", "", new NullLog());
+    }
+
+    /**
+     * Downloads the file by a legacy resolve pattern into a new working directory.
+     */
+    private File download(long segmentedDownloadThresholdBytes) throws IOException {
+        File workingDirectory = temporaryFolder.newFolder();
+        DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(client, workingDirectory, new NullLog());
+        downloader.setSegmentedDownloadThreshold(segmentedDownloadThresholdBytes);
+        List<Dependency> dependencies = downloader.download(Sets.newHashSet(new DownloadableArtifact(artifactory.getUrl() + "/" + REPO,
+                "", PATH, "", "sdk/*", PatternType.NORMAL)));
+        assertEquals(1, dependencies.size());
+        // Downloaded relative to the pattern
+        return new File(workingDirectory, "bundle.zip");
+    }
+
+    /**
+     * Writes the measured download times to target/segmented-download-report.txt. The times depend on the machine,
+     * so they are reported rather than asserted.
+     */
+    private static void writeReport(String line) throws IOException {
+        File target = new File("target");
+        if (target.isDirectory()) {
+            Files.write(new File(target, "segmented-download-report.txt").toPath(),
+                    Collections.singletonList(line), StandardCharsets.UTF_8);
+        }
+    }
+
+    private String getUrl() {
+        return artifactory.getUrl() + "/" + REPO + "/" + PATH;
+    }
+
+    private static byte[] createContent() {
+        byte[] content = new byte[SIZE];
+        new Random(SIZE).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,178 @@
+package org.jfrog.bamboo.util.generic;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.jfrog.bamboo.standin.ArtifactoryStandIn;
+import org.jfrog.build.api.Dependency;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryBuildInfoClient;
+import org.jfrog.build.extractor.clientConfiguration.client.ArtifactoryDependenciesClient;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.SpecsHelper;
+import org.jfrog.build.extractor.clientConfiguration.util.spec.validator.SearchBasedSpecValidator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TransferProgressTest {
+    private static final String REPO = "generic-local";
+    private static final int SIZE = 512 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<String> lines = new CopyOnWriteArrayList<>();
+    private final NullLog log = new NullLog() {
+        @Override
+        public void info(String message) {
+            lines.add(message);
+        }
+    };
+    private ArtifactoryStandIn artifactory;
+
+    @Before
+    public void setUp() throws IOException {
+        artifactory = new ArtifactoryStandIn().withRepository(REPO).addFile(REPO, "large.bin", new byte[SIZE], null)
+                .withBandwidth(SIZE).start();
+    }
+
+    @After
+    public void tearDown() {
+        artifactory.close();
+    }
+
+    @Test
+    public void shouldReportProgressOfThrottledDownload() throws IOException {
+        ArtifactoryDependenciesClient client = new ArtifactoryDependenciesClient(artifactory.getUrl(), "", "", new NullLog());
+        try (TransferProgress progress = new TransferProgress("Downloading", "Downloaded", 1, -1, log, 100);
+             CloseableHttpResponse response = client.downloadArtifact(artifactory.getUrl() + "/" + REPO + "/large.bin");
+             InputStream inputStream = progress.track(response.getEntity().getContent(), response.getEntity().getContentLength())) {
+            IOUtils.copyLarge(inputStream, new NullOutputStream());
+            assertEquals(SIZE, progress.getBytes());
+        }
+
+        List<String> progressLines = lines.stream().filter(line -> line.startsWith("Downloading: ")).collect(Collectors.toList());
+        assertTrue("Progress lines: " + progressLines, progressLines.size() >= 3);
+        // The length of the single file is known once its download starts
+        assertTrue(progressLines.toString(), progressLines.stream().anyMatch(line ->
+                line.contains(" KB done, ") && line.contains(", ETA ") && line.endsWith(", 0/1 files, 1 in flight")));
+        String summary = lines.get(lines.size() - 1);
+        assertTrue(summary, summary.startsWith("Downloaded 1 files, 512.0 KB in "));
+        assertTrue(summary, summary.contains(". File transfer time p50 "));
+        assertEquals(SIZE, artifactory.getBytesSent());
+    }
+
+    @Test
+    public void shouldReportProgressOfThrottledDeploy() throws IOException {
+        byte[] content = new byte[SIZE];
+        new Random(0).nextBytes(content);
+        File file = temporaryFolder.newFile("deployed.bin");
+        Files.write(file.toPath(), content);
+        DeployDetails details = new DeployDetails.Builder().file(file).sha1(DigestUtils.sha1Hex(content))
+                .md5(DigestUtils.md5Hex(content)).targetRepository(REPO).artifactPath("deployed.bin").build();
+        MeteredBuildInfoClientBuilder clientBuilder = new MeteredBuildInfoClientBuilder();
+        clientBuilder.setArtifactoryUrl(artifactory.getUrl()).setUsername("").setPassword("").setLog(new NullLog());
+        try (TransferProgress progress = new TransferProgress("Deploying", "Deployed", 1, SIZE, log, 100);
+             ArtifactoryBuildInfoClient client = clientBuilder.build()) {
+            clientBuilder.setProgress(progress);
+            client.deployArtifact(details);
+            assertEquals(SIZE, progress.getBytes());
+            assertEquals(1, progress.getCompletedFiles());
+        }
+
+        // The bytes are counted as the file is uploaded, rather than once it is deployed
+        List<String> progressLines = lines.stream().filter(line -> line.startsWith("Deploying: ")).collect(Collectors.toList());
+        assertTrue(progressLines.toString(), progressLines.stream().anyMatch(line ->
+                line.contains(" KB done, ") && line.endsWith(", 0/1 files, 1 in flight")));
+        String summary = lines.get(lines.size() - 1);
+        assertTrue(summary, summary.startsWith("Deployed 1 files, 512.0 KB in "));
+        assertArrayEquals(content, artifactory.getFile(REPO, "deployed.bin"));
+    }
+
+    @Test
+    public void shouldReportProgressOfSpecDownload() throws IOException {
+        ArtifactoryDependenciesClient client = new ArtifactoryDependenciesClient(artifactory.getUrl(), "", "", new NullLog());
+        DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(client, temporaryFolder.getRoot(), log);
+        String spec = "{\"files\": [{\"pattern\": \"" + REPO + "/large.bin\", \"target\": \"downloaded/\"}]}";
+
+        List<Dependency> dependencies = downloader.download(new SpecsHelper(new NullLog()).getSpecFromString(spec, new SearchBasedSpecValidator()));
+
+        assertEquals(1, dependencies.size());
+        assertEquals(SIZE, new File(temporaryFolder.getRoot(), "downloaded/large.bin").length());
+        // The number of files is only known to the helper, once it has searched for them
+        assertTrue(lines.toString(), lines.stream().anyMatch(line -> line.startsWith("Downloaded 1 files, 512.0 KB in ")));
+    }
+
+    @Test
+    public void shouldSummarizeUploadsAndFailures() {
+        TransferProgress progress = new TransferProgress("Deploying", "Deployed", 3, 3000, log);
+        progress.fileCompleted(progress.fileStarted(), 1000);
+        progress.fileCompleted(progress.fileStarted(), 2000);
+        progress.fileFailed(progress.fileStarted());
+        progress.report();
+        progress.close();
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0), lines.get(0).startsWith("Deploying: 2.9 KB done, "));
+        assertTrue(lines.get(0), lines.get(0).endsWith(", 3/3 files, 0 in flight"));
+        assertTrue(lines.get(1), lines.get(1).startsWith("Deployed 2 files, 2.9 KB in "));
+        assertTrue(lines.get(1), lines.get(1).endsWith(" 1 files failed."));
+    }
+
+    @Test
+    public void shouldCompleteStreamOnceAndFailOnReadError() throws IOException {
+        TransferProgress progress = new TransferProgress("Downloading", "Downloaded", 2, -1, log);
+        InputStream inputStream = progress.track(new ByteArrayInputStream(new byte[10]), 10);
+        assertEquals(10, IOUtils.toByteArray(inputStream).length);
+        inputStream.close();
+        inputStream.close();
+        InputStream failing = progress.track(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        }, -1);
+        try {
+            failing.read();
+            fail();
+        } catch (IOException expected) {
+            failing.close();
+        }
+        progress.close();
+
+        assertEquals(2, progress.getCompletedFiles());
+        assertEquals(10, progress.getBytes());
+        assertTrue(lines.get(0), lines.get(0).startsWith("Downloaded 1 files, 10 B in "));
+        assertTrue(lines.get(0), lines.get(0).endsWith(" 1 files failed."));
+    }
+
+    @Test
+    public void shouldFormatPercentilesAndSizes() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertEquals(50, TransferProgress.getPercentile(sorted, 50));
+        assertEquals(99, TransferProgress.getPercentile(sorted, 99));
+        assertEquals(7, TransferProgress.getPercentile(new long[]{7}, 99));
+        assertEquals("1.5 GB", TransferProgress.formatBytes(1536L * 1024 * 1024));
+        assertEquals("1m 05s", TransferProgress.formatDuration(65_000_000_000L));
+        assertEquals("2h 01m", TransferProgress.formatDuration(7_260_000_000_000L));
+    }
+}
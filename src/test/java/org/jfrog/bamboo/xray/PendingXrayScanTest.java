@@ -0,0 +1,91 @@
+package org.jfrog.bamboo.xray;
+
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class PendingXrayScanTest {
+
+    @Test
+    public void shouldNotBlockWhileScanning() throws Exception {
+        XrayScanManager manager = new XrayScanManager();
+        ArtifactoryXrayResponse expected = new ArtifactoryXrayResponse();
+        PendingXrayScan scan = new PendingXrayScan("build", "1", true, 10L, 10000L);
+
+        // Simulates a long Xray scan, which only completes once released. A blocking submit would never return.
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        manager.submit("PROJ-PLAN-JOB1-1", scan, () -> {
+            started.countDown();
+            release.await();
+            return expected;
+        });
+        started.await();
+        assertFalse(scan.isDone());
+
+        List<PendingXrayScan> pendingScans = manager.removePendingScans("PROJ-PLAN-JOB1-1");
+        assertEquals(1, pendingScans.size());
+        assertTrue(manager.removePendingScans("PROJ-PLAN-JOB1-1").isEmpty());
+        release.countDown();
+        assertSame(expected, pendingScans.get(0).await(new NullLog()));
+        assertTrue(scan.isDone());
+    }
+
+    @Test
+    public void shouldCancelScanOnTimeout() throws Exception {
+        XrayScanManager manager = new XrayScanManager();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        PendingXrayScan scan = new PendingXrayScan("build", "1", true, 10L, 200L);
+        manager.submit("PROJ-PLAN-JOB1-1", scan, () -> {
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        try {
+            scan.await(new NullLog());
+            fail("Expected the scan to time out");
+        } catch (TimeoutException e) {
+            // Expected
+        }
+        interrupted.await();
+        assertTrue(scan.isDone());
+    }
+
+    @Test
+    public void shouldDropExpiredScansOfJobsNeverCompleted() throws Exception {
+        XrayScanManager manager = new XrayScanManager();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        // The job was stopped before its scans were collected
+        PendingXrayScan abandoned = new PendingXrayScan("build", "1", true, 10L, 0L);
+        manager.submit("PROJ-PLAN-JOB1-1", abandoned, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        // A scan cancelled before it started is never interrupted
+        started.await();
+        while (!abandoned.isExpired()) {
+            Thread.sleep(1);
+        }
+
+        manager.submit("PROJ-PLAN-JOB1-2", new PendingXrayScan("build", "2", true, 10L, 10000L), ArtifactoryXrayResponse::new);
+
+        assertEquals(1, manager.getPendingJobs());
+        assertTrue(manager.removePendingScans("PROJ-PLAN-JOB1-1").isEmpty());
+        interrupted.await();
+    }
+}
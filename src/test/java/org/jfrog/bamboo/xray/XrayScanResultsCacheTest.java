@@ -0,0 +1,111 @@
+package org.jfrog.bamboo.xray;
+
+import org.jfrog.build.api.Build;
+import org.jfrog.build.api.builder.ArtifactBuilder;
+import org.jfrog.build.api.builder.BuildInfoBuilder;
+import org.jfrog.build.api.builder.DependencyBuilder;
+import org.jfrog.build.api.builder.ModuleBuilder;
+import org.jfrog.build.client.artifactoryXrayResponse.ArtifactoryXrayResponse;
+import org.jfrog.build.client.artifactoryXrayResponse.Summary;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class XrayScanResultsCacheTest {
+    private static final String XRAY_URL = "http://localhost:8081/artifactory";
+    private static final long MAX_AGE = TimeUnit.HOURS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldIgnoreBuildNameNumberAndOrder() {
+        Build build = createBuild("build", "1", "module-a", "module-b");
+        Build rerun = createBuild("other-build", "2", "module-b", "module-a");
+        assertNotNull(BuildContentFingerprint.compute(build));
+        assertEquals(BuildContentFingerprint.compute(build), BuildContentFingerprint.compute(rerun));
+    }
+
+    @Test
+    public void shouldDetectContentChanges() {
+        Build build = createBuild("build", "1", "module-a");
+        Build changed = new BuildInfoBuilder("build").number("2").started("2020-01-01T00:00:00.000+0000")
+                .addModule(new ModuleBuilder().id("module-a")
+                        .addArtifact(new ArtifactBuilder("module-a.jar").sha1("module-a-changed-sha1").build())
+                        .addDependency(new DependencyBuilder().id("dependency").sha1("dependency-sha1").build())
+                        .build())
+                .build();
+        assertNotEquals(BuildContentFingerprint.compute(build), BuildContentFingerprint.compute(changed));
+    }
+
+    @Test
+    public void shouldNotFingerprintFilesWithoutChecksums() {
+        Build build = new BuildInfoBuilder("build").number("1").started("2020-01-01T00:00:00.000+0000")
+                .addModule(new ModuleBuilder().id("module-a")
+                        .addArtifact(new ArtifactBuilder("module-a.jar").build())
+                        .build())
+                .build();
+        assertNull(BuildContentFingerprint.compute(build));
+        assertNull(BuildContentFingerprint.compute(new BuildInfoBuilder("build").number("1")
+                .started("2020-01-01T00:00:00.000+0000").build()));
+    }
+
+    @Test
+    public void shouldReuseStoredScanResults() {
+        File cacheFile = new File(temporaryFolder.getRoot(), "cache.properties");
+        XrayScanResultsCache cache = new XrayScanResultsCache(cacheFile);
+        String fingerprint = BuildContentFingerprint.compute(createBuild("build", "1", "module-a"));
+        assertNull(cache.get(XRAY_URL, "build", fingerprint, MAX_AGE));
+
+        // Simulates a vulnerable scan result returned by Xray
+        Summary summary = new Summary(3, true, "Build build 1 was found vulnerable", XRAY_URL + "/ui/details");
+        cache.put(XRAY_URL, "build", fingerprint, "1", new ArtifactoryXrayResponse(summary, new ArrayList<>(), new ArrayList<>()));
+
+        // Read by another agent JVM
+        XrayScanResultsCache.CachedScanResult cached = new XrayScanResultsCache(cacheFile).get(XRAY_URL, "build", fingerprint, MAX_AGE);
+        assertNotNull(cached);
+        assertEquals("build", cached.getBuildName());
+        assertEquals("1", cached.getBuildNumber());
+        Summary cachedSummary = cached.getResponse().getSummary();
+        assertTrue(cachedSummary.isFailBuild());
+        assertEquals(3, cachedSummary.getTotalAlerts());
+        assertEquals(summary.getMessage(), cachedSummary.getMessage());
+        assertEquals(summary.getMoreDetailsUrl(), cachedSummary.getMoreDetailsUrl());
+
+        // Another Xray server, or an expired result
+        assertNull(cache.get("http://other:8081/artifactory", "build", fingerprint, MAX_AGE));
+        assertNull(cache.get(XRAY_URL, "build", fingerprint, -1));
+    }
+
+    @Test
+    public void shouldNotReuseScanResultsOfAnotherBuildName() {
+        File cacheFile = new File(temporaryFolder.getRoot(), "cache.properties");
+        XrayScanResultsCache cache = new XrayScanResultsCache(cacheFile);
+        String fingerprint = BuildContentFingerprint.compute(createBuild("build", "1", "module-a"));
+        Summary summary = new Summary(0, false, "No vulnerabilities found", XRAY_URL + "/ui/details");
+        cache.put(XRAY_URL, "build", fingerprint, "1", new ArtifactoryXrayResponse(summary, new ArrayList<>(), new ArrayList<>()));
+
+        // The same content published under another build name may be watched by other Xray policies
+        assertEquals(fingerprint, BuildContentFingerprint.compute(createBuild("other-build", "1", "module-a")));
+        assertNull(cache.get(XRAY_URL, "other-build", fingerprint, MAX_AGE));
+        assertNull(new XrayScanResultsCache(cacheFile).get(XRAY_URL, "other-build", fingerprint, MAX_AGE));
+        assertNotNull(cache.get(XRAY_URL, "build", fingerprint, MAX_AGE));
+    }
+
+    private static Build createBuild(String name, String number, String... modules) {
+        BuildInfoBuilder builder = new BuildInfoBuilder(name).number(number).started("2020-01-01T00:00:00.000+0000");
+        for (String module : modules) {
+            builder.addModule(new ModuleBuilder().id(module)
+                    .addArtifact(new ArtifactBuilder(module + ".jar").sha1(module + "-sha1").build())
+                    .addDependency(new DependencyBuilder().id("dependency").sha1("dependency-sha1").build())
+                    .build());
+        }
+        return builder.build();
+    }
+}